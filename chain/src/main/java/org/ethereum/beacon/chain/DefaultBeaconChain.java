@@ -4,9 +4,11 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.ethereum.beacon.chain.storage.BeaconChainStorage;
 import org.ethereum.beacon.chain.storage.BeaconTupleStorage;
+import org.ethereum.beacon.chain.storage.util.StoragePruner;
 import org.ethereum.beacon.consensus.BeaconChainSpec;
 import org.ethereum.beacon.consensus.BeaconStateEx;
 import org.ethereum.beacon.consensus.BlockTransition;
+import org.ethereum.beacon.consensus.transition.BeaconStateExImpl;
 import org.ethereum.beacon.consensus.transition.EmptySlotTransition;
 import org.ethereum.beacon.consensus.verifier.BeaconBlockVerifier;
 import org.ethereum.beacon.consensus.verifier.BeaconStateVerifier;
@@ -15,16 +17,29 @@ import org.ethereum.beacon.core.BeaconBlock;
 import org.ethereum.beacon.core.BeaconState;
 import org.ethereum.beacon.core.state.Checkpoint;
 import org.ethereum.beacon.core.types.SlotNumber;
+import org.ethereum.beacon.schedulers.Scheduler;
 import org.ethereum.beacon.schedulers.Schedulers;
 import org.ethereum.beacon.stream.SimpleProcessor;
 import org.reactivestreams.Publisher;
 import tech.pegasys.artemis.ethereum.core.Hash32;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
+/**
+ * Default chain implementation.
+ *
+ * <p>Thread safety: blocks may be inserted concurrently, transitions run on the caller thread and
+ * storage is updated under the chain's monitor. Block signatures are verified on {@code cpuHeavy}
+ * scheduler concurrently with the block transition; the verifier gets its own copy of the
+ * pre-block state, copying a state doesn't modify the source state.
+ */
 public class DefaultBeaconChain implements MutableBeaconChain {
   private static final Logger logger = LogManager.getLogger(DefaultBeaconChain.class);
 
@@ -40,7 +55,11 @@ public class DefaultBeaconChain implements MutableBeaconChain {
   private final SimpleProcessor<BeaconTupleDetails> blockStream;
   private final Schedulers schedulers;
 
-  private BeaconTuple recentlyProcessed;
+  private final StoragePruner pruner;
+  private final Scheduler storageScheduler;
+  private final Scheduler verificationScheduler;
+
+  private volatile BeaconTuple recentlyProcessed;
 
   public DefaultBeaconChain(
       BeaconChainSpec spec,
@@ -50,6 +69,33 @@ public class DefaultBeaconChain implements MutableBeaconChain {
       BeaconStateVerifier stateVerifier,
       BeaconChainStorage chainStorage,
       Schedulers schedulers) {
+    this(
+        spec,
+        preBlockTransition,
+        blockTransition,
+        blockVerifier,
+        stateVerifier,
+        chainStorage,
+        schedulers,
+        null);
+  }
+
+  /**
+   * Creates a chain which prunes its storage in background each time finalized checkpoint is
+   * updated. Finalized blocks are archived in background as well, if block storage keeps an
+   * archive.
+   *
+   * @param pruner storage pruner, {@code null} disables pruning.
+   */
+  public DefaultBeaconChain(
+      BeaconChainSpec spec,
+      EmptySlotTransition preBlockTransition,
+      BlockTransition<BeaconStateEx> blockTransition,
+      BeaconBlockVerifier blockVerifier,
+      BeaconStateVerifier stateVerifier,
+      BeaconChainStorage chainStorage,
+      Schedulers schedulers,
+      StoragePruner pruner) {
     this.spec = spec;
     this.preBlockTransition = preBlockTransition;
     this.blockTransition = blockTransition;
@@ -58,6 +104,9 @@ public class DefaultBeaconChain implements MutableBeaconChain {
     this.chainStorage = chainStorage;
     this.tupleStorage = chainStorage.getTupleStorage();
     this.schedulers = schedulers;
+    this.pruner = pruner;
+    this.storageScheduler = schedulers.newSingleThreadDaemon("chain-storage-maintenance");
+    this.verificationScheduler = schedulers.cpuHeavy();
 
     blockStream = new SimpleProcessor<>(schedulers.events(), "DefaultBeaconChain.block");
   }
@@ -67,26 +116,65 @@ public class DefaultBeaconChain implements MutableBeaconChain {
     if (tupleStorage.isEmpty()) {
       throw new IllegalStateException("Couldn't start from empty storage");
     }
-    this.recentlyProcessed = fetchRecentTuple();
+    Hash32 finalizedRoot = checkCheckpointBlocks();
+    this.recentlyProcessed = fetchRecentTuple(finalizedRoot);
+    chainStorage.getBlockStorage().onFinalized(finalizedRoot);
+    scheduleArchiving();
     blockStream.onNext(new BeaconTupleDetails(recentlyProcessed));
   }
 
-  private BeaconTuple fetchRecentTuple() {
+  /**
+   * Checks that blocks of stored checkpoints are present. Storages are committed atomically, a
+   * missing block means that storage is broken rather than a commit was interrupted by a crash.
+   *
+   * @return finalized root.
+   */
+  private Hash32 checkCheckpointBlocks() {
+    Checkpoint finalized = chainStorage.getFinalizedStorage().get().get();
+    Checkpoint justified = chainStorage.getJustifiedStorage().get().get();
+    for (Checkpoint checkpoint : new Checkpoint[] {finalized, justified}) {
+      if (!chainStorage.getBlockStorage().containsKey(checkpoint.getRoot())) {
+        throw new IllegalStateException(
+            "Storage is inconsistent, block of checkpoint " + checkpoint + " is missing");
+      }
+    }
+    return finalized.getRoot();
+  }
+
+  /**
+   * Fetches a tuple at the highest slot. Slots that have no complete tuple, i.e. a block without
+   * its state, are skipped down to the finalized slot.
+   */
+  private BeaconTuple fetchRecentTuple(Hash32 finalizedRoot) {
     SlotNumber maxSlot = chainStorage.getBlockStorage().getMaxSlot();
-    List<Hash32> latestBlockRoots = chainStorage.getBlockStorage().getSlotBlocks(maxSlot);
-    assert latestBlockRoots.size() > 0;
-    return tupleStorage
-        .get(latestBlockRoots.get(0))
-        .orElseThrow(
-            () -> new RuntimeException("Block with stored maxSlot not found, maxSlot: " + maxSlot));
+    SlotNumber finalizedSlot = chainStorage.getBlockStorage().get(finalizedRoot).get().getSlot();
+    for (SlotNumber slot = maxSlot; slot.greaterEqual(finalizedSlot); slot = slot.decrement()) {
+      for (Hash32 root : chainStorage.getBlockStorage().getSlotBlocks(slot)) {
+        Optional<BeaconTuple> tuple = tupleStorage.get(root);
+        if (tuple.isPresent()) {
+          if (slot.less(maxSlot)) {
+            logger.warn(
+                "No complete tuple found at slots {}..{}, recovered from slot {}",
+                slot.increment(),
+                maxSlot,
+                slot);
+          }
+          return tuple.get();
+        }
+      }
+      if (slot.equals(SlotNumber.ZERO)) {
+        break;
+      }
+    }
+    throw new IllegalStateException(
+        "Storage is inconsistent, no complete tuple found since finalized slot " + finalizedSlot);
   }
 
   private Hash32 getAncestor(Hash32 root, SlotNumber slot) {
-    Optional<BeaconBlock> beaconBlock = chainStorage.getBlockStorage().get(root);
-    if (!beaconBlock.isPresent()) {
-      throw new IllegalArgumentException("Cannot find block " + root);
-    }
-    return getAncestor(root, beaconBlock.get(), slot);
+    return chainStorage
+        .getBlockStorage()
+        .getAncestor(root, slot)
+        .orElseThrow(() -> new IllegalArgumentException("Cannot find block " + root));
   }
 
   private Hash32 getAncestor(Hash32 root, BeaconBlock block, SlotNumber slot) {
@@ -99,8 +187,25 @@ public class DefaultBeaconChain implements MutableBeaconChain {
     }
   }
 
+  /**
+   * Inserts a block.
+   *
+   * <p>Import is staged, only the last stage holds the chain lock:
+   *
+   * <ul>
+   *   <li>stateless checks against the storage;
+   *   <li>block verification on {@link Schedulers#cpuHeavy()}, which is run concurrently with the
+   *       block transition, both of them read the same pre-block state;
+   *   <li>persistence of the new tuple and finality updates.
+   * </ul>
+   *
+   * Hence, blocks of different branches, or of one branch if their parents are already imported,
+   * may be verified and transitioned in parallel by concurrent callers, while changes to the
+   * storage are serialized. Committed changes are flushed to disk asynchronously if the storage
+   * is backed by a database with background flusher.
+   */
   @Override
-  public synchronized ImportResult insert(BeaconBlock block) {
+  public ImportResult insert(BeaconBlock block) {
     if (rejectedByTime(block)) {
       return ImportResult.ExpiredBlock;
     }
@@ -116,25 +221,30 @@ public class DefaultBeaconChain implements MutableBeaconChain {
     long s = System.nanoTime();
 
     Hash32 finalizedRoot = chainStorage.getFinalizedStorage().get().get().getRoot();
-    SlotNumber finalizedSlot = chainStorage.getBlockStorage().get(finalizedRoot).get().getSlot();
-    Hash32 finalizedAncestor = getAncestor(spec.signing_root(block), block, finalizedSlot);
-    if (!finalizedAncestor.equals(finalizedRoot)) {
+    if (!isFinalizedAncestor(block, finalizedRoot)) {
       return ImportResult.ExpiredBlock;
     }
 
     BeaconStateEx parentState = pullParentState(block);
 
     BeaconStateEx preBlockState = preBlockTransition.apply(parentState, block.getSlot());
-    VerificationResult blockVerification =
-        blockVerifier.verify(block, preBlockState);
-    if (!blockVerification.isPassed()) {
-      logger.warn("Block verification failed: " + blockVerification + ": " +
-          block.toString(spec.getConstants(), parentState.getGenesisTime(), spec::signing_root));
+    CompletableFuture<VerificationResult> verification =
+        verifyInBackground(block, preBlockState);
+
+    BeaconStateEx postBlockState;
+    try {
+      postBlockState = blockTransition.apply(preBlockState, block);
+    } catch (RuntimeException e) {
+      // transition of invalid block may fail, in that case verification result is reported
+      if (!isVerified(block, parentState, verification)) {
+        return ImportResult.InvalidBlock;
+      }
+      throw e;
+    }
+    if (!isVerified(block, parentState, verification)) {
       return ImportResult.InvalidBlock;
     }
 
-    BeaconStateEx postBlockState = blockTransition.apply(preBlockState, block);
-
     VerificationResult stateVerification =
         stateVerifier.verify(postBlockState, block);
     if (!stateVerification.isPassed()) {
@@ -143,15 +253,34 @@ public class DefaultBeaconChain implements MutableBeaconChain {
     }
 
     BeaconTuple newTuple = BeaconTuple.of(block, postBlockState);
-    tupleStorage.put(newTuple);
-    updateFinality(parentState, postBlockState);
+    synchronized (this) {
+      // the block might be imported or finality might be changed by a concurrent call
+      if (exist(block)) {
+        return ImportResult.ExistingBlock;
+      }
+      Hash32 currentFinalizedRoot = chainStorage.getFinalizedStorage().get().get().getRoot();
+      if (!currentFinalizedRoot.equals(finalizedRoot)
+          && !isFinalizedAncestor(block, currentFinalizedRoot)) {
+        return ImportResult.ExpiredBlock;
+      }
 
-    chainStorage.commit();
+      tupleStorage.put(newTuple);
+      boolean finalized = updateFinality(parentState, postBlockState);
 
-    long total = System.nanoTime() - s;
+      // every block is committed atomically, new finality makes everything committed so far
+      // durable
+      if (finalized) {
+        chainStorage.sync();
+      } else {
+        chainStorage.commit();
+      }
+
+      this.recentlyProcessed = newTuple;
+      blockStream.onNext(
+          new BeaconTupleDetails(block, preBlockState, postBlockState, postBlockState));
+    }
 
-    this.recentlyProcessed = newTuple;
-    blockStream.onNext(new BeaconTupleDetails(block, preBlockState, postBlockState, postBlockState));
+    long total = System.nanoTime() - s;
 
     logger.info(
         "new block inserted: {} in {}s",
@@ -166,14 +295,215 @@ public class DefaultBeaconChain implements MutableBeaconChain {
     return ImportResult.OK;
   }
 
+  /**
+   * Inserts a segment with one state lookup and one commit.
+   *
+   * <p>Blocks are transitioned one after another starting from the parent state of the first
+   * block, while their verification is run on {@link Schedulers#cpuHeavy()}. The longest prefix
+   * of blocks passed the verification is stored and committed at once.
+   *
+   * <p>A block with a transition failed unexpectedly is reported with {@link
+   * ImportResult#UnexpectedError}, blocks preceding it are inserted.
+   */
+  @Override
+  public List<ImportResult> insertSegment(List<BeaconBlock> segment) {
+    List<ImportResult> results = new ArrayList<>(segment.size());
+
+    // leading blocks might be imported by a previous segment
+    int first = 0;
+    while (first < segment.size() && exist(segment.get(first))) {
+      results.add(ImportResult.ExistingBlock);
+      first++;
+    }
+    if (first == segment.size()) {
+      return results;
+    }
+    for (int i = first + 1; i < segment.size(); i++) {
+      checkArgument(
+          segment.get(i).getParentRoot().equals(spec.signing_root(segment.get(i - 1))),
+          "Block %s is not a child of the previous one",
+          segment.get(i));
+    }
+
+    long s = System.nanoTime();
+
+    BeaconBlock head = segment.get(first);
+    Hash32 finalizedRoot = chainStorage.getFinalizedStorage().get().get().getRoot();
+    if (!hasParent(head)) {
+      return fillResults(results, ImportResult.NoParent, segment.size());
+    }
+    if (rejectedByTime(head) || !isFinalizedAncestor(head, finalizedRoot)) {
+      return fillResults(results, ImportResult.ExpiredBlock, segment.size());
+    }
+
+    List<SegmentBlock> transited = new ArrayList<>();
+    ImportResult failure = null;
+    BeaconStateEx parentState = pullParentState(head);
+    for (BeaconBlock block : segment.subList(first, segment.size())) {
+      if (rejectedByTime(block)) {
+        failure = ImportResult.ExpiredBlock;
+        break;
+      }
+      SegmentBlock segmentBlock = new SegmentBlock(block, parentState);
+      segmentBlock.preBlockState = preBlockTransition.apply(parentState, block.getSlot());
+      segmentBlock.verification = verifyInBackground(block, segmentBlock.preBlockState);
+      transited.add(segmentBlock);
+      try {
+        segmentBlock.postBlockState = blockTransition.apply(segmentBlock.preBlockState, block);
+      } catch (RuntimeException e) {
+        logger.error("Failed to apply block transition: " + block, e);
+        failure = ImportResult.UnexpectedError;
+        break;
+      }
+      VerificationResult stateVerification =
+          stateVerifier.verify(segmentBlock.postBlockState, block);
+      if (!stateVerification.isPassed()) {
+        logger.warn("State verification failed: " + stateVerification);
+        segmentBlock.postBlockState = null;
+        failure = ImportResult.StateMismatch;
+        break;
+      }
+      parentState = segmentBlock.postBlockState;
+    }
+
+    // verification of a block is awaited even if its transition failed, it explains the failure
+    for (int i = 0; i < transited.size(); i++) {
+      SegmentBlock segmentBlock = transited.get(i);
+      if (!isVerified(segmentBlock.block, segmentBlock.parentState, segmentBlock.verification)) {
+        transited.subList(i, transited.size()).clear();
+        failure = ImportResult.InvalidBlock;
+        break;
+      }
+    }
+    if (!transited.isEmpty() && transited.get(transited.size() - 1).postBlockState == null) {
+      transited.remove(transited.size() - 1);
+    }
+
+    List<SegmentBlock> inserted = new ArrayList<>();
+    synchronized (this) {
+      // finality might be changed by a concurrent call
+      Hash32 currentFinalizedRoot = chainStorage.getFinalizedStorage().get().get().getRoot();
+      if (!currentFinalizedRoot.equals(finalizedRoot)
+          && !isFinalizedAncestor(head, currentFinalizedRoot)) {
+        return fillResults(results, ImportResult.ExpiredBlock, segment.size());
+      }
+
+      boolean finalized = false;
+      for (SegmentBlock segmentBlock : transited) {
+        if (exist(segmentBlock.block)) {
+          results.add(ImportResult.ExistingBlock);
+          continue;
+        }
+        BeaconTuple newTuple = BeaconTuple.of(segmentBlock.block, segmentBlock.postBlockState);
+        tupleStorage.put(newTuple);
+        finalized |= updateFinality(segmentBlock.parentState, segmentBlock.postBlockState);
+        this.recentlyProcessed = newTuple;
+        inserted.add(segmentBlock);
+        results.add(ImportResult.OK);
+      }
+
+      // the whole segment is committed atomically
+      if (finalized) {
+        chainStorage.sync();
+      } else if (!inserted.isEmpty()) {
+        chainStorage.commit();
+      }
+
+      for (SegmentBlock segmentBlock : inserted) {
+        blockStream.onNext(
+            new BeaconTupleDetails(
+                segmentBlock.block,
+                segmentBlock.preBlockState,
+                segmentBlock.postBlockState,
+                segmentBlock.postBlockState));
+      }
+    }
+
+    if (failure != null) {
+      results.add(failure);
+    }
+    fillResults(results, ImportResult.NoParent, segment.size());
+
+    if (!inserted.isEmpty()) {
+      long total = System.nanoTime() - s;
+      BeaconBlock last = inserted.get(inserted.size() - 1).block;
+      logger.info(
+          "segment of {} blocks inserted, last: {} in {}s",
+          inserted.size(),
+          last.toString(spec.getConstants(), parentState.getGenesisTime(), spec::signing_root),
+          String.format("%.3f", ((double) total) / 1_000_000_000d));
+    }
+
+    return results;
+  }
+
+  private static List<ImportResult> fillResults(
+      List<ImportResult> results, ImportResult result, int size) {
+    while (results.size() < size) {
+      results.add(result);
+    }
+    return results;
+  }
+
+  private boolean isFinalizedAncestor(BeaconBlock block, Hash32 finalizedRoot) {
+    SlotNumber finalizedSlot = chainStorage.getBlockStorage().get(finalizedRoot).get().getSlot();
+    Hash32 finalizedAncestor = getAncestor(spec.signing_root(block), block, finalizedSlot);
+    return finalizedAncestor.equals(finalizedRoot);
+  }
+
+  /**
+   * Schedules block verification on a snapshot of the pre-block state.
+   *
+   * <p>The snapshot is taken on the calling thread before scheduling, hence verifier and block
+   * transition never touch the same state instance concurrently.
+   */
+  private CompletableFuture<VerificationResult> verifyInBackground(
+      BeaconBlock block, BeaconStateEx preBlockState) {
+    BeaconStateEx snapshot =
+        new BeaconStateExImpl(
+            preBlockState.createMutableCopy().createImmutable(), preBlockState.getTransition());
+    return verificationScheduler.execute(() -> blockVerifier.verify(block, snapshot));
+  }
+
+  /**
+   * Awaits block verification. A verifier that fails with an exception rejects the block, a
+   * malformed block must not fail an import of others.
+   */
+  private boolean isVerified(
+      BeaconBlock block,
+      BeaconState parentState,
+      CompletableFuture<VerificationResult> verification) {
+    VerificationResult blockVerification;
+    try {
+      blockVerification = verification.join();
+    } catch (CompletionException | CancellationException e) {
+      logger.warn("Block verification failed with exception: " +
+          block.toString(spec.getConstants(), parentState.getGenesisTime(), spec::signing_root),
+          e.getCause() != null ? e.getCause() : e);
+      return false;
+    }
+    if (!blockVerification.isPassed()) {
+      logger.warn("Block verification failed: " + blockVerification + ": " +
+          block.toString(spec.getConstants(), parentState.getGenesisTime(), spec::signing_root));
+      return false;
+    }
+    return true;
+  }
+
   @Override
   public BeaconTuple getRecentlyProcessed() {
     return recentlyProcessed;
   }
 
-  private void updateFinality(BeaconState previous, BeaconState current) {
+  /** @return {@code true} if finalized checkpoint is updated. */
+  private boolean updateFinality(BeaconState previous, BeaconState current) {
+    boolean finalized = false;
     if (!previous.getFinalizedCheckpoint().equals(current.getFinalizedCheckpoint())) {
       chainStorage.getFinalizedStorage().set(current.getFinalizedCheckpoint());
+      chainStorage.getBlockStorage().onFinalized(current.getFinalizedCheckpoint().getRoot());
+      scheduleArchiving();
+      schedulePruning(current.getFinalizedCheckpoint().getRoot());
+      finalized = true;
     }
     Checkpoint storeChkpt = chainStorage.getJustifiedStorage().get().get();
     Checkpoint currentJustifiedCheckpoint = current.getCurrentJustifiedCheckpoint();
@@ -183,6 +513,41 @@ public class DefaultBeaconChain implements MutableBeaconChain {
         chainStorage.getJustifiedStorage().set(currentJustifiedCheckpoint);
       }
     }
+    return finalized;
+  }
+
+  /**
+   * Archives finalized blocks in background. Only the boundary is recorded on import path, archive
+   * is written and flushed by storage scheduler, removal of archived blocks is a short batch.
+   */
+  private void scheduleArchiving() {
+    storageScheduler
+        .executeR(() -> chainStorage.getBlockStorage().archiveFinalized(this::runBatch))
+        .exceptionally(
+            t -> {
+              logger.error("Failed to archive finalized blocks", t);
+              return null;
+            });
+  }
+
+  private void schedulePruning(Hash32 finalizedRoot) {
+    if (pruner == null) {
+      return;
+    }
+    storageScheduler
+        .executeR(() -> pruner.prune(finalizedRoot, this::runBatch))
+        .exceptionally(
+            t -> {
+              logger.error("Failed to prune storage", t);
+              return null;
+            });
+  }
+
+  /** Runs a batch of storage changes, every batch holds import lock for a short time. */
+  private void runBatch(Runnable batch) {
+    synchronized (this) {
+      batch.run();
+    }
   }
 
   private boolean shouldUpdateJustifiedCheckpoint(Checkpoint new_justified_checkpoint) {
@@ -233,11 +598,11 @@ public class DefaultBeaconChain implements MutableBeaconChain {
 
   private boolean exist(BeaconBlock block) {
     Hash32 blockHash = spec.signing_root(block);
-    return chainStorage.getBlockStorage().get(blockHash).isPresent();
+    return chainStorage.getBlockStorage().containsKey(blockHash);
   }
 
   private boolean hasParent(BeaconBlock block) {
-    return chainStorage.getBlockStorage().get(block.getParentRoot()).isPresent();
+    return chainStorage.getBlockStorage().containsKey(block.getParentRoot());
   }
 
   /**
@@ -256,4 +621,18 @@ public class DefaultBeaconChain implements MutableBeaconChain {
   public Publisher<BeaconTupleDetails> getBlockStatesStream() {
     return blockStream;
   }
+
+  /** A block of a segment with the states it's been transitioned through. */
+  private static class SegmentBlock {
+    private final BeaconBlock block;
+    private final BeaconStateEx parentState;
+    private BeaconStateEx preBlockState;
+    private BeaconStateEx postBlockState;
+    private CompletableFuture<VerificationResult> verification;
+
+    SegmentBlock(BeaconBlock block, BeaconStateEx parentState) {
+      this.block = block;
+      this.parentState = parentState;
+    }
+  }
 }
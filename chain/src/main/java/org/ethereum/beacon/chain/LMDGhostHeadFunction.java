@@ -9,6 +9,7 @@ import java.util.stream.Collectors;
 import org.ethereum.beacon.chain.storage.BeaconChainStorage;
 import org.ethereum.beacon.consensus.BeaconChainSpec;
 import org.ethereum.beacon.consensus.HeadFunction;
+import org.ethereum.beacon.consensus.VoteStore;
 import org.ethereum.beacon.consensus.spec.ForkChoice.LatestMessage;
 import org.ethereum.beacon.consensus.spec.ForkChoice.Store;
 import org.ethereum.beacon.core.BeaconBlock;
@@ -16,6 +17,7 @@ import org.ethereum.beacon.core.BeaconState;
 import org.ethereum.beacon.core.operations.Attestation;
 import org.ethereum.beacon.core.state.Checkpoint;
 import org.ethereum.beacon.core.state.ValidatorRecord;
+import org.ethereum.beacon.core.types.SlotNumber;
 import org.ethereum.beacon.core.types.Time;
 import org.ethereum.beacon.core.types.ValidatorIndex;
 import tech.pegasys.artemis.ethereum.core.Hash32;
@@ -44,8 +46,7 @@ public class LMDGhostHeadFunction implements HeadFunction {
   }
 
   @Override
-  public BeaconBlock getHead(
-      Function<ValidatorIndex, Optional<LatestMessage>> latestAttestationStorage) {
+  public BeaconBlock getHead(VoteStore latestAttestationStorage) {
     Hash32 justifiedRoot =
         chainStorage
             .getJustifiedStorage()
@@ -151,6 +152,11 @@ public class LMDGhostHeadFunction implements HeadFunction {
         return chainStorage.getBlockStorage().getChildren(root, SEARCH_LIMIT).stream()
             .map(spec::signing_root).collect(Collectors.toList());
       }
+
+      @Override
+      public Optional<Hash32> getAncestor(Hash32 root, SlotNumber slot) {
+        return chainStorage.getBlockStorage().getAncestor(root, slot);
+      }
     });
 
     // Forcing get() call is save here as
@@ -1,5 +1,7 @@
 package org.ethereum.beacon.chain;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.ethereum.beacon.core.BeaconBlock;
 
 public interface MutableBeaconChain extends BeaconChain {
@@ -21,4 +23,29 @@ public interface MutableBeaconChain extends BeaconChain {
    * @return whether a block was inserted or not.
    */
   ImportResult insert(BeaconBlock block);
+
+  /**
+   * Inserts an ordered segment of blocks, each block of a segment is a child of the previous one.
+   *
+   * <p>Blocks are inserted until the first one that is rejected, blocks following it are reported
+   * with {@link ImportResult#NoParent}. A block that is already in the chain is reported with
+   * {@link ImportResult#ExistingBlock}, it's not a rejection as its children still have a parent.
+   *
+   * @param segment blocks in the order of their slots.
+   * @return import results in the order of blocks.
+   */
+  default List<ImportResult> insertSegment(List<BeaconBlock> segment) {
+    List<ImportResult> results = new ArrayList<>(segment.size());
+    for (BeaconBlock block : segment) {
+      ImportResult result = insert(block);
+      results.add(result);
+      if (result != ImportResult.OK && result != ImportResult.ExistingBlock) {
+        break;
+      }
+    }
+    while (results.size() < segment.size()) {
+      results.add(ImportResult.NoParent);
+    }
+    return results;
+  }
 }
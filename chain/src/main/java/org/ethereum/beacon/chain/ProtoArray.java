@@ -0,0 +1,240 @@
+package org.ethereum.beacon.chain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+
+/**
+ * Proto-array LMD-GHOST fork choice engine.
+ *
+ * <p>Blocks are kept in a flat array in insertion order, hence, a parent always precedes its
+ * children. Each node holds a weight of its subtree, its best child and best descendant. Vote
+ * changes are recorded as weight deltas of voted nodes and applied in a single backward pass over
+ * the array that also propagates best descendants, so a head lookup takes O(tree) regardless of a
+ * number of validators.
+ *
+ * <p>Children are compared by weight with ties broken by the greater root, as in {@link
+ * org.ethereum.beacon.consensus.spec.ForkChoice#get_head}. Votes for unknown blocks are not
+ * counted until the block is added.
+ */
+public class ProtoArray {
+
+  private static final int NONE = -1;
+  private static final int INITIAL_CAPACITY = 64;
+
+  private final Map<Hash32, Integer> indices = new HashMap<>();
+  private final List<Hash32> roots = new ArrayList<>();
+  private int[] parents = new int[INITIAL_CAPACITY];
+  private long[] weights = new long[INITIAL_CAPACITY];
+  private long[] deltas = new long[INITIAL_CAPACITY];
+  private int[] bestChildren = new int[INITIAL_CAPACITY];
+  private int[] bestDescendants = new int[INITIAL_CAPACITY];
+
+  private Hash32[] voteRoots = new Hash32[0];
+  private long[] voteBalances = new long[0];
+  private final BitSet unappliedVotes = new BitSet();
+
+  /**
+   * Adds a block. The first block added to empty array becomes its root.
+   *
+   * @param root block root.
+   * @param parentRoot parent root.
+   * @return {@code true} if block is added or known, {@code false} if its parent is unknown.
+   */
+  public synchronized boolean onBlock(Hash32 root, Hash32 parentRoot) {
+    if (indices.containsKey(root)) {
+      return true;
+    }
+    int parent = NONE;
+    if (!roots.isEmpty()) {
+      Integer parentIndex = indices.get(parentRoot);
+      if (parentIndex == null) {
+        return false;
+      }
+      parent = parentIndex;
+    }
+
+    int index = roots.size();
+    ensureCapacity(index + 1);
+    roots.add(root);
+    indices.put(root, index);
+    parents[index] = parent;
+    weights[index] = 0;
+    deltas[index] = 0;
+    bestChildren[index] = NONE;
+    bestDescendants[index] = NONE;
+    return true;
+  }
+
+  public synchronized boolean contains(Hash32 root) {
+    return indices.containsKey(root);
+  }
+
+  public synchronized int size() {
+    return roots.size();
+  }
+
+  /**
+   * Updates the latest vote of a validator, weight is moved from previously voted block to the new
+   * one on the next {@link #findHead(Hash32)} call. A vote for unknown block is applied once the
+   * block is added.
+   *
+   * @param validator validator index.
+   * @param root voted block root, {@code null} if validator has no vote.
+   * @param balance balance counted for the vote.
+   */
+  public synchronized void updateVote(int validator, Hash32 root, long balance) {
+    if (validator >= voteRoots.length) {
+      int length = Math.max(validator + 1, voteRoots.length * 2);
+      voteRoots = Arrays.copyOf(voteRoots, length);
+      voteBalances = Arrays.copyOf(voteBalances, length);
+    }
+    Hash32 oldRoot = voteRoots[validator];
+    if (Objects.equals(oldRoot, root) && voteBalances[validator] == balance) {
+      return;
+    }
+
+    if (oldRoot != null && !unappliedVotes.get(validator)) {
+      Integer oldIndex = indices.get(oldRoot);
+      // a vote for pruned block has nothing to subtract from
+      if (oldIndex != null) {
+        deltas[oldIndex] -= voteBalances[validator];
+      }
+    }
+    voteRoots[validator] = root;
+    voteBalances[validator] = balance;
+    unappliedVotes.clear(validator);
+    if (root != null) {
+      Integer newIndex = indices.get(root);
+      if (newIndex != null) {
+        deltas[newIndex] += balance;
+      } else {
+        unappliedVotes.set(validator);
+      }
+    }
+  }
+
+  /**
+   * Applies pending vote changes and finds the head.
+   *
+   * @param justifiedRoot root of justified block to start the search from.
+   * @return best descendant of justified block or the block itself if it has no descendants.
+   * @throws IllegalArgumentException if justified block is unknown.
+   */
+  public synchronized Hash32 findHead(Hash32 justifiedRoot) {
+    Integer justified = indices.get(justifiedRoot);
+    if (justified == null) {
+      throw new IllegalArgumentException("Unknown justified block " + justifiedRoot);
+    }
+    applyVotesForNewBlocks();
+    applyDeltas();
+    int best = bestDescendants[justified];
+    return roots.get(best == NONE ? justified : best);
+  }
+
+  /**
+   * Makes a finalized block the root of the array, blocks not descending from it are dropped.
+   *
+   * @param finalizedRoot root of finalized block.
+   * @return {@code false} if the block is unknown, nothing is changed in this case.
+   */
+  public synchronized boolean prune(Hash32 finalizedRoot) {
+    Integer finalized = indices.get(finalizedRoot);
+    if (finalized == null) {
+      return false;
+    }
+    if (finalized == 0) {
+      return true;
+    }
+
+    int[] newIndices = new int[roots.size()];
+    Arrays.fill(newIndices, NONE);
+    newIndices[finalized] = 0;
+    int size = 1;
+    for (int i = finalized + 1; i < roots.size(); i++) {
+      if (parents[i] != NONE && newIndices[parents[i]] != NONE) {
+        newIndices[i] = size++;
+      }
+    }
+
+    List<Hash32> newRoots = new ArrayList<>(size);
+    indices.clear();
+    for (int i = finalized; i < roots.size(); i++) {
+      int index = newIndices[i];
+      if (index == NONE) {
+        continue;
+      }
+      newRoots.add(roots.get(i));
+      indices.put(roots.get(i), index);
+      parents[index] = i == finalized ? NONE : newIndices[parents[i]];
+      weights[index] = weights[i];
+      deltas[index] = deltas[i];
+      bestChildren[index] = bestChildren[i] == NONE ? NONE : newIndices[bestChildren[i]];
+      bestDescendants[index] = bestDescendants[i] == NONE ? NONE : newIndices[bestDescendants[i]];
+    }
+    roots.clear();
+    roots.addAll(newRoots);
+    return true;
+  }
+
+  private void applyVotesForNewBlocks() {
+    for (int v = unappliedVotes.nextSetBit(0); v >= 0; v = unappliedVotes.nextSetBit(v + 1)) {
+      Integer index = indices.get(voteRoots[v]);
+      if (index != null) {
+        deltas[index] += voteBalances[v];
+        unappliedVotes.clear(v);
+      }
+    }
+  }
+
+  /**
+   * Adds deltas to node weights and parent deltas, then updates best children. Both passes go
+   * backwards, hence, children are final by the time their parents are updated.
+   */
+  private void applyDeltas() {
+    for (int i = roots.size() - 1; i >= 0; i--) {
+      weights[i] += deltas[i];
+      if (parents[i] != NONE) {
+        deltas[parents[i]] += deltas[i];
+      }
+      deltas[i] = 0;
+    }
+    for (int i = roots.size() - 1; i >= 0; i--) {
+      if (parents[i] != NONE) {
+        updateBestChild(parents[i], i);
+      }
+    }
+  }
+
+  private void updateBestChild(int parent, int child) {
+    int best = bestChildren[parent];
+    if (best == NONE || best == child || isBetter(child, best)) {
+      bestChildren[parent] = child;
+      bestDescendants[parent] = bestDescendants[child] == NONE ? child : bestDescendants[child];
+    }
+  }
+
+  private boolean isBetter(int node, int other) {
+    if (weights[node] != weights[other]) {
+      return weights[node] > weights[other];
+    }
+    return roots.get(node).compareTo(roots.get(other)) > 0;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity <= parents.length) {
+      return;
+    }
+    int length = Math.max(capacity, parents.length * 2);
+    parents = Arrays.copyOf(parents, length);
+    weights = Arrays.copyOf(weights, length);
+    deltas = Arrays.copyOf(deltas, length);
+    bestChildren = Arrays.copyOf(bestChildren, length);
+    bestDescendants = Arrays.copyOf(bestDescendants, length);
+  }
+}
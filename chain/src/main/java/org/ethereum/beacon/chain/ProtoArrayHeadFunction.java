@@ -0,0 +1,150 @@
+package org.ethereum.beacon.chain;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import org.ethereum.beacon.chain.storage.BeaconBlockStorage;
+import org.ethereum.beacon.chain.storage.BeaconChainStorage;
+import org.ethereum.beacon.consensus.BeaconChainSpec;
+import org.ethereum.beacon.consensus.HeadFunction;
+import org.ethereum.beacon.consensus.VoteStore;
+import org.ethereum.beacon.core.BeaconBlock;
+import org.ethereum.beacon.core.BeaconState;
+import org.ethereum.beacon.core.state.Checkpoint;
+import org.ethereum.beacon.core.types.SlotNumber;
+import org.ethereum.beacon.core.types.ValidatorIndex;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+
+/**
+ * LMD-GHOST head function backed by {@link ProtoArray}.
+ *
+ * <p>Gives the same head as {@link LMDGhostHeadFunction} does, but doesn't walk children through
+ * the block storage nor recalculates attesting balances of every child. Votes are counted with
+ * effective balances of active validators of the justified state. Votes are drained from {@link
+ * VoteStore} as they change, all votes are re-counted only when justified checkpoint changes.
+ */
+public class ProtoArrayHeadFunction implements HeadFunction {
+
+  /** Array size that triggers pruning of blocks not descending from the finalized one. */
+  private static final int PRUNE_THRESHOLD = 256;
+
+  private final BeaconChainStorage chainStorage;
+  private final BeaconChainSpec spec;
+  private final ProtoArray protoArray = new ProtoArray();
+
+  private Checkpoint balancesCheckpoint;
+  private long[] balances;
+
+  public ProtoArrayHeadFunction(BeaconChainStorage chainStorage, BeaconChainSpec spec) {
+    this.chainStorage = chainStorage;
+    this.spec = spec;
+
+    Hash32 finalizedRoot = chainStorage.getFinalizedStorage().get().get().getRoot();
+    BeaconBlockStorage blockStorage = chainStorage.getBlockStorage();
+    BeaconBlock finalized = blockStorage.get(finalizedRoot).get();
+    protoArray.onBlock(finalizedRoot, finalized.getParentRoot());
+    SlotNumber maxSlot = blockStorage.getMaxSlot();
+    for (SlotNumber slot = finalized.getSlot().increment();
+        slot.lessEqual(maxSlot);
+        slot = slot.increment()) {
+      for (Hash32 root : blockStorage.getSlotBlocks(slot)) {
+        blockStorage.get(root).ifPresent(block -> protoArray.onBlock(root, block.getParentRoot()));
+      }
+    }
+  }
+
+  @Override
+  public void onBlock(BeaconBlock block) {
+    addBlock(spec.signing_root(block), block);
+  }
+
+  /** Adds a block, missing ancestors are loaded from the storage. */
+  private synchronized void addBlock(Hash32 root, BeaconBlock block) {
+    Deque<Hash32> roots = new ArrayDeque<>();
+    Deque<BeaconBlock> blocks = new ArrayDeque<>();
+    Optional<BeaconBlock> current = Optional.of(block);
+    Hash32 currentRoot = root;
+    while (current.isPresent() && !protoArray.contains(currentRoot)) {
+      roots.push(currentRoot);
+      blocks.push(current.get());
+      currentRoot = current.get().getParentRoot();
+      current = chainStorage.getBlockStorage().get(currentRoot);
+    }
+    while (!roots.isEmpty()) {
+      if (!protoArray.onBlock(roots.pop(), blocks.pop().getParentRoot())) {
+        // not a descendant of the finalized block
+        return;
+      }
+    }
+  }
+
+  @Override
+  public synchronized BeaconBlock getHead(VoteStore latestMessageStorage) {
+    Checkpoint justified =
+        chainStorage
+            .getJustifiedStorage()
+            .get()
+            .orElseThrow(() -> new RuntimeException("Justified root is not found"));
+    Checkpoint finalized = chainStorage.getFinalizedStorage().get().get();
+
+    if (!protoArray.contains(justified.getRoot())) {
+      BeaconBlock justifiedBlock =
+          chainStorage
+              .getBlockStorage()
+              .get(justified.getRoot())
+              .orElseThrow(() -> new RuntimeException("Justified block is not found"));
+      addBlock(justified.getRoot(), justifiedBlock);
+    }
+    if (protoArray.size() > PRUNE_THRESHOLD) {
+      protoArray.prune(finalized.getRoot());
+    }
+
+    if (justified.equals(balancesCheckpoint)) {
+      latestMessageStorage.drainChanges(
+          (validator, root) ->
+              protoArray.updateVote(
+                  validator, root, validator < balances.length ? balances[validator] : 0));
+    } else {
+      // balances have changed, all votes are re-counted
+      latestMessageStorage.drainChanges((validator, root) -> {});
+      long[] newBalances = updateBalances(justified, latestMessageStorage.size());
+      for (int i = 0; i < newBalances.length; i++) {
+        protoArray.updateVote(i, latestMessageStorage.getRoot(i), newBalances[i]);
+      }
+    }
+
+    Hash32 headRoot = protoArray.findHead(justified.getRoot());
+    return chainStorage.getBlockStorage().get(headRoot).get();
+  }
+
+  /**
+   * Loads effective balances of validators active in justified state, inactive validators have
+   * zero balance.
+   *
+   * @param justified justified checkpoint.
+   * @param minSize minimal size of returned array, balances of validators that are out of
+   *     justified state registry are zero.
+   */
+  private long[] updateBalances(Checkpoint justified, int minSize) {
+    BeaconState state =
+        chainStorage
+            .getTupleStorage()
+            .get(justified.getRoot())
+            .orElseThrow(() -> new RuntimeException("Justified state is not found"))
+            .getState();
+    // keep previous registry size to withdraw votes of validators that are not in the new one
+    int size = state.getValidators().size().intValue();
+    int previousSize = balances == null ? 0 : balances.length;
+    long[] newBalances = new long[Math.max(Math.max(size, previousSize), minSize)];
+    List<ValidatorIndex> activeIndices =
+        spec.get_active_validator_indices(state, spec.get_current_epoch(state));
+    for (ValidatorIndex index : activeIndices) {
+      newBalances[index.intValue()] =
+          state.getValidators().get(index).getEffectiveBalance().getValue();
+    }
+    this.balancesCheckpoint = justified;
+    this.balances = newBalances;
+    return newBalances;
+  }
+}
@@ -0,0 +1,324 @@
+package org.ethereum.beacon.chain.observer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.ethereum.beacon.consensus.BeaconChainSpec;
+import org.ethereum.beacon.core.BeaconState;
+import org.ethereum.beacon.core.operations.Attestation;
+import org.ethereum.beacon.core.operations.attestation.AttestationData;
+import org.ethereum.beacon.core.operations.slashing.IndexedAttestation;
+import org.ethereum.beacon.core.state.Checkpoint;
+import org.ethereum.beacon.core.types.EpochNumber;
+import org.ethereum.beacon.core.types.ValidatorIndex;
+import org.ethereum.beacon.schedulers.Scheduler;
+import tech.pegasys.artemis.util.collections.Bitlist;
+
+/**
+ * Ingestion stage of off-chain attestations.
+ *
+ * <p>Incoming attestations are deduplicated by their data and aggregation bits and queued in
+ * groups sharing the same {@link AttestationData}. A number of queued attestations is bounded, an
+ * attestation that doesn't fit is dropped. Attestations with target epoch out of the range from
+ * previous to the next after current epoch are dropped as well, hence, the queue can't be filled
+ * up with attestations that are never drained. Every drained group is verified as a separate task
+ * of verification scheduler: attestations of a group share a signed message and a checkpoint
+ * state, hence, their signatures are checked by one batch verification.
+ *
+ * <p>Attestations may arrive ahead of their target block, groups which target state is not
+ * available yet are queued back and verified once the block is imported.
+ *
+ * <p>Numbers of dropped, duplicated and invalid attestations are counted for monitoring.
+ */
+public class AttestationIngestion {
+  private static final Logger logger = LogManager.getLogger(AttestationIngestion.class);
+
+  public static final int DEFAULT_CAPACITY = 1 << 14;
+
+  private final BeaconChainSpec spec;
+  private final Scheduler verificationScheduler;
+  private final Function<Checkpoint, Optional<BeaconState>> checkpointStates;
+  private final int capacity;
+
+  /** Queued attestations grouped by data, groups are kept in arrival order. */
+  private final Map<AttestationData, List<Attestation>> groups = new LinkedHashMap<>();
+  /** Keys of attestations seen so far, by target epoch. */
+  private final Map<Long, Set<AttestationKey>> seen = new HashMap<>();
+  private int queued = 0;
+  /** Current epoch, attestations with target epoch out of [previous, current + 1] are dropped. */
+  private long currentEpoch = 0;
+
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong duplicates = new AtomicLong();
+  private final AtomicLong invalid = new AtomicLong();
+
+  /**
+   * @param spec beacon chain spec.
+   * @param verificationScheduler scheduler running verification of attestation groups.
+   * @param checkpointStates returns a state of the target checkpoint for attestations to it,
+   *     nothing if the target block is not known yet.
+   * @param capacity maximal number of queued attestations.
+   */
+  public AttestationIngestion(
+      BeaconChainSpec spec,
+      Scheduler verificationScheduler,
+      Function<Checkpoint, Optional<BeaconState>> checkpointStates,
+      int capacity) {
+    this.spec = spec;
+    this.verificationScheduler = verificationScheduler;
+    this.checkpointStates = checkpointStates;
+    this.capacity = capacity;
+  }
+
+  /**
+   * Queues an attestation.
+   *
+   * @return {@code false} if the attestation is a duplicate, its target epoch is out of accepted
+   *     range or the queue is full.
+   */
+  public synchronized boolean offer(Attestation attestation) {
+    AttestationData data = attestation.getData();
+    long targetEpoch = data.getTarget().getEpoch().getValue();
+    if (targetEpoch + 1 < currentEpoch || targetEpoch > currentEpoch + 1) {
+      dropped.incrementAndGet();
+      return false;
+    }
+    Set<AttestationKey> epochSeen = seen.computeIfAbsent(targetEpoch, epoch -> new HashSet<>());
+    AttestationKey key = new AttestationKey(data, attestation.getAggregationBits());
+    if (epochSeen.contains(key)) {
+      duplicates.incrementAndGet();
+      return false;
+    }
+    if (queued >= capacity) {
+      dropped.incrementAndGet();
+      return false;
+    }
+    epochSeen.add(key);
+    groups.computeIfAbsent(data, d -> new ArrayList<>()).add(attestation);
+    queued++;
+    return true;
+  }
+
+  /**
+   * Verifies queued attestations with target epoch up to the given one and passes valid
+   * attestations to the consumer along with their attesting indices. Groups are verified in
+   * parallel, the call returns once all of them are done. Groups which target state is not
+   * available yet are queued back.
+   *
+   * @param upToEpochInclusive maximal target epoch of attestations to verify.
+   * @param consumer consumer of valid attestations, called from the calling thread.
+   * @return a number of verified attestations.
+   */
+  public int verify(
+      EpochNumber upToEpochInclusive, BiConsumer<Attestation, List<ValidatorIndex>> consumer) {
+    List<List<Attestation>> drained = drain(upToEpochInclusive);
+
+    List<CompletableFuture<List<IndexedAttestation>>> verifications =
+        new ArrayList<>(drained.size());
+    List<List<Attestation>> deferred = new ArrayList<>();
+    int count = 0;
+    for (List<Attestation> group : drained) {
+      Checkpoint target = group.get(0).getData().getTarget();
+      Optional<BeaconState> state;
+      try {
+        // states are resolved here to let the cache compute each of them once
+        state = checkpointStates.apply(target);
+      } catch (RuntimeException e) {
+        logger.warn("Failed to compute state of target checkpoint " + target, e);
+        count += group.size();
+        invalid.addAndGet(group.size());
+        verifications.add(null);
+        continue;
+      }
+      if (!state.isPresent()) {
+        deferred.add(group);
+        verifications.add(null);
+        continue;
+      }
+      count += group.size();
+      verifications.add(verificationScheduler.execute(() -> verifyGroup(state.get(), group)));
+    }
+    requeue(deferred);
+
+    for (int i = 0; i < drained.size(); i++) {
+      List<Attestation> group = drained.get(i);
+      if (verifications.get(i) == null) {
+        continue;
+      }
+      List<IndexedAttestation> indexed;
+      try {
+        indexed = verifications.get(i).join();
+      } catch (RuntimeException e) {
+        logger.warn("Failed to verify attestations", e);
+        invalid.addAndGet(group.size());
+        continue;
+      }
+      for (int j = 0; j < group.size(); j++) {
+        if (indexed.get(j) != null) {
+          consumer.accept(group.get(j), indexed.get(j).getAttestingIndices().listCopy());
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Verifies attestations sharing the same data. One invalid attestation fails the batch, then
+   * attestations are verified one by one.
+   *
+   * @return indexed attestations in order of the group, {@code null} for invalid ones.
+   */
+  private List<IndexedAttestation> verifyGroup(BeaconState state, List<Attestation> group) {
+    List<IndexedAttestation> indexed = new ArrayList<>(group.size());
+    List<IndexedAttestation> batch = new ArrayList<>(group.size());
+    for (Attestation attestation : group) {
+      IndexedAttestation indexedAttestation;
+      try {
+        indexedAttestation = spec.get_indexed_attestation(state, attestation);
+        batch.add(indexedAttestation);
+      } catch (RuntimeException e) {
+        indexedAttestation = null;
+      }
+      indexed.add(indexedAttestation);
+    }
+
+    boolean batchValid;
+    try {
+      List<BeaconState> states = new ArrayList<>(batch.size());
+      for (int i = 0; i < batch.size(); i++) {
+        states.add(state);
+      }
+      batchValid = spec.is_valid_indexed_attestation_batch(states, batch);
+    } catch (RuntimeException e) {
+      batchValid = false;
+    }
+
+    for (int i = 0; i < indexed.size(); i++) {
+      IndexedAttestation indexedAttestation = indexed.get(i);
+      boolean valid;
+      try {
+        valid =
+            indexedAttestation != null
+                && (batchValid || spec.is_valid_indexed_attestation(state, indexedAttestation));
+      } catch (RuntimeException e) {
+        valid = false;
+      }
+      if (!valid) {
+        indexed.set(i, null);
+        invalid.incrementAndGet();
+      }
+    }
+    return indexed;
+  }
+
+  /** Queues groups back, those which target epoch is out of accepted range are dropped. */
+  private synchronized void requeue(List<List<Attestation>> deferred) {
+    for (List<Attestation> group : deferred) {
+      AttestationData data = group.get(0).getData();
+      if (data.getTarget().getEpoch().getValue() + 1 < currentEpoch) {
+        // purged while being verified
+        continue;
+      }
+      groups.computeIfAbsent(data, d -> new ArrayList<>()).addAll(group);
+      queued += group.size();
+    }
+  }
+
+  private synchronized List<List<Attestation>> drain(EpochNumber upToEpochInclusive) {
+    List<List<Attestation>> ret = new ArrayList<>();
+    Iterator<Map.Entry<AttestationData, List<Attestation>>> it = groups.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<AttestationData, List<Attestation>> group = it.next();
+      if (group.getKey().getTarget().getEpoch().lessEqual(upToEpochInclusive)) {
+        ret.add(group.getValue());
+        queued -= group.getValue().size();
+        it.remove();
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Updates current epoch. Seen and queued attestations with target epoch before the previous one
+   * are purged.
+   *
+   * @param epoch current epoch.
+   */
+  public synchronized void setCurrentEpoch(EpochNumber epoch) {
+    currentEpoch = epoch.getValue();
+    purge(epoch.greater(EpochNumber.ZERO) ? epoch.decrement() : epoch);
+  }
+
+  /** Forgets seen attestations and drops queued ones with target epoch before the given one. */
+  public synchronized void purge(EpochNumber targetEpoch) {
+    seen.keySet().removeIf(epoch -> epoch < targetEpoch.getValue());
+    Iterator<Map.Entry<AttestationData, List<Attestation>>> it = groups.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<AttestationData, List<Attestation>> group = it.next();
+      if (group.getKey().getTarget().getEpoch().less(targetEpoch)) {
+        queued -= group.getValue().size();
+        it.remove();
+      }
+    }
+  }
+
+  /** @return a number of currently queued attestations. */
+  public synchronized int getQueued() {
+    return queued;
+  }
+
+  /** @return a number of attestations dropped due to full queue or out of range target epoch. */
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  /** @return a number of attestations seen before. */
+  public long getDuplicates() {
+    return duplicates.get();
+  }
+
+  /** @return a number of attestations failed the verification. */
+  public long getInvalid() {
+    return invalid.get();
+  }
+
+  private static class AttestationKey {
+    private final AttestationData data;
+    private final Bitlist bits;
+
+    AttestationKey(AttestationData data, Bitlist bits) {
+      this.data = data;
+      this.bits = bits;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      AttestationKey that = (AttestationKey) o;
+      return data.equals(that.data) && bits.equals(that.bits);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(data, bits);
+    }
+  }
+}
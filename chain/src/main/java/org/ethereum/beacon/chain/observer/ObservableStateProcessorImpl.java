@@ -2,28 +2,28 @@ package org.ethereum.beacon.chain.observer;
 
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.ethereum.beacon.chain.BeaconChainHead;
 import org.ethereum.beacon.chain.BeaconTuple;
 import org.ethereum.beacon.chain.BeaconTupleDetails;
-import org.ethereum.beacon.chain.LMDGhostHeadFunction;
+import org.ethereum.beacon.chain.ProtoArrayHeadFunction;
 import org.ethereum.beacon.chain.storage.BeaconChainStorage;
 import org.ethereum.beacon.chain.storage.BeaconTupleStorage;
 import org.ethereum.beacon.consensus.BeaconChainSpec;
 import org.ethereum.beacon.consensus.BeaconStateEx;
 import org.ethereum.beacon.consensus.HeadFunction;
-import org.ethereum.beacon.consensus.spec.ForkChoice.LatestMessage;
+import org.ethereum.beacon.consensus.VoteStore;
 import org.ethereum.beacon.consensus.transition.EmptySlotTransition;
 import org.ethereum.beacon.core.BeaconBlock;
 import org.ethereum.beacon.core.BeaconState;
@@ -31,7 +31,6 @@ import org.ethereum.beacon.core.MutableBeaconState;
 import org.ethereum.beacon.core.operations.Attestation;
 import org.ethereum.beacon.core.state.Checkpoint;
 import org.ethereum.beacon.core.operations.attestation.AttestationData;
-import org.ethereum.beacon.core.operations.slashing.IndexedAttestation;
 import org.ethereum.beacon.core.state.PendingAttestation;
 import org.ethereum.beacon.core.types.EpochNumber;
 import org.ethereum.beacon.core.types.SlotNumber;
@@ -41,7 +40,6 @@ import org.ethereum.beacon.schedulers.Schedulers;
 import org.ethereum.beacon.stream.SimpleProcessor;
 import org.ethereum.beacon.util.cache.Cache;
 import org.ethereum.beacon.util.cache.LRUCache;
-import org.javatuples.Pair;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 
@@ -49,6 +47,7 @@ public class ObservableStateProcessorImpl implements ObservableStateProcessor {
   private static final Logger logger = LogManager.getLogger(ObservableStateProcessorImpl.class);
 
   private static final int MAX_TUPLE_CACHE_SIZE = 32;
+  private static final int MAX_CHECKPOINT_STATE_CACHE_SIZE = 8;
   public static final int DEFAULT_EMPTY_SLOT_TRANSITIONS_LIMIT = 1024;
 
   private final int maxEmptySlotTransitions;
@@ -68,11 +67,14 @@ public class ObservableStateProcessorImpl implements ObservableStateProcessor {
   private Scheduler regularJobExecutor;
   private Scheduler continuousJobExecutor;
   private Cache<BeaconBlock, BeaconTupleDetails> tupleDetails = new LRUCache<>(MAX_TUPLE_CACHE_SIZE);
+  private final Cache<Checkpoint, BeaconState> checkpointStates =
+      new LRUCache<>(MAX_CHECKPOINT_STATE_CACHE_SIZE);
 
-  private final List<Attestation> attestationBuffer = new ArrayList<>();
+  private final AttestationIngestion attestationIngestion;
 
-  private final Map<Pair<ValidatorIndex, EpochNumber>, Attestation> offChainAttestations = new HashMap<>();
-  private final Map<ValidatorIndex, LatestMessage> latestMessages = new HashMap<>();
+  /** Off-chain attestations by target epoch, each epoch keeps an attestation per validator. */
+  private final Map<Long, Attestation[]> offChainAttestations = new HashMap<>();
+  private final VoteStore latestMessages = new VoteStore();
   private final Schedulers schedulers;
 
   private final SimpleProcessor<BeaconChainHead> headStream;
@@ -107,16 +109,44 @@ public class ObservableStateProcessorImpl implements ObservableStateProcessor {
       EmptySlotTransition emptySlotTransition,
       Schedulers schedulers,
       int maxEmptySlotTransitions) {
+    this(
+        chainStorage,
+        slotTicker,
+        attestationPublisher,
+        beaconPublisher,
+        spec,
+        emptySlotTransition,
+        schedulers,
+        maxEmptySlotTransitions,
+        new ProtoArrayHeadFunction(chainStorage, spec));
+  }
+
+  public ObservableStateProcessorImpl(
+      BeaconChainStorage chainStorage,
+      Publisher<SlotNumber> slotTicker,
+      Publisher<Attestation> attestationPublisher,
+      Publisher<BeaconTupleDetails> beaconPublisher,
+      BeaconChainSpec spec,
+      EmptySlotTransition emptySlotTransition,
+      Schedulers schedulers,
+      int maxEmptySlotTransitions,
+      HeadFunction headFunction) {
     this.chainStorage = chainStorage;
     this.tupleStorage = chainStorage.getTupleStorage();
     this.spec = spec;
     this.emptySlotTransition = emptySlotTransition;
-    this.headFunction = new LMDGhostHeadFunction(chainStorage, spec);
+    this.headFunction = headFunction;
     this.slotTicker = slotTicker;
     this.attestationPublisher = attestationPublisher;
     this.beaconPublisher = beaconPublisher;
     this.schedulers = schedulers;
     this.maxEmptySlotTransitions = maxEmptySlotTransitions;
+    this.attestationIngestion =
+        new AttestationIngestion(
+            spec,
+            schedulers.cpuHeavy(),
+            this::getCheckpointState,
+            AttestationIngestion.DEFAULT_CAPACITY);
 
     headStream = new SimpleProcessor<>(this.schedulers.events(), "ObservableStateProcessor.head");
     observableStateStream = new SimpleProcessor<>(this.schedulers.events(), "ObservableStateProcessor.observableState");
@@ -147,6 +177,7 @@ public class ObservableStateProcessorImpl implements ObservableStateProcessor {
     runTaskInSeparateThread(
         () -> {
           purgeAttestations(previousEpoch);
+          attestationIngestion.setCurrentEpoch(currentEpoch);
           newSlot(newSlot);
         });
   }
@@ -155,72 +186,67 @@ public class ObservableStateProcessorImpl implements ObservableStateProcessor {
     if (latestState == null) {
       return;
     }
-    List<Attestation> attestations = drainAttestations(spec.get_current_epoch(latestState));
-    for (Attestation attestation : attestations) {
-      try {
-        BeaconTuple tuple = tupleStorage.get(attestation.getData().getTarget().getRoot()).get();
-
-        MutableBeaconState mutableState = tuple.getState().createMutableCopy();
-        spec.process_slots(
-            mutableState,
-            spec.compute_start_slot_at_epoch(attestation.getData().getTarget().getEpoch()));
-        BeaconState refState = mutableState.createImmutable();
-        IndexedAttestation indexed_attestation =
-            spec.get_indexed_attestation(refState, attestation);
-        if (!spec.is_valid_indexed_attestation(refState, indexed_attestation)) {
-          continue;
-        }
-
-        List<ValidatorIndex> participants =
-            spec.get_attesting_indices(
-                refState, attestation.getData(), attestation.getAggregationBits());
-
-        participants.forEach(index -> addValidatorAttestation(index, attestation));
-      } catch (RuntimeException e) {
-        continue;
-      }
-    }
-    if (attestations.size() > 0) {
+    int drained =
+        attestationIngestion.verify(
+            spec.get_current_epoch(latestState),
+            (attestation, participants) ->
+                participants.forEach(index -> addValidatorAttestation(index, attestation)));
+    if (drained > 0) {
       updateHead(latestState);
     }
   }
 
-  private synchronized void addValidatorAttestation(ValidatorIndex index, Attestation attestation) {
-    updateLatestMessages(index, attestation.getData());
-    offChainAttestations.put(
-        Pair.with(index, attestation.getData().getTarget().getEpoch()), attestation);
+  /**
+   * Returns a state of the target checkpoint processed up to the epoch start slot. The state is
+   * computed once per checkpoint and shared by all attestations to the target, thus, committees
+   * and shuffling are computed once as well.
+   *
+   * @return the state, nothing if the target block is not imported yet.
+   */
+  private Optional<BeaconState> getCheckpointState(Checkpoint target) {
+    if (!tupleStorage.containsKey(target.getRoot())) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        checkpointStates.get(
+            target,
+            checkpoint -> {
+              BeaconTuple tuple = tupleStorage.get(checkpoint.getRoot()).get();
+              MutableBeaconState mutableState = tuple.getState().createMutableCopy();
+              spec.process_slots(
+                  mutableState, spec.compute_start_slot_at_epoch(checkpoint.getEpoch()));
+              return mutableState.createImmutable();
+            }));
   }
 
-  private void updateLatestMessages(ValidatorIndex index, AttestationData data) {
-    EpochNumber targetEpoch = data.getTarget().getEpoch();
-    if (!latestMessages.containsKey(index)
-        || targetEpoch.greater(latestMessages.get(index).getEpoch())) {
-      latestMessages.put(index, new LatestMessage(targetEpoch, data.getBeaconBlockRoot()));
+  private synchronized void addValidatorAttestation(ValidatorIndex index, Attestation attestation) {
+    updateLatestMessages(index, attestation.getData());
+    long epoch = attestation.getData().getTarget().getEpoch().getValue();
+    int validator = index.intValue();
+    Attestation[] attestations = offChainAttestations.get(epoch);
+    if (attestations == null || validator >= attestations.length) {
+      int length = Math.max(validator + 1, attestations == null ? 0 : attestations.length * 2);
+      attestations =
+          attestations == null ? new Attestation[length] : Arrays.copyOf(attestations, length);
+      offChainAttestations.put(epoch, attestations);
     }
+    attestations[validator] = attestation;
   }
 
-  private synchronized void onNewAttestation(Attestation attestation) {
-    attestationBuffer.add(attestation);
+  private void updateLatestMessages(ValidatorIndex index, AttestationData data) {
+    latestMessages.update(
+        index.intValue(), data.getTarget().getEpoch().getValue(), data.getBeaconBlockRoot());
   }
 
-  private synchronized List<Attestation> drainAttestations(EpochNumber upToEpochInclusive) {
-    List<Attestation> ret = new ArrayList<>();
-    Iterator<Attestation> it = attestationBuffer.iterator();
-    while (it.hasNext()) {
-      Attestation att = it.next();
-      if (att.getData().getTarget().getEpoch().lessEqual(upToEpochInclusive)) {
-        ret.add(att);
-        it.remove();
-      }
-    }
-    return ret;
+  private void onNewAttestation(Attestation attestation) {
+    attestationIngestion.offer(attestation);
   }
 
-
   private void onNewBlockTuple(BeaconTupleDetails beaconTuple) {
     tupleDetails.get(beaconTuple.getBlock(), (b) -> beaconTuple);
     runTaskInSeparateThread(
         () -> {
+          headFunction.onBlock(beaconTuple.getBlock());
           addAttestationsFromState(beaconTuple.getState());
           updateHead(beaconTuple.getState());
         });
@@ -246,25 +272,29 @@ public class ObservableStateProcessorImpl implements ObservableStateProcessor {
   }
 
   private synchronized void removeValidatorAttestation(ValidatorIndex index, EpochNumber epoch) {
-    offChainAttestations.remove(Pair.with(index, epoch));
+    Attestation[] attestations = offChainAttestations.get(epoch.getValue());
+    int validator = index.intValue();
+    if (attestations != null && validator < attestations.length) {
+      attestations[validator] = null;
+    }
   }
 
   /** Purges all entries for epochs before  {@code targetEpoch}*/
   private synchronized void purgeAttestations(EpochNumber targetEpoch) {
-    offChainAttestations.entrySet()
-        .removeIf(entry -> entry.getValue().getData().getTarget().getEpoch().less(targetEpoch));
-  }
-
-  private synchronized Map<ValidatorIndex, List<Attestation>> copyOffChainAttestations() {
-    return offChainAttestations.entrySet().stream()
-        .collect(
-            Collectors.groupingBy(
-                e -> e.getKey().getValue0(),
-                Collectors.mapping(Entry::getValue, Collectors.toList())));
+    offChainAttestations.keySet().removeIf(epoch -> epoch < targetEpoch.getValue());
   }
 
-  private synchronized Map<ValidatorIndex, LatestMessage> copyLatestMessages() {
-    return new HashMap<>(latestMessages);
+  /** Returns off-chain attestations, an attestation shared by several validators is listed once. */
+  private synchronized List<Attestation> copyOffChainAttestations() {
+    Set<Attestation> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (Attestation[] attestations : offChainAttestations.values()) {
+      for (Attestation attestation : attestations) {
+        if (attestation != null) {
+          distinct.add(attestation);
+        }
+      }
+    }
+    return new ArrayList<>(distinct);
   }
 
   private BeaconTupleDetails head;
@@ -357,9 +387,8 @@ public class ObservableStateProcessorImpl implements ObservableStateProcessor {
   }
 
   private PendingOperations getPendingOperations(
-      BeaconState state, Map<ValidatorIndex, List<Attestation>> attestationMap) {
-    List<Attestation> attestations = attestationMap.values().stream()
-        .flatMap(Collection::stream)
+      BeaconState state, List<Attestation> offChainAttestations) {
+    List<Attestation> attestations = offChainAttestations.stream()
         .filter(attestation ->
             attestation.getData().getTarget().getEpoch().lessEqual(spec.get_current_epoch(state)))
         .filter(attestation -> spec.verify_attestation(state, attestation))
@@ -370,11 +399,7 @@ public class ObservableStateProcessorImpl implements ObservableStateProcessor {
   }
 
   private void updateHead(BeaconState state) {
-    Map<ValidatorIndex, LatestMessage> latestMessagesCopy = copyLatestMessages();
-    BeaconBlock newHead =
-        headFunction.getHead(
-            validatorIndex ->
-                Optional.ofNullable(latestMessagesCopy.getOrDefault(validatorIndex, null)));
+    BeaconBlock newHead = headFunction.getHead(latestMessages);
     if (this.head != null && this.head.getBlock().equals(newHead)) {
       return; // == old
     }
@@ -392,6 +417,11 @@ public class ObservableStateProcessorImpl implements ObservableStateProcessor {
     newHead(tuple);
   }
 
+  /** @return ingestion stage of off-chain attestations. */
+  public AttestationIngestion getAttestationIngestion() {
+    return attestationIngestion;
+  }
+
   @Override
   public Publisher<BeaconChainHead> getHeadStream() {
     return headStream;
@@ -4,6 +4,10 @@ import org.ethereum.beacon.core.BeaconBlock;
 import org.ethereum.beacon.core.types.SlotNumber;
 import tech.pegasys.artemis.ethereum.core.Hash32;
 import java.util.List;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 import tech.pegasys.artemis.util.uint.UInt64;
 
 public interface BeaconBlockStorage extends HashKeyStorage<Hash32, BeaconBlock> {
@@ -18,6 +22,84 @@ public interface BeaconBlockStorage extends HashKeyStorage<Hash32, BeaconBlock>
 
   List<Hash32> getSlotBlocks(SlotNumber slot);
 
+  /**
+   * Returns a root of the first block stored at a slot. Once non-canonical blocks below finalized
+   * slot are pruned it's a root of canonical block.
+   *
+   * @param slot a slot.
+   * @return block root or nothing if there are no blocks at the slot.
+   */
+  default Optional<Hash32> getFirstSlotBlock(SlotNumber slot) {
+    List<Hash32> roots = getSlotBlocks(slot);
+    return roots.isEmpty() ? Optional.empty() : Optional.of(roots.get(0));
+  }
+
+  /**
+   * Returns block roots stored at a range of slots.
+   *
+   * @param from the first slot, inclusive.
+   * @param to the last slot, exclusive.
+   * @return block roots by slot, slots without blocks are omitted.
+   */
+  default SortedMap<SlotNumber, List<Hash32>> getSlotBlocks(SlotNumber from, SlotNumber to) {
+    SortedMap<SlotNumber, List<Hash32>> ret = new TreeMap<>();
+    for (SlotNumber slot = from; slot.less(to); slot = slot.increment()) {
+      List<Hash32> roots = getSlotBlocks(slot);
+      if (!roots.isEmpty()) {
+        ret.put(slot, roots);
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Notifies the storage that finality has advanced. Blocks above finalized slot are likely to be
+   * accessed more often than finalized ones, while finalized blocks never change.
+   *
+   * @param finalizedRoot a root of finalized block.
+   */
+  default void onFinalized(Hash32 finalizedRoot) {}
+
+  /**
+   * Moves blocks up to the last finalized one, the one passed to {@link #onFinalized(Hash32)}, to
+   * an archive if the storage keeps one. It could take a while, hence, expected to be called in
+   * background rather than on block import path.
+   *
+   * @param batchRunner runs changes of the storage which must not interleave with block import.
+   */
+  default void archiveFinalized(Consumer<Runnable> batchRunner) {}
+
+  /**
+   * Releases resources held by the storage besides the database, like a memory-mapped archive.
+   * Blocks read from the storage must not be used after it's closed.
+   */
+  default void close() {}
+
+  /**
+   * Looks up an ancestor of a block at a slot.
+   *
+   * @param root block root.
+   * @param slot ancestor slot.
+   * @return a root of the ancestor, the block itself if its slot is equal to given one, {@link
+   *     Hash32#ZERO} if chain of the block has no block at the slot; nothing if either the block or
+   *     one of its ancestors is not in the storage.
+   */
+  default Optional<Hash32> getAncestor(Hash32 root, SlotNumber slot) {
+    while (true) {
+      Optional<BeaconBlock> block = get(root);
+      if (!block.isPresent()) {
+        return Optional.empty();
+      }
+      if (block.get().getSlot().greater(slot)) {
+        root = block.get().getParentRoot();
+      } else if (block.get().getSlot().equals(slot)) {
+        return Optional.of(root);
+      } else {
+        return Optional.of(Hash32.ZERO);
+      }
+    }
+  }
+
   /**
    * Searches for all children with limit slot distance from parent
    *
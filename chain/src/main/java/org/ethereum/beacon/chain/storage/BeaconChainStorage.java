@@ -23,4 +23,19 @@ public interface BeaconChainStorage {
   SingleValueSource<Checkpoint> getFinalizedStorage();
 
   void commit();
+
+  /**
+   * Commits current changes and makes all committed changes durable.
+   *
+   * @see org.ethereum.beacon.db.Database#sync()
+   */
+  void sync();
+
+  /**
+   * Releases resources held by the storage besides the database. Expected to be called before the
+   * database is closed.
+   *
+   * @see BeaconBlockStorage#close()
+   */
+  void close();
 }
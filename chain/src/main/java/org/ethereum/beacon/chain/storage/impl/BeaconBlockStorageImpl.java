@@ -1,79 +1,64 @@
 package org.ethereum.beacon.chain.storage.impl;
 
-import static java.util.Collections.singletonList;
-
-import com.google.common.base.MoreObjects;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.ethereum.beacon.chain.storage.BeaconBlockStorage;
 import org.ethereum.beacon.consensus.hasher.ObjectHasher;
 import org.ethereum.beacon.core.BeaconBlock;
 import org.ethereum.beacon.core.types.SlotNumber;
 import org.ethereum.beacon.db.Database;
+import org.ethereum.beacon.db.archive.SegmentArchive;
 import org.ethereum.beacon.db.source.CodecSource;
 import org.ethereum.beacon.db.source.DataSource;
-import org.ethereum.beacon.db.source.HoleyList;
-import org.ethereum.beacon.db.source.impl.DataSourceList;
-import org.ethereum.beacon.ssz.annotation.SSZ;
-import org.ethereum.beacon.ssz.annotation.SSZSerializable;
+import org.ethereum.beacon.db.source.ReadCache;
 import tech.pegasys.artemis.ethereum.core.Hash32;
 import tech.pegasys.artemis.util.bytes.BytesValue;
 import tech.pegasys.artemis.util.uint.UInt64s;
 
 public class BeaconBlockStorageImpl implements BeaconBlockStorage {
 
-  private final ObjectHasher<Hash32> objectHasher;
-
-  @SSZSerializable
-  public static class SlotBlocks {
-
-    @SSZ private final List<Hash32> blockHashes;
+  /** A number of decoded blocks kept in the cache. */
+  private static final long BLOCK_CACHE_SIZE = 1 << 10;
+  /** Size of block index cache in bytes. */
+  private static final long INDEX_CACHE_SIZE = 1 << 20;
+  /** Size of finalized blocks archive segment in bytes. */
+  private static final int ARCHIVE_SEGMENT_SIZE = 1 << 28;
 
-    SlotBlocks(Hash32 blockHash) {
-      this(singletonList(blockHash));
-    }
-
-    public SlotBlocks(List<Hash32> blockHashes) {
-      this.blockHashes = blockHashes;
-    }
-
-    public List<Hash32> getBlockHashes() {
-      return blockHashes;
-    }
-
-    SlotBlocks addBlock(Hash32 newBlock) {
-      List<Hash32> blocks = new ArrayList<>(getBlockHashes());
-      blocks.add(newBlock);
-      return new SlotBlocks(blocks);
-    }
-
-    @Override
-    public String toString() {
-      return MoreObjects.toStringHelper(this)
-          .add("blockHashes", blockHashes)
-          .toString();
-    }
-  }
+  private final ObjectHasher<Hash32> objectHasher;
 
   private final DataSource<Hash32, BeaconBlock> rawBlocks;
-  private final HoleyList<SlotBlocks> blockIndex;
+  private final SlotBlockIndex blockIndex;
+  private final BlockAncestorIndex ancestorIndex = new BlockAncestorIndex();
   private final boolean checkBlockExistOnAdd;
   private final boolean checkParentExistOnAdd;
 
+  private final SegmentArchive archive;
+  private final Function<BeaconBlock, BytesValue> archiveEncoder;
+  private final Function<BytesValue, BeaconBlock> archiveDecoder;
+  /** A root of finalized block, canonical blocks up to it are to be archived. */
+  private volatile Hash32 archiveBoundary;
+  private final Object archiveLock = new Object();
+
   public BeaconBlockStorageImpl(
       ObjectHasher<Hash32> objectHasher,
       DataSource<Hash32, BeaconBlock> rawBlocks,
-      HoleyList<SlotBlocks> blockIndex) {
+      SlotBlockIndex blockIndex) {
     this(objectHasher, rawBlocks, blockIndex, true, true);
   }
 
   /**
    * @param objectHasher object hasher
    * @param rawBlocks hash -> block datasource
-   * @param blockIndex slot -> blocks datasource
+   * @param blockIndex slot -> blocks index
    * @param checkBlockExistOnAdd asserts that no duplicate blocks added (adds some overhead)
    * @param checkParentExistOnAdd asserts that added block parent is already here (adds some
    *     overhead)
@@ -81,7 +66,7 @@ public class BeaconBlockStorageImpl implements BeaconBlockStorage {
   public BeaconBlockStorageImpl(
       ObjectHasher<Hash32> objectHasher,
       DataSource<Hash32, BeaconBlock> rawBlocks,
-      HoleyList<SlotBlocks> blockIndex,
+      SlotBlockIndex blockIndex,
       boolean checkBlockExistOnAdd,
       boolean checkParentExistOnAdd) {
     this.objectHasher = objectHasher;
@@ -89,6 +74,38 @@ public class BeaconBlockStorageImpl implements BeaconBlockStorage {
     this.blockIndex = blockIndex;
     this.checkBlockExistOnAdd = checkBlockExistOnAdd;
     this.checkParentExistOnAdd = checkParentExistOnAdd;
+    this.archive = null;
+    this.archiveEncoder = null;
+    this.archiveDecoder = null;
+  }
+
+  /**
+   * Creates a storage which moves finalized blocks to an archive.
+   *
+   * <p>Once a block becomes finalized it's appended to the archive and removed from {@code
+   * rawBlocks} by {@link #archiveFinalized(Consumer)}, lookups that miss {@code rawBlocks} go to
+   * the archive. Only blocks of canonical chain are archived.
+   *
+   * @param objectHasher object hasher
+   * @param rawBlocks hash -> block datasource
+   * @param blockIndex slot -> blocks index
+   * @param archive finalized blocks archive
+   * @param serializerFactory serializer factory to encode archived blocks
+   */
+  public BeaconBlockStorageImpl(
+      ObjectHasher<Hash32> objectHasher,
+      DataSource<Hash32, BeaconBlock> rawBlocks,
+      SlotBlockIndex blockIndex,
+      SegmentArchive archive,
+      SerializerFactory serializerFactory) {
+    this.objectHasher = objectHasher;
+    this.rawBlocks = rawBlocks;
+    this.blockIndex = blockIndex;
+    this.checkBlockExistOnAdd = true;
+    this.checkParentExistOnAdd = true;
+    this.archive = archive;
+    this.archiveEncoder = serializerFactory.getSerializer(BeaconBlock.class);
+    this.archiveDecoder = serializerFactory.getDeserializer(BeaconBlock.class);
   }
 
   @Override
@@ -98,38 +115,185 @@ public class BeaconBlockStorageImpl implements BeaconBlockStorage {
 
   @Override
   public List<Hash32> getSlotBlocks(SlotNumber slot) {
-    return blockIndex
-        .get(slot.getValue())
-        .map(slotBlocks -> (List<Hash32>) new ArrayList<>(slotBlocks.getBlockHashes()))
-        .orElse(Collections.emptyList());
+    return blockIndex.get(slot.getValue());
+  }
+
+  @Override
+  public Optional<Hash32> getFirstSlotBlock(SlotNumber slot) {
+    return blockIndex.getFirst(slot.getValue());
+  }
+
+  @Override
+  public SortedMap<SlotNumber, List<Hash32>> getSlotBlocks(SlotNumber from, SlotNumber to) {
+    SortedMap<SlotNumber, List<Hash32>> ret = new TreeMap<>();
+    blockIndex.forEach(
+        from.getValue(), to.getValue(), (slot, roots) -> ret.put(SlotNumber.of(slot), roots));
+    return ret;
+  }
+
+  @Override
+  public void onFinalized(Hash32 finalizedRoot) {
+    Optional<BeaconBlock> finalized = get(finalizedRoot);
+    if (!finalized.isPresent()) {
+      return;
+    }
+    blockIndex.cacheFrom(finalized.get().getSlot().getValue());
+    if (!ancestorIndex.rebase(finalizedRoot)) {
+      buildAncestorIndex(finalizedRoot, finalized.get());
+    }
+    if (archive != null) {
+      archiveBoundary = finalizedRoot;
+    }
+  }
+
+  /** Loads finalized block and its descendants to the ancestor index. */
+  private void buildAncestorIndex(Hash32 finalizedRoot, BeaconBlock finalized) {
+    ancestorIndex.clear();
+    ancestorIndex.add(finalizedRoot, finalized.getParentRoot(), finalized.getSlot().getValue());
+    blockIndex.forEach(
+        finalized.getSlot().getValue() + 1,
+        blockIndex.size(),
+        (slot, roots) -> {
+          for (Hash32 root : roots) {
+            rawBlocks
+                .get(root)
+                .ifPresent(block -> ancestorIndex.add(root, block.getParentRoot(), slot));
+          }
+        });
+  }
+
+  /**
+   * Looks up an ancestor in an in-memory index of blocks starting from the finalized one, lookups
+   * out of the index walk blocks in the storage.
+   */
+  @Override
+  public Optional<Hash32> getAncestor(Hash32 root, SlotNumber slot) {
+    Optional<Hash32> ancestor = ancestorIndex.getAncestor(root, slot.getValue());
+    return ancestor.isPresent() ? ancestor : BeaconBlockStorage.super.getAncestor(root, slot);
+  }
+
+  /**
+   * Returns archived blocks of a range of slots. Blocks are read-only slices of memory-mapped
+   * archive, they are not copied nor decoded, hence, could be sent over the wire as is.
+   *
+   * @param from the first slot, inclusive.
+   * @param to the last slot, exclusive.
+   * @return serialized blocks with their roots, nothing if archive is not used.
+   */
+  public List<SegmentArchive.Entry> getArchivedBlocks(SlotNumber from, SlotNumber to) {
+    if (archive == null) {
+      return Collections.emptyList();
+    }
+    return archive.getRange(from.getValue(), to.getValue());
+  }
+
+  /**
+   * Moves canonical blocks up to finalized one from raw blocks storage to the archive. Blocks are
+   * appended and flushed without the batch runner, only their removal from raw blocks storage is
+   * passed to the runner.
+   */
+  @Override
+  public void archiveFinalized(Consumer<Runnable> batchRunner) {
+    Hash32 finalizedRoot = archiveBoundary;
+    if (archive == null || finalizedRoot == null) {
+      return;
+    }
+    synchronized (archiveLock) {
+      Optional<BeaconBlock> finalized = get(finalizedRoot);
+      if (!finalized.isPresent()) {
+        return;
+      }
+      List<Hash32> roots = archive(finalizedRoot, finalized.get());
+      if (!roots.isEmpty()) {
+        batchRunner.accept(() -> roots.forEach(rawBlocks::remove));
+      }
+    }
+  }
+
+  /**
+   * Appends canonical blocks up to finalized one to the archive and flushes it.
+   *
+   * @return roots of appended blocks.
+   */
+  private List<Hash32> archive(Hash32 finalizedRoot, BeaconBlock finalized) {
+    long archivedTo = archive.getLastSlot().map(slot -> slot + 1).orElse(0L);
+    List<Hash32> roots = new ArrayList<>();
+    List<BeaconBlock> blocks = new ArrayList<>();
+    Hash32 root = finalizedRoot;
+    Optional<BeaconBlock> block = Optional.of(finalized);
+    while (block.isPresent()
+        && block.get().getSlot().getValue() >= archivedTo
+        && !archive.containsKey(root)) {
+      roots.add(root);
+      blocks.add(block.get());
+      if (block.get().getSlot().equals(SlotNumber.ZERO)) {
+        break;
+      }
+      root = block.get().getParentRoot();
+      block = rawBlocks.get(root);
+    }
+
+    for (int i = roots.size() - 1; i >= 0; i--) {
+      BeaconBlock b = blocks.get(i);
+      archive.append(b.getSlot().getValue(), roots.get(i), archiveEncoder.apply(b));
+    }
+    // blocks are removed only after the archive is persisted
+    archive.flush();
+    return roots;
+  }
+
+  @Override
+  public void close() {
+    if (archive == null) {
+      return;
+    }
+    synchronized (archiveLock) {
+      archive.close();
+    }
   }
 
   @Override
   public Optional<BeaconBlock> get(@Nonnull Hash32 key) {
-    return rawBlocks.get(key);
+    Optional<BeaconBlock> block = rawBlocks.get(key);
+    if (!block.isPresent() && archive != null) {
+      return archive.get(key).map(archiveDecoder);
+    }
+    return block;
+  }
+
+  @Override
+  public boolean containsKey(@Nonnull Hash32 key) {
+    return rawBlocks.containsKey(key) || (archive != null && archive.containsKey(key));
+  }
+
+  /** Returns a size of a block that is not archived yet, archived blocks are never removed. */
+  @Override
+  public Optional<Integer> getSize(@Nonnull Hash32 key) {
+    return rawBlocks.getSize(key);
   }
 
   @Override
   public void put(@Nonnull Hash32 newBlockHash, @Nonnull BeaconBlock newBlock) {
     if (checkBlockExistOnAdd) {
-      if (get(newBlockHash).isPresent()) {
+      if (containsKey(newBlockHash)) {
         throw new IllegalArgumentException(
             "Block with hash already exists in storage: " + newBlock);
       }
     }
 
-    if (!isEmpty() && checkParentExistOnAdd) {
-      if (!get(newBlock.getParentRoot()).isPresent()) {
+    boolean empty = isEmpty();
+    if (!empty && checkParentExistOnAdd) {
+      if (!containsKey(newBlock.getParentRoot())) {
         throw new IllegalArgumentException("No parent found for added block: " + newBlock);
       }
     }
 
     rawBlocks.put(newBlockHash, newBlock);
-    SlotBlocks slotBlocks = new SlotBlocks(newBlockHash);
-    blockIndex.update(
-        newBlock.getSlot().getValue(),
-        blocks -> blocks.addBlock(newBlockHash),
-        () -> slotBlocks);
+    blockIndex.add(newBlock.getSlot().getValue(), newBlockHash);
+    // until the index is built from finalized block it may only start from the first block
+    if (empty || ancestorIndex.size() > 0) {
+      ancestorIndex.add(newBlockHash, newBlock.getParentRoot(), newBlock.getSlot().getValue());
+    }
   }
 
   @Override
@@ -142,19 +306,8 @@ public class BeaconBlockStorageImpl implements BeaconBlockStorage {
     Optional<BeaconBlock> block = rawBlocks.get(key);
     if (block.isPresent()) {
       rawBlocks.remove(key);
-      SlotBlocks slotBlocks =
-          blockIndex
-              .get(block.get().getSlot().getValue())
-              .orElseThrow(
-                  () ->
-                      new IllegalStateException(
-                          "Internal error: rawBlocks contains block, but blockIndex misses: "
-                              + key));
-      List<Hash32> newBlocks = new ArrayList<>(slotBlocks.getBlockHashes());
-      newBlocks.remove(key);
-      blockIndex.put(
-          block.get().getSlot().getValue(),
-          new SlotBlocks(newBlocks));
+      blockIndex.remove(block.get().getSlot().getValue(), key);
+      ancestorIndex.remove(key);
     }
   }
 
@@ -167,15 +320,13 @@ public class BeaconBlockStorageImpl implements BeaconBlockStorage {
     BeaconBlock start = block.get();
     final List<BeaconBlock> children = new ArrayList<>();
 
-    for (SlotNumber curSlot = start.getSlot().increment();
-        curSlot.lessEqual(UInt64s.min(start.getSlot().plus(limit), getMaxSlot()));
-        curSlot = curSlot.increment()) {
-      getSlotBlocks(curSlot).stream()
-          .map(this::get)
-          .filter(Optional::isPresent)
-          .filter(b -> b.get().getParentRoot().equals(parent))
-          .forEach(b -> children.add(b.get()));
-    }
+    SlotNumber lastSlot = UInt64s.min(start.getSlot().plus(limit), getMaxSlot());
+    getSlotBlocks(start.getSlot().increment(), lastSlot.increment()).values().stream()
+        .flatMap(List::stream)
+        .map(this::get)
+        .filter(Optional::isPresent)
+        .filter(b -> b.get().getParentRoot().equals(parent))
+        .forEach(b -> children.add(b.get()));
 
     return children;
   }
@@ -189,22 +340,59 @@ public class BeaconBlockStorageImpl implements BeaconBlockStorage {
       Database database,
       ObjectHasher<Hash32> objectHasher,
       SerializerFactory serializerFactory) {
+    return create(database, objectHasher, serializerFactory, null);
+  }
+
+  /**
+   * Creates a storage on top of a database.
+   *
+   * <p>If the database has a slot index of previous layout, see {@link LegacySlotBlockIndex}, and
+   * has no index of current layout then the index is converted. Converted index is persisted by
+   * the next database commit.
+   *
+   * @param database database
+   * @param objectHasher object hasher
+   * @param serializerFactory serializer factory
+   * @param archiveDirectory a directory of finalized blocks archive, {@code null} keeps finalized
+   *     blocks in the database
+   * @return block storage
+   */
+  public static BeaconBlockStorageImpl create(
+      Database database,
+      ObjectHasher<Hash32> objectHasher,
+      SerializerFactory serializerFactory,
+      @Nullable Path archiveDirectory) {
     DataSource<BytesValue, BytesValue> backingBlockSource = database.createStorage("beacon-block");
     DataSource<BytesValue, BytesValue> backingIndexSource =
-        database.createStorage("beacon-block-index");
+        database.createStorage("beacon-slot-index", INDEX_CACHE_SIZE);
 
-    DataSource<Hash32, BeaconBlock> blockSource =
+    DataSource<Hash32, BeaconBlock> decodedBlockSource =
         new CodecSource<>(
             backingBlockSource,
             key -> key,
             serializerFactory.getSerializer(BeaconBlock.class),
             serializerFactory.getDeserializer(BeaconBlock.class));
-    HoleyList<SlotBlocks> indexSource =
-        new DataSourceList<>(
-            backingIndexSource,
-            serializerFactory.getSerializer(SlotBlocks.class),
-            serializerFactory.getDeserializer(SlotBlocks.class));
+    DataSource<Hash32, BeaconBlock> blockSource =
+        new ReadCache<>(decodedBlockSource, key -> 0L, block -> 1L, BLOCK_CACHE_SIZE, true);
+    SlotBlockIndex index = new SlotBlockIndex(backingIndexSource);
+    if (index.size() == 0) {
+      // database of previous layout, its slot index is converted once
+      LegacySlotBlockIndex legacyIndex =
+          new LegacySlotBlockIndex(
+              database.createStorage(LegacySlotBlockIndex.STORAGE_NAME), serializerFactory);
+      if (legacyIndex.size() > 0) {
+        legacyIndex.copyTo(index);
+      }
+    }
 
-    return new BeaconBlockStorageImpl(objectHasher, blockSource, indexSource);
+    if (archiveDirectory != null) {
+      return new BeaconBlockStorageImpl(
+          objectHasher,
+          blockSource,
+          index,
+          new SegmentArchive(archiveDirectory, ARCHIVE_SEGMENT_SIZE),
+          serializerFactory);
+    }
+    return new BeaconBlockStorageImpl(objectHasher, blockSource, index);
   }
 }
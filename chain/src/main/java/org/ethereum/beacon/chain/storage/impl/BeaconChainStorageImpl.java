@@ -82,4 +82,15 @@ public class BeaconChainStorageImpl implements BeaconChainStorage {
     tupleStorage.flush();
     database.commit();
   }
+
+  @Override
+  public void sync() {
+    tupleStorage.flush();
+    database.sync();
+  }
+
+  @Override
+  public void close() {
+    blockStorage.close();
+  }
 }
@@ -0,0 +1,414 @@
+package org.ethereum.beacon.chain.storage.impl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import org.ethereum.beacon.core.BeaconBlockHeader;
+import org.ethereum.beacon.core.BeaconState;
+import org.ethereum.beacon.core.MutableBeaconState;
+import org.ethereum.beacon.core.state.Checkpoint;
+import org.ethereum.beacon.core.state.Eth1Data;
+import org.ethereum.beacon.core.state.Fork;
+import org.ethereum.beacon.core.state.PendingAttestation;
+import org.ethereum.beacon.core.state.ValidatorRecord;
+import org.ethereum.beacon.core.types.EpochNumber;
+import org.ethereum.beacon.core.types.Gwei;
+import org.ethereum.beacon.core.types.SlotNumber;
+import org.ethereum.beacon.core.types.Time;
+import org.ethereum.beacon.core.types.ValidatorIndex;
+import org.ethereum.beacon.ssz.annotation.SSZ;
+import org.ethereum.beacon.ssz.annotation.SSZSerializable;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+import tech.pegasys.artemis.util.bytes.Bytes32;
+import tech.pegasys.artemis.util.bytes.Bytes8;
+import tech.pegasys.artemis.util.bytes.BytesValue;
+import tech.pegasys.artemis.util.collections.Bitvector;
+import tech.pegasys.artemis.util.collections.ReadList;
+import tech.pegasys.artemis.util.collections.WriteList;
+import tech.pegasys.artemis.util.collections.WriteVector;
+import tech.pegasys.artemis.util.uint.UInt64;
+
+/**
+ * Field-level difference between two {@link BeaconState}s.
+ *
+ * <p>Scalar fields are always stored as is, they are tiny. Lists and vectors are stored as a new
+ * size plus a set of changed {@code (index, value)} pairs, thus unchanged validator records,
+ * balances, roots and pending attestations don't occupy any space. Changed values are kept
+ * encoded by element {@link Codecs}, hence, one {@link ListDelta} serves lists of any type.
+ *
+ * @see DeltaBeaconStateStorageImpl
+ */
+@SSZSerializable
+public class BeaconStateDelta {
+
+  @SSZ private final Time genesisTime;
+  @SSZ private final SlotNumber slot;
+  @SSZ private final Fork fork;
+  @SSZ private final BeaconBlockHeader latestBlockHeader;
+  @SSZ private final ListDelta blockRoots;
+  @SSZ private final ListDelta stateRoots;
+  @SSZ private final ListDelta historicalRoots;
+  @SSZ private final Eth1Data eth1Data;
+  @SSZ private final ListDelta eth1DataVotes;
+  @SSZ private final UInt64 eth1DepositIndex;
+  @SSZ private final ListDelta validators;
+  @SSZ private final ListDelta balances;
+  @SSZ private final ListDelta randaoMixes;
+  @SSZ private final ListDelta slashings;
+  @SSZ private final ListDelta previousEpochAttestations;
+  @SSZ private final ListDelta currentEpochAttestations;
+
+  @SSZ(vectorLengthVar = "spec.JUSTIFICATION_BITS_LENGTH")
+  private final Bitvector justificationBits;
+
+  @SSZ private final Checkpoint previousJustifiedCheckpoint;
+  @SSZ private final Checkpoint currentJustifiedCheckpoint;
+  @SSZ private final Checkpoint finalizedCheckpoint;
+
+  public BeaconStateDelta(
+      Time genesisTime,
+      SlotNumber slot,
+      Fork fork,
+      BeaconBlockHeader latestBlockHeader,
+      ListDelta blockRoots,
+      ListDelta stateRoots,
+      ListDelta historicalRoots,
+      Eth1Data eth1Data,
+      ListDelta eth1DataVotes,
+      UInt64 eth1DepositIndex,
+      ListDelta validators,
+      ListDelta balances,
+      ListDelta randaoMixes,
+      ListDelta slashings,
+      ListDelta previousEpochAttestations,
+      ListDelta currentEpochAttestations,
+      Bitvector justificationBits,
+      Checkpoint previousJustifiedCheckpoint,
+      Checkpoint currentJustifiedCheckpoint,
+      Checkpoint finalizedCheckpoint) {
+    this.genesisTime = genesisTime;
+    this.slot = slot;
+    this.fork = fork;
+    this.latestBlockHeader = latestBlockHeader;
+    this.blockRoots = blockRoots;
+    this.stateRoots = stateRoots;
+    this.historicalRoots = historicalRoots;
+    this.eth1Data = eth1Data;
+    this.eth1DataVotes = eth1DataVotes;
+    this.eth1DepositIndex = eth1DepositIndex;
+    this.validators = validators;
+    this.balances = balances;
+    this.randaoMixes = randaoMixes;
+    this.slashings = slashings;
+    this.previousEpochAttestations = previousEpochAttestations;
+    this.currentEpochAttestations = currentEpochAttestations;
+    this.justificationBits = justificationBits;
+    this.previousJustifiedCheckpoint = previousJustifiedCheckpoint;
+    this.currentJustifiedCheckpoint = currentJustifiedCheckpoint;
+    this.finalizedCheckpoint = finalizedCheckpoint;
+  }
+
+  /**
+   * Computes a delta that turns {@code base} into {@code target}.
+   *
+   * @param base a base state, normally a snapshot.
+   * @param target a state to be encoded.
+   * @param codecs codecs of list elements.
+   * @return a delta.
+   */
+  public static BeaconStateDelta compute(BeaconState base, BeaconState target, Codecs codecs) {
+    return new BeaconStateDelta(
+        target.getGenesisTime(),
+        target.getSlot(),
+        target.getFork(),
+        target.getLatestBlockHeader(),
+        ListDelta.compute(base.getBlockRoots(), target.getBlockRoots(), codecs.hash),
+        ListDelta.compute(base.getStateRoots(), target.getStateRoots(), codecs.hash),
+        ListDelta.compute(base.getHistoricalRoots(), target.getHistoricalRoots(), codecs.hash),
+        target.getEth1Data(),
+        ListDelta.compute(base.getEth1DataVotes(), target.getEth1DataVotes(), codecs.eth1Data),
+        target.getEth1DepositIndex(),
+        ListDelta.compute(base.getValidators(), target.getValidators(), codecs.validator),
+        ListDelta.compute(base.getBalances(), target.getBalances(), codecs.gwei),
+        ListDelta.compute(base.getRandaoMixes(), target.getRandaoMixes(), codecs.hash),
+        ListDelta.compute(base.getSlashings(), target.getSlashings(), codecs.gwei),
+        ListDelta.compute(
+            base.getPreviousEpochAttestations(),
+            target.getPreviousEpochAttestations(),
+            codecs.attestation),
+        ListDelta.compute(
+            base.getCurrentEpochAttestations(),
+            target.getCurrentEpochAttestations(),
+            codecs.attestation),
+        target.getJustificationBits(),
+        target.getPreviousJustifiedCheckpoint(),
+        target.getCurrentJustifiedCheckpoint(),
+        target.getFinalizedCheckpoint());
+  }
+
+  /**
+   * Applies this delta to a state.
+   *
+   * @param state a mutable copy of the base state this delta was computed against.
+   * @param codecs codecs of list elements.
+   */
+  public void applyTo(MutableBeaconState state, Codecs codecs) {
+    state.setGenesisTime(genesisTime);
+    state.setSlot(slot);
+    state.setFork(fork);
+    state.setLatestBlockHeader(latestBlockHeader);
+    blockRoots.applyTo(state.getBlockRoots(), SlotNumber::of, codecs.hash);
+    stateRoots.applyTo(state.getStateRoots(), SlotNumber::of, codecs.hash);
+    historicalRoots.applyTo(state.getHistoricalRoots(), Integer::valueOf, codecs.hash);
+    state.setEth1Data(eth1Data);
+    eth1DataVotes.applyTo(state.getEth1DataVotes(), Integer::valueOf, codecs.eth1Data);
+    state.setEth1DepositIndex(eth1DepositIndex);
+    validators.applyTo(state.getValidators(), ValidatorIndex::of, codecs.validator);
+    balances.applyTo(state.getBalances(), ValidatorIndex::of, codecs.gwei);
+    randaoMixes.applyTo(state.getRandaoMixes(), EpochNumber::of, codecs.hash);
+    slashings.applyTo(state.getSlashings(), EpochNumber::of, codecs.gwei);
+    previousEpochAttestations.applyTo(
+        state.getPreviousEpochAttestations(), Integer::valueOf, codecs.attestation);
+    currentEpochAttestations.applyTo(
+        state.getCurrentEpochAttestations(), Integer::valueOf, codecs.attestation);
+    state.setJustificationBits(justificationBits);
+    state.setPreviousJustifiedCheckpoint(previousJustifiedCheckpoint);
+    state.setCurrentJustifiedCheckpoint(currentJustifiedCheckpoint);
+    state.setFinalizedCheckpoint(finalizedCheckpoint);
+  }
+
+  public Time getGenesisTime() {
+    return genesisTime;
+  }
+
+  public SlotNumber getSlot() {
+    return slot;
+  }
+
+  public Fork getFork() {
+    return fork;
+  }
+
+  public BeaconBlockHeader getLatestBlockHeader() {
+    return latestBlockHeader;
+  }
+
+  public ListDelta getBlockRoots() {
+    return blockRoots;
+  }
+
+  public ListDelta getStateRoots() {
+    return stateRoots;
+  }
+
+  public ListDelta getHistoricalRoots() {
+    return historicalRoots;
+  }
+
+  public Eth1Data getEth1Data() {
+    return eth1Data;
+  }
+
+  public ListDelta getEth1DataVotes() {
+    return eth1DataVotes;
+  }
+
+  public UInt64 getEth1DepositIndex() {
+    return eth1DepositIndex;
+  }
+
+  public ListDelta getValidators() {
+    return validators;
+  }
+
+  public ListDelta getBalances() {
+    return balances;
+  }
+
+  public ListDelta getRandaoMixes() {
+    return randaoMixes;
+  }
+
+  public ListDelta getSlashings() {
+    return slashings;
+  }
+
+  public ListDelta getPreviousEpochAttestations() {
+    return previousEpochAttestations;
+  }
+
+  public ListDelta getCurrentEpochAttestations() {
+    return currentEpochAttestations;
+  }
+
+  public Bitvector getJustificationBits() {
+    return justificationBits;
+  }
+
+  public Checkpoint getPreviousJustifiedCheckpoint() {
+    return previousJustifiedCheckpoint;
+  }
+
+  public Checkpoint getCurrentJustifiedCheckpoint() {
+    return currentJustifiedCheckpoint;
+  }
+
+  public Checkpoint getFinalizedCheckpoint() {
+    return finalizedCheckpoint;
+  }
+
+  /**
+   * Collects elements of {@code target} that differ from elements of {@code base} at the same
+   * position. Elements beyond the size of {@code base} are always collected.
+   */
+  private static <V> void diff(
+      ReadList<?, V> base,
+      ReadList<?, V> target,
+      Function<V, BytesValue> encoder,
+      List<UInt64> indices,
+      List<BytesValue> values) {
+    Iterator<V> baseIt = base.iterator();
+    Iterator<V> targetIt = target.iterator();
+    long idx = 0;
+    while (targetIt.hasNext()) {
+      V targetVal = targetIt.next();
+      V baseVal = baseIt.hasNext() ? baseIt.next() : null;
+      if (!targetVal.equals(baseVal)) {
+        indices.add(UInt64.valueOf(idx));
+        values.add(encoder.apply(targetVal));
+      }
+      idx++;
+    }
+  }
+
+  /** Writes collected elements back to a list of fixed size, vectors never change their size. */
+  private static <I extends Number, V> void patch(
+      WriteVector<I, V> vector,
+      Function<Integer, I> indexConverter,
+      Function<BytesValue, V> decoder,
+      List<UInt64> indices,
+      List<BytesValue> values) {
+    for (int i = 0; i < indices.size(); i++) {
+      vector.set(indexConverter.apply(indices.get(i).intValue()), decoder.apply(values.get(i)));
+    }
+  }
+
+  /**
+   * Truncates list to its new size if it has been shrunk and then writes collected elements back.
+   * Indices are sorted in ascending order, thus appended elements come in the right order.
+   */
+  private static <I extends Number, V> void patch(
+      WriteList<I, V> list,
+      Function<Integer, I> indexConverter,
+      Function<BytesValue, V> decoder,
+      UInt64 size,
+      List<UInt64> indices,
+      List<BytesValue> values) {
+    int newSize = size.intValue();
+    while (list.size().intValue() > newSize) {
+      list.remove(indexConverter.apply(list.size().intValue() - 1));
+    }
+    for (int i = 0; i < indices.size(); i++) {
+      int idx = indices.get(i).intValue();
+      V value = decoder.apply(values.get(i));
+      if (idx < list.size().intValue()) {
+        list.set(indexConverter.apply(idx), value);
+      } else {
+        list.add(value);
+      }
+    }
+  }
+
+  /** Changed elements of a list or a vector, elements are encoded by {@link ElementCodec}. */
+  @SSZSerializable
+  public static class ListDelta {
+    @SSZ private final UInt64 size;
+    @SSZ private final List<UInt64> indices;
+    @SSZ private final List<BytesValue> values;
+
+    public ListDelta(UInt64 size, List<UInt64> indices, List<BytesValue> values) {
+      this.size = size;
+      this.indices = indices;
+      this.values = values;
+    }
+
+    static <V> ListDelta compute(
+        ReadList<?, V> base, ReadList<?, V> target, ElementCodec<V> codec) {
+      ListDelta delta =
+          new ListDelta(
+              UInt64.valueOf(target.size().longValue()), new ArrayList<>(), new ArrayList<>());
+      diff(base, target, codec.encoder, delta.indices, delta.values);
+      return delta;
+    }
+
+    <I extends Number, V> void applyTo(
+        WriteVector<I, V> vector, Function<Integer, I> idx, ElementCodec<V> codec) {
+      patch(vector, idx, codec.decoder, indices, values);
+    }
+
+    <I extends Number, V> void applyTo(
+        WriteList<I, V> list, Function<Integer, I> idx, ElementCodec<V> codec) {
+      patch(list, idx, codec.decoder, size, indices, values);
+    }
+
+    public UInt64 getSize() {
+      return size;
+    }
+
+    public List<UInt64> getIndices() {
+      return indices;
+    }
+
+    public List<BytesValue> getValues() {
+      return values;
+    }
+  }
+
+  /** Encoder and decoder of list elements. */
+  static final class ElementCodec<V> {
+    private final Function<V, BytesValue> encoder;
+    private final Function<BytesValue, V> decoder;
+
+    ElementCodec(Function<V, BytesValue> encoder, Function<BytesValue, V> decoder) {
+      this.encoder = encoder;
+      this.decoder = decoder;
+    }
+
+    static <V> ElementCodec<V> of(SerializerFactory serializerFactory, Class<V> elementClass) {
+      return new ElementCodec<>(
+          serializerFactory.getSerializer(elementClass),
+          serializerFactory.getDeserializer(elementClass));
+    }
+  }
+
+  /**
+   * Codecs of elements of state lists. Roots and balances are encoded as is, containers are
+   * encoded with a serializer factory.
+   */
+  public static final class Codecs {
+    private final ElementCodec<Hash32> hash =
+        new ElementCodec<>(root -> root, bytes -> Hash32.wrap(Bytes32.wrap(bytes.extractArray())));
+    private final ElementCodec<Gwei> gwei =
+        new ElementCodec<>(
+            UInt64::toBytes8LittleEndian,
+            bytes ->
+                Gwei.castFrom(UInt64.fromBytesLittleEndian(Bytes8.wrap(bytes.extractArray()))));
+    private final ElementCodec<ValidatorRecord> validator;
+    private final ElementCodec<Eth1Data> eth1Data;
+    private final ElementCodec<PendingAttestation> attestation;
+
+    public Codecs(SerializerFactory serializerFactory) {
+      Function<ValidatorRecord, BytesValue> validatorSerializer =
+          serializerFactory.getSerializer(ValidatorRecord.class);
+      // registry may return views of its records, serializer resolves a scheme by value class
+      this.validator =
+          new ElementCodec<>(
+              record ->
+                  validatorSerializer.apply(ValidatorRecord.Builder.fromRecord(record).build()),
+              serializerFactory.getDeserializer(ValidatorRecord.class));
+      this.eth1Data = ElementCodec.of(serializerFactory, Eth1Data.class);
+      this.attestation = ElementCodec.of(serializerFactory, PendingAttestation.class);
+    }
+  }
+}
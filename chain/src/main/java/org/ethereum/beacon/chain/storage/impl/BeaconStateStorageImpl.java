@@ -30,6 +30,18 @@ public class BeaconStateStorageImpl implements BeaconStateStorage {
     return source.get(key);
   }
 
+  @Override
+  public boolean containsKey(@Nonnull Hash32 key) {
+    Objects.requireNonNull(key);
+    return source.containsKey(key);
+  }
+
+  @Override
+  public Optional<Integer> getSize(@Nonnull Hash32 key) {
+    Objects.requireNonNull(key);
+    return source.getSize(key);
+  }
+
   @Override
   public void put(@Nonnull Hash32 key, @Nonnull BeaconState value) {
     Objects.requireNonNull(key);
@@ -1,5 +1,7 @@
 package org.ethereum.beacon.chain.storage.impl;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Objects;
 import java.util.Optional;
 import javax.annotation.Nonnull;
@@ -7,35 +9,95 @@ import org.ethereum.beacon.chain.storage.BeaconBlockStorage;
 import org.ethereum.beacon.chain.storage.BeaconStateStorage;
 import org.ethereum.beacon.chain.BeaconTuple;
 import org.ethereum.beacon.chain.storage.BeaconTupleStorage;
+import org.ethereum.beacon.consensus.BeaconChainSpec;
+import org.ethereum.beacon.consensus.BeaconStateEx;
+import org.ethereum.beacon.consensus.BlockTransition;
 import org.ethereum.beacon.consensus.TransitionType;
 import org.ethereum.beacon.consensus.transition.BeaconStateExImpl;
+import org.ethereum.beacon.consensus.transition.EmptySlotTransition;
+import org.ethereum.beacon.core.BeaconBlock;
+import org.ethereum.beacon.core.BeaconState;
+import org.ethereum.beacon.util.cache.SizeLimitedLRUCache;
 import tech.pegasys.artemis.ethereum.core.Hash32;
 
+/**
+ * A tuple storage which works in one of two modes:
+ *
+ * <ul>
+ *   <li>every post-block state is persisted, this is the mode used by default;
+ *   <li>state regeneration mode, only checkpoint states, i.e. states of the first block of each
+ *       epoch, and finalized states are persisted. Other states are regenerated on demand by
+ *       replaying blocks on top of the nearest persisted ancestor state.
+ * </ul>
+ *
+ * <p>In the regeneration mode recently used states are kept in an LRU cache limited by a memory
+ * budget, which keeps the head and its recent ancestors available without replaying.
+ */
 public class BeaconTupleStorageImpl implements BeaconTupleStorage {
 
+  /** Rough estimate of memory consumed by a hash along with its wrappers. */
+  private static final long HASH_MEM_SIZE = 80;
+  /** Rough estimate of memory consumed by a validator record. */
+  private static final long VALIDATOR_MEM_SIZE = 360;
+  /** Rough estimate of memory consumed by a gwei value. */
+  private static final long GWEI_MEM_SIZE = 40;
+  /** Rough estimate of memory consumed by a pending attestation. */
+  private static final long ATTESTATION_MEM_SIZE = 600;
+
   private final BeaconBlockStorage blockStorage;
   private final BeaconStateStorage stateStorage;
 
+  private final BeaconChainSpec spec;
+  private final EmptySlotTransition preBlockTransition;
+  private final BlockTransition<BeaconStateEx> blockTransition;
+  private final SizeLimitedLRUCache<Hash32, BeaconStateEx> hotStates;
+  private Hash32 lastPersistedFinalizedRoot = Hash32.ZERO;
+
   public BeaconTupleStorageImpl(BeaconBlockStorage blockStorage, BeaconStateStorage stateStorage) {
     this.blockStorage = blockStorage;
     this.stateStorage = stateStorage;
+    this.spec = null;
+    this.preBlockTransition = null;
+    this.blockTransition = null;
+    this.hotStates = null;
+  }
+
+  /**
+   * Creates a storage working in state regeneration mode.
+   *
+   * @param blockStorage block storage.
+   * @param stateStorage storage of checkpoint and finalized states.
+   * @param spec beacon chain spec.
+   * @param preBlockTransition empty slot transition used to replay blocks.
+   * @param blockTransition block transition used to replay blocks.
+   * @param hotStatesMemoryLimit memory budget of recently used states cache, in bytes.
+   */
+  public BeaconTupleStorageImpl(
+      BeaconBlockStorage blockStorage,
+      BeaconStateStorage stateStorage,
+      BeaconChainSpec spec,
+      EmptySlotTransition preBlockTransition,
+      BlockTransition<BeaconStateEx> blockTransition,
+      long hotStatesMemoryLimit) {
+    this.blockStorage = blockStorage;
+    this.stateStorage = stateStorage;
+    this.spec = spec;
+    this.preBlockTransition = preBlockTransition;
+    this.blockTransition = blockTransition;
+    this.hotStates =
+        new SizeLimitedLRUCache<>(hotStatesMemoryLimit, BeaconTupleStorageImpl::estimateMemSize);
   }
 
   @Override
   public Optional<BeaconTuple> get(@Nonnull Hash32 hash) {
     Objects.requireNonNull(hash);
-    return blockStorage
-        .get(hash)
-        .map(
-            block ->
-                stateStorage
-                    .get(block.getStateRoot())
-                    .map(
-                        state ->
-                            BeaconTuple.of(
-                                block, new BeaconStateExImpl(state, TransitionType.UNKNOWN)))
-                    .orElseThrow(
-                        () -> new IllegalStateException("State inconsistency for block " + block)));
+    return blockStorage.get(hash).map(block -> BeaconTuple.of(block, loadState(block)));
+  }
+
+  @Override
+  public boolean containsKey(@Nonnull Hash32 hash) {
+    Objects.requireNonNull(hash);
+    return blockStorage.containsKey(hash);
   }
 
   @Override
@@ -46,6 +108,9 @@ public class BeaconTupleStorageImpl implements BeaconTupleStorage {
   @Override
   public void remove(@Nonnull Hash32 hash) {
     Objects.requireNonNull(hash);
+    if (isRegenerationMode()) {
+      blockStorage.get(hash).ifPresent(block -> hotStates.remove(block.getStateRoot()));
+    }
     blockStorage.remove(hash);
     stateStorage.remove(hash);
   }
@@ -65,7 +130,125 @@ public class BeaconTupleStorageImpl implements BeaconTupleStorage {
   public void put(@Nonnull BeaconTuple tuple) {
     Objects.requireNonNull(tuple);
 
-    blockStorage.put(tuple.getBlock());
-    stateStorage.put(tuple.getBlock().getStateRoot(), tuple.getState());
+    BeaconBlock block = tuple.getBlock();
+    if (!isRegenerationMode()) {
+      blockStorage.put(block);
+      stateStorage.put(block.getStateRoot(), tuple.getState());
+      return;
+    }
+
+    boolean checkpoint = isCheckpoint(block);
+    blockStorage.put(block);
+    hotStates.put(block.getStateRoot(), tuple.getState());
+    if (checkpoint) {
+      stateStorage.put(block.getStateRoot(), tuple.getState());
+    }
+    persistFinalizedState(tuple.getState());
+  }
+
+  private boolean isRegenerationMode() {
+    return hotStates != null;
+  }
+
+  /**
+   * Checks whether a block is the first block of its epoch, state of such block is a checkpoint
+   * state. A block without a known parent, i.e. genesis, is a checkpoint as well.
+   */
+  private boolean isCheckpoint(BeaconBlock block) {
+    return blockStorage
+        .get(block.getParentRoot())
+        .map(
+            parent ->
+                spec.compute_epoch_at_slot(parent.getSlot())
+                    .less(spec.compute_epoch_at_slot(block.getSlot())))
+        .orElse(true);
+  }
+
+  /** Makes sure that a state of the latest finalized block is persisted. */
+  private void persistFinalizedState(BeaconState state) {
+    Hash32 finalizedRoot = state.getFinalizedCheckpoint().getRoot();
+    if (finalizedRoot.equals(lastPersistedFinalizedRoot)) {
+      return;
+    }
+    blockStorage
+        .get(finalizedRoot)
+        .ifPresent(
+            finalized -> {
+              if (!stateStorage.containsKey(finalized.getStateRoot())) {
+                stateStorage.put(finalized.getStateRoot(), loadState(finalized));
+              }
+              lastPersistedFinalizedRoot = finalizedRoot;
+            });
+  }
+
+  private BeaconStateEx loadState(BeaconBlock block) {
+    if (!isRegenerationMode()) {
+      return loadStoredState(block)
+          .orElseThrow(() -> new IllegalStateException("State inconsistency for block " + block));
+    }
+
+    Optional<BeaconStateEx> state = loadHotOrStoredState(block);
+    if (state.isPresent()) {
+      return state.get();
+    }
+
+    // collect blocks down to the nearest ancestor with available state
+    Deque<BeaconBlock> blocks = new ArrayDeque<>();
+    BeaconBlock current = block;
+    BeaconStateEx ancestorState;
+    while (true) {
+      blocks.push(current);
+      BeaconBlock child = current;
+      current =
+          blockStorage
+              .get(child.getParentRoot())
+              .orElseThrow(
+                  () -> new IllegalStateException("State inconsistency for block " + child));
+      Optional<BeaconStateEx> stored = loadHotOrStoredState(current);
+      if (stored.isPresent()) {
+        ancestorState = stored.get();
+        break;
+      }
+    }
+
+    BeaconStateEx result = ancestorState;
+    while (!blocks.isEmpty()) {
+      BeaconBlock next = blocks.pop();
+      result = blockTransition.apply(preBlockTransition.apply(result, next.getSlot()), next);
+    }
+    hotStates.put(block.getStateRoot(), result);
+
+    return result;
+  }
+
+  private Optional<BeaconStateEx> loadHotOrStoredState(BeaconBlock block) {
+    Optional<BeaconStateEx> hot = hotStates.getExisting(block.getStateRoot());
+    return hot.isPresent() ? hot : loadStoredState(block);
+  }
+
+  private Optional<BeaconStateEx> loadStoredState(BeaconBlock block) {
+    return stateStorage
+        .get(block.getStateRoot())
+        .map(state -> new BeaconStateExImpl(state, TransitionType.UNKNOWN));
+  }
+
+  /**
+   * Evaluates approximate memory consumed by a state. Only collections that depend on the registry
+   * size and history lengths are taken into account.
+   */
+  static long estimateMemSize(BeaconState state) {
+    long hashes =
+        state.getBlockRoots().size().longValue()
+            + state.getStateRoots().size().longValue()
+            + state.getRandaoMixes().size().longValue()
+            + state.getHistoricalRoots().size().longValue();
+    long attestations =
+        state.getPreviousEpochAttestations().size().longValue()
+            + state.getCurrentEpochAttestations().size().longValue();
+    return hashes * HASH_MEM_SIZE
+        + state.getValidators().size().longValue() * VALIDATOR_MEM_SIZE
+        + (state.getBalances().size().longValue() + state.getSlashings().size().longValue())
+            * GWEI_MEM_SIZE
+        + attestations * ATTESTATION_MEM_SIZE;
   }
 }
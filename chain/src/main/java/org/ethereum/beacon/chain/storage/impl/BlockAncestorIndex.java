@@ -0,0 +1,154 @@
+package org.ethereum.beacon.chain.storage.impl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+
+/**
+ * In-memory tree of blocks starting from a base block, normally, the finalized one.
+ *
+ * <p>A node keeps a block root, a slot, a link to the parent and a jump link to one of further
+ * ancestors. Jump links are built like in a skew-binary random access list, hence, an ancestor at
+ * any slot is found in a logarithmic number of steps instead of walking blocks one by one.
+ *
+ * <p>Blocks are added only if their parents are in the tree. Once a new base is set, blocks that
+ * don't descend from it are dropped.
+ */
+public class BlockAncestorIndex {
+
+  private final Map<Hash32, Node> nodes = new HashMap<>();
+  private Node base;
+
+  /**
+   * Adds a block. The first block added to empty index becomes its base.
+   *
+   * @param root block root.
+   * @param parentRoot parent root.
+   * @param slot block slot.
+   * @return {@code true} if block is added, {@code false} if its parent is unknown.
+   */
+  public synchronized boolean add(Hash32 root, Hash32 parentRoot, long slot) {
+    if (nodes.containsKey(root)) {
+      return true;
+    }
+    if (base == null) {
+      base = new Node(root, slot, null);
+      nodes.put(root, base);
+      return true;
+    }
+    Node parent = nodes.get(parentRoot);
+    if (parent == null) {
+      return false;
+    }
+    nodes.put(root, new Node(root, slot, parent));
+    return true;
+  }
+
+  /** Removes a block, its descendants are expected to be removed as well. */
+  public synchronized void remove(Hash32 root) {
+    Node node = nodes.remove(root);
+    if (node == base) {
+      clear();
+    }
+  }
+
+  public synchronized boolean contains(Hash32 root) {
+    return nodes.containsKey(root);
+  }
+
+  public synchronized int size() {
+    return nodes.size();
+  }
+
+  public synchronized void clear() {
+    nodes.clear();
+    base = null;
+  }
+
+  /**
+   * Makes a block the base of the tree, blocks not descending from it are dropped.
+   *
+   * @param root root of a block that is already in the tree.
+   * @return {@code false} if the block is not in the tree, nothing is changed in this case.
+   */
+  public synchronized boolean rebase(Hash32 root) {
+    Node newBase = nodes.get(root);
+    if (newBase == null) {
+      return false;
+    }
+    if (newBase == base) {
+      return true;
+    }
+
+    List<Node> descendants = new ArrayList<>();
+    for (Node node : nodes.values()) {
+      if (node.slot > newBase.slot && ancestor(node, newBase.slot) == newBase) {
+        descendants.add(node);
+      }
+    }
+    // nodes are recreated in slot order, jump links must not reach below the new base
+    descendants.sort(Comparator.comparingLong(node -> node.slot));
+    nodes.clear();
+    base = new Node(newBase.root, newBase.slot, null);
+    nodes.put(base.root, base);
+    for (Node node : descendants) {
+      nodes.put(node.root, new Node(node.root, node.slot, nodes.get(node.parent.root)));
+    }
+    return true;
+  }
+
+  /**
+   * Looks up an ancestor of a block at a slot.
+   *
+   * @param root block root.
+   * @param slot ancestor slot.
+   * @return a root of the ancestor, the block itself if its slot is equal to given one, {@link
+   *     Hash32#ZERO} if chain of the block has no block at the slot; nothing if either the block is
+   *     not in the tree or the slot is below the base.
+   */
+  public synchronized Optional<Hash32> getAncestor(Hash32 root, long slot) {
+    Node node = nodes.get(root);
+    if (node == null || slot < base.slot) {
+      return Optional.empty();
+    }
+    Node ancestor = ancestor(node, slot);
+    return Optional.of(ancestor.slot == slot ? ancestor.root : Hash32.ZERO);
+  }
+
+  /** @return the closest ancestor with a slot not greater than given one. */
+  private static Node ancestor(Node node, long slot) {
+    while (node.slot > slot && node.parent != null) {
+      node = node.jump.slot >= slot ? node.jump : node.parent;
+    }
+    return node;
+  }
+
+  private static class Node {
+    private final Hash32 root;
+    private final long slot;
+    private final Node parent;
+    private final Node jump;
+    private final int depth;
+
+    Node(Hash32 root, long slot, Node parent) {
+      this.root = root;
+      this.slot = slot;
+      this.parent = parent;
+      if (parent == null) {
+        this.depth = 0;
+        this.jump = this;
+      } else {
+        this.depth = parent.depth + 1;
+        Node parentJump = parent.jump;
+        this.jump =
+            parent.depth - parentJump.depth == parentJump.depth - parentJump.jump.depth
+                ? parentJump.jump
+                : parent;
+      }
+    }
+  }
+}
@@ -28,6 +28,11 @@ public class DelegateBlockHeaderStorageImpl implements DataSource<Hash32, Beacon
         .map(this::createHeader);
   }
 
+  @Override
+  public boolean containsKey(@Nonnull Hash32 key) {
+    return delegateBlockStorage.containsKey(key);
+  }
+
   private BeaconBlockHeader createHeader(BeaconBlock block) {
     return new BeaconBlockHeader(
         block.getSlot(),
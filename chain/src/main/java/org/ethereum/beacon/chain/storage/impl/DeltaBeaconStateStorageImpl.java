@@ -0,0 +1,248 @@
+package org.ethereum.beacon.chain.storage.impl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import org.ethereum.beacon.chain.storage.BeaconStateStorage;
+import org.ethereum.beacon.consensus.hasher.ObjectHasher;
+import org.ethereum.beacon.core.BeaconState;
+import org.ethereum.beacon.core.MutableBeaconState;
+import org.ethereum.beacon.core.state.BeaconStateImpl;
+import org.ethereum.beacon.core.types.SlotNumber;
+import org.ethereum.beacon.db.Database;
+import org.ethereum.beacon.db.source.DataSource;
+import org.ethereum.beacon.util.cache.LRUCache;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+import tech.pegasys.artemis.util.bytes.Bytes32;
+import tech.pegasys.artemis.util.bytes.Bytes8;
+import tech.pegasys.artemis.util.bytes.BytesValue;
+import tech.pegasys.artemis.util.bytes.BytesValues;
+
+/**
+ * A state storage that keeps full copies of states only every {@code snapshotInterval} slots,
+ * other states are stored as {@link BeaconStateDelta}s against the nearest snapshot.
+ *
+ * <p>A state becomes a snapshot if it's the first stored state in its snapshot period, i.e. none of
+ * its ancestors starting from the period start slot are stored. Ancestors are looked up by {@link
+ * BeaconState#getStateRoots()} which are the same roots that are used as storage keys by {@link
+ * BeaconTupleStorageImpl}. Every delta refers to its snapshot directly, hence, a read costs at most
+ * one snapshot and one delta decoding; recently used snapshots are cached.
+ *
+ * <p>Entry layout:
+ *
+ * <ul>
+ *   <li>snapshot: {@code 0x00 | slot (8 bytes) | SSZ(BeaconState)}
+ *   <li>delta: {@code 0x01 | snapshot slot (8 bytes) | snapshot root (32 bytes) |
+ *       SSZ(BeaconStateDelta)}
+ * </ul>
+ *
+ * <p>Entry headers, i.e. everything but the SSZ part, are duplicated in a separate header source.
+ * A new state looks up its snapshot by headers of its ancestors, hence, no state is loaded unless
+ * it's the snapshot itself. Entries that have no header stored are read as a whole.
+ *
+ * <p><strong>Note:</strong> a snapshot removal makes all its deltas unreadable, a client is
+ * responsible to remove deltas before their snapshot.
+ */
+public class DeltaBeaconStateStorageImpl implements BeaconStateStorage {
+
+  private static final byte SNAPSHOT = 0x00;
+  private static final byte DELTA = 0x01;
+  private static final int SLOT_OFFSET = 1;
+  private static final int ROOT_OFFSET = SLOT_OFFSET + Bytes8.SIZE;
+  private static final int SNAPSHOT_HEADER_SIZE = ROOT_OFFSET;
+  private static final int DELTA_HEADER_SIZE = ROOT_OFFSET + Bytes32.SIZE;
+
+  private static final int SNAPSHOT_CACHE_SIZE = 4;
+  /** Size of header cache in bytes. */
+  private static final long HEADER_CACHE_SIZE = 1 << 20;
+
+  private final DataSource<BytesValue, BytesValue> source;
+  private final DataSource<BytesValue, BytesValue> headerSource;
+  private final ObjectHasher<Hash32> objectHasher;
+  private final Function<BeaconState, BytesValue> stateSerializer;
+  private final Function<BytesValue, BeaconStateImpl> stateDeserializer;
+  private final Function<BeaconStateDelta, BytesValue> deltaSerializer;
+  private final Function<BytesValue, BeaconStateDelta> deltaDeserializer;
+  private final BeaconStateDelta.Codecs deltaCodecs;
+  private final long snapshotInterval;
+
+  private final LRUCache<Hash32, BeaconState> snapshotCache = new LRUCache<>(SNAPSHOT_CACHE_SIZE);
+
+  public DeltaBeaconStateStorageImpl(
+      DataSource<BytesValue, BytesValue> source,
+      DataSource<BytesValue, BytesValue> headerSource,
+      ObjectHasher<Hash32> objectHasher,
+      SerializerFactory serializerFactory,
+      long snapshotInterval) {
+    checkArgument(snapshotInterval > 0, "Snapshot interval must be positive: %s", snapshotInterval);
+    this.source = source;
+    this.headerSource = headerSource;
+    this.objectHasher = objectHasher;
+    this.stateSerializer = serializerFactory.getSerializer(BeaconState.class);
+    this.stateDeserializer = serializerFactory.getDeserializer(BeaconStateImpl.class);
+    this.deltaSerializer = serializerFactory.getSerializer(BeaconStateDelta.class);
+    this.deltaDeserializer = serializerFactory.getDeserializer(BeaconStateDelta.class);
+    this.deltaCodecs = new BeaconStateDelta.Codecs(serializerFactory);
+    this.snapshotInterval = snapshotInterval;
+  }
+
+  @Override
+  public Optional<BeaconState> get(@Nonnull Hash32 key) {
+    Objects.requireNonNull(key);
+    return source.get(key).map(entry -> decode(key, entry));
+  }
+
+  @Override
+  public boolean containsKey(@Nonnull Hash32 key) {
+    Objects.requireNonNull(key);
+    return source.containsKey(key);
+  }
+
+  /** Counts both the entry and its duplicated header. */
+  @Override
+  public Optional<Integer> getSize(@Nonnull Hash32 key) {
+    Objects.requireNonNull(key);
+    return source.getSize(key).map(size -> size + headerSource.getSize(key).orElse(0));
+  }
+
+  @Override
+  public void put(@Nonnull Hash32 key, @Nonnull BeaconState value) {
+    Objects.requireNonNull(key);
+    Objects.requireNonNull(value);
+
+    Optional<Snapshot> snapshot = findSnapshot(value);
+    if (snapshot.isPresent()) {
+      BeaconState base = loadSnapshot(snapshot.get().root);
+      BeaconStateDelta delta = BeaconStateDelta.compute(base, value, deltaCodecs);
+      BytesValue header =
+          BytesValues.concatenate(header(DELTA, snapshot.get().slot), snapshot.get().root);
+      source.put(key, BytesValues.concatenate(header, deltaSerializer.apply(delta)));
+      headerSource.put(key, header);
+    } else {
+      BytesValue header = header(SNAPSHOT, value.getSlot());
+      source.put(key, BytesValues.concatenate(header, stateSerializer.apply(value)));
+      headerSource.put(key, header);
+      // caller keeps its instance and could modify it later, cache holds own copy
+      snapshotCache.get(key, k -> value.createMutableCopy());
+    }
+  }
+
+  @Override
+  public void put(BeaconState state) {
+    this.put(objectHasher.getHash(state), state);
+  }
+
+  @Override
+  public void remove(@Nonnull Hash32 key) {
+    Objects.requireNonNull(key);
+    source.remove(key);
+    headerSource.remove(key);
+  }
+
+  @Override
+  public void flush() {
+    // snapshot cache is read-through, every put goes straight to the source
+  }
+
+  /**
+   * Looks for the snapshot the state should be encoded against.
+   *
+   * @param state a state.
+   * @return a snapshot of the same period, or nothing if the state must become a snapshot itself.
+   */
+  private Optional<Snapshot> findSnapshot(BeaconState state) {
+    long stateSlot = state.getSlot().getValue();
+    long periodStart = stateSlot - stateSlot % snapshotInterval;
+    long historyLength = state.getStateRoots().size().getValue();
+    long lowestSlot = Math.max(periodStart, Math.max(0, stateSlot - historyLength));
+
+    for (long slot = stateSlot - 1; slot >= lowestSlot && slot >= 0; slot--) {
+      Hash32 ancestorRoot = state.getStateRoots().get(SlotNumber.of(slot % historyLength));
+      Optional<BytesValue> ancestor = readHeader(ancestorRoot);
+      if (ancestor.isPresent()) {
+        BytesValue entry = ancestor.get();
+        long snapshotSlot = readSlot(entry);
+        if (snapshotSlot < periodStart) {
+          return Optional.empty();
+        }
+        if (entry.get(0) == SNAPSHOT) {
+          return Optional.of(new Snapshot(SlotNumber.of(snapshotSlot), ancestorRoot));
+        } else {
+          return Optional.of(new Snapshot(SlotNumber.of(snapshotSlot), readSnapshotRoot(entry)));
+        }
+      }
+    }
+
+    return Optional.empty();
+  }
+
+  /** Reads entry header, falls back to the whole entry if the header is not stored. */
+  private Optional<BytesValue> readHeader(Hash32 key) {
+    Optional<BytesValue> header = headerSource.get(key);
+    return header.isPresent() ? header : source.get(key);
+  }
+
+  private BeaconState decode(Hash32 key, BytesValue entry) {
+    if (entry.get(0) == SNAPSHOT) {
+      return snapshotCache
+          .getExisting(key)
+          .map(BeaconState::createMutableCopy)
+          .orElseGet(() -> stateDeserializer.apply(entry.slice(SNAPSHOT_HEADER_SIZE)));
+    } else {
+      MutableBeaconState state = loadSnapshot(readSnapshotRoot(entry)).createMutableCopy();
+      deltaDeserializer.apply(entry.slice(DELTA_HEADER_SIZE)).applyTo(state, deltaCodecs);
+      return state;
+    }
+  }
+
+  private BeaconState loadSnapshot(Hash32 root) {
+    return snapshotCache.get(
+        root,
+        key -> {
+          BytesValue entry =
+              source
+                  .get(key)
+                  .filter(e -> e.get(0) == SNAPSHOT)
+                  .orElseThrow(
+                      () -> new IllegalStateException("State snapshot is missing: " + key));
+          return stateDeserializer.apply(entry.slice(SNAPSHOT_HEADER_SIZE));
+        });
+  }
+
+  private static BytesValue header(byte type, SlotNumber slot) {
+    return BytesValue.wrap(BytesValue.of(type), Bytes8.longToBytes8(slot.getValue()));
+  }
+
+  private static long readSlot(BytesValue entry) {
+    return entry.getLong(SLOT_OFFSET);
+  }
+
+  private static Hash32 readSnapshotRoot(BytesValue entry) {
+    return Hash32.wrap(Bytes32.wrap(entry, ROOT_OFFSET).copy());
+  }
+
+  private static final class Snapshot {
+    private final SlotNumber slot;
+    private final Hash32 root;
+
+    private Snapshot(SlotNumber slot, Hash32 root) {
+      this.slot = slot;
+      this.root = root;
+    }
+  }
+
+  public static DeltaBeaconStateStorageImpl create(
+      Database database,
+      ObjectHasher<Hash32> objectHasher,
+      SerializerFactory serializerFactory,
+      long snapshotInterval) {
+    DataSource<BytesValue, BytesValue> backingSource = database.createStorage("beacon-state");
+    DataSource<BytesValue, BytesValue> headerSource =
+        database.createStorage("beacon-state-header", HEADER_CACHE_SIZE);
+    return new DeltaBeaconStateStorageImpl(
+        backingSource, headerSource, objectHasher, serializerFactory, snapshotInterval);
+  }
+}
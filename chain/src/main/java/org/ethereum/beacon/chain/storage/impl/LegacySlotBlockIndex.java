@@ -0,0 +1,87 @@
+package org.ethereum.beacon.chain.storage.impl;
+
+import com.google.common.base.MoreObjects;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import org.ethereum.beacon.db.source.DataSource;
+import org.ethereum.beacon.db.source.HoleyList;
+import org.ethereum.beacon.db.source.impl.DataSourceList;
+import org.ethereum.beacon.ssz.annotation.SSZ;
+import org.ethereum.beacon.ssz.annotation.SSZSerializable;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+import tech.pegasys.artemis.util.bytes.BytesValue;
+
+/**
+ * Reader of the slot index of previous storage layout.
+ *
+ * <p>That index is a {@link DataSourceList} kept in {@link #STORAGE_NAME} storage, block roots of
+ * a slot are stored as SSZ encoded {@link SlotBlocks}. It's converted to {@link SlotBlockIndex}
+ * once, when a database of previous layout is opened.
+ */
+public class LegacySlotBlockIndex {
+
+  /** Name of the storage that keeps the index. */
+  public static final String STORAGE_NAME = "beacon-block-index";
+
+  @SSZSerializable
+  public static class SlotBlocks {
+
+    @SSZ private final List<Hash32> blockHashes;
+
+    public SlotBlocks(List<Hash32> blockHashes) {
+      this.blockHashes = blockHashes;
+    }
+
+    public List<Hash32> getBlockHashes() {
+      return blockHashes;
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this).add("blockHashes", blockHashes).toString();
+    }
+  }
+
+  private final HoleyList<SlotBlocks> slots;
+
+  public LegacySlotBlockIndex(
+      DataSource<BytesValue, BytesValue> source, SerializerFactory serializerFactory) {
+    this.slots =
+        new DataSourceList<>(
+            source,
+            serializerFactory.getSerializer(SlotBlocks.class),
+            serializerFactory.getDeserializer(SlotBlocks.class));
+  }
+
+  /** @return maximal slot with blocks + 1, {@code 0} if the index is absent. */
+  public long size() {
+    return slots.size();
+  }
+
+  /** @return block roots at a slot in order of insertion. */
+  public Optional<List<Hash32>> get(long slot) {
+    return slots.get(slot).map(SlotBlocks::getBlockHashes);
+  }
+
+  /**
+   * Copies roots of all slots to the index of current layout.
+   *
+   * <p>Slots are written straight to underlying source of the index, they are not kept in memory.
+   *
+   * @param index destination index, expected to be empty.
+   * @return a number of copied roots.
+   */
+  public long copyTo(SlotBlockIndex index) {
+    long size = size();
+    index.cacheFrom(size);
+    long copied = 0;
+    for (long slot = 0; slot < size; slot++) {
+      for (Hash32 root : get(slot).orElse(Collections.emptyList())) {
+        index.add(slot, root);
+        copied += 1;
+      }
+    }
+    return copied;
+  }
+}
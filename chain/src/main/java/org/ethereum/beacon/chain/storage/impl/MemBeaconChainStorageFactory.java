@@ -9,7 +9,6 @@ import org.ethereum.beacon.consensus.hasher.ObjectHasher;
 import org.ethereum.beacon.db.Database;
 import org.ethereum.beacon.db.source.SingleValueSource;
 import org.ethereum.beacon.db.source.impl.HashMapDataSource;
-import org.ethereum.beacon.db.source.impl.HashMapHoleyList;
 import tech.pegasys.artemis.ethereum.core.Hash32;
 
 public class MemBeaconChainStorageFactory  implements BeaconChainStorageFactory {
@@ -22,7 +21,8 @@ public class MemBeaconChainStorageFactory  implements BeaconChainStorageFactory
   @Override
   public BeaconChainStorage create(Database database) {
     BeaconBlockStorage blockStorage =
-        new BeaconBlockStorageImpl(objectHasher, new HashMapDataSource<>(), new HashMapHoleyList<>());
+        new BeaconBlockStorageImpl(
+            objectHasher, new HashMapDataSource<>(), new SlotBlockIndex(new HashMapDataSource<>()));
     BeaconStateStorage stateStorage =
         new BeaconStateStorageImpl(new HashMapDataSource<>(), objectHasher);
     BeaconTupleStorage tupleStorage = new BeaconTupleStorageImpl(blockStorage, stateStorage);
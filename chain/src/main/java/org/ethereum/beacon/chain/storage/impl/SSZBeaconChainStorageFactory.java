@@ -1,10 +1,14 @@
 package org.ethereum.beacon.chain.storage.impl;
 
+import java.nio.file.Path;
+import javax.annotation.Nullable;
 import org.ethereum.beacon.chain.storage.BeaconBlockStorage;
 import org.ethereum.beacon.chain.storage.BeaconChainStorage;
 import org.ethereum.beacon.chain.storage.BeaconChainStorageFactory;
 import org.ethereum.beacon.chain.storage.BeaconStateStorage;
 import org.ethereum.beacon.chain.storage.BeaconTupleStorage;
+import org.ethereum.beacon.consensus.BeaconChainSpec;
+import org.ethereum.beacon.consensus.StateTransitions;
 import org.ethereum.beacon.consensus.hasher.ObjectHasher;
 import org.ethereum.beacon.consensus.hasher.SSZObjectHasher;
 import org.ethereum.beacon.core.state.Checkpoint;
@@ -18,25 +22,99 @@ import tech.pegasys.artemis.util.bytes.BytesValue;
 /**
  * An implementation which passes {@link SSZObjectHasher} and {@link SSZSerializerFactory} to {@link
  * BeaconChainStorage} instance.
+ *
+ * <p>By default, every state is stored as a full copy. If state snapshot interval is set then
+ * {@link DeltaBeaconStateStorageImpl} is used instead, it keeps full copies only every given number
+ * of slots and stores deltas against them in between.
+ *
+ * <p>Another option is a state regeneration mode, when only checkpoint and finalized states are
+ * persisted, see {@link BeaconTupleStorageImpl} for details.
+ *
+ * <p>Finalized blocks can be moved out of the database to memory-mapped archive, see {@link
+ * #setBlockArchiveDirectory(Path)}.
  */
 public class SSZBeaconChainStorageFactory implements BeaconChainStorageFactory {
+  /** Stands for a layout where each state is stored as a full copy. */
+  public static final long FULL_STATE_COPIES = 0;
+
   private final ObjectHasher<Hash32> objectHasher;
   private final SerializerFactory serializerFactory;
+  private final long stateSnapshotInterval;
+  private final BeaconChainSpec regenerationSpec;
+  private final long hotStatesMemoryLimit;
+  private Path blockArchiveDirectory;
 
   public SSZBeaconChainStorageFactory(
       ObjectHasher<Hash32> objectHasher,
       SerializerFactory serializerFactory) {
+    this(objectHasher, serializerFactory, FULL_STATE_COPIES);
+  }
+
+  /**
+   * @param objectHasher object hasher
+   * @param serializerFactory serializer factory
+   * @param stateSnapshotInterval number of slots between full state snapshots, normally a number
+   *     of slots per epoch; {@link #FULL_STATE_COPIES} turns delta encoding off
+   */
+  public SSZBeaconChainStorageFactory(
+      ObjectHasher<Hash32> objectHasher,
+      SerializerFactory serializerFactory,
+      long stateSnapshotInterval) {
     this.objectHasher = objectHasher;
     this.serializerFactory = serializerFactory;
+    this.stateSnapshotInterval = stateSnapshotInterval;
+    this.regenerationSpec = null;
+    this.hotStatesMemoryLimit = 0;
+  }
+
+  /**
+   * Creates a factory of storages working in state regeneration mode.
+   *
+   * @param spec beacon chain spec, its transitions are used to regenerate states
+   * @param serializerFactory serializer factory
+   * @param hotStatesMemoryLimit memory budget of recently used states cache, in bytes
+   */
+  public SSZBeaconChainStorageFactory(
+      BeaconChainSpec spec,
+      SerializerFactory serializerFactory,
+      long hotStatesMemoryLimit) {
+    this.objectHasher = spec.getObjectHasher();
+    this.serializerFactory = serializerFactory;
+    this.stateSnapshotInterval = FULL_STATE_COPIES;
+    this.regenerationSpec = spec;
+    this.hotStatesMemoryLimit = hotStatesMemoryLimit;
+  }
+
+  /**
+   * Sets a directory of finalized blocks archive.
+   *
+   * @param blockArchiveDirectory archive directory, {@code null} keeps finalized blocks in the
+   *     database.
+   */
+  public void setBlockArchiveDirectory(@Nullable Path blockArchiveDirectory) {
+    this.blockArchiveDirectory = blockArchiveDirectory;
   }
 
   @Override
   public BeaconChainStorage create(Database database) {
     BeaconBlockStorage blockStorage =
-        BeaconBlockStorageImpl.create(database, objectHasher, serializerFactory);
+        BeaconBlockStorageImpl.create(
+            database, objectHasher, serializerFactory, blockArchiveDirectory);
     BeaconStateStorage stateStorage =
-        BeaconStateStorageImpl.create(database, objectHasher, serializerFactory);
-    BeaconTupleStorage tupleStorage = new BeaconTupleStorageImpl(blockStorage, stateStorage);
+        stateSnapshotInterval > FULL_STATE_COPIES
+            ? DeltaBeaconStateStorageImpl.create(
+                database, objectHasher, serializerFactory, stateSnapshotInterval)
+            : BeaconStateStorageImpl.create(database, objectHasher, serializerFactory);
+    BeaconTupleStorage tupleStorage =
+        regenerationSpec != null
+            ? new BeaconTupleStorageImpl(
+                blockStorage,
+                stateStorage,
+                regenerationSpec,
+                StateTransitions.preBlockTransition(regenerationSpec),
+                StateTransitions.blockTransition(regenerationSpec),
+                hotStatesMemoryLimit)
+            : new BeaconTupleStorageImpl(blockStorage, stateStorage);
 
     SingleValueSource<Checkpoint> justifiedStorage =
         createSingleValueStorage(database, "justified-hash", Checkpoint.class);
@@ -1,19 +1,43 @@
 package org.ethereum.beacon.chain.storage.impl;
 
 import java.util.function.Function;
+import org.ethereum.beacon.core.BeaconState;
+import org.ethereum.beacon.core.spec.SpecConstants;
+import org.ethereum.beacon.core.state.BeaconStateImpl;
 import org.ethereum.beacon.ssz.SSZSerializer;
 import tech.pegasys.artemis.util.bytes.BytesValue;
 
 public class SSZSerializerFactory implements SerializerFactory {
 
   private final SSZSerializer serializer;
+  /** Constants of decoded states which are brought to columnar registry, {@code null} if not. */
+  private final SpecConstants columnarRegistryConstants;
 
   public SSZSerializerFactory(SSZSerializer serializer) {
     this.serializer = serializer;
+    this.columnarRegistryConstants = null;
+  }
+
+  /**
+   * Creates a factory whose decoded states keep validator registry in columns.
+   *
+   * @param serializer SSZ serializer.
+   * @param specConstants spec constants.
+   */
+  public SSZSerializerFactory(SSZSerializer serializer, SpecConstants specConstants) {
+    this.serializer = serializer;
+    this.columnarRegistryConstants = specConstants;
   }
 
   @Override
   public <T> Function<BytesValue, T> getDeserializer(Class<? extends T> objectClass) {
+    if (columnarRegistryConstants != null && BeaconState.class.isAssignableFrom(objectClass)) {
+      // SSZ instantiates a state with the default layout
+      return bytes ->
+          (T)
+              BeaconStateImpl.copyWithColumnarRegistry(
+                  (BeaconState) serializer.decode(bytes, objectClass), columnarRegistryConstants);
+    }
     return bytes -> serializer.decode(bytes, objectClass);
   }
 
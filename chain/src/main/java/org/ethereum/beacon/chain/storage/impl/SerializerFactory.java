@@ -4,6 +4,7 @@ import java.util.function.Function;
 import org.ethereum.beacon.core.spec.SpecConstants;
 import org.ethereum.beacon.core.spec.SpecConstantsResolver;
 import org.ethereum.beacon.ssz.SSZBuilder;
+import org.ethereum.beacon.ssz.SSZSerializer;
 import tech.pegasys.artemis.util.bytes.BytesValue;
 
 public interface SerializerFactory {
@@ -13,9 +14,25 @@ public interface SerializerFactory {
   <T> Function<T, BytesValue> getSerializer(Class<? extends T> objectClass);
 
   static SerializerFactory createSSZ(SpecConstants specConstants) {
-    return new SSZSerializerFactory(new SSZBuilder()
+    return createSSZ(specConstants, false);
+  }
+
+  /**
+   * Creates SSZ serializer factory.
+   *
+   * @param specConstants spec constants.
+   * @param columnarRegistry whether decoded states keep validator registry in columns, it should
+   *     match the layout of states created by the spec.
+   * @return serializer factory.
+   */
+  static SerializerFactory createSSZ(SpecConstants specConstants, boolean columnarRegistry) {
+    SSZSerializer serializer =
+        new SSZBuilder()
             .withExternalVarResolver(new SpecConstantsResolver(specConstants))
             .withExtraObjectCreator(SpecConstants.class, specConstants)
-            .buildSerializer());
+            .buildSerializer();
+    return columnarRegistry
+        ? new SSZSerializerFactory(serializer, specConstants)
+        : new SSZSerializerFactory(serializer);
   }
 }
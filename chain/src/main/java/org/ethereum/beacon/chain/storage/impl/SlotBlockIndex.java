@@ -0,0 +1,199 @@
+package org.ethereum.beacon.chain.storage.impl;
+
+import com.google.common.primitives.Longs;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import org.ethereum.beacon.db.source.DataSource;
+import org.ethereum.beacon.db.source.DataSourceIterator;
+import org.ethereum.beacon.db.source.KeyRange;
+import org.ethereum.beacon.db.source.OrderedDataSource;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+import tech.pegasys.artemis.util.bytes.Bytes32;
+import tech.pegasys.artemis.util.bytes.BytesValue;
+import tech.pegasys.artemis.util.bytes.BytesValues;
+
+/**
+ * Slot to block roots index.
+ *
+ * <p>A slot is encoded as 8 bytes big-endian key, hence, keys are ordered by slot and a range of
+ * slots is read with one scan if underlying source is {@link DataSource#ordered()}, otherwise, it's
+ * read slot by slot. A value is a concatenation of 32 bytes block roots in order of their
+ * insertion, adding a root appends it to a value and the first root is read without decoding the
+ * rest of them.
+ *
+ * <p>Slots starting from the one set by {@link #cacheFrom(long)}, normally, the finalized slot,
+ * are kept in memory entirely. Lookups of those slots never hit underlying source and updates
+ * write through without reading.
+ */
+public class SlotBlockIndex {
+
+  /** Maximal slot is kept under a key that is shorter than any slot key. */
+  private static final BytesValue MAX_SLOT_KEY = BytesValue.of(0xFF);
+
+  private final DataSource<BytesValue, BytesValue> source;
+
+  /** Roots at slots starting from {@link #cachedFrom}, empty slots are absent. */
+  private final NavigableMap<Long, Hash32[]> cache = new TreeMap<>();
+  private long cachedFrom;
+  private long size;
+
+  public SlotBlockIndex(DataSource<BytesValue, BytesValue> source) {
+    this.source = source;
+    this.size =
+        source.get(MAX_SLOT_KEY).map(BytesValues::extractLong).map(slot -> slot + 1).orElse(0L);
+    this.cachedFrom = size;
+  }
+
+  /** @return maximal slot with blocks + 1. */
+  public synchronized long size() {
+    return size;
+  }
+
+  /** @return block roots at a slot in order of insertion. */
+  public synchronized List<Hash32> get(long slot) {
+    Hash32[] roots = read(slot);
+    return asList(roots);
+  }
+
+  /** @return the first root at a slot, if any. */
+  public synchronized Optional<Hash32> getFirst(long slot) {
+    if (slot >= cachedFrom) {
+      Hash32[] roots = cache.get(slot);
+      return roots == null ? Optional.empty() : Optional.of(roots[0]);
+    }
+    return source.get(slotKey(slot)).map(value -> root(value, 0));
+  }
+
+  /**
+   * Reads a range of slots.
+   *
+   * @param from the first slot, inclusive.
+   * @param to the last slot, exclusive.
+   * @param consumer accepts a slot and its roots, slots without blocks are skipped; slots go in
+   *     ascending order.
+   */
+  public synchronized void forEach(long from, long to, BiConsumer<Long, List<Hash32>> consumer) {
+    long persistedTo = Math.min(to, cachedFrom);
+    if (from < persistedTo) {
+      Optional<OrderedDataSource<BytesValue, BytesValue>> ordered = source.ordered();
+      if (ordered.isPresent()) {
+        KeyRange<BytesValue> range = KeyRange.between(slotKey(from), slotKey(persistedTo));
+        try (DataSourceIterator<BytesValue, BytesValue> it = ordered.get().iterate(range, false)) {
+          while (it.hasNext()) {
+            Map.Entry<BytesValue, BytesValue> entry = it.next();
+            consumer.accept(
+                BytesValues.extractLong(entry.getKey()), asList(decode(entry.getValue())));
+          }
+        }
+      } else {
+        for (long slot = from; slot < persistedTo; slot++) {
+          Hash32[] roots = read(slot);
+          if (roots.length > 0) {
+            consumer.accept(slot, asList(roots));
+          }
+        }
+      }
+    }
+
+    if (to > cachedFrom) {
+      for (Map.Entry<Long, Hash32[]> entry :
+          cache.subMap(Math.max(from, cachedFrom), true, to, false).entrySet()) {
+        consumer.accept(entry.getKey(), asList(entry.getValue()));
+      }
+    }
+  }
+
+  /** Appends a root to a slot. */
+  public synchronized void add(long slot, Hash32 root) {
+    Hash32[] roots = read(slot);
+    Hash32[] updated = Arrays.copyOf(roots, roots.length + 1);
+    updated[roots.length] = root;
+    // a single root is stored as is, without copying
+    source.put(slotKey(slot), roots.length == 0 ? root : encode(updated));
+    if (slot >= cachedFrom) {
+      cache.put(slot, updated);
+    }
+
+    if (slot >= size) {
+      size = slot + 1;
+      source.put(MAX_SLOT_KEY, BytesValue.wrap(Longs.toByteArray(slot)));
+    }
+  }
+
+  /** Removes a root from a slot, if present. */
+  public synchronized void remove(long slot, Hash32 root) {
+    Hash32[] roots = read(slot);
+    Hash32[] updated = Arrays.stream(roots).filter(r -> !r.equals(root)).toArray(Hash32[]::new);
+    if (updated.length == roots.length) {
+      return;
+    }
+    if (updated.length == 0) {
+      source.remove(slotKey(slot));
+    } else {
+      source.put(slotKey(slot), encode(updated));
+    }
+    if (slot >= cachedFrom) {
+      if (updated.length == 0) {
+        cache.remove(slot);
+      } else {
+        cache.put(slot, updated);
+      }
+    }
+  }
+
+  /**
+   * Moves a lower bound of in-memory slots. Slots below the bound are evicted, slots above it are
+   * loaded if they aren't in memory yet.
+   *
+   * @param slot the lowest slot to be kept in memory.
+   */
+  public synchronized void cacheFrom(long slot) {
+    if (slot < cachedFrom) {
+      // slots below current bound are read from underlying source
+      forEach(slot, cachedFrom, (s, roots) -> cache.put(s, roots.toArray(new Hash32[0])));
+    } else {
+      cache.headMap(slot, false).clear();
+    }
+    cachedFrom = slot;
+  }
+
+  private Hash32[] read(long slot) {
+    if (slot >= cachedFrom) {
+      return cache.getOrDefault(slot, new Hash32[0]);
+    }
+    return source.get(slotKey(slot)).map(SlotBlockIndex::decode).orElse(new Hash32[0]);
+  }
+
+  private static List<Hash32> asList(Hash32[] roots) {
+    // cached arrays must not be modified
+    return roots.length == 0
+        ? Collections.emptyList()
+        : Collections.unmodifiableList(Arrays.asList(roots));
+  }
+
+  private static BytesValue slotKey(long slot) {
+    return BytesValue.wrap(Longs.toByteArray(slot));
+  }
+
+  private static BytesValue encode(Hash32[] roots) {
+    return BytesValue.concat(Arrays.asList(roots));
+  }
+
+  private static Hash32[] decode(BytesValue value) {
+    Hash32[] roots = new Hash32[value.size() / Bytes32.SIZE];
+    for (int i = 0; i < roots.length; i++) {
+      roots[i] = root(value, i);
+    }
+    return roots;
+  }
+
+  private static Hash32 root(BytesValue value, int index) {
+    return Hash32.wrap(Bytes32.wrap(value, index * Bytes32.SIZE));
+  }
+}
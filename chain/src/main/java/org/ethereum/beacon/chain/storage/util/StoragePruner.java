@@ -0,0 +1,245 @@
+package org.ethereum.beacon.chain.storage.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.ethereum.beacon.chain.storage.BeaconBlockStorage;
+import org.ethereum.beacon.chain.storage.BeaconChainStorage;
+import org.ethereum.beacon.chain.storage.BeaconStateStorage;
+import org.ethereum.beacon.core.BeaconBlock;
+import org.ethereum.beacon.core.types.SlotNumber;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+
+/**
+ * Removes data which is no longer needed once finality has advanced:
+ *
+ * <ul>
+ *   <li>blocks at and below finalized slot which are not ancestors of finalized block, along with
+ *       their states;
+ *   <li>states of finalized blocks except for the first stored state in each archival period of
+ *       {@code archiveInterval} slots.
+ * </ul>
+ *
+ * <p>States in archival period containing finalized slot are never removed as states of not yet
+ * finalized blocks may depend on them. With {@link
+ * org.ethereum.beacon.chain.storage.impl.DeltaBeaconStateStorageImpl} an archival interval must be
+ * a multiple of a snapshot interval, then every kept state is a snapshot.
+ *
+ * <p>Pruning is incremental, every call processes slots that weren't processed by previous calls.
+ * Removals are split into batches, each batch is removed and committed at once. Since the
+ * database flushes its buffer with a batch update, removals are written to the underlying storage
+ * engine in batches as well.
+ */
+public class StoragePruner {
+
+  private static final Logger logger = LogManager.getLogger(StoragePruner.class);
+
+  private final BeaconChainStorage chainStorage;
+  private final long archiveInterval;
+  private final int batchSize;
+
+  /** The lowest slot which blocks are not yet pruned at. */
+  private long blockSlot = 0;
+  /** The lowest slot which states are not yet pruned at, always a start of archival period. */
+  private long stateSlot = 0;
+
+  /**
+   * @param chainStorage chain storage.
+   * @param archiveInterval a number of slots in archival period, one state is kept per period.
+   * @param batchSize max number of blocks and states removed in one batch.
+   */
+  public StoragePruner(BeaconChainStorage chainStorage, long archiveInterval, int batchSize) {
+    if (archiveInterval < 1) {
+      throw new IllegalArgumentException("Archive interval must be positive: " + archiveInterval);
+    }
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+    }
+    this.chainStorage = chainStorage;
+    this.archiveInterval = archiveInterval;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Prunes a storage applying batches in a calling thread.
+   *
+   * @param finalizedRoot a root of finalized block.
+   * @return pruning results.
+   */
+  public Result prune(Hash32 finalizedRoot) {
+    return prune(finalizedRoot, Runnable::run);
+  }
+
+  /**
+   * Prunes a storage up to a given finalized block.
+   *
+   * <p>Candidates for removal are collected by a calling thread, only reads are made during this
+   * phase. Each batch of removals is passed to {@code batchRunner} which is expected to run it
+   * synchronously, a runner may acquire a lock that prevents concurrent modifications of the
+   * storage, like a lock of block import.
+   *
+   * @param finalizedRoot a root of finalized block.
+   * @param batchRunner runs a batch of removals.
+   * @return pruning results.
+   */
+  public synchronized Result prune(Hash32 finalizedRoot, Consumer<Runnable> batchRunner) {
+    BeaconBlockStorage blockStorage = chainStorage.getBlockStorage();
+    BeaconStateStorage stateStorage = chainStorage.getStateStorage();
+
+    Optional<BeaconBlock> finalized = blockStorage.get(finalizedRoot);
+    if (!finalized.isPresent()) {
+      logger.warn("Finalized block is missing, skip pruning: {}", finalizedRoot);
+      return new Result();
+    }
+    long finalizedSlot = finalized.get().getSlot().longValue();
+    long stateBoundary = finalizedSlot - finalizedSlot % archiveInterval;
+
+    // canonical blocks starting from the lowest not yet pruned slot, in ascending slot order
+    List<BeaconBlock> canonical = new ArrayList<>();
+    Set<Hash32> canonicalRoots = new HashSet<>();
+    Hash32 root = finalizedRoot;
+    Optional<BeaconBlock> block = finalized;
+    while (block.isPresent() && block.get().getSlot().longValue() >= stateSlot) {
+      canonical.add(block.get());
+      canonicalRoots.add(root);
+      if (block.get().getSlot().equals(SlotNumber.ZERO)) {
+        break;
+      }
+      root = block.get().getParentRoot();
+      block = blockStorage.get(root);
+    }
+    Collections.reverse(canonical);
+
+    List<Removal> removals = new ArrayList<>();
+    for (List<Hash32> slotRoots :
+        blockStorage
+            .getSlotBlocks(SlotNumber.of(blockSlot), SlotNumber.of(finalizedSlot + 1))
+            .values()) {
+      for (Hash32 blockRoot : slotRoots) {
+        if (!canonicalRoots.contains(blockRoot)) {
+          blockStorage.get(blockRoot).ifPresent(b -> removals.add(orphan(blockRoot, b)));
+        }
+      }
+    }
+
+    long keptPeriod = -1;
+    for (BeaconBlock b : canonical) {
+      long slot = b.getSlot().longValue();
+      if (slot >= stateBoundary) {
+        break;
+      }
+      if (!stateStorage.containsKey(b.getStateRoot())) {
+        continue;
+      }
+      if (slot / archiveInterval != keptPeriod) {
+        keptPeriod = slot / archiveInterval;
+      } else {
+        removals.add(thinned(b.getStateRoot()));
+      }
+    }
+
+    Result result = new Result();
+    for (int from = 0; from < removals.size(); from += batchSize) {
+      List<Removal> batch = removals.subList(from, Math.min(from + batchSize, removals.size()));
+      batchRunner.accept(() -> apply(batch, result));
+    }
+
+    blockSlot = Math.max(blockSlot, finalizedSlot + 1);
+    stateSlot = Math.max(stateSlot, stateBoundary);
+
+    if (result.getRemovedBlocks() > 0 || result.getRemovedStates() > 0) {
+      logger.info("Pruned storage up to slot {}: {}", finalizedSlot, result);
+    }
+
+    return result;
+  }
+
+  private Removal orphan(Hash32 blockRoot, BeaconBlock block) {
+    long size = chainStorage.getBlockStorage().getSize(blockRoot).orElse(0);
+    Hash32 stateRoot = null;
+    if (chainStorage.getStateStorage().containsKey(block.getStateRoot())) {
+      stateRoot = block.getStateRoot();
+      size += stateSize(stateRoot);
+    }
+    return new Removal(blockRoot, stateRoot, size);
+  }
+
+  private Removal thinned(Hash32 stateRoot) {
+    return new Removal(null, stateRoot, stateSize(stateRoot));
+  }
+
+  /** Takes a size of stored entry, states are not read for that. */
+  private long stateSize(Hash32 stateRoot) {
+    return chainStorage.getStateStorage().getSize(stateRoot).orElse(0);
+  }
+
+  private void apply(List<Removal> batch, Result result) {
+    for (Removal removal : batch) {
+      if (removal.blockRoot != null) {
+        // updates slot index as well
+        chainStorage.getBlockStorage().remove(removal.blockRoot);
+        result.removedBlocks += 1;
+      }
+      if (removal.stateRoot != null) {
+        chainStorage.getStateStorage().remove(removal.stateRoot);
+        result.removedStates += 1;
+      }
+      result.reclaimedBytes += removal.size;
+    }
+    chainStorage.commit();
+  }
+
+  private static class Removal {
+    private final Hash32 blockRoot;
+    private final Hash32 stateRoot;
+    private final long size;
+
+    Removal(Hash32 blockRoot, Hash32 stateRoot, long size) {
+      this.blockRoot = blockRoot;
+      this.stateRoot = stateRoot;
+      this.size = size;
+    }
+  }
+
+  /**
+   * Pruning results.
+   *
+   * <p>A number of reclaimed bytes is a sum of sizes of removed entries as they are stored by the
+   * database, values are not read to evaluate it. Storages that don't keep serialized entries, like
+   * in-memory ones, report nothing reclaimed.
+   */
+  public static class Result {
+    private long removedBlocks;
+    private long removedStates;
+    private long reclaimedBytes;
+
+    public long getRemovedBlocks() {
+      return removedBlocks;
+    }
+
+    public long getRemovedStates() {
+      return removedStates;
+    }
+
+    public long getReclaimedBytes() {
+      return reclaimedBytes;
+    }
+
+    @Override
+    public String toString() {
+      return "removed blocks: "
+          + removedBlocks
+          + ", removed states: "
+          + removedStates
+          + ", reclaimed: "
+          + reclaimedBytes / 1024
+          + " Kb";
+    }
+  }
+}
@@ -6,9 +6,10 @@ import org.ethereum.beacon.consensus.BeaconChainSpec;
 import org.ethereum.beacon.consensus.BeaconStateEx;
 import org.ethereum.beacon.core.BeaconBlock;
 import org.ethereum.beacon.core.state.Checkpoint;
+import org.ethereum.beacon.core.types.SlotNumber;
 import tech.pegasys.artemis.ethereum.core.Hash32;
 
-/** Utility functions to initialize storage from an initial state. */
+/** Utility functions to initialize storage from an initial state or from another storage. */
 public class StorageUtils {
   /**
    * Creates a BeaconTuple consisting of the initialState and corresponding block. Currently, the
@@ -41,4 +42,45 @@ public class StorageUtils {
         .getFinalizedStorage()
         .set(new Checkpoint(initialState.getFinalizedCheckpoint().getEpoch(), genesisRoot));
   }
+
+  /**
+   * Copies blocks, states and checkpoints from one storage to another. Blocks are copied in slot
+   * order, hence, every block finds its parent in the destination storage.
+   *
+   * <p>Can be used to migrate data between databases with different layouts.
+   *
+   * @param from source storage.
+   * @param to destination storage, expected to be empty.
+   * @return a number of copied blocks.
+   */
+  public static long copyStorage(BeaconChainStorage from, BeaconChainStorage to) {
+    assert to.getTupleStorage().isEmpty();
+    long copied = 0;
+    if (from.getBlockStorage().isEmpty()) {
+      return copied;
+    }
+
+    SlotNumber maxSlot = from.getBlockStorage().getMaxSlot();
+    for (SlotNumber slot = SlotNumber.ZERO; slot.lessEqual(maxSlot); slot = slot.increment()) {
+      for (Hash32 root : from.getBlockStorage().getSlotBlocks(slot)) {
+        BeaconBlock block =
+            from.getBlockStorage()
+                .get(root)
+                .orElseThrow(() -> new IllegalStateException("Block is missing: " + root));
+        from.getStateStorage()
+            .get(block.getStateRoot())
+            .ifPresent(state -> to.getStateStorage().put(block.getStateRoot(), state));
+        to.getBlockStorage().put(root, block);
+        copied += 1;
+      }
+      to.commit();
+    }
+
+    from.getJustifiedStorage().get().ifPresent(to.getJustifiedStorage()::set);
+    from.getBestJustifiedStorage().get().ifPresent(to.getBestJustifiedStorage()::set);
+    from.getFinalizedStorage().get().ifPresent(to.getFinalizedStorage()::set);
+    to.commit();
+
+    return copied;
+  }
 }
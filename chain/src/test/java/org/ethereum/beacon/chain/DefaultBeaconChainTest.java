@@ -31,12 +31,16 @@ import org.ethereum.beacon.schedulers.ControlledSchedulers;
 import org.ethereum.beacon.schedulers.Schedulers;
 import org.junit.Assert;
 import org.junit.Test;
+import org.reactivestreams.Publisher;
 import tech.pegasys.artemis.ethereum.core.Hash32;
 import tech.pegasys.artemis.util.uint.UInt64;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.stream.IntStream;
 
 public class DefaultBeaconChainTest {
@@ -94,16 +98,27 @@ public class DefaultBeaconChainTest {
 
   private MutableBeaconChain createBeaconChain(
       BeaconChainSpec spec, StateTransition<BeaconStateEx> perSlotTransition, Schedulers schedulers) {
+    return createBeaconChain(
+        spec,
+        perSlotTransition,
+        schedulers,
+        (block, state) -> VerificationResult.PASSED,
+        StateTransitionTestUtil.createPerBlockTransition());
+  }
+
+  private MutableBeaconChain createBeaconChain(
+      BeaconChainSpec spec,
+      StateTransition<BeaconStateEx> perSlotTransition,
+      Schedulers schedulers,
+      BeaconBlockVerifier blockVerifier,
+      BlockTransition<BeaconStateEx> perBlockTransition) {
     Time start = Time.castFrom(UInt64.valueOf(schedulers.getCurrentTime() / 1000));
     ChainStart chainStart = new ChainStart(start, Eth1Data.EMPTY, Collections.emptyList());
     InitialStateTransition initialTransition =
         new InitialStateTransition(chainStart, spec);
-    BlockTransition<BeaconStateEx> perBlockTransition =
-        StateTransitionTestUtil.createPerBlockTransition();
     StateTransition<BeaconStateEx> perEpochTransition =
         StateTransitionTestUtil.createStateWithNoTransition();
 
-    BeaconBlockVerifier blockVerifier = (block, state) -> VerificationResult.PASSED;
     BeaconStateVerifier stateVerifier = (block, state) -> VerificationResult.PASSED;
     Database database = Database.inMemoryDB();
     BeaconChainStorage chainStorage = new SSZBeaconChainStorageFactory(
@@ -163,4 +178,191 @@ public class DefaultBeaconChainTest {
 
     Assert.assertEquals(ImportResult.ExpiredBlock, beaconChain.insert(aBlock));
   }
+
+  @Test
+  public void rejectInvalidBlockBrokenTransition() {
+    ControlledSchedulers schedulers = Schedulers.createControlled();
+
+    BeaconChainSpec spec =
+        BeaconChainSpec.Builder.createWithDefaultParams()
+            .withComputableGenesisTime(false)
+            .withVerifyDepositProof(false)
+            .build();
+    StateTransition<BeaconStateEx> perSlotTransition =
+        StateTransitionTestUtil.createNextSlotTransition();
+    MutableBeaconChain beaconChain =
+        createBeaconChain(
+            spec,
+            perSlotTransition,
+            schedulers,
+            (block, state) -> VerificationResult.failedResult("invalid signature"),
+            (state, block) -> {
+              throw new IllegalStateException("broken transition");
+            });
+
+    beaconChain.init();
+    BeaconTuple initialTuple = beaconChain.getRecentlyProcessed();
+    schedulers.setCurrentTime(
+        spec.get_slot_start_time(initialTuple.getState(), SlotNumber.of(1)).getValue() * 1000);
+    BeaconBlock aBlock =
+        createBlock(initialTuple, spec, schedulers.getCurrentTime(), perSlotTransition);
+
+    Assert.assertEquals(ImportResult.InvalidBlock, beaconChain.insert(aBlock));
+    Assert.assertEquals(initialTuple.getBlock(), beaconChain.getRecentlyProcessed().getBlock());
+  }
+
+  @Test
+  public void insertSegment() {
+    ControlledSchedulers schedulers = Schedulers.createControlled();
+
+    BeaconChainSpec spec =
+        BeaconChainSpec.Builder.createWithDefaultParams()
+            .withComputableGenesisTime(false)
+            .withVerifyDepositProof(false)
+            .build();
+    StateTransition<BeaconStateEx> perSlotTransition =
+        StateTransitionTestUtil.createNextSlotTransition();
+    MutableBeaconChain beaconChain = createBeaconChain(spec, perSlotTransition, schedulers);
+
+    beaconChain.init();
+    List<BeaconBlock> segment = createSegment(beaconChain, spec, schedulers, perSlotTransition, 5);
+
+    Assert.assertEquals(
+        Collections.nCopies(3, ImportResult.OK), beaconChain.insertSegment(segment.subList(0, 3)));
+    Assert.assertEquals(segment.get(2), beaconChain.getRecentlyProcessed().getBlock());
+
+    Assert.assertEquals(
+        Arrays.asList(
+            ImportResult.ExistingBlock,
+            ImportResult.ExistingBlock,
+            ImportResult.OK,
+            ImportResult.OK),
+        beaconChain.insertSegment(segment.subList(1, 5)));
+    Assert.assertEquals(segment.get(4), beaconChain.getRecentlyProcessed().getBlock());
+  }
+
+  @Test
+  public void insertSegmentWithInvalidBlock() {
+    ControlledSchedulers schedulers = Schedulers.createControlled();
+
+    BeaconChainSpec spec =
+        BeaconChainSpec.Builder.createWithDefaultParams()
+            .withComputableGenesisTime(false)
+            .withVerifyDepositProof(false)
+            .build();
+    StateTransition<BeaconStateEx> perSlotTransition =
+        StateTransitionTestUtil.createNextSlotTransition();
+    MutableBeaconChain beaconChain =
+        createBeaconChain(
+            spec,
+            perSlotTransition,
+            schedulers,
+            (block, state) ->
+                block.getSlot().equals(SlotNumber.of(2))
+                    ? VerificationResult.failedResult("invalid signature")
+                    : VerificationResult.PASSED,
+            StateTransitionTestUtil.createPerBlockTransition());
+
+    beaconChain.init();
+    List<BeaconBlock> segment = createSegment(beaconChain, spec, schedulers, perSlotTransition, 3);
+
+    Assert.assertEquals(
+        Arrays.asList(ImportResult.OK, ImportResult.InvalidBlock, ImportResult.NoParent),
+        beaconChain.insertSegment(segment));
+    Assert.assertEquals(segment.get(0), beaconChain.getRecentlyProcessed().getBlock());
+  }
+
+  @Test
+  public void insertSegmentWithFailingVerifier() {
+    ControlledSchedulers schedulers = Schedulers.createControlled();
+
+    BeaconChainSpec spec =
+        BeaconChainSpec.Builder.createWithDefaultParams()
+            .withComputableGenesisTime(false)
+            .withVerifyDepositProof(false)
+            .build();
+    StateTransition<BeaconStateEx> perSlotTransition =
+        StateTransitionTestUtil.createNextSlotTransition();
+    MutableBeaconChain beaconChain =
+        createBeaconChain(
+            spec,
+            perSlotTransition,
+            schedulers,
+            (block, state) -> {
+              if (block.getSlot().equals(SlotNumber.of(2))) {
+                throw new IllegalStateException("malformed block");
+              }
+              return VerificationResult.PASSED;
+            },
+            StateTransitionTestUtil.createPerBlockTransition());
+
+    beaconChain.init();
+    List<BeaconBlock> segment = createSegment(beaconChain, spec, schedulers, perSlotTransition, 3);
+
+    Assert.assertEquals(
+        Arrays.asList(ImportResult.OK, ImportResult.InvalidBlock, ImportResult.NoParent),
+        beaconChain.insertSegment(segment));
+    Assert.assertEquals(segment.get(0), beaconChain.getRecentlyProcessed().getBlock());
+  }
+
+  @Test
+  public void defaultInsertSegmentStopsAtRejectedBlock() {
+    List<ImportResult> results =
+        Arrays.asList(ImportResult.ExistingBlock, ImportResult.OK, ImportResult.StateMismatch);
+    List<BeaconBlock> inserted = new ArrayList<>();
+    MutableBeaconChain beaconChain =
+        new MutableBeaconChain() {
+          @Override
+          public ImportResult insert(BeaconBlock block) {
+            inserted.add(block);
+            return results.get(inserted.size() - 1);
+          }
+
+          @Override
+          public Publisher<BeaconTupleDetails> getBlockStatesStream() {
+            return null;
+          }
+
+          @Override
+          public BeaconTuple getRecentlyProcessed() {
+            return null;
+          }
+
+          @Override
+          public void init() {}
+        };
+
+    List<BeaconBlock> segment =
+        Collections.nCopies(5, BeaconChainSpec.createWithDefaults().get_empty_block());
+    Assert.assertEquals(
+        Arrays.asList(
+            ImportResult.ExistingBlock,
+            ImportResult.OK,
+            ImportResult.StateMismatch,
+            ImportResult.NoParent,
+            ImportResult.NoParent),
+        beaconChain.insertSegment(segment));
+    Assert.assertEquals(3, inserted.size());
+  }
+
+  /** Creates blocks at consecutive slots on top of recently processed one. */
+  private List<BeaconBlock> createSegment(
+      MutableBeaconChain beaconChain,
+      BeaconChainSpec spec,
+      ControlledSchedulers schedulers,
+      StateTransition<BeaconStateEx> perSlotTransition,
+      int size) {
+    BeaconTuple parent = beaconChain.getRecentlyProcessed();
+    BeaconState state = parent.getState();
+    List<BeaconBlock> segment = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      SlotNumber slot = parent.getBlock().getSlot().increment();
+      long time = spec.get_slot_start_time(state, slot).getValue() * 1000;
+      BeaconBlock block = createBlock(parent, spec, time, perSlotTransition);
+      segment.add(block);
+      parent = BeaconTuple.of(block, parent.getState());
+      schedulers.setCurrentTime(time);
+    }
+    return segment;
+  }
 }
@@ -0,0 +1,254 @@
+package org.ethereum.beacon.chain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.ethereum.beacon.consensus.BeaconChainSpec;
+import org.ethereum.beacon.consensus.spec.ForkChoice.LatestMessage;
+import org.ethereum.beacon.consensus.spec.ForkChoice.Store;
+import org.ethereum.beacon.core.BeaconBlock;
+import org.ethereum.beacon.core.BeaconBlockBody;
+import org.ethereum.beacon.core.BeaconState;
+import org.ethereum.beacon.core.MutableBeaconState;
+import org.ethereum.beacon.core.state.Checkpoint;
+import org.ethereum.beacon.core.state.ValidatorRecord;
+import org.ethereum.beacon.core.types.BLSPubkey;
+import org.ethereum.beacon.core.types.BLSSignature;
+import org.ethereum.beacon.core.types.EpochNumber;
+import org.ethereum.beacon.core.types.Gwei;
+import org.ethereum.beacon.core.types.SlotNumber;
+import org.ethereum.beacon.core.types.Time;
+import org.ethereum.beacon.core.types.ValidatorIndex;
+import org.junit.Test;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+import tech.pegasys.artemis.util.bytes.Bytes32;
+
+public class ProtoArrayTest {
+
+  private static final int VALIDATOR_COUNT = 64;
+
+  private final BeaconChainSpec spec = BeaconChainSpec.createWithDefaults();
+  private final Random random = new Random(1);
+
+  private final Map<Hash32, BeaconBlock> blocks = new HashMap<>();
+  private final List<Hash32> roots = new ArrayList<>();
+  private final Map<ValidatorIndex, LatestMessage> latestMessages = new HashMap<>();
+  private Checkpoint justified;
+  private BeaconState justifiedState;
+
+  @Test
+  public void sameHeadAsSpec() {
+    justifiedState = createState();
+    ProtoArray protoArray = new ProtoArray();
+    Hash32 genesis = addBlock(protoArray, Hash32.ZERO, 0);
+    justified = new Checkpoint(EpochNumber.ZERO, genesis);
+
+    for (int round = 0; round < 50; round++) {
+      for (int i = 0; i < 10; i++) {
+        Hash32 parentRoot = roots.get(random.nextInt(roots.size()));
+        long parentSlot = blocks.get(parentRoot).getSlot().getValue();
+        addBlock(protoArray, parentRoot, parentSlot + 1 + random.nextInt(3));
+      }
+      for (int i = 0; i < VALIDATOR_COUNT / 4; i++) {
+        ValidatorIndex index = ValidatorIndex.of(random.nextInt(VALIDATOR_COUNT));
+        // some votes are for blocks unknown to both
+        Hash32 root =
+            random.nextInt(20) == 0 ? randomRoot() : roots.get(random.nextInt(roots.size()));
+        latestMessages.put(index, new LatestMessage(EpochNumber.of(round), root));
+      }
+      if (round == 25) {
+        // move justified checkpoint to one of the heaviest blocks
+        justified = new Checkpoint(EpochNumber.of(1), spec.get_head(createStore()));
+      }
+
+      for (int i = 0; i < VALIDATOR_COUNT; i++) {
+        ValidatorIndex index = ValidatorIndex.of(i);
+        LatestMessage message = latestMessages.get(index);
+        Gwei balance = justifiedState.getValidators().get(index).getEffectiveBalance();
+        protoArray.updateVote(i, message == null ? null : message.getRoot(), balance.getValue());
+      }
+      assertEquals(spec.get_head(createStore()), protoArray.findHead(justified.getRoot()));
+    }
+  }
+
+  @Test
+  public void pruneKeepsWeights() {
+    ProtoArray protoArray = new ProtoArray();
+    Hash32 a = randomRoot();
+    Hash32 b = randomRoot();
+    Hash32 c = randomRoot();
+    Hash32 d = randomRoot();
+    Hash32 e = randomRoot();
+    // a <- b <- c <- d, b <- e
+    assertTrue(protoArray.onBlock(a, Hash32.ZERO));
+    assertTrue(protoArray.onBlock(b, a));
+    assertTrue(protoArray.onBlock(c, b));
+    assertTrue(protoArray.onBlock(e, b));
+    assertTrue(protoArray.onBlock(d, c));
+    assertFalse(protoArray.onBlock(randomRoot(), randomRoot()));
+
+    protoArray.updateVote(0, d, 10);
+    protoArray.updateVote(1, e, 20);
+    assertEquals(e, protoArray.findHead(a));
+    protoArray.updateVote(2, d, 15);
+    assertEquals(d, protoArray.findHead(a));
+
+    assertTrue(protoArray.prune(c));
+    assertEquals(2, protoArray.size());
+    assertFalse(protoArray.contains(e));
+    assertEquals(d, protoArray.findHead(c));
+
+    // moving the vote away from pruned block adds weight only
+    protoArray.updateVote(1, c, 20);
+    protoArray.updateVote(0, null, 0);
+    protoArray.updateVote(2, null, 0);
+    assertEquals(d, protoArray.findHead(c));
+    assertFalse(protoArray.prune(e));
+  }
+
+  private BeaconState createState() {
+    MutableBeaconState state = BeaconState.getEmpty().createMutableCopy();
+    for (int i = 0; i < VALIDATOR_COUNT; i++) {
+      state
+          .getValidators()
+          .add(
+              ValidatorRecord.Builder.createEmpty()
+                  .withPubKey(BLSPubkey.ZERO)
+                  .withWithdrawalCredentials(Hash32.ZERO)
+                  .withEffectiveBalance(Gwei.ofEthers(1 + random.nextInt(32)))
+                  .withSlashed(false)
+                  .withActivationEligibilityEpoch(EpochNumber.ZERO)
+                  .withActivationEpoch(EpochNumber.ZERO)
+                  .withExitEpoch(spec.getConstants().getFarFutureEpoch())
+                  .withWithdrawableEpoch(spec.getConstants().getFarFutureEpoch())
+                  .build());
+    }
+    return state.createImmutable();
+  }
+
+  private Hash32 addBlock(ProtoArray protoArray, Hash32 parentRoot, long slot) {
+    BeaconBlock block =
+        new BeaconBlock(
+            SlotNumber.of(slot),
+            parentRoot,
+            randomRoot(),
+            BeaconBlockBody.getEmpty(spec.getConstants()),
+            BLSSignature.ZERO);
+    Hash32 root = spec.signing_root(block);
+    blocks.put(root, block);
+    roots.add(root);
+    assertTrue(protoArray.onBlock(root, parentRoot));
+    return root;
+  }
+
+  private Hash32 randomRoot() {
+    byte[] bytes = new byte[32];
+    random.nextBytes(bytes);
+    return Hash32.wrap(Bytes32.wrap(bytes));
+  }
+
+  private Store createStore() {
+    return new Store() {
+      @Override
+      public Time getTime() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void setTime(Time time) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Time getGenesisTime() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Checkpoint getJustifiedCheckpoint() {
+        return justified;
+      }
+
+      @Override
+      public void setJustifiedCheckpoint(Checkpoint checkpoint) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Checkpoint getBestJustifiedCheckpoint() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void setBestJustifiedCheckpoint(Checkpoint checkpoint) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Checkpoint getFinalizedCheckpoint() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void setFinalizedCheckpoint(Checkpoint checkpoint) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Optional<BeaconBlock> getBlock(Hash32 root) {
+        return Optional.ofNullable(blocks.get(root));
+      }
+
+      @Override
+      public void setBlock(Hash32 root, BeaconBlock block) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Optional<BeaconState> getState(Hash32 root) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void setState(Hash32 root, BeaconState state) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Optional<BeaconState> getCheckpointState(Checkpoint checkpoint) {
+        return Optional.of(justifiedState);
+      }
+
+      @Override
+      public void setCheckpointState(Checkpoint checkpoint, BeaconState state) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Optional<LatestMessage> getLatestMessage(ValidatorIndex index) {
+        return Optional.ofNullable(latestMessages.get(index));
+      }
+
+      @Override
+      public void setLatestMessage(ValidatorIndex index, LatestMessage message) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public List<Hash32> getChildren(Hash32 root) {
+        return blocks.entrySet().stream()
+            .filter(e -> e.getValue().getParentRoot().equals(root))
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+      }
+    };
+  }
+}
@@ -0,0 +1,125 @@
+package org.ethereum.beacon.chain.observer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.ethereum.beacon.consensus.BeaconChainSpec;
+import org.ethereum.beacon.core.operations.Attestation;
+import org.ethereum.beacon.core.operations.attestation.AttestationData;
+import org.ethereum.beacon.core.state.Checkpoint;
+import org.ethereum.beacon.core.types.BLSSignature;
+import org.ethereum.beacon.core.types.CommitteeIndex;
+import org.ethereum.beacon.core.types.EpochNumber;
+import org.ethereum.beacon.core.types.SlotNumber;
+import org.ethereum.beacon.schedulers.Schedulers;
+import org.junit.Test;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+import tech.pegasys.artemis.util.collections.Bitlist;
+
+public class AttestationIngestionTest {
+
+  private final BeaconChainSpec spec = BeaconChainSpec.createWithDefaults();
+
+  @Test
+  public void deduplicatesAndDropsOverCapacity() {
+    AttestationIngestion ingestion =
+        new AttestationIngestion(
+            spec,
+            Schedulers.createDefault().cpuHeavy(),
+            checkpoint -> {
+              throw new IllegalStateException();
+            },
+            3);
+    ingestion.setCurrentEpoch(EpochNumber.of(1));
+
+    assertTrue(ingestion.offer(attestation(1, 0)));
+    assertFalse(ingestion.offer(attestation(1, 0)));
+    assertTrue(ingestion.offer(attestation(1, 1)));
+    assertTrue(ingestion.offer(attestation(2, 0)));
+    assertFalse(ingestion.offer(attestation(2, 1)));
+    assertEquals(3, ingestion.getQueued());
+    assertEquals(1, ingestion.getDuplicates());
+    assertEquals(1, ingestion.getDropped());
+
+    // attestations which target state fails to compute are drained as invalid
+    assertEquals(
+        2,
+        ingestion.verify(
+            EpochNumber.of(1),
+            (attestation, participants) -> {
+              throw new AssertionError();
+            }));
+    assertEquals(1, ingestion.getQueued());
+    assertEquals(2, ingestion.getInvalid());
+    // seen attestations are remembered until purged
+    assertFalse(ingestion.offer(attestation(1, 1)));
+
+    ingestion.purge(EpochNumber.of(3));
+    assertEquals(0, ingestion.getQueued());
+    assertTrue(ingestion.offer(attestation(1, 1)));
+  }
+
+  @Test
+  public void dropsOutOfRangeAndDefersUnknownTargets() {
+    AtomicBoolean imported = new AtomicBoolean();
+    AttestationIngestion ingestion =
+        new AttestationIngestion(
+            spec,
+            Schedulers.createDefault().cpuHeavy(),
+            checkpoint -> {
+              if (imported.get()) {
+                throw new IllegalStateException();
+              }
+              return Optional.empty();
+            },
+            16);
+    ingestion.setCurrentEpoch(EpochNumber.of(5));
+
+    assertFalse(ingestion.offer(attestation(3, 0)));
+    assertFalse(ingestion.offer(attestation(7, 0)));
+    assertEquals(2, ingestion.getDropped());
+    assertTrue(ingestion.offer(attestation(4, 0)));
+    assertTrue(ingestion.offer(attestation(6, 0)));
+
+    // target block is not imported yet, attestations stay in the queue
+    assertEquals(
+        0,
+        ingestion.verify(
+            EpochNumber.of(5),
+            (attestation, participants) -> {
+              throw new AssertionError();
+            }));
+    assertEquals(2, ingestion.getQueued());
+    assertEquals(0, ingestion.getInvalid());
+
+    imported.set(true);
+    assertEquals(
+        1,
+        ingestion.verify(
+            EpochNumber.of(5),
+            (attestation, participants) -> {
+              throw new AssertionError();
+            }));
+    assertEquals(1, ingestion.getQueued());
+    assertEquals(1, ingestion.getInvalid());
+
+    ingestion.setCurrentEpoch(EpochNumber.of(8));
+    assertEquals(0, ingestion.getQueued());
+  }
+
+  private Attestation attestation(long targetEpoch, int bit) {
+    AttestationData data =
+        new AttestationData(
+            SlotNumber.ZERO,
+            CommitteeIndex.of(0),
+            Hash32.ZERO,
+            new Checkpoint(EpochNumber.ZERO, Hash32.ZERO),
+            new Checkpoint(EpochNumber.of(targetEpoch), Hash32.ZERO));
+    Bitlist bits = Bitlist.of(4, Collections.singletonList(bit), 4);
+    return new Attestation(bits, data, BLSSignature.ZERO, spec.getConstants());
+  }
+}
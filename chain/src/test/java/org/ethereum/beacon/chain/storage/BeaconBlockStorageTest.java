@@ -1,5 +1,13 @@
 package org.ethereum.beacon.chain.storage;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
 import org.ethereum.beacon.chain.storage.impl.BeaconBlockStorageImpl;
 import org.ethereum.beacon.chain.storage.impl.SerializerFactory;
 import org.ethereum.beacon.consensus.BeaconChainSpec;
@@ -10,12 +18,17 @@ import org.ethereum.beacon.core.spec.SpecConstants;
 import org.ethereum.beacon.core.types.BLSSignature;
 import org.ethereum.beacon.core.types.SlotNumber;
 import org.ethereum.beacon.db.Database;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import tech.pegasys.artemis.ethereum.core.Hash32;
 import tech.pegasys.artemis.util.bytes.Bytes32;
 import tech.pegasys.artemis.util.bytes.BytesValues;
 
 public class BeaconBlockStorageTest {
 
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
   private long counter = 0;
 
   private BeaconBlockStorage create(BeaconChainSpec spec) {
@@ -32,6 +45,81 @@ public class BeaconBlockStorageTest {
         BeaconBlockBody.getEmpty(BeaconChainSpec.DEFAULT_CONSTANTS), BLSSignature.ZERO);
   }
 
+  @Test
+  public void reopenAfterFinalization() {
+    // storages of in-memory database are XOR-keyed, hence, the slot index can't be iterated over
+    Database database = Database.inMemoryDB();
+    SpecConstants constants = BeaconChainSpec.DEFAULT_CONSTANTS;
+    ObjectHasher<Hash32> hasher = ObjectHasher.createSSZOverSHA256(constants);
+    SerializerFactory serializer = SerializerFactory.createSSZ(constants);
+    BeaconBlockStorageImpl storage = BeaconBlockStorageImpl.create(database, hasher, serializer);
+
+    List<Hash32> roots = new ArrayList<>();
+    BeaconBlock parent = null;
+    for (long slot = 0; slot < 10; slot++) {
+      BeaconBlock block =
+          createBlock(slot, parent, parent == null ? null : roots.get(roots.size() - 1));
+      roots.add(hasher.getHashTruncateLast(block));
+      storage.put(block);
+      parent = block;
+    }
+    storage.onFinalized(roots.get(6));
+    database.commit();
+
+    BeaconBlockStorageImpl reopened = BeaconBlockStorageImpl.create(database, hasher, serializer);
+    reopened.onFinalized(roots.get(6));
+    assertEquals(SlotNumber.of(9), reopened.getMaxSlot());
+    SortedMap<SlotNumber, List<Hash32>> range =
+        reopened.getSlotBlocks(SlotNumber.of(2), SlotNumber.of(10));
+    assertEquals(8, range.size());
+    for (long slot = 2; slot < 10; slot++) {
+      assertEquals(
+          Collections.singletonList(roots.get((int) slot)), range.get(SlotNumber.of(slot)));
+    }
+    assertEquals(roots.get(3), reopened.getAncestor(roots.get(9), SlotNumber.of(3)).get());
+  }
+
+  @Test
+  public void archiveFinalizedBlocks() throws IOException {
+    SpecConstants constants = BeaconChainSpec.DEFAULT_CONSTANTS;
+    ObjectHasher<Hash32> hasher = ObjectHasher.createSSZOverSHA256(constants);
+    BeaconBlockStorageImpl storage =
+        BeaconBlockStorageImpl.create(
+            Database.inMemoryDB(),
+            hasher,
+            SerializerFactory.createSSZ(constants),
+            folder.newFolder().toPath());
+
+    List<Hash32> roots = new ArrayList<>();
+    BeaconBlock parent = null;
+    for (long slot = 0; slot < 10; slot++) {
+      BeaconBlock block =
+          createBlock(slot, parent, parent == null ? null : roots.get(roots.size() - 1));
+      roots.add(hasher.getHashTruncateLast(block));
+      storage.put(block);
+      parent = block;
+    }
+
+    // finalization only records archive boundary
+    storage.onFinalized(roots.get(6));
+    assertTrue(storage.getArchivedBlocks(SlotNumber.ZERO, SlotNumber.of(10)).isEmpty());
+
+    List<Runnable> batches = new ArrayList<>();
+    storage.archiveFinalized(batches::add);
+    assertEquals(7, storage.getArchivedBlocks(SlotNumber.ZERO, SlotNumber.of(10)).size());
+    assertEquals(1, batches.size());
+    batches.get(0).run();
+    for (Hash32 root : roots) {
+      assertTrue(storage.containsKey(root));
+      assertEquals(root, hasher.getHashTruncateLast(storage.get(root).get()));
+    }
+
+    // nothing new to archive
+    batches.clear();
+    storage.archiveFinalized(batches::add);
+    assertTrue(batches.isEmpty());
+  }
+
 // TODO: Test smth
 //
 //  @Test
@@ -0,0 +1,104 @@
+package org.ethereum.beacon.chain.storage;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.ethereum.beacon.chain.BeaconTuple;
+import org.ethereum.beacon.chain.storage.impl.BeaconBlockStorageImpl;
+import org.ethereum.beacon.chain.storage.impl.BeaconStateStorageImpl;
+import org.ethereum.beacon.chain.storage.impl.BeaconTupleStorageImpl;
+import org.ethereum.beacon.chain.storage.impl.SerializerFactory;
+import org.ethereum.beacon.consensus.BeaconChainSpec;
+import org.ethereum.beacon.consensus.BeaconStateEx;
+import org.ethereum.beacon.consensus.BlockTransition;
+import org.ethereum.beacon.consensus.transition.BeaconStateExImpl;
+import org.ethereum.beacon.consensus.transition.EmptySlotTransition;
+import org.ethereum.beacon.consensus.transition.ExtendedSlotTransition;
+import org.ethereum.beacon.consensus.transition.PerEpochTransition;
+import org.ethereum.beacon.consensus.util.StateTransitionTestUtil;
+import org.ethereum.beacon.core.BeaconBlock;
+import org.ethereum.beacon.core.BeaconBlockBody;
+import org.ethereum.beacon.core.BeaconState;
+import org.ethereum.beacon.core.types.BLSSignature;
+import org.ethereum.beacon.core.types.SlotNumber;
+import org.ethereum.beacon.db.Database;
+import org.ethereum.beacon.db.source.impl.HashMapDataSource;
+import org.junit.Test;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+
+public class BeaconTupleStorageTest {
+
+  private final BeaconChainSpec spec = BeaconChainSpec.createWithDefaults();
+  private final EmptySlotTransition preBlockTransition =
+      new EmptySlotTransition(
+          new ExtendedSlotTransition(
+              new PerEpochTransition(spec) {
+                @Override
+                public BeaconStateEx apply(BeaconStateEx stateEx) {
+                  return stateEx;
+                }
+              },
+              StateTransitionTestUtil.createStateWithNoTransition(),
+              spec));
+  private final BlockTransition<BeaconStateEx> blockTransition =
+      StateTransitionTestUtil.createPerBlockTransition();
+
+  @Test
+  public void regenerateStates() {
+    BeaconBlockStorage blockStorage =
+        BeaconBlockStorageImpl.create(
+            Database.inMemoryDB(),
+            spec.getObjectHasher(),
+            SerializerFactory.createSSZ(spec.getConstants()));
+    BeaconStateStorage stateStorage =
+        new BeaconStateStorageImpl(new HashMapDataSource<>(), spec.getObjectHasher());
+    // zero memory budget makes every non persisted state to be regenerated
+    BeaconTupleStorage tupleStorage =
+        new BeaconTupleStorageImpl(
+            blockStorage, stateStorage, spec, preBlockTransition, blockTransition, 0);
+
+    BeaconStateEx genesisState = new BeaconStateExImpl(BeaconState.getEmpty(spec.getConstants()));
+    BeaconBlock genesis =
+        spec.get_empty_block().withStateRoot(spec.hash_tree_root(genesisState));
+    tupleStorage.put(BeaconTuple.of(genesis, genesisState));
+
+    long slotsPerEpoch = spec.getConstants().getSlotsPerEpoch().getValue();
+    List<BeaconTuple> tuples = new ArrayList<>();
+    BeaconTuple parent = BeaconTuple.of(genesis, genesisState);
+    for (long slot = 1; slot < 3 * slotsPerEpoch; slot++) {
+      if (slot == slotsPerEpoch) {
+        // skip the first slot of the epoch
+        continue;
+      }
+      BeaconTuple tuple = createTuple(parent, SlotNumber.of(slot));
+      tupleStorage.put(tuple);
+      tuples.add(tuple);
+      parent = tuple;
+    }
+
+    for (BeaconTuple tuple : tuples) {
+      BeaconBlock block = tuple.getBlock();
+      long slot = block.getSlot().getValue();
+      boolean checkpoint = slot == slotsPerEpoch + 1 || slot % slotsPerEpoch == 0;
+      assertEquals(checkpoint, stateStorage.get(block.getStateRoot()).isPresent());
+
+      BeaconTuple loaded = tupleStorage.get(spec.signing_root(block)).get();
+      assertEquals(block, loaded.getBlock());
+      assertEquals(block.getStateRoot(), spec.hash_tree_root(loaded.getState()));
+    }
+  }
+
+  private BeaconTuple createTuple(BeaconTuple parent, SlotNumber slot) {
+    BeaconBlock block =
+        new BeaconBlock(
+            slot,
+            spec.signing_root(parent.getBlock()),
+            Hash32.ZERO,
+            BeaconBlockBody.getEmpty(spec.getConstants()),
+            BLSSignature.ZERO);
+    BeaconStateEx state =
+        blockTransition.apply(preBlockTransition.apply(parent.getState(), slot), block);
+    return BeaconTuple.of(block.withStateRoot(spec.hash_tree_root(state)), state);
+  }
+}
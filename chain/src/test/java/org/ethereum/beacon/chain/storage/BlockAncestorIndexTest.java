@@ -0,0 +1,79 @@
+package org.ethereum.beacon.chain.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Optional;
+import org.ethereum.beacon.chain.storage.impl.BlockAncestorIndex;
+import org.junit.Test;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+import tech.pegasys.artemis.util.bytes.Bytes32;
+import tech.pegasys.artemis.util.bytes.BytesValues;
+
+public class BlockAncestorIndexTest {
+
+  @Test
+  public void longChain() {
+    BlockAncestorIndex index = new BlockAncestorIndex();
+    assertTrue(index.add(root(10), Hash32.ZERO, 10));
+    // every third slot is empty
+    long parent = 10;
+    for (long slot = 11; slot < 1000; slot++) {
+      if (slot % 3 != 0) {
+        assertTrue(index.add(root(slot), root(parent), slot));
+        parent = slot;
+      }
+    }
+
+    assertEquals(Optional.of(root(10)), index.getAncestor(root(998), 10));
+    assertEquals(Optional.of(root(500)), index.getAncestor(root(998), 500));
+    assertEquals(Optional.of(Hash32.ZERO), index.getAncestor(root(998), 501));
+    assertEquals(Optional.of(root(998)), index.getAncestor(root(998), 998));
+    assertEquals(Optional.of(Hash32.ZERO), index.getAncestor(root(500), 998));
+    assertEquals(Optional.empty(), index.getAncestor(root(998), 9));
+    assertEquals(Optional.empty(), index.getAncestor(root(2000), 500));
+
+    for (long slot = 11; slot < 998; slot++) {
+      Hash32 expected = slot % 3 != 0 ? root(slot) : Hash32.ZERO;
+      assertEquals(Optional.of(expected), index.getAncestor(root(998), slot));
+    }
+  }
+
+  @Test
+  public void forksAndRebase() {
+    BlockAncestorIndex index = new BlockAncestorIndex();
+    index.add(root(0), Hash32.ZERO, 0);
+    index.add(root(1), root(0), 1);
+    // fork A: 2 <- 4 <- 6, fork B: 3 <- 5
+    index.add(root(2), root(1), 2);
+    index.add(root(4), root(2), 4);
+    index.add(root(6), root(4), 6);
+    index.add(root(3), root(1), 3);
+    index.add(root(5), root(3), 5);
+    assertFalse(index.add(root(8), root(7), 8));
+    assertEquals(7, index.size());
+
+    assertEquals(Optional.of(root(1)), index.getAncestor(root(5), 1));
+    assertEquals(Optional.of(Hash32.ZERO), index.getAncestor(root(5), 2));
+    assertEquals(Optional.of(root(2)), index.getAncestor(root(6), 2));
+
+    assertTrue(index.rebase(root(2)));
+    assertEquals(3, index.size());
+    assertFalse(index.contains(root(5)));
+    assertFalse(index.contains(root(1)));
+    assertEquals(Optional.of(root(4)), index.getAncestor(root(6), 4));
+    assertEquals(Optional.of(root(2)), index.getAncestor(root(6), 2));
+    assertEquals(Optional.empty(), index.getAncestor(root(6), 1));
+    assertFalse(index.rebase(root(5)));
+
+    index.remove(root(6));
+    assertFalse(index.contains(root(6)));
+    index.remove(root(2));
+    assertEquals(0, index.size());
+  }
+
+  private Hash32 root(long i) {
+    return Hash32.wrap(Bytes32.leftPad(BytesValues.toMinimalBytes(i + 1)));
+  }
+}
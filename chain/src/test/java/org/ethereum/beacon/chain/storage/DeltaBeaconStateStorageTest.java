@@ -0,0 +1,133 @@
+package org.ethereum.beacon.chain.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import org.ethereum.beacon.chain.storage.impl.DeltaBeaconStateStorageImpl;
+import org.ethereum.beacon.chain.storage.impl.SerializerFactory;
+import org.ethereum.beacon.consensus.BeaconChainSpec;
+import org.ethereum.beacon.consensus.hasher.ObjectHasher;
+import org.ethereum.beacon.core.BeaconState;
+import org.ethereum.beacon.core.MutableBeaconState;
+import org.ethereum.beacon.core.spec.SpecConstants;
+import org.ethereum.beacon.core.types.Gwei;
+import org.ethereum.beacon.core.types.SlotNumber;
+import org.ethereum.beacon.core.types.ValidatorIndex;
+import org.ethereum.beacon.db.source.impl.HashMapDataSource;
+import org.junit.Test;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+import tech.pegasys.artemis.util.bytes.Bytes32;
+import tech.pegasys.artemis.util.bytes.BytesValue;
+import tech.pegasys.artemis.util.bytes.BytesValues;
+
+public class DeltaBeaconStateStorageTest {
+
+  private static final long SNAPSHOT_INTERVAL = 8;
+  private static final int REGISTRY_SIZE = 16;
+
+  private final SpecConstants constants = BeaconChainSpec.DEFAULT_CONSTANTS;
+  private final HashMapDataSource<BytesValue, BytesValue> source = new HashMapDataSource<>();
+  private final HashMapDataSource<BytesValue, BytesValue> headers = new HashMapDataSource<>();
+  private final BeaconStateStorage storage =
+      new DeltaBeaconStateStorageImpl(
+          source,
+          headers,
+          ObjectHasher.createSSZOverSHA256(constants),
+          SerializerFactory.createSSZ(constants),
+          SNAPSHOT_INTERVAL);
+
+  @Test
+  public void snapshotsAndDeltas() {
+    MutableBeaconState state = genesis();
+    storage.put(root(0), state);
+
+    for (long slot = 1; slot <= 2 * SNAPSHOT_INTERVAL + 1; slot++) {
+      state = nextState(state, root(slot - 1), slot);
+      if (slot == 5) {
+        state.getBalances().add(Gwei.ofEthers(1));
+      }
+      storage.put(root(slot), state);
+      assertEquals(state, storage.get(root(slot)).get());
+    }
+
+    long snapshotSize = source.get(root(0)).get().size();
+    for (long slot = 0; slot <= 2 * SNAPSHOT_INTERVAL + 1; slot++) {
+      BytesValue entry = source.get(root(slot)).get();
+      if (slot % SNAPSHOT_INTERVAL == 0) {
+        assertEquals(0x00, entry.get(0));
+      } else {
+        assertEquals(0x01, entry.get(0));
+        assertTrue(entry.size() < snapshotSize);
+      }
+    }
+  }
+
+  @Test
+  public void emptySlotsAreSkipped() {
+    MutableBeaconState state = genesis();
+    storage.put(root(0), state);
+
+    // slot 1 is empty, its state is never stored
+    MutableBeaconState emptySlotState = nextState(state, root(0), 1);
+    state = nextState(emptySlotState, Hash32.random(new Random(1)), 2);
+    storage.put(root(2), state);
+    assertEquals(0x01, source.get(root(2)).get().get(0));
+    assertEquals(state, storage.get(root(2)).get());
+
+    // an ancestor from the previous period makes a snapshot
+    MutableBeaconState nextPeriod = nextState(state, root(2), SNAPSHOT_INTERVAL + 2);
+    storage.put(root(SNAPSHOT_INTERVAL + 2), nextPeriod);
+    assertEquals(0x00, source.get(root(SNAPSHOT_INTERVAL + 2)).get().get(0));
+    assertEquals(nextPeriod, storage.get(root(SNAPSHOT_INTERVAL + 2)).get());
+
+    storage.remove(root(2));
+    assertFalse(storage.get(root(2)).isPresent());
+  }
+
+  @Test
+  public void snapshotIsFoundByHeaders() {
+    MutableBeaconState state = genesis();
+    storage.put(root(0), state);
+    state = nextState(state, root(0), 1);
+    storage.put(root(1), state);
+
+    for (long slot = 0; slot <= 1; slot++) {
+      BytesValue entry = source.get(root(slot)).get();
+      BytesValue header = headers.get(root(slot)).get();
+      assertTrue(header.size() < entry.size());
+      assertEquals(header, entry.slice(0, header.size()));
+    }
+
+    // entries without a stored header are read as a whole
+    headers.remove(root(1));
+    state = nextState(state, root(1), 2);
+    storage.put(root(2), state);
+    assertEquals(0x01, source.get(root(2)).get().get(0));
+    assertEquals(state, storage.get(root(2)).get());
+
+    storage.remove(root(2));
+    assertFalse(headers.get(root(2)).isPresent());
+  }
+
+  private MutableBeaconState genesis() {
+    MutableBeaconState state = BeaconState.getEmpty(constants).createMutableCopy();
+    for (int i = 0; i < REGISTRY_SIZE; i++) {
+      state.getBalances().add(Gwei.ofEthers(32));
+    }
+    return state;
+  }
+
+  private MutableBeaconState nextState(BeaconState parent, Hash32 parentRoot, long slot) {
+    MutableBeaconState state = parent.createMutableCopy();
+    state.setSlot(SlotNumber.of(slot));
+    state.getStateRoots().set(SlotNumber.of(slot - 1), parentRoot);
+    state.getBalances().set(ValidatorIndex.of(slot % REGISTRY_SIZE), Gwei.of(slot));
+    return state;
+  }
+
+  private Hash32 root(long slot) {
+    return Hash32.wrap(Bytes32.leftPad(BytesValues.toMinimalBytes(slot + 1)));
+  }
+}
@@ -0,0 +1,99 @@
+package org.ethereum.beacon.chain.storage;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.ethereum.beacon.chain.storage.impl.LegacySlotBlockIndex;
+import org.ethereum.beacon.chain.storage.impl.LegacySlotBlockIndex.SlotBlocks;
+import org.ethereum.beacon.chain.storage.impl.SSZBeaconChainStorageFactory;
+import org.ethereum.beacon.chain.storage.impl.SerializerFactory;
+import org.ethereum.beacon.chain.storage.util.StorageUtils;
+import org.ethereum.beacon.consensus.BeaconChainSpec;
+import org.ethereum.beacon.consensus.hasher.ObjectHasher;
+import org.ethereum.beacon.core.BeaconBlock;
+import org.ethereum.beacon.core.BeaconBlockBody;
+import org.ethereum.beacon.core.spec.SpecConstants;
+import org.ethereum.beacon.core.state.Checkpoint;
+import org.ethereum.beacon.core.types.BLSSignature;
+import org.ethereum.beacon.core.types.EpochNumber;
+import org.ethereum.beacon.core.types.SlotNumber;
+import org.ethereum.beacon.db.Database;
+import org.ethereum.beacon.db.source.CodecSource;
+import org.ethereum.beacon.db.source.DataSource;
+import org.ethereum.beacon.db.source.HoleyList;
+import org.ethereum.beacon.db.source.impl.DataSourceList;
+import org.junit.Test;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+import tech.pegasys.artemis.util.bytes.Bytes32;
+import tech.pegasys.artemis.util.bytes.BytesValues;
+
+public class LegacySlotBlockIndexTest {
+
+  private final SpecConstants constants = BeaconChainSpec.DEFAULT_CONSTANTS;
+  private final ObjectHasher<Hash32> hasher = ObjectHasher.createSSZOverSHA256(constants);
+  private final SerializerFactory serializer = SerializerFactory.createSSZ(constants);
+  private long counter = 0;
+
+  @Test
+  public void migrateFromPreviousLayout() {
+    // a database of previous layout: blocks are indexed by SSZ encoded lists of roots
+    Database from = Database.inMemoryDB();
+    DataSource<Hash32, BeaconBlock> blocks =
+        new CodecSource<>(
+            from.createStorage("beacon-block"),
+            key -> key,
+            serializer.getSerializer(BeaconBlock.class),
+            serializer.getDeserializer(BeaconBlock.class));
+    HoleyList<SlotBlocks> index =
+        new DataSourceList<>(
+            from.createStorage(LegacySlotBlockIndex.STORAGE_NAME),
+            serializer.getSerializer(SlotBlocks.class),
+            serializer.getDeserializer(SlotBlocks.class));
+
+    List<List<Hash32>> slots = new ArrayList<>();
+    Hash32 genesis = addBlock(blocks, 0, Hash32.ZERO);
+    Hash32 first = addBlock(blocks, 1, genesis);
+    Hash32 fork = addBlock(blocks, 1, genesis);
+    Hash32 third = addBlock(blocks, 3, first);
+    slots.add(Collections.singletonList(genesis));
+    slots.add(Arrays.asList(first, fork));
+    slots.add(Collections.emptyList());
+    slots.add(Collections.singletonList(third));
+    for (int slot = 0; slot < slots.size(); slot++) {
+      if (!slots.get(slot).isEmpty()) {
+        index.put(slot, new SlotBlocks(slots.get(slot)));
+      }
+    }
+    from.commit();
+
+    SSZBeaconChainStorageFactory factory = new SSZBeaconChainStorageFactory(hasher, serializer);
+    BeaconChainStorage fromStorage = factory.create(from);
+    assertEquals(SlotNumber.of(3), fromStorage.getBlockStorage().getMaxSlot());
+    fromStorage.getFinalizedStorage().set(new Checkpoint(EpochNumber.ZERO, genesis));
+
+    BeaconChainStorage toStorage = factory.create(Database.inMemoryDB());
+    assertEquals(4, StorageUtils.copyStorage(fromStorage, toStorage));
+    assertEquals(SlotNumber.of(3), toStorage.getBlockStorage().getMaxSlot());
+    for (int slot = 0; slot < slots.size(); slot++) {
+      assertEquals(
+          slots.get(slot), toStorage.getBlockStorage().getSlotBlocks(SlotNumber.of(slot)));
+    }
+    assertEquals(genesis, toStorage.getFinalizedStorage().get().get().getRoot());
+  }
+
+  private Hash32 addBlock(DataSource<Hash32, BeaconBlock> blocks, long slot, Hash32 parentRoot) {
+    BeaconBlock block =
+        new BeaconBlock(
+            SlotNumber.of(slot),
+            parentRoot,
+            Hash32.wrap(Bytes32.leftPad(BytesValues.toMinimalBytes(counter++))),
+            BeaconBlockBody.getEmpty(constants),
+            BLSSignature.ZERO);
+    Hash32 root = hasher.getHashTruncateLast(block);
+    blocks.put(root, block);
+    return root;
+  }
+}
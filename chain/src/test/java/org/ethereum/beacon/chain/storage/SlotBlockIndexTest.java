@@ -0,0 +1,87 @@
+package org.ethereum.beacon.chain.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.primitives.Longs;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.ethereum.beacon.chain.storage.impl.SlotBlockIndex;
+import org.ethereum.beacon.db.source.impl.HashMapDataSource;
+import org.junit.Test;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+import tech.pegasys.artemis.util.bytes.Bytes32;
+import tech.pegasys.artemis.util.bytes.BytesValue;
+import tech.pegasys.artemis.util.bytes.BytesValues;
+
+public class SlotBlockIndexTest {
+
+  private final HashMapDataSource<BytesValue, BytesValue> source = new HashMapDataSource<>();
+
+  @Test
+  public void addAndRemove() {
+    SlotBlockIndex index = new SlotBlockIndex(source);
+    assertEquals(0, index.size());
+
+    index.add(0, root(0));
+    index.add(3, root(1));
+    index.add(3, root(2));
+    index.add(300, root(3));
+
+    assertEquals(301, index.size());
+    assertEquals(Collections.singletonList(root(0)), index.get(0));
+    assertEquals(Arrays.asList(root(1), root(2)), index.get(3));
+    assertTrue(index.get(4).isEmpty());
+    assertEquals(root(1), index.getFirst(3).get());
+    assertFalse(index.getFirst(4).isPresent());
+    // slot keys are fixed width
+    assertEquals(root(3), source.get(BytesValue.wrap(Longs.toByteArray(300))).get());
+
+    index.remove(3, root(1));
+    assertEquals(Collections.singletonList(root(2)), index.get(3));
+    index.remove(3, root(2));
+    assertTrue(index.get(3).isEmpty());
+    assertEquals(301, index.size());
+
+    // reopened index reads the same data
+    SlotBlockIndex reopened = new SlotBlockIndex(source);
+    assertEquals(301, reopened.size());
+    assertEquals(Collections.singletonList(root(3)), reopened.get(300));
+  }
+
+  @Test
+  public void rangeSpansPersistedAndCachedSlots() {
+    SlotBlockIndex index = new SlotBlockIndex(source);
+    for (long slot = 0; slot < 20; slot += 2) {
+      index.add(slot, root(slot));
+    }
+    index.add(10, root(100));
+
+    SlotBlockIndex reopened = new SlotBlockIndex(source);
+    reopened.cacheFrom(8);
+    reopened.add(21, root(21));
+    reopened.add(12, root(112));
+
+    Map<Long, List<Hash32>> range = new TreeMap<>();
+    reopened.forEach(5, 22, range::put);
+    assertEquals(
+        Arrays.asList(6L, 8L, 10L, 12L, 14L, 16L, 18L, 21L), new ArrayList<>(range.keySet()));
+    assertEquals(Arrays.asList(root(10), root(100)), range.get(10L));
+    assertEquals(Arrays.asList(root(12), root(112)), range.get(12L));
+
+    // evicted slots are read from underlying source
+    reopened.cacheFrom(16);
+    assertEquals(Arrays.asList(root(12), root(112)), reopened.get(12));
+    assertEquals(root(10), reopened.getFirst(10).get());
+    assertEquals(Collections.singletonList(root(21)), new SlotBlockIndex(source).get(21));
+  }
+
+  private Hash32 root(long i) {
+    return Hash32.wrap(Bytes32.leftPad(BytesValues.toMinimalBytes(i + 1)));
+  }
+}
@@ -0,0 +1,100 @@
+package org.ethereum.beacon.chain.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.ethereum.beacon.chain.storage.impl.SSZBeaconChainStorageFactory;
+import org.ethereum.beacon.chain.storage.impl.SerializerFactory;
+import org.ethereum.beacon.chain.storage.util.StoragePruner;
+import org.ethereum.beacon.consensus.BeaconChainSpec;
+import org.ethereum.beacon.consensus.hasher.ObjectHasher;
+import org.ethereum.beacon.core.BeaconBlock;
+import org.ethereum.beacon.core.BeaconBlockBody;
+import org.ethereum.beacon.core.BeaconState;
+import org.ethereum.beacon.core.spec.SpecConstants;
+import org.ethereum.beacon.core.types.BLSSignature;
+import org.ethereum.beacon.core.types.SlotNumber;
+import org.ethereum.beacon.db.Database;
+import org.junit.Test;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+import tech.pegasys.artemis.util.bytes.Bytes32;
+import tech.pegasys.artemis.util.bytes.BytesValues;
+
+public class StoragePrunerTest {
+
+  private static final long ARCHIVE_INTERVAL = 4;
+
+  private final SpecConstants constants = BeaconChainSpec.DEFAULT_CONSTANTS;
+  private final ObjectHasher<Hash32> hasher = ObjectHasher.createSSZOverSHA256(constants);
+  private final BeaconChainStorage storage =
+      new SSZBeaconChainStorageFactory(hasher, SerializerFactory.createSSZ(constants))
+          .create(Database.inMemoryDB());
+  private long counter = 0;
+
+  @Test
+  public void pruneForksAndThinStates() {
+    List<Hash32> canonical = new ArrayList<>();
+    canonical.add(addBlock(0, Hash32.ZERO));
+    for (long slot = 1; slot <= 12; slot++) {
+      canonical.add(addBlock(slot, canonical.get((int) slot - 1)));
+    }
+    Hash32 fork3 = addBlock(3, canonical.get(2));
+    Hash32 fork4 = addBlock(4, fork3);
+    BeaconBlock fork4Block = storage.getBlockStorage().get(fork4).get();
+    storage.commit();
+
+    StoragePruner pruner = new StoragePruner(storage, ARCHIVE_INTERVAL, 3);
+
+    StoragePruner.Result result = pruner.prune(canonical.get(9));
+    assertEquals(2, result.getRemovedBlocks());
+    // 1, 2, 3, 5, 6, 7 and states of forks
+    assertEquals(8, result.getRemovedStates());
+    assertTrue(result.getReclaimedBytes() > 0);
+
+    assertFalse(storage.getBlockStorage().containsKey(fork3));
+    assertFalse(storage.getBlockStorage().containsKey(fork4));
+    assertFalse(storage.getStateStorage().containsKey(fork4Block.getStateRoot()));
+    assertEquals(
+        Collections.singletonList(canonical.get(3)),
+        storage.getBlockStorage().getSlotBlocks(SlotNumber.of(3)));
+    assertEquals(
+        Collections.singletonList(canonical.get(4)),
+        storage.getBlockStorage().getSlotBlocks(SlotNumber.of(4)));
+    for (long slot = 0; slot <= 12; slot++) {
+      assertTrue(storage.getBlockStorage().containsKey(canonical.get((int) slot)));
+      assertEquals(slot % ARCHIVE_INTERVAL == 0 || slot >= 8, hasState(canonical, slot));
+    }
+
+    // already pruned slots are skipped
+    result = pruner.prune(canonical.get(12));
+    assertEquals(0, result.getRemovedBlocks());
+    assertEquals(3, result.getRemovedStates());
+    for (long slot = 0; slot <= 12; slot++) {
+      assertEquals(slot % ARCHIVE_INTERVAL == 0, hasState(canonical, slot));
+    }
+  }
+
+  private boolean hasState(List<Hash32> blocks, long slot) {
+    BeaconBlock block = storage.getBlockStorage().get(blocks.get((int) slot)).get();
+    return storage.getStateStorage().containsKey(block.getStateRoot());
+  }
+
+  private Hash32 addBlock(long slot, Hash32 parentRoot) {
+    Hash32 stateRoot = Hash32.wrap(Bytes32.leftPad(BytesValues.toMinimalBytes(counter++)));
+    BeaconBlock block =
+        new BeaconBlock(
+            SlotNumber.of(slot),
+            parentRoot,
+            stateRoot,
+            BeaconBlockBody.getEmpty(constants),
+            BLSSignature.ZERO);
+    Hash32 root = hasher.getHashTruncateLast(block);
+    storage.getBlockStorage().put(root, block);
+    storage.getStateStorage().put(stateRoot, BeaconState.getEmpty(constants));
+    return root;
+  }
+}
@@ -9,6 +9,7 @@ import org.ethereum.beacon.consensus.spec.ForkChoice;
 import org.ethereum.beacon.consensus.spec.GenesisFunction;
 import org.ethereum.beacon.consensus.spec.HelperFunction;
 import org.ethereum.beacon.consensus.spec.HonestValidator;
+import org.ethereum.beacon.consensus.spec.SinglePassEpochProcessing;
 import org.ethereum.beacon.consensus.spec.SpecStateTransition;
 import org.ethereum.beacon.consensus.util.CachingBeaconChainSpec;
 import org.ethereum.beacon.core.BeaconState;
@@ -36,6 +37,7 @@ public interface BeaconChainSpec
         GenesisFunction,
         ForkChoice,
         EpochProcessing,
+        SinglePassEpochProcessing,
         BlockProcessing,
         SpecStateTransition,
         HonestValidator {
@@ -116,6 +118,8 @@ public interface BeaconChainSpec
     private boolean blsVerifyProofOfPossession = true;
     private boolean verifyDepositProof = true;
     private boolean computableGenesisTime = true;
+    private boolean singlePassEpochProcessing = false;
+    private boolean columnarRegistry = false;
 
     public static Builder createWithDefaultParams() {
       return new Builder().withConstants(BeaconChainSpec.DEFAULT_CONSTANTS)
@@ -187,33 +191,33 @@ public interface BeaconChainSpec
       return this;
     }
 
+    public Builder withSinglePassEpochProcessing(boolean singlePassEpochProcessing) {
+      this.singlePassEpochProcessing = singlePassEpochProcessing;
+      return this;
+    }
+
+    public Builder withColumnarRegistry(boolean columnarRegistry) {
+      this.columnarRegistry = columnarRegistry;
+      return this;
+    }
+
     public BeaconChainSpec build() {
       assert constants != null;
       assert hashFunction != null;
       assert hasher != null;
 
-      if (blsFunctions != null) {
-        return new CachingBeaconChainSpec(
-            constants,
-            hashFunction,
-            hasher,
-            blsFunctions,
-            blsVerify,
-            blsVerifyProofOfPossession,
-            verifyDepositProof,
-            computableGenesisTime,
-            cache);
-      } else {
-        return new CachingBeaconChainSpec(
-            constants,
-            hashFunction,
-            hasher,
-            blsVerify,
-            blsVerifyProofOfPossession,
-            verifyDepositProof,
-            computableGenesisTime,
-            cache);
-      }
+      return new CachingBeaconChainSpec(
+          constants,
+          hashFunction,
+          hasher,
+          blsFunctions != null ? blsFunctions : BLSFunctions.getDefaultBLSFunctions(blsVerify),
+          blsVerify,
+          blsVerifyProofOfPossession,
+          verifyDepositProof,
+          computableGenesisTime,
+          singlePassEpochProcessing,
+          columnarRegistry,
+          cache);
     }
   }
 }
@@ -23,6 +23,8 @@ public class BeaconChainSpecImpl implements BeaconChainSpec {
   private final boolean blsVerifyProofOfPossession;
   private final boolean verifyDepositProof;
   private final boolean computableGenesisTime;
+  private final boolean singlePassEpochProcessing;
+  private final boolean columnarRegistry;
 
   public BeaconChainSpecImpl(
       SpecConstants constants,
@@ -33,6 +35,52 @@ public class BeaconChainSpecImpl implements BeaconChainSpec {
       boolean blsVerifyProofOfPossession,
       boolean verifyDepositProof,
       boolean computableGenesisTime) {
+    this(
+        constants,
+        hashFunction,
+        objectHasher,
+        blsFunctions,
+        blsVerify,
+        blsVerifyProofOfPossession,
+        verifyDepositProof,
+        computableGenesisTime,
+        false);
+  }
+
+  public BeaconChainSpecImpl(
+      SpecConstants constants,
+      Function<BytesValue, Hash32> hashFunction,
+      ObjectHasher<Hash32> objectHasher,
+      BLSFunctions blsFunctions,
+      boolean blsVerify,
+      boolean blsVerifyProofOfPossession,
+      boolean verifyDepositProof,
+      boolean computableGenesisTime,
+      boolean singlePassEpochProcessing) {
+    this(
+        constants,
+        hashFunction,
+        objectHasher,
+        blsFunctions,
+        blsVerify,
+        blsVerifyProofOfPossession,
+        verifyDepositProof,
+        computableGenesisTime,
+        singlePassEpochProcessing,
+        false);
+  }
+
+  public BeaconChainSpecImpl(
+      SpecConstants constants,
+      Function<BytesValue, Hash32> hashFunction,
+      ObjectHasher<Hash32> objectHasher,
+      BLSFunctions blsFunctions,
+      boolean blsVerify,
+      boolean blsVerifyProofOfPossession,
+      boolean verifyDepositProof,
+      boolean computableGenesisTime,
+      boolean singlePassEpochProcessing,
+      boolean columnarRegistry) {
     this.constants = constants;
     this.hashFunction = hashFunction;
     this.objectHasher = objectHasher;
@@ -41,6 +89,8 @@ public class BeaconChainSpecImpl implements BeaconChainSpec {
     this.blsVerifyProofOfPossession = blsVerifyProofOfPossession;
     this.verifyDepositProof = verifyDepositProof;
     this.computableGenesisTime = computableGenesisTime;
+    this.singlePassEpochProcessing = singlePassEpochProcessing;
+    this.columnarRegistry = columnarRegistry;
   }
 
   @Override
@@ -78,6 +128,16 @@ public class BeaconChainSpecImpl implements BeaconChainSpec {
     return computableGenesisTime;
   }
 
+  @Override
+  public boolean isSinglePassEpochProcessing() {
+    return singlePassEpochProcessing;
+  }
+
+  @Override
+  public boolean isColumnarRegistry() {
+    return columnarRegistry;
+  }
+
   @Override
   public boolean bls_verify(BLSPubkey publicKey, Hash32 message, BLSSignature signature, UInt64 domain) {
     return blsFunctions.bls_verify(publicKey, message, signature, domain);
@@ -88,6 +148,15 @@ public class BeaconChainSpecImpl implements BeaconChainSpec {
     return blsFunctions.bls_verify_multiple(publicKeys, messages, signature, domain);
   }
 
+  @Override
+  public boolean bls_verify_batch(
+      List<BLSPubkey> publicKeys,
+      List<Hash32> messages,
+      List<BLSSignature> signatures,
+      List<UInt64> domains) {
+    return blsFunctions.bls_verify_batch(publicKeys, messages, signatures, domains);
+  }
+
   @Override
   public BLS381.PublicKey bls_aggregate_pubkeys(List<BLSPubkey> publicKeysBytes) {
     return blsFunctions.bls_aggregate_pubkeys(publicKeysBytes);
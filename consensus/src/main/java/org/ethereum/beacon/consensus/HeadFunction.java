@@ -1,12 +1,8 @@
 package org.ethereum.beacon.consensus;
 
-import org.ethereum.beacon.consensus.spec.ForkChoice.LatestMessage;
 import org.ethereum.beacon.core.BeaconBlock;
 import org.ethereum.beacon.core.operations.Attestation;
 import org.ethereum.beacon.core.state.ValidatorRecord;
-import java.util.Optional;
-import java.util.function.Function;
-import org.ethereum.beacon.core.types.ValidatorIndex;
 
 /** Head function updates head */
 public interface HeadFunction {
@@ -17,5 +13,13 @@ public interface HeadFunction {
    * @param latestMessageStorage Storage "ValidatorIndex : LatestMessage" at latest state
    * @return head block
    */
-  BeaconBlock getHead(Function<ValidatorIndex, Optional<LatestMessage>> latestMessageStorage);
+  BeaconBlock getHead(VoteStore latestMessageStorage);
+
+  /**
+   * Notifies head function of a new block. Implementations that keep their own block tree are
+   * expected to add the block to it, others may ignore it.
+   *
+   * @param block imported block.
+   */
+  default void onBlock(BeaconBlock block) {}
 }
@@ -0,0 +1,149 @@
+package org.ethereum.beacon.consensus;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import org.ethereum.beacon.consensus.spec.ForkChoice.LatestMessage;
+import org.ethereum.beacon.core.types.EpochNumber;
+import org.ethereum.beacon.core.types.ValidatorIndex;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+import tech.pegasys.artemis.util.uint.UInt64;
+
+/**
+ * Latest messages of validators.
+ *
+ * <p>Messages are kept in arrays indexed by validator index: a target epoch and an id of interned
+ * block root. Roots are reference counted and their ids are reused once no validator votes for
+ * them, thus, memory is bounded by a number of validators.
+ *
+ * <p>Validators which votes have changed are remembered until {@link #drainChanges(VoteConsumer)}
+ * is called, it allows fork choice to apply only those changes instead of going through all
+ * validators.
+ */
+public class VoteStore implements Function<ValidatorIndex, Optional<LatestMessage>> {
+
+  private static final int NONE = -1;
+
+  private long[] epochs = new long[0];
+  private int[] rootIds = new int[0];
+
+  private final Map<Hash32, Integer> ids = new HashMap<>();
+  private Hash32[] roots = new Hash32[0];
+  private int[] refCounts = new int[0];
+  private int[] freeIds = new int[0];
+  private int freeCount = 0;
+  private int rootCount = 0;
+
+  private final BitSet changed = new BitSet();
+
+  /**
+   * Updates latest message of a validator if the given one has a greater target epoch.
+   *
+   * @param validator validator index.
+   * @param targetEpoch attestation target epoch.
+   * @param root attested block root.
+   * @return {@code true} if the message is updated.
+   */
+  public synchronized boolean update(int validator, long targetEpoch, Hash32 root) {
+    if (validator >= rootIds.length) {
+      int length = Math.max(validator + 1, rootIds.length * 2);
+      int oldLength = rootIds.length;
+      epochs = Arrays.copyOf(epochs, length);
+      rootIds = Arrays.copyOf(rootIds, length);
+      Arrays.fill(rootIds, oldLength, length, NONE);
+    }
+    int oldId = rootIds[validator];
+    if (oldId != NONE && Long.compareUnsigned(targetEpoch, epochs[validator]) <= 0) {
+      return false;
+    }
+
+    int newId = acquire(root);
+    if (oldId != NONE) {
+      release(oldId);
+    }
+    epochs[validator] = targetEpoch;
+    rootIds[validator] = newId;
+    if (oldId != newId) {
+      changed.set(validator);
+    }
+    return true;
+  }
+
+  /** @return latest message of a validator. */
+  @Override
+  public synchronized Optional<LatestMessage> apply(ValidatorIndex index) {
+    int validator = index.intValue();
+    if (validator >= rootIds.length || rootIds[validator] == NONE) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        new LatestMessage(
+            EpochNumber.castFrom(UInt64.valueOf(epochs[validator])), roots[rootIds[validator]]));
+  }
+
+  /** @return root voted by a validator, {@code null} if there is no vote. */
+  public synchronized Hash32 getRoot(int validator) {
+    if (validator >= rootIds.length || rootIds[validator] == NONE) {
+      return null;
+    }
+    return roots[rootIds[validator]];
+  }
+
+  /** @return a number of validators the store has space for. */
+  public synchronized int size() {
+    return rootIds.length;
+  }
+
+  /** @return a number of distinct roots voted by validators. */
+  public synchronized int getRootCount() {
+    return rootCount;
+  }
+
+  /** Passes validators which voted roots have changed since previous call to the consumer. */
+  public synchronized void drainChanges(VoteConsumer consumer) {
+    for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+      consumer.accept(i, roots[rootIds[i]]);
+    }
+    changed.clear();
+  }
+
+  private int acquire(Hash32 root) {
+    Integer id = ids.get(root);
+    if (id == null) {
+      if (freeCount > 0) {
+        id = freeIds[--freeCount];
+      } else {
+        id = roots.length;
+        int length = Math.max(16, roots.length * 2);
+        roots = Arrays.copyOf(roots, length);
+        refCounts = Arrays.copyOf(refCounts, length);
+        freeIds = Arrays.copyOf(freeIds, length);
+        for (int i = length - 1; i > id; i--) {
+          freeIds[freeCount++] = i;
+        }
+      }
+      ids.put(root, id);
+      roots[id] = root;
+      rootCount++;
+    }
+    refCounts[id]++;
+    return id;
+  }
+
+  private void release(int id) {
+    if (--refCounts[id] == 0) {
+      ids.remove(roots[id]);
+      roots[id] = null;
+      freeIds[freeCount++] = id;
+      rootCount--;
+    }
+  }
+
+  /** Consumes changed votes. */
+  public interface VoteConsumer {
+    void accept(int validator, Hash32 root);
+  }
+}
@@ -10,6 +10,7 @@ import org.jetbrains.annotations.NotNull;
 import tech.pegasys.artemis.ethereum.core.Hash32;
 import tech.pegasys.artemis.util.uint.UInt64;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -34,6 +35,24 @@ public interface BLSFunctions {
 
   PublicKey bls_aggregate_pubkeys(List<BLSPubkey> publicKeysBytes);
 
+  /**
+   * Verifies a number of signatures at once. Default implementation verifies them one by one.
+   *
+   * @return {@code true} if all signatures are valid.
+   */
+  default boolean bls_verify_batch(
+      List<BLSPubkey> publicKeys,
+      List<Hash32> messages,
+      List<BLSSignature> signatures,
+      List<UInt64> domains) {
+    for (int i = 0; i < publicKeys.size(); i++) {
+      if (!bls_verify(publicKeys.get(i), messages.get(i), signatures.get(i), domains.get(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   class InsecureBLSFunctions implements BLSFunctions {
     public boolean bls_verify(
         BLSPubkey publicKey, Hash32 message, BLSSignature signature, UInt64 domain) {
@@ -57,6 +76,27 @@ public interface BLSFunctions {
       return BLS381.verifyMultiple(messageParameters, blsSignature, publicKeys);
     }
 
+    @Override
+    public boolean bls_verify_batch(
+        List<BLSPubkey> publicKeys,
+        List<Hash32> messages,
+        List<BLSSignature> signatures,
+        List<UInt64> domains) {
+      try {
+        List<MessageParameters> messageParameters = new ArrayList<>();
+        List<Signature> blsSignatures = new ArrayList<>();
+        List<PublicKey> blsPublicKeys = new ArrayList<>();
+        for (int i = 0; i < publicKeys.size(); i++) {
+          messageParameters.add(MessageParameters.create(messages.get(i), domains.get(i)));
+          blsSignatures.add(Signature.create(signatures.get(i)));
+          blsPublicKeys.add(PublicKey.create(publicKeys.get(i)));
+        }
+        return BLS381.verifyBatch(messageParameters, blsSignatures, blsPublicKeys);
+      } catch (Exception e) {
+        return false;
+      }
+    }
+
     public PublicKey bls_aggregate_pubkeys(List<BLSPubkey> publicKeysBytes) {
       List<PublicKey> publicKeys =
           publicKeysBytes.stream().map(PublicKey::create).collect(toList());
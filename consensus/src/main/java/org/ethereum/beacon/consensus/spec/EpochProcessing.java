@@ -103,6 +103,34 @@ public interface EpochProcessing extends HelperFunction {
       return;
     }
 
+    /* previous_attestations = get_matching_target_attestations(state, get_previous_epoch(state))
+       current_attestations = get_matching_target_attestations(state, get_current_epoch(state))
+       total_active_balance = get_total_active_balance(state)
+       previous_target_balance = get_attesting_balance(state, previous_attestations)
+       current_target_balance = get_attesting_balance(state, current_attestations)
+       weigh_justification_and_finalization(state, total_active_balance, previous_target_balance, current_target_balance) */
+    List<PendingAttestation> previous_attestations =
+        get_matching_target_attestations(state, get_previous_epoch(state));
+    List<PendingAttestation> current_attestations =
+        get_matching_target_attestations(state, get_current_epoch(state));
+    weigh_justification_and_finalization(
+        state,
+        get_total_active_balance(state),
+        get_attesting_balance(state, previous_attestations),
+        get_attesting_balance(state, current_attestations));
+  }
+
+  /*
+    def weigh_justification_and_finalization(state: BeaconState,
+                                             total_active_balance: Gwei,
+                                             previous_epoch_target_balance: Gwei,
+                                             current_epoch_target_balance: Gwei) -> None:
+   */
+  default void weigh_justification_and_finalization(
+      MutableBeaconState state,
+      Gwei total_active_balance,
+      Gwei previous_epoch_target_balance,
+      Gwei current_epoch_target_balance) {
     EpochNumber previous_epoch = get_previous_epoch(state);
     EpochNumber current_epoch = get_current_epoch(state);
     Checkpoint old_previous_justified_checkpoint = state.getPreviousJustifiedCheckpoint();
@@ -115,29 +143,21 @@ public interface EpochProcessing extends HelperFunction {
     state.setPreviousJustifiedCheckpoint(state.getCurrentJustifiedCheckpoint());
     state.setJustificationBits(state.getJustificationBits().shl(1));
 
-    /* matching_target_attestations = get_matching_target_attestations(state, previous_epoch)  # Previous epoch
-       if get_attesting_balance(state, matching_target_attestations) * 3 >= get_total_active_balance(state) * 2:
+    /* if previous_epoch_target_balance * 3 >= total_active_balance * 2:
           state.current_justified_checkpoint = Checkpoint(epoch=previous_epoch,
                                                         root=get_block_root(state, previous_epoch))
-       state.justification_bits[1] = 0b1 */
-    List<PendingAttestation> matching_target_attestations =
-        get_matching_target_attestations(state, previous_epoch);
-    if (get_attesting_balance(state, matching_target_attestations).times(3)
-        .greaterEqual(get_total_active_balance(state).times(2))) {
+          state.justification_bits[1] = 0b1 */
+    if (previous_epoch_target_balance.times(3).greaterEqual(total_active_balance.times(2))) {
       state.setCurrentJustifiedCheckpoint(
           new Checkpoint(previous_epoch, get_block_root(state, previous_epoch)));
       state.setJustificationBits(state.getJustificationBits().setBit(1, 0b1));
     }
 
-    /* matching_target_attestations = get_matching_target_attestations(state, current_epoch)  # Current epoch
-       if get_attesting_balance(state, matching_target_attestations) * 3 >= get_total_active_balance(state) * 2:
+    /* if current_epoch_target_balance * 3 >= total_active_balance * 2:
            state.current_justified_checkpoint = Checkpoint(epoch=current_epoch,
                                                         root=get_block_root(state, current_epoch))
            state.justification_bits[0] = 0b1 */
-    matching_target_attestations =
-        get_matching_target_attestations(state, current_epoch);
-    if (get_attesting_balance(state, matching_target_attestations).times(3)
-        .greaterEqual(get_total_active_balance(state).times(2))) {
+    if (current_epoch_target_balance.times(3).greaterEqual(total_active_balance.times(2))) {
       state.setCurrentJustifiedCheckpoint(
           new Checkpoint(current_epoch, get_block_root(state, current_epoch)));
       state.setJustificationBits(state.getJustificationBits().setBit(0, 0b1));
@@ -37,6 +37,11 @@ public interface ForkChoice extends HelperFunction, SpecStateTransition {
           return Bytes32()  # root is older than queried slot: no results.
    */
   default Optional<Hash32> get_ancestor(Store store, Hash32 root, SlotNumber slot) {
+    Optional<Hash32> indexed = store.getAncestor(root, slot);
+    if (indexed.isPresent()) {
+      return indexed;
+    }
+
     Optional<BeaconBlock> aBlock = store.getBlock(root);
     if (!aBlock.isPresent()) {
       return Optional.empty();
@@ -113,9 +118,10 @@ public interface ForkChoice extends HelperFunction, SpecStateTransition {
         return head;
       }
 
-      head = children.stream()
-          .max(Comparator.comparing(root -> get_latest_attesting_balance(store, root)))
-          .get();
+      // Sort by latest attesting balance with ties broken lexicographically
+      Comparator<Hash32> byBalance =
+          Comparator.comparing(root -> get_latest_attesting_balance(store, root));
+      head = children.stream().max(byBalance.thenComparing(Comparator.naturalOrder())).get();
     }
   }
 
@@ -177,6 +183,18 @@ public interface ForkChoice extends HelperFunction, SpecStateTransition {
     void setLatestMessage(ValidatorIndex index, LatestMessage message);
 
     List<Hash32> getChildren(Hash32 root);
+
+    /**
+     * Looks up an ancestor using an index if store has one.
+     *
+     * @param root block root.
+     * @param slot ancestor slot.
+     * @return the same as {@link ForkChoice#get_ancestor(Store, Hash32, SlotNumber)} does, or
+     *     nothing if the index can't answer the query.
+     */
+    default Optional<Hash32> getAncestor(Hash32 root, SlotNumber slot) {
+      return Optional.empty();
+    }
   }
 
   /*
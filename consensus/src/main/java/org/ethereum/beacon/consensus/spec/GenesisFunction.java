@@ -32,6 +32,12 @@ import java.util.stream.IntStream;
  */
 public interface GenesisFunction extends BlockProcessing {
 
+  /**
+   * Whether genesis state keeps validator registry in columns, states derived from genesis state
+   * keep its registry layout.
+   */
+  boolean isColumnarRegistry();
+
   /*
    Before the Ethereum 2.0 genesis has been triggered, and for every Ethereum 1.0 block,
    let candidate_state = initialize_beacon_state_from_eth1(eth1_block_hash, eth1_timestamp, deposits) where:
@@ -42,7 +48,8 @@ public interface GenesisFunction extends BlockProcessing {
   */
   default BeaconState initialize_beacon_state_from_eth1(
       Hash32 eth1_block_hash, Time eth1_timestamp, List<Deposit> deposits) {
-    MutableBeaconState state = BeaconState.getEmpty(getConstants()).createMutableCopy();
+    MutableBeaconState state =
+        BeaconState.getEmpty(getConstants(), isColumnarRegistry()).createMutableCopy();
 
     state.setPreviousJustifiedCheckpoint(
         new Checkpoint(getConstants().getGenesisEpoch(), Hash32.ZERO));
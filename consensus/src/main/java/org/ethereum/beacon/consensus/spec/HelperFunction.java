@@ -28,6 +28,7 @@ import tech.pegasys.artemis.util.bytes.BytesValue;
 import tech.pegasys.artemis.util.bytes.BytesValues;
 import tech.pegasys.artemis.util.collections.Bitlist;
 import tech.pegasys.artemis.util.collections.ReadList;
+import tech.pegasys.artemis.util.collections.WriteUInt64List;
 import tech.pegasys.artemis.util.uint.UInt64;
 import tech.pegasys.artemis.util.uint.UInt64s;
 
@@ -228,7 +229,8 @@ public interface HelperFunction extends SpecCommons, BLSFunctions {
       state.balances[index] += delta
    */
   default void increase_balance(MutableBeaconState state, ValidatorIndex index, Gwei delta) {
-    state.getBalances().update(index, balance -> balance.plus(delta));
+    WriteUInt64List<ValidatorIndex, Gwei> balances = state.getBalances();
+    balances.setLong(index, balances.getLong(index) + delta.getValue());
   }
 
   /*
@@ -239,10 +241,12 @@ public interface HelperFunction extends SpecCommons, BLSFunctions {
       state.balances[index] = 0 if delta > state.balances[index] else state.balances[index] - delta
    */
   default void decrease_balance(MutableBeaconState state, ValidatorIndex index, Gwei delta) {
-    if (delta.greater(state.getBalances().get(index))) {
-      state.getBalances().update(index, balance -> Gwei.ZERO);
+    WriteUInt64List<ValidatorIndex, Gwei> balances = state.getBalances();
+    long balance = balances.getLong(index);
+    if (Long.compareUnsigned(delta.getValue(), balance) > 0) {
+      balances.setLong(index, 0);
     } else {
-      state.getBalances().update(index, balance -> balance.minus(delta));
+      balances.setLong(index, balance - delta.getValue());
     }
   }
 
@@ -266,12 +270,30 @@ public interface HelperFunction extends SpecCommons, BLSFunctions {
    *       hence round order is inverse
    */
   default List<UInt64> get_permuted_list(List<? extends UInt64> indices, Bytes32 seed) {
-    if (indices.size() < 2) {
-      return new ArrayList<>(indices);
+    int[] positions = new int[indices.size()];
+    for (int i = 0; i < positions.length; i++) {
+      positions[i] = i;
     }
 
-    int listSize = indices.size();
-    List<UInt64> permutations = new ArrayList<>(indices);
+    List<UInt64> permutations = new ArrayList<>(positions.length);
+    for (int position : get_permuted_indices(positions, seed)) {
+      permutations.add(indices.get(position));
+    }
+    return permutations;
+  }
+
+  /**
+   * {@link #get_permuted_list(List, Bytes32)} over primitive indices.
+   *
+   * @return permuted copy of {@code indices}.
+   */
+  default int[] get_permuted_indices(int[] indices, Bytes32 seed) {
+    int[] permutations = indices.clone();
+    if (permutations.length < 2) {
+      return permutations;
+    }
+
+    int listSize = permutations.length;
 
     for (int round = getConstants().getShuffleRoundCount() - 1; round >= 0; round--) {
       BytesValue roundSeed = seed.concat(int_to_bytes1(round));
@@ -292,9 +314,9 @@ public interface HelperFunction extends SpecCommons, BLSFunctions {
 
         byte bitV = (byte) ((byteV >>> (j & 0x7)) & 0x1);
         if (bitV == 1) {
-          UInt64 oldV = permutations.get((int) i);
-          permutations.set((int) i, permutations.get((int) j));
-          permutations.set((int) j, oldV);
+          int oldV = permutations[(int) i];
+          permutations[(int) i] = permutations[(int) j];
+          permutations[(int) j] = oldV;
         }
       }
 
@@ -313,9 +335,9 @@ public interface HelperFunction extends SpecCommons, BLSFunctions {
 
         byte bitV = (byte) ((byteV >>> (j & 0x7)) & 0x1);
         if (bitV == 1) {
-          UInt64 oldV = permutations.get((int) i);
-          permutations.set((int) i, permutations.get((int) j));
-          permutations.set((int) j, oldV);
+          int oldV = permutations[(int) i];
+          permutations[(int) i] = permutations[(int) j];
+          permutations[(int) j] = oldV;
         }
       }
     }
@@ -843,6 +865,45 @@ public interface HelperFunction extends SpecCommons, BLSFunctions {
         get_domain(state, BEACON_ATTESTER, indexed_attestation.getData().getTarget().getEpoch()));
   }
 
+  /**
+   * Verifies a batch of indexed attestations, each of them against its own state. Not a part of
+   * the spec, gives the same result as {@link #is_valid_indexed_attestation(BeaconState,
+   * IndexedAttestation)} applied to every attestation, but verifies signatures at once.
+   *
+   * @param states states to verify attestations against.
+   * @param indexed_attestations attestations, one per state.
+   * @return {@code true} if all attestations are valid.
+   */
+  default boolean is_valid_indexed_attestation_batch(
+      List<BeaconState> states, List<IndexedAttestation> indexed_attestations) {
+    List<BLSPubkey> publicKeys = new ArrayList<>();
+    List<Hash32> messages = new ArrayList<>();
+    List<BLSSignature> signatures = new ArrayList<>();
+    List<UInt64> domains = new ArrayList<>();
+    for (int i = 0; i < indexed_attestations.size(); i++) {
+      BeaconState state = states.get(i);
+      IndexedAttestation indexed_attestation = indexed_attestations.get(i);
+      ReadList<Integer, ValidatorIndex> indices = indexed_attestation.getAttestingIndices();
+      if (indices.size() > getConstants().getMaxValidatorsPerCommittee().getIntValue()
+          || !Ordering.natural().isOrdered(indices)) {
+        return false;
+      }
+
+      publicKeys.add(
+          BLSPubkey.wrap(
+              bls_aggregate_pubkeys(
+                      indices.stream()
+                          .map(index -> state.getValidators().get(index).getPubKey())
+                          .collect(Collectors.toList()))
+                  .getEncodedBytes()));
+      messages.add(hash_tree_root(indexed_attestation.getData()));
+      signatures.add(indexed_attestation.getSignature());
+      domains.add(
+          get_domain(state, BEACON_ATTESTER, indexed_attestation.getData().getTarget().getEpoch()));
+    }
+    return bls_verify_batch(publicKeys, messages, signatures, domains);
+  }
+
   /*
     def get_block_root_at_slot(state: BeaconState, slot: Slot) -> Hash:
       """
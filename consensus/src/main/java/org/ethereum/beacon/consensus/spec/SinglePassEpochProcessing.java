@@ -0,0 +1,351 @@
+package org.ethereum.beacon.consensus.spec;
+
+import static org.ethereum.beacon.consensus.spec.ValidatorStatuses.ACTIVE_IN_CURRENT_EPOCH;
+import static org.ethereum.beacon.consensus.spec.ValidatorStatuses.ACTIVE_IN_PREVIOUS_EPOCH;
+import static org.ethereum.beacon.consensus.spec.ValidatorStatuses.CURRENT_TARGET_ATTESTER;
+import static org.ethereum.beacon.consensus.spec.ValidatorStatuses.ELIGIBLE;
+import static org.ethereum.beacon.consensus.spec.ValidatorStatuses.PREVIOUS_HEAD_ATTESTER;
+import static org.ethereum.beacon.consensus.spec.ValidatorStatuses.PREVIOUS_SOURCE_ATTESTER;
+import static org.ethereum.beacon.consensus.spec.ValidatorStatuses.PREVIOUS_TARGET_ATTESTER;
+import static org.ethereum.beacon.consensus.spec.ValidatorStatuses.SLASHED;
+
+import java.util.List;
+import org.ethereum.beacon.core.BeaconState;
+import org.ethereum.beacon.core.MutableBeaconState;
+import org.ethereum.beacon.core.state.PendingAttestation;
+import org.ethereum.beacon.core.state.ValidatorRecord;
+import org.ethereum.beacon.core.types.EpochNumber;
+import org.ethereum.beacon.core.types.Gwei;
+import org.ethereum.beacon.core.types.ValidatorIndex;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+import tech.pegasys.artemis.util.collections.WriteUInt64List;
+import tech.pegasys.artemis.util.uint.UInt64;
+import tech.pegasys.artemis.util.uint.UInt64s;
+
+/**
+ * Optimized epoch processing, enabled by {@link #isSinglePassEpochProcessing()}.
+ *
+ * <p>Pending attestations are scanned once to build {@link ValidatorStatuses}, then justification,
+ * rewards and penalties, and slashings are computed from primitive arrays of statuses instead of
+ * looking validators up in lists of attesting indices. Registry and final updates are left to
+ * {@link EpochProcessing} as they already are a single pass over the registry.
+ *
+ * <p>Results are the same as of {@link EpochProcessing} functions, including unsigned integer
+ * arithmetic.
+ */
+public interface SinglePassEpochProcessing extends EpochProcessing {
+
+  boolean isSinglePassEpochProcessing();
+
+  /**
+   * Computes statuses of all validators with one pass over the registry and one pass over current
+   * and previous epoch attestations.
+   */
+  default ValidatorStatuses get_validator_statuses(BeaconState state) {
+    EpochNumber current_epoch = get_current_epoch(state);
+    EpochNumber previous_epoch = get_previous_epoch(state);
+    int size = state.getValidators().size().getIntValue();
+    ValidatorStatuses statuses = new ValidatorStatuses(size);
+
+    long totalActiveBalance = 0;
+    for (int i = 0; i < size; i++) {
+      ValidatorRecord validator = state.getValidators().get(ValidatorIndex.of(i));
+      long effectiveBalance = validator.getEffectiveBalance().getValue();
+      int flags = 0;
+      if (validator.getSlashed()) {
+        flags |= SLASHED;
+      }
+      if (is_active_validator(validator, current_epoch)) {
+        flags |= ACTIVE_IN_CURRENT_EPOCH;
+        totalActiveBalance += effectiveBalance;
+      }
+      if (is_active_validator(validator, previous_epoch)) {
+        flags |= ACTIVE_IN_PREVIOUS_EPOCH | ELIGIBLE;
+      } else if (validator.getSlashed()
+          && previous_epoch.increment().less(validator.getWithdrawableEpoch())) {
+        flags |= ELIGIBLE;
+      }
+      statuses.flags[i] = flags;
+      statuses.effectiveBalances[i] = effectiveBalance;
+    }
+
+    List<PendingAttestation> previous_attestations =
+        get_matching_source_attestations(state, previous_epoch);
+    // block roots are resolved only if there are attestations, as the spec does
+    Hash32 previous_target_root =
+        previous_attestations.isEmpty() ? null : get_block_root(state, previous_epoch);
+    for (PendingAttestation attestation : previous_attestations) {
+      int attestationFlags = PREVIOUS_SOURCE_ATTESTER;
+      if (attestation.getData().getTarget().getRoot().equals(previous_target_root)) {
+        attestationFlags |= PREVIOUS_TARGET_ATTESTER;
+      }
+      if (attestation
+          .getData()
+          .getBeaconBlockRoot()
+          .equals(get_block_root_at_slot(state, attestation.getData().getSlot()))) {
+        attestationFlags |= PREVIOUS_HEAD_ATTESTER;
+      }
+      long delay = attestation.getInclusionDelay().getValue();
+      int proposer = attestation.getProposerIndex().getIntValue();
+      for (ValidatorIndex index :
+          get_attesting_indices(state, attestation.getData(), attestation.getAggregationBits())) {
+        int i = index.getIntValue();
+        if (statuses.has(i, SLASHED)) {
+          continue;
+        }
+        // the first attestation with minimal delay is taken, as min() of the spec does
+        if (!statuses.has(i, PREVIOUS_SOURCE_ATTESTER)
+            || Long.compareUnsigned(delay, statuses.inclusionDelays[i]) < 0) {
+          statuses.inclusionDelays[i] = delay;
+          statuses.inclusionProposers[i] = proposer;
+        }
+        statuses.flags[i] |= attestationFlags;
+      }
+    }
+
+    List<PendingAttestation> current_attestations =
+        get_matching_source_attestations(state, current_epoch);
+    Hash32 current_target_root =
+        current_attestations.isEmpty() ? null : get_block_root(state, current_epoch);
+    for (PendingAttestation attestation : current_attestations) {
+      if (!attestation.getData().getTarget().getRoot().equals(current_target_root)) {
+        continue;
+      }
+      for (ValidatorIndex index :
+          get_attesting_indices(state, attestation.getData(), attestation.getAggregationBits())) {
+        int i = index.getIntValue();
+        if (!statuses.has(i, SLASHED)) {
+          statuses.flags[i] |= CURRENT_TARGET_ATTESTER;
+        }
+      }
+    }
+
+    long previousSourceBalance = 0;
+    long previousTargetBalance = 0;
+    long previousHeadBalance = 0;
+    long currentTargetBalance = 0;
+    for (int i = 0; i < size; i++) {
+      long effectiveBalance = statuses.effectiveBalances[i];
+      int flags = statuses.flags[i];
+      if ((flags & PREVIOUS_SOURCE_ATTESTER) != 0) {
+        previousSourceBalance += effectiveBalance;
+      }
+      if ((flags & PREVIOUS_TARGET_ATTESTER) != 0) {
+        previousTargetBalance += effectiveBalance;
+      }
+      if ((flags & PREVIOUS_HEAD_ATTESTER) != 0) {
+        previousHeadBalance += effectiveBalance;
+      }
+      if ((flags & CURRENT_TARGET_ATTESTER) != 0) {
+        currentTargetBalance += effectiveBalance;
+      }
+    }
+    statuses.totalActiveBalance = ValidatorStatuses.atLeastOne(totalActiveBalance);
+    statuses.previousSourceBalance = ValidatorStatuses.atLeastOne(previousSourceBalance);
+    statuses.previousTargetBalance = ValidatorStatuses.atLeastOne(previousTargetBalance);
+    statuses.previousHeadBalance = ValidatorStatuses.atLeastOne(previousHeadBalance);
+    statuses.currentTargetBalance = ValidatorStatuses.atLeastOne(currentTargetBalance);
+
+    return statuses;
+  }
+
+  @Override
+  default void process_justification_and_finalization(MutableBeaconState state) {
+    if (!isSinglePassEpochProcessing()) {
+      EpochProcessing.super.process_justification_and_finalization(state);
+      return;
+    }
+    if (get_current_epoch(state).lessEqual(getConstants().getGenesisEpoch().increment())) {
+      return;
+    }
+    process_justification_and_finalization(state, get_validator_statuses(state));
+  }
+
+  default void process_justification_and_finalization(
+      MutableBeaconState state, ValidatorStatuses statuses) {
+    if (get_current_epoch(state).lessEqual(getConstants().getGenesisEpoch().increment())) {
+      return;
+    }
+    weigh_justification_and_finalization(
+        state,
+        Gwei.castFrom(UInt64.valueOf(statuses.totalActiveBalance)),
+        Gwei.castFrom(UInt64.valueOf(statuses.previousTargetBalance)),
+        Gwei.castFrom(UInt64.valueOf(statuses.currentTargetBalance)));
+  }
+
+  /**
+   * Computes attestation rewards and penalties.
+   *
+   * @return rewards and penalties arrays indexed by validator index.
+   * @see EpochProcessing#get_attestation_deltas(BeaconState)
+   */
+  default long[][] get_attestation_deltas(BeaconState state, ValidatorStatuses statuses) {
+    int size = statuses.size;
+    long[] rewards = new long[size];
+    long[] penalties = new long[size];
+
+    long total_balance = statuses.totalActiveBalance;
+    long sqrt_total_balance = integer_squareroot(UInt64.valueOf(total_balance)).getValue();
+    long base_reward_factor = getConstants().getBaseRewardFactor().getValue();
+    long base_rewards_per_epoch = getConstants().getBaseRewardsPerEpoch().getValue();
+    long proposer_reward_quotient = getConstants().getProposerRewardQuotient().getValue();
+    long inactivity_penalty_quotient = getConstants().getInactivityPenaltyQuotient().getValue();
+
+    EpochNumber finality_delay =
+        get_previous_epoch(state).minus(state.getFinalizedCheckpoint().getEpoch());
+    boolean inactivity_leak =
+        finality_delay.greater(getConstants().getMinEpochsToInactivityPenalty());
+
+    for (int i = 0; i < size; i++) {
+      int flags = statuses.flags[i];
+      boolean eligible = (flags & ELIGIBLE) != 0;
+      if (!eligible && (flags & PREVIOUS_SOURCE_ATTESTER) == 0) {
+        continue;
+      }
+      long base_reward =
+          Long.divideUnsigned(
+              Long.divideUnsigned(
+                  statuses.effectiveBalances[i] * base_reward_factor, sqrt_total_balance),
+              base_rewards_per_epoch);
+
+      if (eligible) {
+        // micro-incentives for matching FFG source, FFG target, and head
+        rewards[i] +=
+            ValidatorStatuses.componentReward(
+                flags, PREVIOUS_SOURCE_ATTESTER, base_reward, statuses.previousSourceBalance,
+                total_balance);
+        rewards[i] +=
+            ValidatorStatuses.componentReward(
+                flags, PREVIOUS_TARGET_ATTESTER, base_reward, statuses.previousTargetBalance,
+                total_balance);
+        rewards[i] +=
+            ValidatorStatuses.componentReward(
+                flags, PREVIOUS_HEAD_ATTESTER, base_reward, statuses.previousHeadBalance,
+                total_balance);
+        if ((flags & PREVIOUS_SOURCE_ATTESTER) == 0) {
+          penalties[i] += base_reward;
+        }
+        if ((flags & PREVIOUS_TARGET_ATTESTER) == 0) {
+          penalties[i] += base_reward;
+        }
+        if ((flags & PREVIOUS_HEAD_ATTESTER) == 0) {
+          penalties[i] += base_reward;
+        }
+      }
+
+      // proposer and inclusion delay micro-rewards
+      if ((flags & PREVIOUS_SOURCE_ATTESTER) != 0) {
+        long proposer_reward = Long.divideUnsigned(base_reward, proposer_reward_quotient);
+        rewards[statuses.inclusionProposers[i]] += proposer_reward;
+        long max_attester_reward = base_reward - proposer_reward;
+        rewards[i] += Long.divideUnsigned(max_attester_reward, statuses.inclusionDelays[i]);
+      }
+
+      // inactivity penalty
+      if (eligible && inactivity_leak) {
+        penalties[i] += base_reward * base_rewards_per_epoch;
+        if ((flags & PREVIOUS_TARGET_ATTESTER) == 0) {
+          penalties[i] +=
+              Long.divideUnsigned(
+                  statuses.effectiveBalances[i] * finality_delay.getValue(),
+                  inactivity_penalty_quotient);
+        }
+      }
+    }
+
+    return new long[][] {rewards, penalties};
+  }
+
+  @Override
+  default void process_rewards_and_penalties(MutableBeaconState state) {
+    if (!isSinglePassEpochProcessing()) {
+      EpochProcessing.super.process_rewards_and_penalties(state);
+      return;
+    }
+    if (get_current_epoch(state).equals(getConstants().getGenesisEpoch())) {
+      return;
+    }
+    process_rewards_and_penalties(state, get_validator_statuses(state));
+  }
+
+  default void process_rewards_and_penalties(
+      MutableBeaconState state, ValidatorStatuses statuses) {
+    if (get_current_epoch(state).equals(getConstants().getGenesisEpoch())) {
+      return;
+    }
+
+    long[][] deltas = get_attestation_deltas(state, statuses);
+    long[] rewards = deltas[0], penalties = deltas[1];
+    WriteUInt64List<ValidatorIndex, Gwei> balances = state.getBalances();
+    for (int i = 0; i < statuses.size; i++) {
+      if (rewards[i] == 0 && penalties[i] == 0) {
+        continue;
+      }
+      // increase_balance followed by decrease_balance
+      ValidatorIndex index = ValidatorIndex.of(i);
+      long balance = balances.getLong(index) + rewards[i];
+      balances.setLong(
+          index, Long.compareUnsigned(penalties[i], balance) > 0 ? 0 : balance - penalties[i]);
+    }
+  }
+
+  @Override
+  default void process_slashings(MutableBeaconState state) {
+    if (!isSinglePassEpochProcessing()) {
+      EpochProcessing.super.process_slashings(state);
+      return;
+    }
+    process_slashings(state, get_validator_statuses(state));
+  }
+
+  /**
+   * Processes slashings reading only slashed validators, sum of slashings is computed once.
+   *
+   * @see EpochProcessing#process_slashings(MutableBeaconState)
+   */
+  default void process_slashings(MutableBeaconState state, ValidatorStatuses statuses) {
+    EpochNumber epoch = get_current_epoch(state);
+    Gwei total_balance = Gwei.castFrom(UInt64.valueOf(statuses.totalActiveBalance));
+    Gwei increment = getConstants().getEffectiveBalanceIncrement();
+    Gwei state_slashings = state.getSlashings().stream().reduce(Gwei::plus).orElse(Gwei.ZERO);
+    EpochNumber withdrawable_epoch = epoch.plus(getConstants().getEpochsPerSlashingsVector().half());
+
+    for (int i = 0; i < statuses.size; i++) {
+      if (!statuses.has(i, SLASHED)) {
+        continue;
+      }
+      ValidatorIndex index = ValidatorIndex.of(i);
+      ValidatorRecord validator = state.getValidators().get(index);
+      if (withdrawable_epoch.equals(validator.getWithdrawableEpoch())) {
+        Gwei penalty_numerator =
+            validator
+                .getEffectiveBalance()
+                .dividedBy(increment)
+                .times(UInt64s.min(state_slashings.times(3), total_balance));
+        Gwei penalty = penalty_numerator.dividedBy(total_balance).times(increment);
+        decrease_balance(state, index, penalty);
+      }
+    }
+  }
+
+  /**
+   * Computes validator statuses once and shares them between justification, rewards and
+   * penalties, and slashings.
+   */
+  @Override
+  default void process_epoch(MutableBeaconState state) {
+    if (!isSinglePassEpochProcessing()) {
+      EpochProcessing.super.process_epoch(state);
+      return;
+    }
+    ValidatorStatuses statuses = get_validator_statuses(state);
+    process_justification_and_finalization(state, statuses);
+    process_rewards_and_penalties(state, statuses);
+    process_registry_updates(state);
+    // @process_reveal_deadlines
+    // @process_challenge_deadlines
+    process_slashings(state, statuses);
+    process_final_updates(state);
+    // @after_process_final_updates
+  }
+}
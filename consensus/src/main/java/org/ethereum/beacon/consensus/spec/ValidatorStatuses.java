@@ -0,0 +1,91 @@
+package org.ethereum.beacon.consensus.spec;
+
+/**
+ * Per-validator statuses used by {@link SinglePassEpochProcessing}.
+ *
+ * <p>Statuses are kept in primitive arrays indexed by validator index, they are built by one scan
+ * over the registry and pending attestations, see {@link
+ * SinglePassEpochProcessing#get_validator_statuses(org.ethereum.beacon.core.BeaconState)}.
+ * Attester flags are set for unslashed validators only, attesting balances are at least {@code 1}
+ * as the spec's {@code get_total_balance} is.
+ */
+public class ValidatorStatuses {
+
+  public static final int ACTIVE_IN_CURRENT_EPOCH = 1;
+  public static final int ACTIVE_IN_PREVIOUS_EPOCH = 1 << 1;
+  public static final int SLASHED = 1 << 2;
+  /** Eligible for attestation rewards and penalties. */
+  public static final int ELIGIBLE = 1 << 3;
+  public static final int PREVIOUS_SOURCE_ATTESTER = 1 << 4;
+  public static final int PREVIOUS_TARGET_ATTESTER = 1 << 5;
+  public static final int PREVIOUS_HEAD_ATTESTER = 1 << 6;
+  public static final int CURRENT_TARGET_ATTESTER = 1 << 7;
+
+  final int size;
+  final int[] flags;
+  final long[] effectiveBalances;
+  /** Minimal inclusion delay of previous epoch attestations, set for source attesters. */
+  final long[] inclusionDelays;
+  /** Proposer which included an attestation with minimal delay, set for source attesters. */
+  final int[] inclusionProposers;
+
+  long totalActiveBalance;
+  long previousSourceBalance;
+  long previousTargetBalance;
+  long previousHeadBalance;
+  long currentTargetBalance;
+
+  ValidatorStatuses(int size) {
+    this.size = size;
+    this.flags = new int[size];
+    this.effectiveBalances = new long[size];
+    this.inclusionDelays = new long[size];
+    this.inclusionProposers = new int[size];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean has(int index, int flag) {
+    return (flags[index] & flag) != 0;
+  }
+
+  public long getEffectiveBalance(int index) {
+    return effectiveBalances[index];
+  }
+
+  /** @return total effective balance of validators active in current epoch. */
+  public long getTotalActiveBalance() {
+    return totalActiveBalance;
+  }
+
+  public long getPreviousSourceBalance() {
+    return previousSourceBalance;
+  }
+
+  public long getPreviousTargetBalance() {
+    return previousTargetBalance;
+  }
+
+  public long getPreviousHeadBalance() {
+    return previousHeadBalance;
+  }
+
+  public long getCurrentTargetBalance() {
+    return currentTargetBalance;
+  }
+
+  static long atLeastOne(long balance) {
+    return balance == 0 ? 1 : balance;
+  }
+
+  /** @return a reward for matching source, target or head, zero if validator has missed it. */
+  static long componentReward(
+      int flags, int attesterFlag, long baseReward, long attestingBalance, long totalBalance) {
+    if ((flags & attesterFlag) == 0) {
+      return 0;
+    }
+    return Long.divideUnsigned(baseReward * attestingBalance, totalBalance);
+  }
+}
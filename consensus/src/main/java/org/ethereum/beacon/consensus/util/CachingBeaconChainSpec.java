@@ -1,5 +1,6 @@
 package org.ethereum.beacon.consensus.util;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.ethereum.beacon.consensus.BeaconChainSpecImpl;
 import org.ethereum.beacon.consensus.hasher.ObjectHasher;
 import org.ethereum.beacon.consensus.spec.BLSFunctions;
@@ -17,6 +18,7 @@ import org.ethereum.beacon.crypto.Hashes;
 import org.ethereum.beacon.util.cache.Cache;
 import org.ethereum.beacon.util.cache.CacheFactory;
 import org.javatuples.Pair;
+import org.javatuples.Triplet;
 import tech.pegasys.artemis.ethereum.core.Hash32;
 import tech.pegasys.artemis.util.bytes.Bytes32;
 import tech.pegasys.artemis.util.bytes.BytesValue;
@@ -26,11 +28,20 @@ import tech.pegasys.artemis.util.uint.UInt64;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 
 public class CachingBeaconChainSpec extends BeaconChainSpecImpl {
 
+  private static final ExecutorService SHUFFLING_EXECUTOR =
+      Executors.newSingleThreadExecutor(
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("committee-shuffling").build());
+
   private final boolean cacheEnabled;
   protected Caches caches;
 
@@ -44,6 +55,56 @@ public class CachingBeaconChainSpec extends BeaconChainSpecImpl {
       boolean verifyDepositProof,
       boolean computableGenesisTime,
       boolean cacheEnabled) {
+    this(
+        constants,
+        hashFunction,
+        objectHasher,
+        blsFunctions,
+        blsVerify,
+        blsVerifyProofOfPossession,
+        verifyDepositProof,
+        computableGenesisTime,
+        false,
+        cacheEnabled);
+  }
+
+  public CachingBeaconChainSpec(
+      SpecConstants constants,
+      Function<BytesValue, Hash32> hashFunction,
+      ObjectHasher<Hash32> objectHasher,
+      BLSFunctions blsFunctions,
+      boolean blsVerify,
+      boolean blsVerifyProofOfPossession,
+      boolean verifyDepositProof,
+      boolean computableGenesisTime,
+      boolean singlePassEpochProcessing,
+      boolean cacheEnabled) {
+    this(
+        constants,
+        hashFunction,
+        objectHasher,
+        blsFunctions,
+        blsVerify,
+        blsVerifyProofOfPossession,
+        verifyDepositProof,
+        computableGenesisTime,
+        singlePassEpochProcessing,
+        false,
+        cacheEnabled);
+  }
+
+  public CachingBeaconChainSpec(
+      SpecConstants constants,
+      Function<BytesValue, Hash32> hashFunction,
+      ObjectHasher<Hash32> objectHasher,
+      BLSFunctions blsFunctions,
+      boolean blsVerify,
+      boolean blsVerifyProofOfPossession,
+      boolean verifyDepositProof,
+      boolean computableGenesisTime,
+      boolean singlePassEpochProcessing,
+      boolean columnarRegistry,
+      boolean cacheEnabled) {
     super(
         constants,
         hashFunction,
@@ -52,7 +113,9 @@ public class CachingBeaconChainSpec extends BeaconChainSpecImpl {
         blsVerify,
         blsVerifyProofOfPossession,
         verifyDepositProof,
-        computableGenesisTime);
+        computableGenesisTime,
+        singlePassEpochProcessing,
+        columnarRegistry);
     this.cacheEnabled = cacheEnabled;
 
     CacheFactory factory = CacheFactory.create(cacheEnabled);
@@ -129,14 +192,114 @@ public class CachingBeaconChainSpec extends BeaconChainSpecImpl {
   @Override
   public List<ValidatorIndex> get_beacon_committee(
       BeaconState state, SlotNumber slot, CommitteeIndex index) {
-    Hash32 digest =
-        getDigest(
-            objectHash(state.getValidators()),
-            get_seed(state, compute_epoch_at_slot(slot), SignatureDomains.BEACON_ATTESTER),
-            slot.toBytes8(),
-            index.toBytes8());
-    return caches.crosslinkCommitteesCache.get(
-        digest, s -> super.get_beacon_committee(state, slot, index));
+    if (!cacheEnabled) {
+      return super.get_beacon_committee(state, slot, index);
+    }
+
+    return getCommitteeShuffling(state, compute_epoch_at_slot(slot)).getCommittee(slot, index);
+  }
+
+  @Override
+  public UInt64 get_committee_count_at_slot(BeaconState state, SlotNumber slot) {
+    if (!cacheEnabled) {
+      return super.get_committee_count_at_slot(state, slot);
+    }
+
+    return getCommitteeShuffling(state, compute_epoch_at_slot(slot)).getCommitteesPerSlot();
+  }
+
+  /**
+   * Returns committees of the epoch.
+   *
+   * <p>A shuffling is cached by epoch, seed and a root of the block which has decided on the seed
+   * and the active validator set, hence, it's shared by states of forks which have the same
+   * shuffling. Once committees of the current epoch are requested, committees of the next epoch
+   * are computed in background.
+   *
+   * @param state a state.
+   * @param epoch an epoch which shuffling is available in the state.
+   * @return committees of the epoch.
+   */
+  public CommitteeShuffling getCommitteeShuffling(BeaconState state, EpochNumber epoch) {
+    Triplet<EpochNumber, Hash32, Hash32> key = getShufflingKey(state, epoch);
+    CommitteeShuffling shuffling;
+    try {
+      shuffling = getCommitteeShuffling(state, key, false).join();
+    } catch (CompletionException | CancellationException e) {
+      // background computation has failed before its entry is removed
+      caches.committeeShufflingCache.remove(key);
+      shuffling = getCommitteeShuffling(state, key, false).join();
+    }
+    // next epoch seed is final in the current epoch unless seed lookahead is zero
+    if (epoch.equals(get_current_epoch(state))
+        && getConstants().getMinSeedLookahead().greater(EpochNumber.ZERO)) {
+      getCommitteeShuffling(state, getShufflingKey(state, epoch.increment()), true);
+    }
+    return shuffling;
+  }
+
+  private Triplet<EpochNumber, Hash32, Hash32> getShufflingKey(
+      BeaconState state, EpochNumber epoch) {
+    return Triplet.with(
+        epoch,
+        get_seed(state, epoch, SignatureDomains.BEACON_ATTESTER),
+        getShufflingDecisionRoot(state, epoch));
+  }
+
+  private CompletableFuture<CommitteeShuffling> getCommitteeShuffling(
+      BeaconState state, Triplet<EpochNumber, Hash32, Hash32> key, boolean background) {
+    EpochNumber epoch = key.getValue0();
+    Hash32 seed = key.getValue1();
+    return caches.committeeShufflingCache.get(
+        key,
+        k -> {
+          // active indices are read in the caller thread as the state might be modified later
+          int[] activeIndices =
+              super.get_active_validator_indices(state, epoch).stream()
+                  .mapToInt(ValidatorIndex::getIntValue)
+                  .toArray();
+          if (background) {
+            CompletableFuture<CommitteeShuffling> future =
+                CompletableFuture.supplyAsync(
+                    () -> CommitteeShuffling.compute(this, epoch, activeIndices, seed),
+                    SHUFFLING_EXECUTOR);
+            // a failed shuffling must not be served from the cache
+            future.whenComplete(
+                (shuffling, error) -> {
+                  if (error != null) {
+                    caches.committeeShufflingCache.remove(key);
+                  }
+                });
+            return future;
+          } else {
+            return CompletableFuture.completedFuture(
+                CommitteeShuffling.compute(this, epoch, activeIndices, seed));
+          }
+        });
+  }
+
+  /**
+   * Returns a root of the last block of the epoch which randao mix is used in the epoch seed. The
+   * block and the state transition to the next epoch define the seed and the active validator set
+   * as activations and exits are delayed by at least {@code MAX_SEED_LOOKAHEAD} epochs.
+   *
+   * <p>If the block root is not available in the state then a root of validator registry is
+   * returned, it identifies the active validator set of the epoch as well.
+   */
+  private Hash32 getShufflingDecisionRoot(BeaconState state, EpochNumber epoch) {
+    if (epoch.greater(getConstants().getMinSeedLookahead())
+        && getConstants().getMaxSeedLookahead().greaterEqual(getConstants().getMinSeedLookahead())) {
+      SlotNumber decisionSlot =
+          compute_start_slot_at_epoch(epoch.minus(getConstants().getMinSeedLookahead()))
+              .decrement();
+      if (decisionSlot.less(state.getSlot())
+          && state
+              .getSlot()
+              .lessEqual(decisionSlot.plus(getConstants().getSlotsPerHistoricalRoot()))) {
+        return get_block_root_at_slot(state, decisionSlot);
+      }
+    }
+    return objectHash(state.getValidators());
   }
 
   @Override
@@ -195,7 +358,8 @@ public class CachingBeaconChainSpec extends BeaconChainSpecImpl {
     private Cache<Pair<List<? extends UInt64>, Bytes32>, List<UInt64>> shufflerCache;
     private Cache<Object, Hash32> hashTreeRootCache;
     private Cache<Hash32, List<ValidatorIndex>> activeValidatorsCache;
-    private Cache<Hash32, List<ValidatorIndex>> crosslinkCommitteesCache;
+    private Cache<Triplet<EpochNumber, Hash32, Hash32>, CompletableFuture<CommitteeShuffling>>
+        committeeShufflingCache;
     private Cache<Hash32, Gwei> totalActiveBalanceCache;
     private Cache<Hash32, List<ValidatorIndex>> attestingIndicesCache;
     private ValidatorIndex maxCachedIndex = ValidatorIndex.ZERO;
@@ -203,7 +367,7 @@ public class CachingBeaconChainSpec extends BeaconChainSpecImpl {
     private Caches(CacheFactory factory) {
       this.shufflerCache = factory.createLRUCache(128);
       this.hashTreeRootCache = factory.createLRUCache(32);
-      this.crosslinkCommitteesCache = factory.createLRUCache(128);
+      this.committeeShufflingCache = factory.createLRUCache(8);
       this.activeValidatorsCache = factory.createLRUCache(32);
       this.totalActiveBalanceCache = factory.createLRUCache(32);
       this.attestingIndicesCache = factory.createLRUCache(1024);
@@ -0,0 +1,118 @@
+package org.ethereum.beacon.consensus.util;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import org.ethereum.beacon.consensus.spec.HelperFunction;
+import org.ethereum.beacon.core.spec.SpecConstants;
+import org.ethereum.beacon.core.types.CommitteeIndex;
+import org.ethereum.beacon.core.types.EpochNumber;
+import org.ethereum.beacon.core.types.SlotNumber;
+import org.ethereum.beacon.core.types.ValidatorIndex;
+import tech.pegasys.artemis.util.bytes.Bytes32;
+import tech.pegasys.artemis.util.uint.UInt64;
+
+/**
+ * Beacon committees of an epoch.
+ *
+ * <p>Active validators of the epoch are shuffled once, every committee is a slice of the shuffled
+ * indices with bounds calculated as in the spec's {@code compute_committee}. Committees are
+ * returned as views of the shuffled array, they are not copied.
+ */
+public class CommitteeShuffling {
+
+  private final EpochNumber epoch;
+  private final int[] shuffledIndices;
+  private final long slotsPerEpoch;
+  private final long committeesPerSlot;
+
+  public CommitteeShuffling(SpecConstants constants, EpochNumber epoch, int[] shuffledIndices) {
+    this.epoch = epoch;
+    this.shuffledIndices = shuffledIndices;
+    this.slotsPerEpoch = constants.getSlotsPerEpoch().getValue();
+    // get_committee_count_at_slot
+    this.committeesPerSlot =
+        Math.max(
+            1L,
+            Math.min(
+                constants.getMaxCommitteesPerSlot().getValue(),
+                shuffledIndices.length
+                    / slotsPerEpoch
+                    / constants.getTargetCommitteeSize().getValue()));
+  }
+
+  /**
+   * Shuffles active validators of the epoch.
+   *
+   * @param spec a spec.
+   * @param epoch an epoch.
+   * @param activeIndices indices of validators which are active in the epoch.
+   * @param seed the epoch seed of {@code DOMAIN_BEACON_ATTESTER}.
+   * @return committees of the epoch.
+   */
+  public static CommitteeShuffling compute(
+      HelperFunction spec, EpochNumber epoch, int[] activeIndices, Bytes32 seed) {
+    return new CommitteeShuffling(
+        spec.getConstants(), epoch, spec.get_permuted_indices(activeIndices, seed));
+  }
+
+  public EpochNumber getEpoch() {
+    return epoch;
+  }
+
+  public int getActiveValidatorCount() {
+    return shuffledIndices.length;
+  }
+
+  public UInt64 getCommitteesPerSlot() {
+    return UInt64.valueOf(committeesPerSlot);
+  }
+
+  /**
+   * Returns a committee, the result is the same as the one of the spec's {@code
+   * get_beacon_committee}.
+   *
+   * @param slot a slot of this shuffling epoch.
+   * @param index a committee index.
+   * @return read-only committee.
+   */
+  public List<ValidatorIndex> getCommittee(SlotNumber slot, CommitteeIndex index) {
+    long committeeCount = committeesPerSlot * slotsPerEpoch;
+    long committee =
+        Long.remainderUnsigned(slot.getValue(), slotsPerEpoch) * committeesPerSlot
+            + index.getValue();
+    long start = shuffledIndices.length * committee / committeeCount;
+    long end = shuffledIndices.length * (committee + 1) / committeeCount;
+    if (end > shuffledIndices.length) {
+      throw new IndexOutOfBoundsException(
+          "Committee index: " + index + ", committees per slot: " + committeesPerSlot);
+    }
+    return new IndicesSlice(shuffledIndices, (int) start, (int) end);
+  }
+
+  private static final class IndicesSlice extends AbstractList<ValidatorIndex>
+      implements RandomAccess {
+    private final int[] indices;
+    private final int from;
+    private final int size;
+
+    private IndicesSlice(int[] indices, int from, int to) {
+      this.indices = indices;
+      this.from = from;
+      this.size = to - from;
+    }
+
+    @Override
+    public ValidatorIndex get(int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+      }
+      return ValidatorIndex.of(indices[from + index]);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+}
@@ -13,6 +13,7 @@ import java.util.stream.IntStream;
 import org.ethereum.beacon.consensus.hasher.ObjectHasher;
 import org.ethereum.beacon.consensus.transition.InitialStateTransition;
 import org.ethereum.beacon.consensus.util.CachingBeaconChainSpec;
+import org.ethereum.beacon.consensus.util.CommitteeShuffling;
 import org.ethereum.beacon.core.BeaconBlock;
 import org.ethereum.beacon.core.BeaconBlockBody;
 import org.ethereum.beacon.core.BeaconBlockHeader;
@@ -25,6 +26,7 @@ import org.ethereum.beacon.core.spec.SpecConstants;
 import org.ethereum.beacon.core.state.Eth1Data;
 import org.ethereum.beacon.core.types.BLSPubkey;
 import org.ethereum.beacon.core.types.BLSSignature;
+import org.ethereum.beacon.core.types.CommitteeIndex;
 import org.ethereum.beacon.core.types.EpochNumber;
 import org.ethereum.beacon.core.types.Gwei;
 import org.ethereum.beacon.core.types.ShardNumber;
@@ -246,6 +248,31 @@ public class BeaconChainSpecTest {
     assertEquals(validatorIndices, actualIndices);
   }
 
+  @Test
+  public void committeeShufflingProducesCorrectResult() {
+    BeaconChainSpec spec = BeaconChainSpec.createWithDefaults();
+
+    int validatorCount = 2 * 128 * spec.getConstants().getSlotsPerEpoch().intValue() + 11;
+    List<ValidatorIndex> validatorIndices = IntStream.range(0, validatorCount).mapToObj(ValidatorIndex::new).collect(
+        Collectors.toList());
+    int[] indices = IntStream.range(0, validatorCount).toArray();
+    Hash32 seed = Hash32.random(new Random());
+
+    CommitteeShuffling shuffling = CommitteeShuffling.compute(spec, EpochNumber.ZERO, indices, seed);
+    UInt64 committeesPerSlot = shuffling.getCommitteesPerSlot();
+    UInt64 totalCommittees = committeesPerSlot.times(spec.getConstants().getSlotsPerEpoch());
+    assertEquals(UInt64.valueOf(2), committeesPerSlot);
+
+    for (int slot = 0; slot < spec.getConstants().getSlotsPerEpoch().intValue(); slot++) {
+      for (int index = 0; index < committeesPerSlot.intValue(); index++) {
+        UInt64 i = committeesPerSlot.times(slot).plus(index);
+        assertEquals(
+            spec.compute_committee(validatorIndices, seed, i, totalCommittees),
+            shuffling.getCommittee(SlotNumber.of(slot), CommitteeIndex.of(index)));
+      }
+    }
+  }
+
   @Test
   public void edgeCaseWithGetSeed() {
     UInt64 domain_type = SignatureDomains.BEACON_PROPOSER;
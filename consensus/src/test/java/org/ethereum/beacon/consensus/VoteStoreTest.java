@@ -0,0 +1,70 @@
+package org.ethereum.beacon.consensus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.ethereum.beacon.core.types.EpochNumber;
+import org.ethereum.beacon.core.types.ValidatorIndex;
+import org.junit.Test;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+import tech.pegasys.artemis.util.bytes.Bytes32;
+import tech.pegasys.artemis.util.bytes.BytesValues;
+
+public class VoteStoreTest {
+
+  @Test
+  public void latestMessages() {
+    VoteStore store = new VoteStore();
+    assertFalse(store.apply(ValidatorIndex.of(5)).isPresent());
+    assertNull(store.getRoot(5));
+
+    assertTrue(store.update(5, 2, root(1)));
+    assertFalse(store.update(5, 2, root(2)));
+    assertFalse(store.update(5, 1, root(2)));
+    assertEquals(root(1), store.getRoot(5));
+    assertEquals(EpochNumber.of(2), store.apply(ValidatorIndex.of(5)).get().getEpoch());
+
+    assertTrue(store.update(5, 3, root(2)));
+    assertEquals(root(2), store.apply(ValidatorIndex.of(5)).get().getRoot());
+    assertEquals(EpochNumber.of(3), store.apply(ValidatorIndex.of(5)).get().getEpoch());
+  }
+
+  @Test
+  public void changesAndInterning() {
+    VoteStore store = new VoteStore();
+    for (int i = 0; i < 100; i++) {
+      store.update(i, 1, root(i % 10));
+    }
+    assertEquals(10, store.getRootCount());
+
+    Map<Integer, Hash32> changes = new HashMap<>();
+    store.drainChanges(changes::put);
+    assertEquals(100, changes.size());
+    assertEquals(root(3), changes.get(23));
+
+    // same root at later epoch is not a change
+    store.update(1, 2, root(1));
+    // moving all votes of root 0 releases it
+    for (int i = 0; i < 100; i += 10) {
+      store.update(i, 2, root(100));
+    }
+    assertEquals(10, store.getRootCount());
+    changes.clear();
+    store.drainChanges(changes::put);
+    assertEquals(10, changes.size());
+    assertFalse(changes.containsKey(1));
+    assertEquals(root(100), changes.get(30));
+
+    changes.clear();
+    store.drainChanges(changes::put);
+    assertTrue(changes.isEmpty());
+  }
+
+  private Hash32 root(long i) {
+    return Hash32.wrap(Bytes32.leftPad(BytesValues.toMinimalBytes(i + 1)));
+  }
+}
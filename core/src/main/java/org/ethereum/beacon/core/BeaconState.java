@@ -39,7 +39,19 @@ public interface BeaconState extends ObservableComposite {
   }
 
   static BeaconState getEmpty(SpecConstants specConst) {
-    BeaconStateImpl ret = new BeaconStateImpl(specConst);
+    return getEmpty(specConst, false);
+  }
+
+  /**
+   * Creates an empty state.
+   *
+   * @param specConst spec constants.
+   * @param columnarRegistry whether validator registry is kept in columns, see {@link
+   *     org.ethereum.beacon.core.state.ColumnarValidatorList}.
+   * @return an empty state.
+   */
+  static BeaconState getEmpty(SpecConstants specConst, boolean columnarRegistry) {
+    BeaconStateImpl ret = new BeaconStateImpl(specConst, columnarRegistry);
     ret.getRandaoMixes().addAll(
         Collections.nCopies(specConst.getEpochsPerHistoricalVector().intValue(), Hash32.ZERO));
     ret.getBlockRoots().addAll(
@@ -13,6 +13,7 @@ import org.ethereum.beacon.core.types.Time;
 import org.ethereum.beacon.core.types.ValidatorIndex;
 import tech.pegasys.artemis.ethereum.core.Hash32;
 import tech.pegasys.artemis.util.collections.WriteList;
+import tech.pegasys.artemis.util.collections.WriteUInt64List;
 import tech.pegasys.artemis.util.collections.WriteVector;
 import tech.pegasys.artemis.util.uint.UInt64;
 
@@ -28,7 +29,7 @@ public interface MutableBeaconState extends BeaconState {
   WriteList<ValidatorIndex, ValidatorRecord> getValidators();
 
   @Override
-  WriteList<ValidatorIndex, Gwei> getBalances();
+  WriteUInt64List<ValidatorIndex, Gwei> getBalances();
 
   @Override
   WriteVector<EpochNumber, Hash32> getRandaoMixes();
@@ -13,10 +13,12 @@ import org.ethereum.beacon.ssz.annotation.SSZSerializable;
 import org.ethereum.beacon.ssz.incremental.ObservableCompositeHelper;
 import org.ethereum.beacon.ssz.incremental.ObservableCompositeHelper.ObsValue;
 import org.ethereum.beacon.ssz.incremental.ObservableListImpl;
+import org.ethereum.beacon.ssz.incremental.ObservableUInt64ListImpl;
 import org.ethereum.beacon.ssz.incremental.UpdateListener;
 import tech.pegasys.artemis.ethereum.core.Hash32;
 import tech.pegasys.artemis.util.collections.Bitvector;
 import tech.pegasys.artemis.util.collections.WriteList;
+import tech.pegasys.artemis.util.collections.WriteUInt64List;
 import tech.pegasys.artemis.util.uint.UInt64;
 
 import java.util.Map;
@@ -46,7 +48,7 @@ public class BeaconStateImpl implements MutableBeaconState {
 
   /* Registry */
   private final ObsValue<WriteList<ValidatorIndex, ValidatorRecord>> validators;
-  private final ObsValue<WriteList<ValidatorIndex, Gwei>> balances;
+  private final ObsValue<WriteUInt64List<ValidatorIndex, Gwei>> balances;
 
   /* Shuffling */
   private final ObsValue<WriteList<EpochNumber, Hash32>> randaoMixes;
@@ -65,6 +67,17 @@ public class BeaconStateImpl implements MutableBeaconState {
   private final ObsValue<Checkpoint> finalizedCheckpoint;
 
   public BeaconStateImpl(SpecConstants specConstants) {
+    this(specConstants, false);
+  }
+
+  /**
+   * Creates an empty state.
+   *
+   * @param specConstants spec constants.
+   * @param columnarRegistry whether validators are kept in {@link ColumnarValidatorList}, copies of
+   *     the state keep the layout of validator registry.
+   */
+  public BeaconStateImpl(SpecConstants specConstants, boolean columnarRegistry) {
     this.specConstants = specConstants;
     // Versioning
     this.genesisTime = obsHelper.newValue(Time.ZERO);
@@ -73,11 +86,13 @@ public class BeaconStateImpl implements MutableBeaconState {
 
     // History
     this.latestBlockHeader = obsHelper.newValue(BeaconBlockHeader.EMPTY);
-    this.blockRoots = obsHelper.newValue(ObservableListImpl.create(SlotNumber::of, true));
-    this.stateRoots = obsHelper.newValue(ObservableListImpl.create(SlotNumber::of, true));
+    this.blockRoots =
+        obsHelper.newValue(ObservableListImpl.createPersistent(SlotNumber::of, true));
+    this.stateRoots =
+        obsHelper.newValue(ObservableListImpl.createPersistent(SlotNumber::of, true));
     this.historicalRoots =
         obsHelper.newValue(
-            ObservableListImpl.create(
+            ObservableListImpl.createPersistent(
                 Integer::valueOf, specConstants.getHistoricalRootsLimit().longValue()));
 
     // Eth1
@@ -89,20 +104,21 @@ public class BeaconStateImpl implements MutableBeaconState {
     this.eth1DepositIndex = obsHelper.newValue(UInt64.ZERO);
 
     // Registry
-    this.validators =
-        obsHelper.newValue(
-            ObservableListImpl.create(
-                ValidatorIndex::of, specConstants.getValidatorRegistryLimit().longValue()));
+    this.validators = obsHelper.newValue(createValidators(specConstants, columnarRegistry));
     this.balances =
         obsHelper.newValue(
-            ObservableListImpl.create(
-                ValidatorIndex::of, specConstants.getValidatorRegistryLimit().longValue()));
+            ObservableUInt64ListImpl.create(
+                ValidatorIndex::of,
+                Gwei::of,
+                specConstants.getValidatorRegistryLimit().longValue()));
 
     // Shuffling
-    this.randaoMixes = obsHelper.newValue(ObservableListImpl.create(EpochNumber::of, true));
+    this.randaoMixes =
+        obsHelper.newValue(ObservableListImpl.createPersistent(EpochNumber::of, true));
 
     // Slashings
-    this.slashings = obsHelper.newValue(ObservableListImpl.create(EpochNumber::of, true));
+    this.slashings =
+        obsHelper.newValue(ObservableUInt64ListImpl.create(EpochNumber::of, Gwei::of, true));
 
     // Attestations
     this.previousEpochAttestations =
@@ -137,7 +153,13 @@ public class BeaconStateImpl implements MutableBeaconState {
     eth1DepositIndex.set(state.getEth1DepositIndex());
 
     validators.set(state.getValidators().createMutableCopy());
-    balances.set(state.getBalances().createMutableCopy());
+    if (state.getBalances() instanceof WriteUInt64List) {
+      // shares chunks of balances until they are modified
+      balances.set(
+          ((WriteUInt64List<ValidatorIndex, Gwei>) state.getBalances()).createMutableCopy());
+    } else {
+      balances.get().addAll(state.getBalances());
+    }
 
     randaoMixes.set(state.getRandaoMixes().createMutableCopy());
 
@@ -154,6 +176,33 @@ public class BeaconStateImpl implements MutableBeaconState {
     obsHelper.addAllListeners(state.getAllUpdateListeners());
   }
 
+  /**
+   * Creates a mutable copy of a state keeping its validator registry in {@link
+   * ColumnarValidatorList}. Brings states that are instantiated with the default layout, like those
+   * decoded from SSZ, to the columnar one; other fields are shared with the original state until
+   * they are modified.
+   *
+   * @param state a state.
+   * @param specConstants spec constants.
+   * @return a copy of the state with columnar validator registry.
+   */
+  public static BeaconStateImpl copyWithColumnarRegistry(
+      BeaconState state, SpecConstants specConstants) {
+    BeaconStateImpl ret = new BeaconStateImpl(state, specConstants);
+    WriteList<ValidatorIndex, ValidatorRecord> validators = createValidators(specConstants, true);
+    validators.addAll(state.getValidators());
+    ret.validators.set(validators);
+    return ret;
+  }
+
+  private static WriteList<ValidatorIndex, ValidatorRecord> createValidators(
+      SpecConstants specConstants, boolean columnarRegistry) {
+    long limit = specConstants.getValidatorRegistryLimit().longValue();
+    return columnarRegistry
+        ? new ObservableListImpl<>(new ColumnarValidatorList(limit))
+        : ObservableListImpl.createPersistent(ValidatorIndex::of, limit);
+  }
+
   @Override
   public Map<String, UpdateListener> getAllUpdateListeners() {
     return obsHelper.getAllUpdateListeners();
@@ -210,7 +259,7 @@ public class BeaconStateImpl implements MutableBeaconState {
   }
 
   @Override
-  public WriteList<ValidatorIndex, Gwei> getBalances() {
+  public WriteUInt64List<ValidatorIndex, Gwei> getBalances() {
     return balances.get();
   }
 
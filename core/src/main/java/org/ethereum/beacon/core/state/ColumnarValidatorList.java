@@ -0,0 +1,527 @@
+package org.ethereum.beacon.core.state;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.ethereum.beacon.core.types.BLSPubkey;
+import org.ethereum.beacon.core.types.EpochNumber;
+import org.ethereum.beacon.core.types.Gwei;
+import org.ethereum.beacon.core.types.ValidatorIndex;
+import org.ethereum.beacon.ssz.visitor.HashTreeRootProvider;
+import org.jetbrains.annotations.NotNull;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+import tech.pegasys.artemis.util.bytes.Bytes32;
+import tech.pegasys.artemis.util.bytes.Bytes48;
+import tech.pegasys.artemis.util.bytes.Bytes8;
+import tech.pegasys.artemis.util.bytes.BytesValue;
+import tech.pegasys.artemis.util.collections.ListImpl.MaxSizeOverflowException;
+import tech.pegasys.artemis.util.collections.ReadList;
+import tech.pegasys.artemis.util.collections.WriteList;
+import tech.pegasys.artemis.util.collections.WriteUInt64List;
+import tech.pegasys.artemis.util.uint.UInt64;
+
+/**
+ * Validator registry stored in columns.
+ *
+ * <p>Effective balances and epochs are kept in primitive long columns, slashed flags in a bitset,
+ * pubkeys and withdrawal credentials in one contiguous byte region. Records passed to {@link
+ * #add(ValidatorRecord)}, {@link #set(ValidatorIndex, ValidatorRecord)} and {@link
+ * #update(ValidatorIndex, Function)} are split into columns and are not retained, a field which
+ * is not changed by an update is not written.
+ *
+ * <p>{@link #get(ValidatorIndex)}, {@link #iterator()} and {@link #stream()} return flyweight
+ * views reading fields from columns of this list, a view reflects later updates of its validator
+ * in this list, like a validator object of the spec does. {@link #listCopy()} returns detached
+ * records.
+ *
+ * <p>Columns are shared with copies until they are written. Pubkeys and credentials are never
+ * changed by the spec, their region is append-only and is shared by copies until they append
+ * different validators.
+ */
+public class ColumnarValidatorList implements WriteList<ValidatorIndex, ValidatorRecord> {
+
+  private static final int KEYS_SIZE = Bytes48.SIZE + Bytes32.SIZE;
+  /** Number of {@link ValidatorRecord} fields, a power of two. */
+  private static final int FIELD_COUNT = 8;
+
+  private final long maxSize;
+
+  private WriteUInt64List<ValidatorIndex, UInt64> effectiveBalances;
+  private WriteUInt64List<ValidatorIndex, UInt64> activationEligibilityEpochs;
+  private WriteUInt64List<ValidatorIndex, UInt64> activationEpochs;
+  private WriteUInt64List<ValidatorIndex, UInt64> exitEpochs;
+  private WriteUInt64List<ValidatorIndex, UInt64> withdrawableEpochs;
+  /** Slashed flags, 64 validators per word. */
+  private WriteUInt64List<Integer, UInt64> slashedBits;
+  private KeysRegion keys;
+  private int size;
+
+  public ColumnarValidatorList(long maxSize) {
+    this.maxSize = maxSize;
+    clear();
+  }
+
+  private ColumnarValidatorList(ColumnarValidatorList source) {
+    this.maxSize = source.maxSize;
+    this.effectiveBalances = source.effectiveBalances.createMutableCopy();
+    this.activationEligibilityEpochs = source.activationEligibilityEpochs.createMutableCopy();
+    this.activationEpochs = source.activationEpochs.createMutableCopy();
+    this.exitEpochs = source.exitEpochs.createMutableCopy();
+    this.withdrawableEpochs = source.withdrawableEpochs.createMutableCopy();
+    this.slashedBits = source.slashedBits.createMutableCopy();
+    this.keys = source.keys;
+    this.size = source.size;
+  }
+
+  /** Append-only region of pubkeys and withdrawal credentials shared by list copies. */
+  private static final class KeysRegion {
+    private volatile byte[] data;
+    private int count;
+
+    private KeysRegion(byte[] data, int count) {
+      this.data = data;
+      this.count = count;
+    }
+
+    /**
+     * Appends keys if the region ends with validators of a list of the given size.
+     *
+     * @return {@code false} if other list has appended to this region already.
+     */
+    private synchronized boolean tryAppend(int listSize, BLSPubkey pubKey, Hash32 credentials) {
+      if (count != listSize) {
+        return false;
+      }
+      byte[] newData = data;
+      if ((listSize + 1) * KEYS_SIZE > newData.length) {
+        newData = Arrays.copyOf(newData, Math.max(KEYS_SIZE * 16, newData.length * 2));
+      }
+      write(newData, listSize, pubKey, credentials);
+      data = newData;
+      count++;
+      return true;
+    }
+
+    private KeysRegion copy(int listSize) {
+      return new KeysRegion(
+          Arrays.copyOf(data, Math.max(KEYS_SIZE * 16, (listSize + 1) * KEYS_SIZE)), listSize);
+    }
+
+    private static void write(byte[] data, int index, BLSPubkey pubKey, Hash32 credentials) {
+      int offset = index * KEYS_SIZE;
+      for (int i = 0; i < Bytes48.SIZE; i++) {
+        data[offset + i] = pubKey.get(i);
+      }
+      offset += Bytes48.SIZE;
+      for (int i = 0; i < Bytes32.SIZE; i++) {
+        data[offset + i] = credentials.get(i);
+      }
+    }
+
+    private boolean matches(int index, BLSPubkey pubKey, Hash32 credentials) {
+      byte[] data = this.data;
+      int offset = index * KEYS_SIZE;
+      for (int i = 0; i < Bytes48.SIZE; i++) {
+        if (data[offset + i] != pubKey.get(i)) {
+          return false;
+        }
+      }
+      offset += Bytes48.SIZE;
+      for (int i = 0; i < Bytes32.SIZE; i++) {
+        if (data[offset + i] != credentials.get(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private BLSPubkey getPubKey(int index) {
+      return BLSPubkey.wrap(Bytes48.wrap(data, index * KEYS_SIZE));
+    }
+
+    private Hash32 getWithdrawalCredentials(int index) {
+      return Hash32.wrap(Bytes32.wrap(data, index * KEYS_SIZE + Bytes48.SIZE));
+    }
+  }
+
+  /**
+   * Flyweight view of a validator of this list. Its hash tree root is evaluated from the columns,
+   * field chunks are packed without creating field objects.
+   */
+  private final class View extends ValidatorRecord implements HashTreeRootProvider {
+    private final ValidatorIndex index;
+
+    private View(ValidatorIndex index) {
+      this.index = index;
+    }
+
+    private ColumnarValidatorList owner() {
+      return ColumnarValidatorList.this;
+    }
+
+    @Override
+    public BLSPubkey getPubKey() {
+      return keys.getPubKey(index.getIntValue());
+    }
+
+    @Override
+    public Hash32 getWithdrawalCredentials() {
+      return keys.getWithdrawalCredentials(index.getIntValue());
+    }
+
+    @Override
+    public EpochNumber getActivationEligibilityEpoch() {
+      return epoch(activationEligibilityEpochs.getLong(index));
+    }
+
+    @Override
+    public EpochNumber getActivationEpoch() {
+      return epoch(activationEpochs.getLong(index));
+    }
+
+    @Override
+    public EpochNumber getExitEpoch() {
+      return epoch(exitEpochs.getLong(index));
+    }
+
+    @Override
+    public EpochNumber getWithdrawableEpoch() {
+      return epoch(withdrawableEpochs.getLong(index));
+    }
+
+    @Override
+    public Boolean getSlashed() {
+      return isSlashed(index.getIntValue());
+    }
+
+    @Override
+    public Gwei getEffectiveBalance() {
+      return Gwei.of(effectiveBalances.getLong(index));
+    }
+
+    @Override
+    public Hash32 getHashTreeRoot(Function<BytesValue, Hash32> hashFunction) {
+      int idx = index.getIntValue();
+      byte[] data = keys.data;
+      int offset = idx * KEYS_SIZE;
+      BytesValue[] nodes = new BytesValue[FIELD_COUNT];
+      // pubkey is a vector of two chunks, the second one is zero padded
+      byte[] pubKeyChunks = new byte[2 * Bytes32.SIZE];
+      System.arraycopy(data, offset, pubKeyChunks, 0, Bytes48.SIZE);
+      nodes[0] = hashFunction.apply(BytesValue.wrap(pubKeyChunks));
+      nodes[1] =
+          BytesValue.wrap(Arrays.copyOfRange(data, offset + Bytes48.SIZE, offset + KEYS_SIZE));
+      nodes[2] = uint64Chunk(effectiveBalances.getLong(index));
+      nodes[3] = uint64Chunk(isSlashed(idx) ? 1 : 0);
+      nodes[4] = uint64Chunk(activationEligibilityEpochs.getLong(index));
+      nodes[5] = uint64Chunk(activationEpochs.getLong(index));
+      nodes[6] = uint64Chunk(exitEpochs.getLong(index));
+      nodes[7] = uint64Chunk(withdrawableEpochs.getLong(index));
+      for (int width = FIELD_COUNT / 2; width > 0; width /= 2) {
+        for (int i = 0; i < width; i++) {
+          nodes[i] = hashFunction.apply(BytesValue.concat(nodes[2 * i], nodes[2 * i + 1]));
+        }
+      }
+      return (Hash32) nodes[0];
+    }
+  }
+
+  /** Packs a basic value into a chunk, little-endian and zero padded. */
+  private static BytesValue uint64Chunk(long value) {
+    byte[] chunk = new byte[Bytes32.SIZE];
+    for (int i = 0; i < Bytes8.SIZE; i++) {
+      chunk[i] = (byte) (value >>> (8 * i));
+    }
+    return BytesValue.wrap(chunk);
+  }
+
+  private static EpochNumber epoch(long value) {
+    return EpochNumber.castFrom(UInt64.valueOf(value));
+  }
+
+  private boolean isSlashed(int index) {
+    return (slashedBits.getLong(index >>> 6) & (1L << (index & 63))) != 0;
+  }
+
+  private void setSlashed(int index, boolean slashed) {
+    long word = slashedBits.getLong(index >>> 6);
+    long newWord = slashed ? word | (1L << (index & 63)) : word & ~(1L << (index & 63));
+    if (newWord != word) {
+      slashedBits.setLong(index >>> 6, newWord);
+    }
+  }
+
+  private static void setIfChanged(
+      WriteUInt64List<ValidatorIndex, UInt64> column, ValidatorIndex index, UInt64 value) {
+    if (column.getLong(index) != value.getValue()) {
+      column.setLong(index, value.getValue());
+    }
+  }
+
+  private ValidatorIndex checkIndex(ValidatorIndex index) {
+    if (index.getIntValue() < 0 || index.getIntValue() >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return index;
+  }
+
+  private void write(ValidatorIndex index, ValidatorRecord record) {
+    // a view of the same validator has nothing to write
+    if (record instanceof View
+        && ((View) record).owner() == this
+        && ((View) record).index.equals(index)) {
+      return;
+    }
+    int idx = index.getIntValue();
+    if (!keys.matches(idx, record.getPubKey(), record.getWithdrawalCredentials())) {
+      keys = keys.copy(size);
+      KeysRegion.write(keys.data, idx, record.getPubKey(), record.getWithdrawalCredentials());
+    }
+    setIfChanged(effectiveBalances, index, record.getEffectiveBalance());
+    setIfChanged(activationEligibilityEpochs, index, record.getActivationEligibilityEpoch());
+    setIfChanged(activationEpochs, index, record.getActivationEpoch());
+    setIfChanged(exitEpochs, index, record.getExitEpoch());
+    setIfChanged(withdrawableEpochs, index, record.getWithdrawableEpoch());
+    setSlashed(idx, record.getSlashed());
+  }
+
+  /** Creates a record detached from this list. */
+  private ValidatorRecord materialize(ValidatorIndex index) {
+    return ValidatorRecord.Builder.fromRecord(new View(index)).build();
+  }
+
+  private void rebuild(List<ValidatorRecord> records) {
+    clear();
+    addAll(records);
+  }
+
+  @Override
+  public ValidatorIndex size() {
+    return ValidatorIndex.of(size);
+  }
+
+  @Override
+  public ValidatorRecord get(ValidatorIndex index) {
+    return new View(checkIndex(index));
+  }
+
+  @Override
+  public ReadList<ValidatorIndex, ValidatorRecord> subList(
+      ValidatorIndex fromIndex, ValidatorIndex toIndex) {
+    ColumnarValidatorList ret = new ColumnarValidatorList(maxSize);
+    for (int i = fromIndex.getIntValue(); i < toIndex.getIntValue(); i++) {
+      ret.add(get(ValidatorIndex.of(i)));
+    }
+    return ret;
+  }
+
+  @Override
+  public WriteList<ValidatorIndex, ValidatorRecord> createMutableCopy() {
+    return new ColumnarValidatorList(this);
+  }
+
+  @Override
+  public ReadList<ValidatorIndex, ValidatorRecord> cappedCopy(long maxSize) {
+    ColumnarValidatorList ret = new ColumnarValidatorList(maxSize);
+    ret.addAll(this);
+    return ret;
+  }
+
+  @Override
+  public ReadList<ValidatorIndex, ValidatorRecord> createImmutableCopy() {
+    return new ColumnarValidatorList(this);
+  }
+
+  @NotNull
+  @Override
+  public Iterator<ValidatorRecord> iterator() {
+    return new Iterator<ValidatorRecord>() {
+      int idx = 0;
+
+      @Override
+      public boolean hasNext() {
+        return idx < size;
+      }
+
+      @Override
+      public ValidatorRecord next() {
+        if (idx >= size) {
+          throw new NoSuchElementException();
+        }
+        return new View(ValidatorIndex.of(idx++));
+      }
+    };
+  }
+
+  @Override
+  public Stream<ValidatorRecord> stream() {
+    return IntStream.range(0, size).mapToObj(i -> new View(ValidatorIndex.of(i)));
+  }
+
+  @Override
+  public List<ValidatorRecord> listCopy() {
+    List<ValidatorRecord> ret = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      ret.add(materialize(ValidatorIndex.of(i)));
+    }
+    return ret;
+  }
+
+  @Override
+  public boolean add(ValidatorRecord record) {
+    if (maxSize != VARIABLE_SIZE && size + 1L > maxSize) {
+      throw new MaxSizeOverflowException(
+          String.format(
+              "Cannot create collection, capacity %s is greater than maxSize of %s ",
+              size + 1L, maxSize));
+    }
+    if (!keys.tryAppend(size, record.getPubKey(), record.getWithdrawalCredentials())) {
+      keys = keys.copy(size);
+      keys.tryAppend(size, record.getPubKey(), record.getWithdrawalCredentials());
+    }
+    effectiveBalances.add(record.getEffectiveBalance());
+    activationEligibilityEpochs.add(record.getActivationEligibilityEpoch());
+    activationEpochs.add(record.getActivationEpoch());
+    exitEpochs.add(record.getExitEpoch());
+    withdrawableEpochs.add(record.getWithdrawableEpoch());
+    if ((size & 63) == 0) {
+      slashedBits.add(UInt64.ZERO);
+    }
+    size++;
+    setSlashed(size - 1, record.getSlashed());
+    return true;
+  }
+
+  @Override
+  public boolean addAll(@NotNull Iterable<? extends ValidatorRecord> c) {
+    boolean hasAny = false;
+    for (ValidatorRecord record : c) {
+      add(record);
+      hasAny = true;
+    }
+    return hasAny;
+  }
+
+  @Override
+  public boolean addAll(ValidatorIndex index, @NotNull Iterable<? extends ValidatorRecord> c) {
+    List<ValidatorRecord> records = listCopy();
+    List<ValidatorRecord> inserted = new ArrayList<>();
+    c.forEach(inserted::add);
+    records.addAll(index.getIntValue(), inserted);
+    rebuild(records);
+    return !inserted.isEmpty();
+  }
+
+  @Override
+  public void add(ValidatorIndex index, ValidatorRecord element) {
+    List<ValidatorRecord> records = listCopy();
+    records.add(index.getIntValue(), element);
+    rebuild(records);
+  }
+
+  @Override
+  public boolean remove(ValidatorRecord o) {
+    List<ValidatorRecord> records = listCopy();
+    boolean ret = records.remove(o);
+    if (ret) {
+      rebuild(records);
+    }
+    return ret;
+  }
+
+  @Override
+  public ValidatorRecord remove(ValidatorIndex index) {
+    List<ValidatorRecord> records = listCopy();
+    ValidatorRecord ret = records.remove(index.getIntValue());
+    rebuild(records);
+    return ret;
+  }
+
+  @Override
+  public void sort(Comparator<? super ValidatorRecord> c) {
+    List<ValidatorRecord> records = listCopy();
+    records.sort(c);
+    rebuild(records);
+  }
+
+  @Override
+  public void clear() {
+    effectiveBalances = WriteUInt64List.create(ValidatorIndex::of, UInt64::valueOf);
+    activationEligibilityEpochs = WriteUInt64List.create(ValidatorIndex::of, UInt64::valueOf);
+    activationEpochs = WriteUInt64List.create(ValidatorIndex::of, UInt64::valueOf);
+    exitEpochs = WriteUInt64List.create(ValidatorIndex::of, UInt64::valueOf);
+    withdrawableEpochs = WriteUInt64List.create(ValidatorIndex::of, UInt64::valueOf);
+    slashedBits = WriteUInt64List.create(Integer::valueOf, UInt64::valueOf);
+    keys = new KeysRegion(new byte[0], 0);
+    size = 0;
+  }
+
+  @Override
+  public ValidatorRecord set(ValidatorIndex index, ValidatorRecord element) {
+    ValidatorRecord ret = materialize(checkIndex(index));
+    write(index, element);
+    return ret;
+  }
+
+  /** Writes updated fields of the validator without materializing the previous record. */
+  @Override
+  public ValidatorRecord update(
+      ValidatorIndex index, Function<ValidatorRecord, ValidatorRecord> updater) {
+    write(checkIndex(index), updater.apply(new View(index)));
+    return new View(index);
+  }
+
+  @Override
+  public void setAll(ValidatorRecord singleValue) {
+    for (int i = 0; i < size; i++) {
+      write(ValidatorIndex.of(i), singleValue);
+    }
+  }
+
+  @Override
+  public void setAll(Iterable<ValidatorRecord> singleValue) {
+    Iterator<ValidatorRecord> it = singleValue.iterator();
+    int idx = 0;
+    while (it.hasNext() && idx < size) {
+      write(ValidatorIndex.of(idx), it.next());
+      idx++;
+    }
+    if (it.hasNext() || idx < size) {
+      throw new IllegalArgumentException("The sizes of this vector and supplied collection differ");
+    }
+  }
+
+  @Override
+  public void retainAll(ReadList<ValidatorIndex, ValidatorRecord> other) {
+    List<ValidatorRecord> records = listCopy();
+    records.retainAll(other.listCopy());
+    rebuild(records);
+  }
+
+  @Override
+  public long maxSize() {
+    return maxSize;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof ReadList)) return false;
+    ReadList<?, ?> list = (ReadList<?, ?>) o;
+    return !list.isVector()
+        && maxSize == list.maxSize()
+        && size == list.size().intValue()
+        && listCopy().equals(list.listCopy());
+  }
+
+  @Override
+  public int hashCode() {
+    return listCopy().hashCode();
+  }
+}
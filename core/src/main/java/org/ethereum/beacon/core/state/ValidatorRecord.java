@@ -57,6 +57,11 @@ public class ValidatorRecord {
     this.withdrawableEpoch = withdrawableEpoch;
   }
 
+  /** Creates a view which overrides all getters, see {@link ColumnarValidatorList}. */
+  protected ValidatorRecord() {
+    this(null, null, null, null, null, null, null, null);
+  }
+
   public BLSPubkey getPubKey() {
     return pubKey;
   }
@@ -92,16 +97,16 @@ public class ValidatorRecord {
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
-    if (o == null || getClass() != o.getClass()) return false;
+    if (!(o instanceof ValidatorRecord)) return false;
     ValidatorRecord that = (ValidatorRecord) o;
-    return Objects.equal(pubKey, that.pubKey)
-        && Objects.equal(withdrawalCredentials, that.withdrawalCredentials)
-        && Objects.equal(activationEpoch, that.activationEpoch)
-        && Objects.equal(activationEligibilityEpoch, that.activationEligibilityEpoch)
-        && Objects.equal(exitEpoch, that.exitEpoch)
-        && Objects.equal(withdrawableEpoch, that.withdrawableEpoch)
-        && Objects.equal(slashed, that.slashed)
-        && Objects.equal(effectiveBalance, that.effectiveBalance);
+    return Objects.equal(getPubKey(), that.getPubKey())
+        && Objects.equal(getWithdrawalCredentials(), that.getWithdrawalCredentials())
+        && Objects.equal(getActivationEpoch(), that.getActivationEpoch())
+        && Objects.equal(getActivationEligibilityEpoch(), that.getActivationEligibilityEpoch())
+        && Objects.equal(getExitEpoch(), that.getExitEpoch())
+        && Objects.equal(getWithdrawableEpoch(), that.getWithdrawableEpoch())
+        && Objects.equal(getSlashed(), that.getSlashed())
+        && Objects.equal(getEffectiveBalance(), that.getEffectiveBalance());
   }
 
   public Builder builder() {
@@ -112,21 +117,21 @@ public class ValidatorRecord {
   public String toString() {
     return "ValidatorRecord{"
         + "pubKey="
-        + pubKey
+        + getPubKey()
         + ", withdrawalCredentials="
-        + withdrawalCredentials
+        + getWithdrawalCredentials()
         + ", activationEpoch="
-        + activationEpoch
+        + getActivationEpoch()
         + ", activationEligibilityEpoch="
-        + activationEligibilityEpoch
+        + getActivationEligibilityEpoch()
         + ", exitEpoch="
-        + exitEpoch
+        + getExitEpoch()
         + ", withdrawableEpoch="
-        + withdrawableEpoch
+        + getWithdrawableEpoch()
         + ", slashed="
-        + slashed
+        + getSlashed()
         + ", effectiveBalance="
-        + effectiveBalance
+        + getEffectiveBalance()
         + '}';
   }
 
@@ -159,14 +164,14 @@ public class ValidatorRecord {
     public static Builder fromRecord(ValidatorRecord record) {
       Builder builder = new Builder();
 
-      builder.pubKey = record.pubKey;
-      builder.withdrawalCredentials = record.withdrawalCredentials;
-      builder.activationEpoch = record.activationEpoch;
-      builder.activationEligibilityEpoch = record.activationEligibilityEpoch;
-      builder.exitEpoch = record.exitEpoch;
-      builder.withdrawableEpoch = record.withdrawableEpoch;
-      builder.slashed = record.slashed;
-      builder.effectiveBalance = record.effectiveBalance;
+      builder.pubKey = record.getPubKey();
+      builder.withdrawalCredentials = record.getWithdrawalCredentials();
+      builder.activationEpoch = record.getActivationEpoch();
+      builder.activationEligibilityEpoch = record.getActivationEligibilityEpoch();
+      builder.exitEpoch = record.getExitEpoch();
+      builder.withdrawableEpoch = record.getWithdrawableEpoch();
+      builder.slashed = record.getSlashed();
+      builder.effectiveBalance = record.getEffectiveBalance();
 
       return builder;
     }
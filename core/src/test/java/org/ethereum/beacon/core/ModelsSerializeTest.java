@@ -5,6 +5,8 @@ import static org.junit.Assert.assertEquals;
 import java.util.Random;
 import org.ethereum.beacon.consensus.BeaconChainSpec;
 import org.ethereum.beacon.consensus.BeaconStateEx;
+import org.ethereum.beacon.consensus.hasher.ObjectHasher;
+import org.ethereum.beacon.consensus.hasher.SSZObjectHasher;
 import org.ethereum.beacon.consensus.transition.BeaconStateExImpl;
 import org.ethereum.beacon.core.operations.Attestation;
 import org.ethereum.beacon.core.operations.Deposit;
@@ -20,13 +22,21 @@ import org.ethereum.beacon.core.state.BeaconStateImpl;
 import org.ethereum.beacon.core.state.Fork;
 import org.ethereum.beacon.core.state.PendingAttestation;
 import org.ethereum.beacon.core.state.ValidatorRecord;
+import org.ethereum.beacon.core.types.BLSPubkey;
+import org.ethereum.beacon.core.types.EpochNumber;
+import org.ethereum.beacon.core.types.Gwei;
+import org.ethereum.beacon.core.types.ValidatorIndex;
 import org.ethereum.beacon.core.util.BeaconBlockTestUtil;
 import org.ethereum.beacon.core.util.TestDataFactory;
+import org.ethereum.beacon.crypto.Hashes;
 import org.ethereum.beacon.ssz.SSZBuilder;
 import org.ethereum.beacon.ssz.SSZSerializer;
 import org.junit.Before;
 import org.junit.Test;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+import tech.pegasys.artemis.util.bytes.Bytes48;
 import tech.pegasys.artemis.util.bytes.BytesValue;
+import tech.pegasys.artemis.util.uint.UInt64;
 
 public class ModelsSerializeTest {
   private SSZSerializer sszSerializer;
@@ -160,6 +170,61 @@ public class ModelsSerializeTest {
     assertEquals(expected, reconstructed);
   }
 
+  @Test
+  public void columnarRegistryStateMatchesListRegistry() {
+    Random rnd = new Random(1);
+    MutableBeaconState listState = BeaconState.getEmpty(specConstants, false).createMutableCopy();
+    MutableBeaconState columnarState =
+        BeaconState.getEmpty(specConstants, true).createMutableCopy();
+    for (int i = 0; i < 100; i++) {
+      ValidatorRecord validator = createRandomValidator(rnd);
+      listState.getValidators().add(validator);
+      listState.getBalances().add(validator.getEffectiveBalance());
+      columnarState.getValidators().add(validator);
+      columnarState.getBalances().add(validator.getEffectiveBalance());
+    }
+
+    ObjectHasher<Hash32> simpleHasher =
+        SSZObjectHasher.create(specConstants, Hashes::sha256, false);
+    ObjectHasher<Hash32> incrementalHasher = ObjectHasher.createSSZOverSHA256(specConstants);
+    BytesValue encoded = sszSerializer.encode2(listState);
+    Hash32 root = simpleHasher.getHash(listState);
+    assertEquals(encoded, sszSerializer.encode2(columnarState));
+    assertEquals(root, simpleHasher.getHash(columnarState));
+    assertEquals(root, incrementalHasher.getHash(columnarState));
+
+    // updated validators are hashed again from columns
+    for (int i = 0; i < 10; i++) {
+      ValidatorIndex index = ValidatorIndex.of(rnd.nextInt(100));
+      ValidatorRecord validator = createRandomValidator(rnd);
+      listState.getValidators().set(index, validator);
+      columnarState.getValidators().set(index, validator);
+    }
+    encoded = sszSerializer.encode2(listState);
+    root = simpleHasher.getHash(listState);
+    assertEquals(encoded, sszSerializer.encode2(columnarState));
+    assertEquals(root, incrementalHasher.getHash(columnarState));
+
+    BeaconState decoded =
+        BeaconStateImpl.copyWithColumnarRegistry(
+            sszSerializer.decode(encoded, BeaconStateImpl.class), specConstants);
+    assertEquals(encoded, sszSerializer.encode2(decoded));
+    assertEquals(root, incrementalHasher.getHash(decoded));
+  }
+
+  private ValidatorRecord createRandomValidator(Random rnd) {
+    return ValidatorRecord.Builder.createEmpty()
+        .withPubKey(BLSPubkey.wrap(Bytes48.random(rnd)))
+        .withWithdrawalCredentials(Hash32.random(rnd))
+        .withActivationEligibilityEpoch(EpochNumber.of(rnd.nextInt(100)))
+        .withActivationEpoch(EpochNumber.of(rnd.nextInt(100)))
+        .withExitEpoch(EpochNumber.castFrom(UInt64.MAX_VALUE))
+        .withWithdrawableEpoch(EpochNumber.castFrom(UInt64.valueOf(rnd.nextLong())))
+        .withSlashed(rnd.nextBoolean())
+        .withEffectiveBalance(Gwei.ofEthers(rnd.nextInt(32)))
+        .build();
+  }
+
   @Test
   public void forkTest() {
     Fork expected = dataFactory.createFork();
@@ -0,0 +1,136 @@
+package org.ethereum.beacon.core.state;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.ethereum.beacon.core.types.BLSPubkey;
+import org.ethereum.beacon.core.types.EpochNumber;
+import org.ethereum.beacon.core.types.Gwei;
+import org.ethereum.beacon.core.types.ValidatorIndex;
+import org.junit.Test;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+import tech.pegasys.artemis.util.bytes.Bytes48;
+import tech.pegasys.artemis.util.collections.ListImpl.MaxSizeOverflowException;
+import tech.pegasys.artemis.util.collections.WriteList;
+import tech.pegasys.artemis.util.uint.UInt64;
+
+public class ColumnarValidatorListTest {
+
+  private static ValidatorRecord createRandom(Random rnd) {
+    return ValidatorRecord.Builder.createEmpty()
+        .withPubKey(BLSPubkey.wrap(Bytes48.random(rnd)))
+        .withWithdrawalCredentials(Hash32.random(rnd))
+        .withActivationEligibilityEpoch(EpochNumber.of(rnd.nextInt(100)))
+        .withActivationEpoch(EpochNumber.of(rnd.nextInt(100)))
+        .withExitEpoch(EpochNumber.castFrom(UInt64.MAX_VALUE))
+        .withWithdrawableEpoch(EpochNumber.castFrom(UInt64.valueOf(rnd.nextLong())))
+        .withSlashed(rnd.nextBoolean())
+        .withEffectiveBalance(Gwei.ofEthers(rnd.nextInt(32)))
+        .build();
+  }
+
+  @Test
+  public void behavesAsList() {
+    Random rnd = new Random(1);
+    List<ValidatorRecord> expected = new ArrayList<>();
+    ColumnarValidatorList list = new ColumnarValidatorList(WriteList.VARIABLE_SIZE);
+    for (int i = 0; i < 3000; i++) {
+      ValidatorRecord record = createRandom(rnd);
+      expected.add(record);
+      list.add(record);
+    }
+    assertEquals(expected.size(), list.size().intValue());
+    assertEquals(expected, list.listCopy());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i), list.get(ValidatorIndex.of(i)));
+    }
+
+    for (int i = 0; i < 1000; i++) {
+      int idx = rnd.nextInt(expected.size());
+      ValidatorRecord record = createRandom(rnd);
+      expected.set(idx, record);
+      if (rnd.nextBoolean()) {
+        list.set(ValidatorIndex.of(idx), record);
+      } else {
+        list.update(
+            ValidatorIndex.of(idx),
+            v ->
+                ValidatorRecord.Builder.fromRecord(v)
+                    .withPubKey(record.getPubKey())
+                    .withWithdrawalCredentials(record.getWithdrawalCredentials())
+                    .withActivationEligibilityEpoch(record.getActivationEligibilityEpoch())
+                    .withActivationEpoch(record.getActivationEpoch())
+                    .withExitEpoch(record.getExitEpoch())
+                    .withWithdrawableEpoch(record.getWithdrawableEpoch())
+                    .withSlashed(record.getSlashed())
+                    .withEffectiveBalance(record.getEffectiveBalance())
+                    .build());
+      }
+    }
+    assertEquals(expected, list.listCopy());
+
+    expected.remove(100);
+    list.remove(ValidatorIndex.of(100));
+    assertEquals(expected, list.listCopy());
+  }
+
+  @Test
+  public void viewsAreLive() {
+    Random rnd = new Random(2);
+    ColumnarValidatorList list = new ColumnarValidatorList(WriteList.VARIABLE_SIZE);
+    list.add(createRandom(rnd));
+    ValidatorRecord view = list.get(ValidatorIndex.ZERO);
+    ValidatorRecord detached = list.listCopy().get(0);
+
+    list.update(
+        ValidatorIndex.ZERO,
+        v -> ValidatorRecord.Builder.fromRecord(v).withSlashed(!v.getSlashed()).build());
+    assertNotEquals(detached.getSlashed(), view.getSlashed());
+    assertEquals(list.get(ValidatorIndex.ZERO), view);
+  }
+
+  @Test
+  public void copiesAreIndependent() {
+    Random rnd = new Random(3);
+    ColumnarValidatorList list = new ColumnarValidatorList(WriteList.VARIABLE_SIZE);
+    for (int i = 0; i < 100; i++) {
+      list.add(createRandom(rnd));
+    }
+    List<ValidatorRecord> original = list.listCopy();
+
+    WriteList<ValidatorIndex, ValidatorRecord> copy = list.createMutableCopy();
+    assertEquals(list, copy);
+    ValidatorRecord added1 = createRandom(rnd);
+    ValidatorRecord added2 = createRandom(rnd);
+    copy.add(added1);
+    list.add(added2);
+    copy.set(ValidatorIndex.of(5), createRandom(rnd));
+
+    assertEquals(added2, list.get(ValidatorIndex.of(100)));
+    assertEquals(added1, copy.get(ValidatorIndex.of(100)));
+    assertEquals(original, list.listCopy().subList(0, 100));
+    assertNotEquals(original.get(5), copy.get(ValidatorIndex.of(5)));
+    assertEquals(original.subList(6, 100), copy.listCopy().subList(6, 100));
+  }
+
+  @Test
+  public void maxSizeIsChecked() {
+    Random rnd = new Random(4);
+    ColumnarValidatorList list = new ColumnarValidatorList(2);
+    assertTrue(list.add(createRandom(rnd)));
+    assertTrue(list.add(createRandom(rnd)));
+    boolean failed = false;
+    try {
+      list.add(createRandom(rnd));
+    } catch (MaxSizeOverflowException e) {
+      failed = true;
+    }
+    assertTrue(failed);
+    assertFalse(list.isEmpty());
+  }
+}
@@ -63,6 +63,7 @@ public class BLS381 {
 
   private static final KeyPairGenerator KEY_PAIR_GENERATOR;
   private static final MessageParametersMapper<ECP2> MESSAGE_MAPPER;
+  private static final SecureRandom BATCH_RANDOM = new SecureRandom();
 
   static {
     Security.addProvider(new BouncyCastleProvider());
@@ -150,6 +151,46 @@ public class BLS381 {
     return lhs.equals(rhs);
   }
 
+  /**
+   * Verifies a number of signatures at once, each signature has its own message and public key.
+   *
+   * <p>Each signature and its public key are multiplied by a random 63-bit scalar before they are
+   * summed up, thus, invalid signatures can't be crafted to cancel each other out. If verification
+   * fails there is no way to say which signature is invalid, they should be verified one by one.
+   *
+   * @param messages a list of messages.
+   * @param signatures a list of signatures.
+   * @param publicKeys a list of public keys.
+   * @return {@code true} if all signatures are valid, otherwise, {@code false}.
+   * @throws AssertionError if list sizes don't match.
+   */
+  public static boolean verifyBatch(
+      List<MessageParameters> messages, List<Signature> signatures, List<PublicKey> publicKeys) {
+    assert messages.size() == signatures.size() && messages.size() == publicKeys.size();
+
+    FP12 lhs = new FP12(1);
+    ECP2 signatureSum = new ECP2();
+    for (int i = 0; i < messages.size(); i++) {
+      BIG scalar = randomScalar();
+      ECP2 messagePoint = MESSAGE_MAPPER.map(messages.get(i));
+      FP12 product = PAIR.ate(messagePoint, publicKeys.get(i).asEcPoint().mul(scalar));
+      lhs.mul(product);
+      signatureSum.add(signatures.get(i).asEcPoint().mul(scalar));
+    }
+    lhs = PAIR.fexp(lhs);
+    FP12 rhs = pairingProduct(ECP.generator(), signatureSum);
+
+    return lhs.equals(rhs);
+  }
+
+  private static BIG randomScalar() {
+    long value;
+    do {
+      value = BATCH_RANDOM.nextLong() & Long.MAX_VALUE;
+    } while (value == 0);
+    return BIGs.fromBigInteger(BigInteger.valueOf(value));
+  }
+
   /**
    * Calculates ate pairing product for given elliptic curve points.
    *
@@ -279,6 +279,46 @@ public class BLS381Test {
     assertThat(verified).isTrue();
   }
 
+  @Test
+  public void checkVerifyBatchFlow() {
+    KeyPair keyPair1 = BLS381.KeyPair.generate();
+    KeyPair keyPair2 = BLS381.KeyPair.generate();
+    MessageParameters params1 =
+        new MessageParameters.Impl(Hashes.sha256(randomMessage()), randomDomain());
+    MessageParameters params2 =
+        new MessageParameters.Impl(Hashes.sha256(randomMessage()), randomDomain());
+    Signature signature1 = BLS381.sign(params1, keyPair1);
+    Signature signature2 = BLS381.sign(params2, keyPair2);
+
+    boolean verified =
+        BLS381.verifyBatch(
+            Arrays.asList(params1, params2),
+            Arrays.asList(signature1, signature2),
+            Arrays.asList(keyPair1.getPublic(), keyPair2.getPublic()));
+
+    assertThat(verified).isTrue();
+  }
+
+  @Test
+  public void failVerifyBatchIfSignaturesAreSwapped() {
+    KeyPair keyPair1 = BLS381.KeyPair.generate();
+    KeyPair keyPair2 = BLS381.KeyPair.generate();
+    Bytes8 domain = randomDomain();
+    MessageParameters params1 = new MessageParameters.Impl(Hashes.sha256(randomMessage()), domain);
+    MessageParameters params2 = new MessageParameters.Impl(Hashes.sha256(randomMessage()), domain);
+    Signature signature1 = BLS381.sign(params1, keyPair1);
+    Signature signature2 = BLS381.sign(params2, keyPair2);
+
+    // sum of signatures is valid, but each of them is not
+    boolean verified =
+        BLS381.verifyBatch(
+            Arrays.asList(params1, params2),
+            Arrays.asList(signature2, signature1),
+            Arrays.asList(keyPair1.getPublic(), keyPair2.getPublic()));
+
+    assertThat(verified).isFalse();
+  }
+
   @Test
   public void throwIfMessagesAndPublicKeysDoNotMatch() {
     KeyPair keyPair = BLS381.KeyPair.generate();
@@ -1,9 +1,13 @@
 package org.ethereum.beacon.db;
 
 import java.nio.file.Paths;
+import org.ethereum.beacon.db.lmdb.LmdbSource;
+import org.ethereum.beacon.db.rocksdb.ColumnFamilyRocksDbSource;
 import org.ethereum.beacon.db.rocksdb.RocksDbSource;
 import org.ethereum.beacon.db.source.DataSource;
+import org.ethereum.beacon.db.source.ReadCache;
 import org.ethereum.beacon.db.source.StorageEngineSource;
+import org.ethereum.beacon.db.source.impl.MemSizeEvaluators;
 import tech.pegasys.artemis.util.bytes.BytesValue;
 
 public interface Database {
@@ -13,12 +17,48 @@ public interface Database {
    */
   DataSource<BytesValue, BytesValue> createStorage(String name);
 
+  /**
+   * Creates named key value storage with a {@link ReadCache} on top of it.
+   *
+   * <p><strong>Note:</strong> the cache is not shared between storages, a storage with the same
+   * name must not be created twice, otherwise, caches may hold stale entries.
+   *
+   * @param name storage name.
+   * @param cacheLimitInBytes cache size limit in bytes, a storage without cache is created if this
+   *     value is not greater than zero.
+   * @return a storage.
+   */
+  default DataSource<BytesValue, BytesValue> createStorage(String name, long cacheLimitInBytes) {
+    DataSource<BytesValue, BytesValue> storage = createStorage(name);
+    if (cacheLimitInBytes > 0) {
+      return new ReadCache<>(
+          storage,
+          MemSizeEvaluators.BytesValueEvaluator,
+          MemSizeEvaluators.BytesValueEvaluator,
+          cacheLimitInBytes,
+          true);
+    } else {
+      return storage;
+    }
+  }
+
   /**
    * Calling commit indicates that all current data is in consistent state
    * and it is a safe point to persist the data
    */
   void commit();
 
+  /**
+   * Commits current changes and makes all committed changes durable.
+   *
+   * <p>A commit is atomic, but it MAY not survive a system crash till it is synced. Syncing is
+   * expensive, a single sync covers all commits made before it, hence, it's reasonable to sync
+   * once in a while rather than after each commit.
+   */
+  default void sync() {
+    commit();
+  }
+
   /**
    * Close underlying database storage
    */
@@ -45,4 +85,82 @@ public interface Database {
     StorageEngineSource<BytesValue> source = new RocksDbSource(Paths.get(dbPath));
     return EngineDrivenDatabase.create(source, bufferLimitInBytes);
   }
+
+  /**
+   * Creates database instance driven by <a href="https://github.com/facebook/rocksdb">RocksDB</a>
+   * storage engine which write buffer is flushed in a background thread.
+   *
+   * @param dbPath path to database folder.
+   * @param bufferLimitInBytes limit of write buffer in bytes.
+   * @param maxFlushesInFlight a number of buffers being flushed before commits are blocked.
+   * @return an instance of database driven by RocksDB.
+   * @see EngineDrivenDatabase#createWithBackgroundFlusher(StorageEngineSource, long, int)
+   */
+  static Database rocksDB(String dbPath, long bufferLimitInBytes, int maxFlushesInFlight) {
+    StorageEngineSource<BytesValue> source = new RocksDbSource(Paths.get(dbPath));
+    return EngineDrivenDatabase.createWithBackgroundFlusher(
+        source, bufferLimitInBytes, maxFlushesInFlight);
+  }
+
+  /**
+   * Creates database instance driven by <a href="https://github.com/facebook/rocksdb">RocksDB</a>
+   * storage engine where each named storage is kept in its own column family.
+   *
+   * @param dbPath path to database folder.
+   * @param bufferLimitInBytes limit of write buffer in bytes.
+   * @return an instance of database driven by RocksDB.
+   * @see ColumnFamilyRocksDbSource
+   */
+  static Database rocksDBColumnFamilies(String dbPath, long bufferLimitInBytes) {
+    StorageEngineSource<BytesValue> source = new ColumnFamilyRocksDbSource(Paths.get(dbPath));
+    return EngineDrivenDatabase.create(source, bufferLimitInBytes);
+  }
+
+  /**
+   * Creates database instance driven by <a href="https://github.com/facebook/rocksdb">RocksDB</a>
+   * storage engine where each named storage is kept in its own column family, write buffer is
+   * flushed in a background thread.
+   *
+   * @param dbPath path to database folder.
+   * @param bufferLimitInBytes limit of write buffer in bytes.
+   * @param maxFlushesInFlight a number of buffers being flushed before commits are blocked.
+   * @return an instance of database driven by RocksDB.
+   * @see ColumnFamilyRocksDbSource
+   * @see EngineDrivenDatabase#createWithBackgroundFlusher(StorageEngineSource, long, int)
+   */
+  static Database rocksDBColumnFamilies(
+      String dbPath, long bufferLimitInBytes, int maxFlushesInFlight) {
+    StorageEngineSource<BytesValue> source = new ColumnFamilyRocksDbSource(Paths.get(dbPath));
+    return EngineDrivenDatabase.createWithBackgroundFlusher(
+        source, bufferLimitInBytes, maxFlushesInFlight);
+  }
+
+  /**
+   * Creates database instance driven by <a href="https://symas.com/lmdb/">LMDB</a> storage engine.
+   *
+   * @param dbPath path to database folder.
+   * @param bufferLimitInBytes limit of write buffer in bytes.
+   * @return an instance of database driven by LMDB.
+   * @see LmdbSource
+   */
+  static Database lmdb(String dbPath, long bufferLimitInBytes) {
+    StorageEngineSource<BytesValue> source = new LmdbSource(Paths.get(dbPath));
+    return EngineDrivenDatabase.create(source, bufferLimitInBytes);
+  }
+
+  /**
+   * Creates database instance driven by <a href="https://symas.com/lmdb/">LMDB</a> storage engine
+   * which write buffer is flushed in a background thread.
+   *
+   * @param dbPath path to database folder.
+   * @param bufferLimitInBytes limit of write buffer in bytes.
+   * @param maxFlushesInFlight a number of buffers being flushed before commits are blocked.
+   * @return an instance of database driven by LMDB.
+   * @see EngineDrivenDatabase#createWithBackgroundFlusher(StorageEngineSource, long, int)
+   */
+  static Database lmdb(String dbPath, long bufferLimitInBytes, int maxFlushesInFlight) {
+    StorageEngineSource<BytesValue> source = new LmdbSource(Paths.get(dbPath));
+    return EngineDrivenDatabase.createWithBackgroundFlusher(
+        source, bufferLimitInBytes, maxFlushesInFlight);
+  }
 }
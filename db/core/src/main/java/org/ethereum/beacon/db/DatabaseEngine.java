@@ -0,0 +1,62 @@
+package org.ethereum.beacon.db;
+
+import javax.annotation.Nullable;
+
+/** Storage engines a persistent {@link Database} could be driven by. */
+public enum DatabaseEngine {
+  /** LSM tree, see {@link Database#rocksDB(String, long)}. */
+  ROCKSDB,
+  /**
+   * LSM tree with a column family per storage, see {@link Database#rocksDBColumnFamilies(String,
+   * long)}. Databases of {@link #ROCKSDB} layout are converted with {@code StorageMigrationTool}.
+   */
+  ROCKSDB_CF,
+  /** Memory-mapped B+tree, see {@link Database#lmdb(String, long)}. */
+  LMDB;
+
+  /**
+   * Creates a database driven by this engine.
+   *
+   * @param dbPath path to database folder.
+   * @param bufferLimitInBytes limit of write buffer in bytes.
+   * @param maxFlushesInFlight a number of buffers flushed in background before commits are
+   *     blocked, buffers are flushed synchronously if this value is not greater than zero.
+   * @return a database.
+   */
+  public Database create(String dbPath, long bufferLimitInBytes, int maxFlushesInFlight) {
+    switch (this) {
+      case LMDB:
+        return maxFlushesInFlight > 0
+            ? Database.lmdb(dbPath, bufferLimitInBytes, maxFlushesInFlight)
+            : Database.lmdb(dbPath, bufferLimitInBytes);
+      case ROCKSDB_CF:
+        return maxFlushesInFlight > 0
+            ? Database.rocksDBColumnFamilies(dbPath, bufferLimitInBytes, maxFlushesInFlight)
+            : Database.rocksDBColumnFamilies(dbPath, bufferLimitInBytes);
+      case ROCKSDB:
+      default:
+        return maxFlushesInFlight > 0
+            ? Database.rocksDB(dbPath, bufferLimitInBytes, maxFlushesInFlight)
+            : Database.rocksDB(dbPath, bufferLimitInBytes);
+    }
+  }
+
+  /**
+   * Looks up an engine by its case insensitive name.
+   *
+   * @param name engine name, {@code null} stands for {@link #ROCKSDB}.
+   * @return an engine.
+   * @throws IllegalArgumentException if engine is unknown.
+   */
+  public static DatabaseEngine fromName(@Nullable String name) {
+    if (name == null) {
+      return ROCKSDB;
+    }
+    for (DatabaseEngine engine : values()) {
+      if (engine.name().equalsIgnoreCase(name)) {
+        return engine;
+      }
+    }
+    throw new IllegalArgumentException("Unknown database engine: " + name);
+  }
+}
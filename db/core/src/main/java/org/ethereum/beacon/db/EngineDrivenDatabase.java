@@ -3,16 +3,16 @@ package org.ethereum.beacon.db;
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.ethereum.beacon.crypto.Hashes;
+import org.ethereum.beacon.db.flush.BackgroundFlusher;
 import org.ethereum.beacon.db.flush.BufferSizeObserver;
 import org.ethereum.beacon.db.flush.DatabaseFlusher;
 import org.ethereum.beacon.db.flush.InstantFlusher;
+import org.ethereum.beacon.db.source.BackgroundWriteSource;
 import org.ethereum.beacon.db.source.CacheSizeEvaluator;
 import org.ethereum.beacon.db.source.DataSource;
 import org.ethereum.beacon.db.source.StorageEngineSource;
 import org.ethereum.beacon.db.source.WriteBuffer;
 import org.ethereum.beacon.db.source.impl.MemSizeEvaluators;
-import org.ethereum.beacon.db.source.impl.XorDataSource;
 import tech.pegasys.artemis.util.bytes.BytesValue;
 
 /**
@@ -27,6 +27,12 @@ import tech.pegasys.artemis.util.bytes.BytesValue;
  *       flushes
  *   <li>an instance of {@link DatabaseFlusher} -- flushing strategy
  * </ul>
+ *
+ * <p>Buffer is flushed to the engine at commit points only, each flush is written by a single
+ * {@link StorageEngineSource#batchUpdate(java.util.Map)} call, hence, storages that share the
+ * database are left consistent with each other after a crash: they are as of one of previous
+ * commits. Flushed batches are made durable by {@link #sync()}, one sync covers all flushes that
+ * were done before it.
  */
 public class EngineDrivenDatabase implements Database {
 
@@ -71,6 +77,31 @@ public class EngineDrivenDatabase implements Database {
     return new EngineDrivenDatabase(storageEngineSource, buffer, flusher);
   }
 
+  /**
+   * Creates an instance which buffer is flushed in a background thread by {@link
+   * BackgroundFlusher}. A full buffer is frozen and handed to the writer while new changes go to a
+   * fresh buffer, reads are served by both.
+   *
+   * @param storageEngineSource an engine-based source.
+   * @param bufferLimitInBytes a buffer limit in bytes.
+   * @param maxFlushesInFlight a number of frozen buffers that could be queued for writing before
+   *     a commit is blocked.
+   * @return a new instance.
+   */
+  public static EngineDrivenDatabase createWithBackgroundFlusher(
+      StorageEngineSource<BytesValue> storageEngineSource,
+      long bufferLimitInBytes,
+      int maxFlushesInFlight) {
+    BackgroundWriteSource<BytesValue, BytesValue> writer =
+        new BackgroundWriteSource<>(storageEngineSource, maxFlushesInFlight, true);
+    WriteBuffer<BytesValue, BytesValue> buffer =
+        new WriteBuffer<>(
+            writer, CacheSizeEvaluator.getInstance(MemSizeEvaluators.BytesValueEvaluator), false);
+    DatabaseFlusher flusher = new BackgroundFlusher(buffer, writer, bufferLimitInBytes);
+
+    return new EngineDrivenDatabase(storageEngineSource, buffer, flusher);
+  }
+
   /**
    * A shortcut that spawns an instance with {@link InstantFlusher} flushing strategy.
    *
@@ -85,7 +116,7 @@ public class EngineDrivenDatabase implements Database {
   @Override
   public DataSource<BytesValue, BytesValue> createStorage(String name) {
     source.open();
-    return new XorDataSource<>(writeBuffer, Hashes.sha256(BytesValue.wrap(name.getBytes())));
+    return source.createStorage(name, writeBuffer);
   }
 
   @Override
@@ -93,10 +124,20 @@ public class EngineDrivenDatabase implements Database {
     flusher.commit();
   }
 
+  @Override
+  public void sync() {
+    long s = System.nanoTime();
+    flusher.commit();
+    flusher.flush();
+    source.sync();
+    logger.debug("Database synced in {}ms", (System.nanoTime() - s) / 1_000_000);
+  }
+
   @Override
   public void close() {
     logger.info("Closing underlying database storage...");
     flusher.flush();
+    flusher.close();
     source.close();
   }
 
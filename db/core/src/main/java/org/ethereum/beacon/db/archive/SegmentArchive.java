@@ -0,0 +1,348 @@
+package org.ethereum.beacon.db.archive;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import javax.annotation.Nonnull;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import tech.pegasys.artemis.util.bytes.BytesValue;
+
+/**
+ * Append-only storage of immutable values, like finalized blocks, that are written once and are
+ * read many times.
+ *
+ * <p>Values are appended in slot order to segment files of fixed size. Each segment is mapped into
+ * memory entirely, values are read as slices of mapped buffers without copying. An index of keys
+ * and slots is kept in memory and is rebuilt by scanning segments when archive is opened.
+ *
+ * <p>An entry layout is:
+ *
+ * <pre>
+ *   slot: 8 bytes | key size: 4 bytes | value size: 4 bytes | crc32: 4 bytes | key | value
+ * </pre>
+ *
+ * Entry with zero key size marks an end of data in a segment. Appended entries are persisted by
+ * {@link #flush()}, pages of a mapped segment are written back in no particular order, hence, a
+ * checksum of key and value is kept in the header and the scan stops at the first entry which
+ * doesn't match it, dropping a partially written tail.
+ *
+ * <p>{@link #close()} unmaps segments, values read from the archive must not be used after it.
+ */
+public class SegmentArchive {
+
+  private static final Logger logger = LogManager.getLogger(SegmentArchive.class);
+
+  private static final String SEGMENT_SUFFIX = ".seg";
+  private static final int HEADER_SIZE = 20;
+
+  private final Path directory;
+  private final int segmentSize;
+
+  private final List<MappedByteBuffer> segments = new ArrayList<>();
+  private final Map<BytesValue, Location> keyIndex = new HashMap<>();
+  private final NavigableMap<Long, List<Location>> slotIndex = new TreeMap<>();
+  /** Write position in the last segment. */
+  private int writePosition;
+  private boolean closed;
+
+  /**
+   * Opens an archive creating the directory if it doesn't exist.
+   *
+   * @param directory archive directory.
+   * @param segmentSize size of a new segment file in bytes, limits a size of archived value.
+   */
+  public SegmentArchive(@Nonnull Path directory, int segmentSize) {
+    if (segmentSize <= HEADER_SIZE) {
+      throw new IllegalArgumentException("Segment size is too small: " + segmentSize);
+    }
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+
+    try {
+      Files.createDirectories(directory);
+      File[] files = directory.toFile().listFiles((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+      Arrays.sort(files);
+      for (File file : files) {
+        segments.add(map(file.toPath(), false));
+        writePosition = scan(segments.size() - 1);
+      }
+    } catch (IOException e) {
+      logger.error("Failed to open archive: {}", directory, e);
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Appends an entry.
+   *
+   * @param slot a slot, must not be less than a slot of previously appended entry.
+   * @param key a key, must not be empty.
+   * @param value a value.
+   */
+  public synchronized void append(long slot, @Nonnull BytesValue key, @Nonnull BytesValue value) {
+    checkOpen();
+    if (key.isEmpty()) {
+      throw new IllegalArgumentException("Key must not be empty");
+    }
+    if (!slotIndex.isEmpty() && slot < slotIndex.lastKey()) {
+      throw new IllegalArgumentException(
+          "Slot " + slot + " is less than the last archived slot " + slotIndex.lastKey());
+    }
+    int entrySize = HEADER_SIZE + key.size() + value.size();
+    if (entrySize > segmentSize) {
+      throw new IllegalArgumentException("Entry doesn't fit into a segment: " + entrySize);
+    }
+    if (segments.isEmpty()
+        || writePosition + entrySize > segments.get(segments.size() - 1).capacity()) {
+      newSegment();
+    }
+
+    MappedByteBuffer segment = segments.get(segments.size() - 1);
+    ByteBuffer buffer = segment.duplicate();
+    buffer.position(writePosition + HEADER_SIZE);
+    buffer.put(key.getArrayUnsafe());
+    buffer.put(value.getArrayUnsafe());
+    // pages may reach the disk in any order, checksum lets scan drop an entry written partially
+    CRC32 crc = new CRC32();
+    crc.update(key.getArrayUnsafe());
+    crc.update(value.getArrayUnsafe());
+    buffer.position(writePosition);
+    buffer.putLong(slot);
+    buffer.putInt(key.size());
+    buffer.putInt(value.size());
+    buffer.putInt((int) crc.getValue());
+
+    index(
+        slot,
+        key.copy(),
+        segments.size() - 1,
+        writePosition + HEADER_SIZE + key.size(),
+        value.size());
+    writePosition += entrySize;
+  }
+
+  /**
+   * @param key a key.
+   * @return a value wrapping a slice of memory-mapped segment.
+   */
+  public synchronized Optional<BytesValue> get(@Nonnull BytesValue key) {
+    checkOpen();
+    Location location = keyIndex.get(key);
+    return location == null
+        ? Optional.empty()
+        : Optional.of(BytesValue.wrapBuffer(slice(location)));
+  }
+
+  public synchronized boolean containsKey(@Nonnull BytesValue key) {
+    checkOpen();
+    return keyIndex.containsKey(key);
+  }
+
+  /**
+   * Returns entries of a range of slots.
+   *
+   * @param fromSlot the first slot, inclusive.
+   * @param toSlot the last slot, exclusive.
+   * @return entries in order of slots, values are read-only slices of memory-mapped segments.
+   */
+  public synchronized List<Entry> getRange(long fromSlot, long toSlot) {
+    checkOpen();
+    if (fromSlot >= toSlot) {
+      return Collections.emptyList();
+    }
+    List<Entry> entries = new ArrayList<>();
+    for (List<Location> locations : slotIndex.subMap(fromSlot, true, toSlot, false).values()) {
+      for (Location location : locations) {
+        entries.add(new Entry(location.slot, location.key, slice(location)));
+      }
+    }
+    return entries;
+  }
+
+  /** @return a slot of the last appended entry. */
+  public synchronized Optional<Long> getLastSlot() {
+    checkOpen();
+    return slotIndex.isEmpty() ? Optional.empty() : Optional.of(slotIndex.lastKey());
+  }
+
+  /** Forces appended entries to be written to the disk. */
+  public synchronized void flush() {
+    checkOpen();
+    if (!segments.isEmpty()) {
+      segments.get(segments.size() - 1).force();
+    }
+  }
+
+  /**
+   * Flushes appended entries and unmaps segments. Slices returned by the archive become invalid,
+   * any further call to the archive fails with {@link IllegalStateException}.
+   */
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+    flush();
+    closed = true;
+    for (MappedByteBuffer segment : segments) {
+      unmap(segment);
+    }
+    segments.clear();
+    keyIndex.clear();
+    slotIndex.clear();
+  }
+
+  private void checkOpen() {
+    if (closed) {
+      throw new IllegalStateException("Archive is closed: " + directory);
+    }
+  }
+
+  /**
+   * There is no public API to release a mapping before the buffer is collected, cleaner of direct
+   * buffer is invoked if it's accessible. Otherwise, the mapping is released by GC.
+   */
+  private static void unmap(MappedByteBuffer buffer) {
+    try {
+      Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+      cleanerMethod.setAccessible(true);
+      Object cleaner = cleanerMethod.invoke(buffer);
+      if (cleaner != null) {
+        Method cleanMethod = cleaner.getClass().getMethod("clean");
+        cleanMethod.setAccessible(true);
+        cleanMethod.invoke(cleaner);
+      }
+    } catch (Exception e) {
+      logger.debug("Failed to unmap archive segment, leaving it to GC", e);
+    }
+  }
+
+  private void newSegment() {
+    flush();
+    Path path = directory.resolve(String.format("%08d%s", segments.size(), SEGMENT_SUFFIX));
+    try {
+      segments.add(map(path, true));
+    } catch (IOException e) {
+      logger.error("Failed to create archive segment: {}", path, e);
+      throw new RuntimeException(e);
+    }
+    writePosition = 0;
+  }
+
+  private MappedByteBuffer map(Path path, boolean create) throws IOException {
+    try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+      if (create) {
+        file.setLength(segmentSize);
+      }
+      // a mapping stays valid after the channel is closed
+      return file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, file.length());
+    }
+  }
+
+  /** Indexes entries of a segment and returns a position after the last one. */
+  private int scan(int segmentIndex) {
+    ByteBuffer buffer = segments.get(segmentIndex).duplicate();
+    int capacity = buffer.capacity();
+    int position = 0;
+    while (position + HEADER_SIZE <= capacity) {
+      buffer.position(position);
+      long slot = buffer.getLong();
+      int keySize = buffer.getInt();
+      int valueSize = buffer.getInt();
+      int checksum = buffer.getInt();
+      if (keySize <= 0
+          || valueSize < 0
+          || (long) position + HEADER_SIZE + keySize + valueSize > capacity) {
+        break;
+      }
+      byte[] key = new byte[keySize];
+      buffer.get(key);
+      ByteBuffer value = buffer.duplicate();
+      value.limit(value.position() + valueSize);
+      CRC32 crc = new CRC32();
+      crc.update(key);
+      crc.update(value);
+      if ((int) crc.getValue() != checksum) {
+        logger.warn(
+            "Archive segment {} has a broken entry at {}, dropping the rest of it",
+            segmentIndex,
+            position);
+        break;
+      }
+      index(slot, BytesValue.wrap(key), segmentIndex, buffer.position(), valueSize);
+      position += HEADER_SIZE + keySize + valueSize;
+    }
+    return position;
+  }
+
+  private void index(long slot, BytesValue key, int segment, int offset, int size) {
+    Location location = new Location(slot, key, segment, offset, size);
+    keyIndex.put(key, location);
+    slotIndex.computeIfAbsent(slot, s -> new ArrayList<>(1)).add(location);
+  }
+
+  private ByteBuffer slice(Location location) {
+    ByteBuffer buffer = segments.get(location.segment).asReadOnlyBuffer();
+    buffer.position(location.offset);
+    buffer.limit(location.offset + location.size);
+    return buffer.slice();
+  }
+
+  private static class Location {
+    private final long slot;
+    private final BytesValue key;
+    private final int segment;
+    private final int offset;
+    private final int size;
+
+    Location(long slot, BytesValue key, int segment, int offset, int size) {
+      this.slot = slot;
+      this.key = key;
+      this.segment = segment;
+      this.offset = offset;
+      this.size = size;
+    }
+  }
+
+  /** An archived entry. */
+  public static class Entry {
+    private final long slot;
+    private final BytesValue key;
+    private final ByteBuffer value;
+
+    Entry(long slot, BytesValue key, ByteBuffer value) {
+      this.slot = slot;
+      this.key = key;
+      this.value = value;
+    }
+
+    public long getSlot() {
+      return slot;
+    }
+
+    public BytesValue getKey() {
+      return key;
+    }
+
+    /** @return read-only slice of memory-mapped segment. */
+    public ByteBuffer getValue() {
+      return value;
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package org.ethereum.beacon.db.flush;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.ethereum.beacon.db.source.BackgroundWriteSource;
+import org.ethereum.beacon.db.source.WriteBuffer;
+
+/**
+ * Flushing strategy that observes a size of given buffer and, whenever size limit is exceeded,
+ * hands buffered changes over to a {@link BackgroundWriteSource}. Unlike {@link
+ * BufferSizeObserver} a commit is not blocked by disk writes unless there are too many flushes in
+ * flight.
+ *
+ * <p>The buffer must be linked to the background writer and must not cascade its flushes, the
+ * writer is flushed by this strategy explicitly.
+ */
+public class BackgroundFlusher implements DatabaseFlusher {
+
+  private static final Logger logger = LogManager.getLogger(BackgroundFlusher.class);
+
+  /** A buffer. */
+  private final WriteBuffer buffer;
+  /** Writes buffered changes to the storage. */
+  private final BackgroundWriteSource writer;
+  /** A limit of buffer size in bytes. */
+  private final long bufferSizeLimit;
+
+  public BackgroundFlusher(WriteBuffer buffer, BackgroundWriteSource writer, long bufferSizeLimit) {
+    this.buffer = buffer;
+    this.writer = writer;
+    this.bufferSizeLimit = bufferSizeLimit;
+  }
+
+  @Override
+  public void flush() {
+    buffer.flush();
+    writer.flush();
+  }
+
+  @Override
+  public void commit() {
+    if (buffer.evaluateSize() >= bufferSizeLimit) {
+      logger.debug(
+          "Flush db buffer in background due to size limit: {} >= {}, {} flushes in flight",
+          buffer.evaluateSize(),
+          bufferSizeLimit,
+          writer.getBatchesInFlight());
+      buffer.flush();
+    }
+  }
+
+  @Override
+  public void close() {
+    writer.close();
+  }
+}
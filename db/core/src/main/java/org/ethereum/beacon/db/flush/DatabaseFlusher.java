@@ -9,6 +9,7 @@ import org.ethereum.beacon.db.source.WriteBuffer;
  *
  * @see InstantFlusher
  * @see BufferSizeObserver
+ * @see BackgroundFlusher
  */
 public interface DatabaseFlusher {
 
@@ -28,4 +29,10 @@ public interface DatabaseFlusher {
    * safe.
    */
   void commit();
+
+  /**
+   * Releases resources held by the strategy. Called after the final {@link #flush()} when
+   * database is closed.
+   */
+  default void close() {}
 }
@@ -0,0 +1,100 @@
+package org.ethereum.beacon.db.lmdb;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import org.ethereum.beacon.db.source.DataSourceIterator;
+import org.lmdbjava.Cursor;
+import org.lmdbjava.GetOp;
+import org.lmdbjava.Txn;
+import tech.pegasys.artemis.util.bytes.BytesValue;
+
+/**
+ * Iterates over a range of LMDB keys in either direction.
+ *
+ * <p>Iterator holds a read transaction, it sees a snapshot of the database taken at creation
+ * time. <strong>Note:</strong> iterator must be closed before the database is closed.
+ */
+class LmdbIterator implements DataSourceIterator<BytesValue, BytesValue> {
+
+  private final Txn<ByteBuffer> txn;
+  private final Cursor<ByteBuffer> cursor;
+  private final BytesValue lower;
+  private final BytesValue upper;
+  private final boolean reverse;
+
+  /** A key under the cursor, {@code null} if cursor is out of data. */
+  private BytesValue current;
+
+  /**
+   * @param txn read transaction, closed along with iterator.
+   * @param cursor cursor opened in the transaction.
+   * @param lower lower bound, inclusive, or {@code null}.
+   * @param upper upper bound, exclusive, or {@code null}.
+   * @param reverse whether iteration is done in descending order.
+   */
+  LmdbIterator(
+      Txn<ByteBuffer> txn,
+      Cursor<ByteBuffer> cursor,
+      BytesValue lower,
+      BytesValue upper,
+      boolean reverse) {
+    this.txn = txn;
+    this.cursor = cursor;
+    this.lower = lower;
+    this.upper = upper;
+    this.reverse = reverse;
+
+    boolean found;
+    if (reverse) {
+      if (upper != null) {
+        // positions at the first key not less than upper bound, the previous one is in range
+        found = seek(upper) ? cursor.prev() : cursor.last();
+      } else {
+        found = cursor.last();
+      }
+    } else {
+      found = lower != null ? seek(lower) : cursor.first();
+    }
+    moved(found);
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (current == null) {
+      return false;
+    }
+    if (reverse) {
+      return lower == null || current.compareTo(lower) >= 0;
+    } else {
+      return upper == null || current.compareTo(upper) < 0;
+    }
+  }
+
+  @Override
+  public Map.Entry<BytesValue, BytesValue> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    Map.Entry<BytesValue, BytesValue> entry =
+        new SimpleImmutableEntry<>(current, LmdbSource.copy(cursor.val()));
+    moved(reverse ? cursor.prev() : cursor.next());
+    return entry;
+  }
+
+  @Override
+  public void close() {
+    cursor.close();
+    txn.close();
+  }
+
+  private boolean seek(BytesValue key) {
+    ByteBuffer buffer = LmdbSource.fill(ByteBuffer.allocateDirect(key.size()), key);
+    return cursor.get(buffer, GetOp.MDB_SET_RANGE);
+  }
+
+  private void moved(boolean found) {
+    current = found ? LmdbSource.copy(cursor.key()) : null;
+  }
+}
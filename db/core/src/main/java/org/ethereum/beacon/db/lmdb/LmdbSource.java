@@ -0,0 +1,287 @@
+package org.ethereum.beacon.db.lmdb;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javax.annotation.Nonnull;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.ethereum.beacon.db.source.DataSourceIterator;
+import org.ethereum.beacon.db.source.KeyRange;
+import org.ethereum.beacon.db.source.OrderedDataSource;
+import org.ethereum.beacon.db.source.StorageEngineSource;
+import org.ethereum.beacon.db.util.AutoCloseableLock;
+import org.lmdbjava.Dbi;
+import org.lmdbjava.DbiFlags;
+import org.lmdbjava.Env;
+import org.lmdbjava.EnvFlags;
+import org.lmdbjava.LmdbException;
+import org.lmdbjava.Txn;
+import tech.pegasys.artemis.util.bytes.BytesValue;
+
+/**
+ * Data source supplied by <a href="https://symas.com/lmdb/">LMDB</a> storage engine, a
+ * memory-mapped B+tree.
+ *
+ * <p>Unlike LSM engines LMDB does no background compaction, a write costs a copy-on-write of a
+ * tree path. Readers never block writers and read values straight from the map, hence, {@link
+ * #containsKey(BytesValue)} touches nothing but a tree path.
+ *
+ * <p>Transactions are committed without syncing the map, a batch is atomic but is durable only
+ * after {@link #sync()} or {@link #close()}. A system crash may undo batches written after the
+ * last sync, but doesn't break integrity of the map as long as file system preserves write order.
+ *
+ * <p>The map is reserved with a fixed size given to the constructor, it's a limit of database
+ * size rather than allocated memory or disk space. Keys are ordered bytewise and must not be
+ * longer than {@link #MAX_KEY_SIZE} bytes. Iterators returned by {@link #iterate(KeyRange,
+ * boolean)} hold a read transaction and must be closed before the source is closed.
+ */
+public class LmdbSource
+    implements StorageEngineSource<BytesValue>, OrderedDataSource<BytesValue, BytesValue> {
+
+  private static final Logger logger = LogManager.getLogger(LmdbSource.class);
+
+  /** Default map size, 1Tb of address space. */
+  public static final long DEFAULT_MAP_SIZE = 1L << 40;
+  /** Maximal key size of LMDB built with default settings. */
+  public static final int MAX_KEY_SIZE = 511;
+
+  private static final String DB_NAME = "beacon";
+  private static final int MAX_READERS = 256;
+
+  private final Path dbPath;
+  private final long mapSize;
+
+  private final ReadWriteLock dbLock = new ReentrantReadWriteLock();
+  private final AutoCloseableLock crudLock = AutoCloseableLock.wrap(dbLock.readLock());
+  private final AutoCloseableLock openCloseLock = AutoCloseableLock.wrap(dbLock.writeLock());
+
+  /** LMDB reads keys from native memory, a key is copied to this buffer before each call. */
+  private final ThreadLocal<ByteBuffer> keyBuffer =
+      ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(MAX_KEY_SIZE));
+
+  private Env<ByteBuffer> env;
+  private Dbi<ByteBuffer> db;
+  private boolean opened = false;
+
+  public LmdbSource(Path dbPath) {
+    this(dbPath, DEFAULT_MAP_SIZE);
+  }
+
+  /**
+   * @param dbPath path to database folder.
+   * @param mapSize size of memory map in bytes, maximal size of database.
+   */
+  public LmdbSource(Path dbPath, long mapSize) {
+    this.dbPath = dbPath;
+    this.mapSize = mapSize;
+  }
+
+  @Override
+  public void open() {
+    if (opened) {
+      return;
+    }
+
+    try (AutoCloseableLock l = openCloseLock.lock()) {
+      Files.createDirectories(dbPath);
+      // read transactions are not bound to threads, iterators may be passed between threads;
+      // lookups are random, read-ahead would only pollute page cache;
+      // the map is synced on demand, one sync covers many commits
+      env =
+          Env.create()
+              .setMapSize(mapSize)
+              .setMaxDbs(1)
+              .setMaxReaders(MAX_READERS)
+              .open(
+                  dbPath.toFile(),
+                  EnvFlags.MDB_NOTLS,
+                  EnvFlags.MDB_NORDAHEAD,
+                  EnvFlags.MDB_NOSYNC);
+      db = env.openDbi(DB_NAME, DbiFlags.MDB_CREATE);
+      opened = true;
+    } catch (IOException | LmdbException e) {
+      logger.error("Failed to open database {}: {}", dbPath.toString(), e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public void close() {
+    try (AutoCloseableLock l = openCloseLock.lock()) {
+      db.close();
+      env.sync(true);
+      env.close();
+      opened = false;
+    }
+  }
+
+  @Override
+  public void batchUpdate(Map<BytesValue, BytesValue> updates) {
+    assert opened;
+
+    // values are copied into the map by put, one buffer is reused for the whole batch
+    int maxValueSize = 0;
+    for (BytesValue value : updates.values()) {
+      if (value != null) {
+        maxValueSize = Math.max(maxValueSize, value.size());
+      }
+    }
+    ByteBuffer valueBuffer = ByteBuffer.allocateDirect(maxValueSize);
+
+    try (AutoCloseableLock l = crudLock.lock();
+        Txn<ByteBuffer> txn = env.txnWrite()) {
+      for (Map.Entry<BytesValue, BytesValue> entry : updates.entrySet()) {
+        ByteBuffer key = keyBuffer(entry.getKey());
+        if (entry.getValue() == null) {
+          db.delete(txn, key);
+        } else {
+          db.put(txn, key, fill(valueBuffer, entry.getValue()));
+        }
+      }
+      txn.commit();
+    } catch (LmdbException e) {
+      logger.error("Failed to do batchUpdate: {}", e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public Optional<BytesValue> get(@Nonnull BytesValue key) {
+    assert opened;
+    Objects.requireNonNull(key);
+
+    try (AutoCloseableLock l = crudLock.lock();
+        Txn<ByteBuffer> txn = env.txnRead()) {
+      // returned buffer points to the map and is valid till the end of transaction
+      return Optional.ofNullable(db.get(txn, keyBuffer(key))).map(LmdbSource::copy);
+    } catch (LmdbException e) {
+      logger.error("Failed to get({}): {}", key, e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public boolean containsKey(@Nonnull BytesValue key) {
+    assert opened;
+    Objects.requireNonNull(key);
+
+    try (AutoCloseableLock l = crudLock.lock();
+        Txn<ByteBuffer> txn = env.txnRead()) {
+      return db.get(txn, keyBuffer(key)) != null;
+    } catch (LmdbException e) {
+      logger.error("Failed to containsKey({}): {}", key, e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public Optional<Integer> getSize(@Nonnull BytesValue key) {
+    assert opened;
+    Objects.requireNonNull(key);
+
+    try (AutoCloseableLock l = crudLock.lock();
+        Txn<ByteBuffer> txn = env.txnRead()) {
+      // size is taken without copying the value out of the map
+      return Optional.ofNullable(db.get(txn, keyBuffer(key))).map(ByteBuffer::remaining);
+    } catch (LmdbException e) {
+      logger.error("Failed to getSize({}): {}", key, e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public void put(@Nonnull BytesValue key, @Nonnull BytesValue value) {
+    assert opened;
+    Objects.requireNonNull(key);
+    Objects.requireNonNull(value);
+
+    try (AutoCloseableLock l = crudLock.lock()) {
+      db.put(keyBuffer(key), fill(ByteBuffer.allocateDirect(value.size()), value));
+    } catch (LmdbException e) {
+      logger.error("Failed to put({}, {}): {}", key, value, e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public void remove(@Nonnull BytesValue key) {
+    assert opened;
+    Objects.requireNonNull(key);
+
+    try (AutoCloseableLock l = crudLock.lock()) {
+      db.delete(keyBuffer(key));
+    } catch (LmdbException e) {
+      logger.error("Failed to remove({}): {}", key, e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public DataSourceIterator<BytesValue, BytesValue> iterate(
+      @Nonnull KeyRange<BytesValue> range, boolean reverse) {
+    assert opened;
+    Objects.requireNonNull(range);
+
+    try (AutoCloseableLock l = crudLock.lock()) {
+      Txn<ByteBuffer> txn = env.txnRead();
+      try {
+        return new LmdbIterator(
+            txn,
+            db.openCursor(txn),
+            range.getFrom().orElse(null),
+            range.getTo().orElse(null),
+            reverse);
+      } catch (LmdbException e) {
+        txn.close();
+        throw e;
+      }
+    } catch (LmdbException e) {
+      logger.error("Failed to iterate({}): {}", range, e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public void flush() {
+    // each batch is written on transaction commit
+  }
+
+  @Override
+  public void sync() {
+    assert opened;
+
+    try (AutoCloseableLock l = crudLock.lock()) {
+      env.sync(true);
+    } catch (LmdbException e) {
+      logger.error("Failed to sync: {}", e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+
+  private ByteBuffer keyBuffer(BytesValue key) {
+    if (key.size() > MAX_KEY_SIZE) {
+      throw new IllegalArgumentException("Key is too long: " + key.size());
+    }
+    return fill(keyBuffer.get(), key);
+  }
+
+  static ByteBuffer fill(ByteBuffer buffer, BytesValue value) {
+    buffer.clear();
+    buffer.put(value.getArrayUnsafe());
+    buffer.flip();
+    return buffer;
+  }
+
+  static BytesValue copy(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.duplicate().get(bytes);
+    return BytesValue.wrap(bytes);
+  }
+}
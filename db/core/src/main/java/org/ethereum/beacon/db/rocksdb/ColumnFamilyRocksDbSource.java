@@ -0,0 +1,408 @@
+package org.ethereum.beacon.db.rocksdb;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.ethereum.beacon.db.source.DataSource;
+import org.ethereum.beacon.db.source.DataSourceIterator;
+import org.ethereum.beacon.db.source.KeyRange;
+import org.ethereum.beacon.db.source.OrderedDataSource;
+import org.ethereum.beacon.db.source.StorageEngineSource;
+import org.ethereum.beacon.db.source.impl.PrefixDataSource;
+import org.ethereum.beacon.db.util.AutoCloseableLock;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.ColumnFamilyDescriptor;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ColumnFamilyOptions;
+import org.rocksdb.CompressionType;
+import org.rocksdb.DBOptions;
+import org.rocksdb.DataBlockIndexType;
+import org.rocksdb.Options;
+import org.rocksdb.ReadOptions;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
+import tech.pegasys.artemis.util.bytes.BytesValue;
+import tech.pegasys.artemis.util.bytes.BytesValues;
+
+/**
+ * Data source supplied by <a href="https://github.com/facebook/rocksdb">RocksDB</a> storage engine
+ * which maps each named storage to its own column family.
+ *
+ * <p>Unlike {@link RocksDbSource} every storage gets its own key space and its own options, see
+ * {@link #defaultOptions(String)} for default tuning of known storages.
+ *
+ * <p>Keys that are passed to this source are prefixed with a 2-bytes identifier of column family.
+ * Identifiers are assigned in order of storage creation and are not persisted, hence, they must
+ * not leak out of this source and the source layers above it, e.g. a write buffer.
+ *
+ * <p>Storages are order preserving, a range passed to {@link #iterate(KeyRange, boolean)} must
+ * have a lower bound carrying column family identifier, iteration never crosses family bounds.
+ */
+public class ColumnFamilyRocksDbSource
+    implements StorageEngineSource<BytesValue>, OrderedDataSource<BytesValue, BytesValue> {
+
+  private static final Logger logger = LogManager.getLogger(ColumnFamilyRocksDbSource.class);
+
+  private static final int FAMILY_ID_SIZE = 2;
+  private static final int MAX_FAMILIES = 1 << 16;
+  /** RocksDB copies nothing into a zero length buffer and returns a size of the value. */
+  private static final byte[] NO_VALUE = new byte[0];
+
+  private final Path dbPath;
+  private final Function<String, ColumnFamilyOptions> familyOptions;
+
+  private final ReadWriteLock dbLock = new ReentrantReadWriteLock();
+  private final AutoCloseableLock crudLock = AutoCloseableLock.wrap(dbLock.readLock());
+  private final AutoCloseableLock openCloseLock = AutoCloseableLock.wrap(dbLock.writeLock());
+
+  private final Map<String, Integer> familyIds = new ConcurrentHashMap<>();
+  private final List<ColumnFamilyHandle> handles = new CopyOnWriteArrayList<>();
+  private final List<ColumnFamilyOptions> openedOptions = new CopyOnWriteArrayList<>();
+
+  private ReadOptions readOptions;
+  private RocksDB db;
+  private boolean opened = false;
+
+  public ColumnFamilyRocksDbSource(Path dbPath) {
+    this(dbPath, ColumnFamilyRocksDbSource::defaultOptions);
+  }
+
+  /**
+   * @param dbPath path to database folder.
+   * @param familyOptions supplies options of column family given its storage name.
+   */
+  public ColumnFamilyRocksDbSource(
+      Path dbPath, Function<String, ColumnFamilyOptions> familyOptions) {
+    this.dbPath = dbPath;
+    this.familyOptions = familyOptions;
+  }
+
+  /**
+   * Default options of column families.
+   *
+   * <ul>
+   *   <li>{@code beacon-state}: large blocks with ZSTD compression, states are big and compress
+   *       well;
+   *   <li>{@code beacon-block}: hash index in data blocks optimised for point lookups;
+   *   <li>{@code *-hash}: single value checkpoints, small write buffers without compression;
+   *   <li>others: settings similar to {@link RocksDbSource}.
+   * </ul>
+   *
+   * @param name storage name.
+   * @return column family options.
+   */
+  public static ColumnFamilyOptions defaultOptions(String name) {
+    ColumnFamilyOptions options = new ColumnFamilyOptions();
+    BlockBasedTableConfig tableCfg = new BlockBasedTableConfig();
+    tableCfg.setCacheIndexAndFilterBlocks(true);
+    tableCfg.setPinL0FilterAndIndexBlocksInCache(true);
+
+    switch (name) {
+      case "beacon-state":
+        options.setCompressionType(CompressionType.ZSTD_COMPRESSION);
+        options.setBottommostCompressionType(CompressionType.ZSTD_COMPRESSION);
+        options.setLevelCompactionDynamicLevelBytes(true);
+        tableCfg.setBlockSize(256 * 1024);
+        tableCfg.setBlockCacheSize(64 * 1024 * 1024);
+        tableCfg.setFilter(new BloomFilter(10, false));
+        break;
+      case "beacon-block":
+        options.setCompressionType(CompressionType.LZ4_COMPRESSION);
+        options.setLevelCompactionDynamicLevelBytes(true);
+        tableCfg.setBlockSize(16 * 1024);
+        tableCfg.setBlockCacheSize(32 * 1024 * 1024);
+        tableCfg.setDataBlockIndexType(DataBlockIndexType.kDataBlockBinaryAndHash);
+        tableCfg.setDataBlockHashTableUtilRatio(0.75);
+        tableCfg.setFilter(new BloomFilter(10, false));
+        break;
+      case "justified-hash":
+      case "best-justified-hash":
+      case "finalized-hash":
+        options.setCompressionType(CompressionType.NO_COMPRESSION);
+        options.setWriteBufferSize(64 * 1024);
+        options.setMaxWriteBufferNumber(2);
+        tableCfg.setBlockSize(4 * 1024);
+        tableCfg.setBlockCacheSize(1024 * 1024);
+        break;
+      default:
+        options.setCompressionType(CompressionType.LZ4_COMPRESSION);
+        options.setBottommostCompressionType(CompressionType.ZSTD_COMPRESSION);
+        options.setLevelCompactionDynamicLevelBytes(true);
+        tableCfg.setBlockSize(16 * 1024);
+        tableCfg.setBlockCacheSize(32 * 1024 * 1024);
+        tableCfg.setFilter(new BloomFilter(10, false));
+    }
+
+    options.setTableFormatConfig(tableCfg);
+    return options;
+  }
+
+  @Override
+  public void open() {
+    if (opened) {
+      return;
+    }
+
+    RocksDB.loadLibrary();
+    try (AutoCloseableLock l = openCloseLock.lock();
+        DBOptions options = new DBOptions()) {
+      options.setCreateIfMissing(true);
+      options.setCreateMissingColumnFamilies(true);
+      options.setMaxOpenFiles(512);
+      options.setIncreaseParallelism(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+
+      ColumnFamilyOptions defaultFamilyOptions = new ColumnFamilyOptions();
+      openedOptions.add(defaultFamilyOptions);
+      List<ColumnFamilyDescriptor> descriptors = new ArrayList<>();
+      descriptors.add(
+          new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY, defaultFamilyOptions));
+      for (byte[] name : listExistingFamilies()) {
+        if (!BytesValue.wrap(name).equals(BytesValue.wrap(RocksDB.DEFAULT_COLUMN_FAMILY))) {
+          descriptors.add(new ColumnFamilyDescriptor(name, createOptions(name)));
+        }
+      }
+
+      List<ColumnFamilyHandle> openedHandles = new ArrayList<>();
+      readOptions = new ReadOptions();
+      db = RocksDB.open(options, dbPath.toString(), descriptors, openedHandles);
+
+      handles.clear();
+      familyIds.clear();
+      // default column family is kept to be closed along with others but is not used
+      for (int i = 0; i < openedHandles.size(); i++) {
+        registerFamily(
+            new String(descriptors.get(i).getName(), StandardCharsets.UTF_8), openedHandles.get(i));
+      }
+      opened = true;
+    } catch (RocksDBException e) {
+      logger.error("Failed to open database {}: {}", dbPath.toString(), e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+
+  private List<byte[]> listExistingFamilies() {
+    try (Options options = new Options()) {
+      return RocksDB.listColumnFamilies(options, dbPath.toString());
+    } catch (RocksDBException e) {
+      // database does not exist yet
+      return new ArrayList<>();
+    }
+  }
+
+  private ColumnFamilyOptions createOptions(byte[] name) {
+    ColumnFamilyOptions options = familyOptions.apply(new String(name, StandardCharsets.UTF_8));
+    openedOptions.add(options);
+    return options;
+  }
+
+  private int registerFamily(String name, ColumnFamilyHandle handle) {
+    if (handles.size() >= MAX_FAMILIES) {
+      throw new IllegalStateException("Too many column families: " + handles.size());
+    }
+    handles.add(handle);
+    int id = handles.size() - 1;
+    familyIds.put(name, id);
+    return id;
+  }
+
+  @Override
+  public synchronized DataSource<BytesValue, BytesValue> createStorage(
+      String name, DataSource<BytesValue, BytesValue> upstream) {
+    assert opened;
+    Integer id = familyIds.get(name);
+    if (id == null) {
+      byte[] familyName = name.getBytes(StandardCharsets.UTF_8);
+      try (AutoCloseableLock l = crudLock.lock()) {
+        ColumnFamilyDescriptor descriptor =
+            new ColumnFamilyDescriptor(familyName, createOptions(familyName));
+        ColumnFamilyHandle handle = db.createColumnFamily(descriptor);
+        id = registerFamily(name, handle);
+      } catch (RocksDBException e) {
+        logger.error("Failed to create column family {}: {}", name, e.getMessage());
+        throw new RuntimeException(e);
+      }
+    }
+
+    BytesValue prefix = BytesValues.ofUnsignedShort(id);
+    return new PrefixDataSource<>(upstream, prefix);
+  }
+
+  @Override
+  public void close() {
+    try (AutoCloseableLock l = openCloseLock.lock()) {
+      for (ColumnFamilyHandle handle : handles) {
+        handle.close();
+      }
+      db.close();
+      for (ColumnFamilyOptions options : openedOptions) {
+        options.close();
+      }
+      handles.clear();
+      familyIds.clear();
+      openedOptions.clear();
+      readOptions.close();
+      opened = false;
+    }
+  }
+
+  @Override
+  public void batchUpdate(Map<BytesValue, BytesValue> updates) {
+    assert opened;
+    try (AutoCloseableLock l = crudLock.lock();
+        WriteBatch batch = new WriteBatch();
+        WriteOptions writeOptions = new WriteOptions()) {
+      for (Map.Entry<BytesValue, BytesValue> entry : updates.entrySet()) {
+        ColumnFamilyHandle handle = family(entry.getKey());
+        byte[] key = storageKey(entry.getKey());
+        if (entry.getValue() == null) {
+          batch.remove(handle, key);
+        } else {
+          batch.put(handle, key, entry.getValue().getArrayUnsafe());
+        }
+      }
+      db.write(writeOptions, batch);
+    } catch (RocksDBException e) {
+      logger.error("Failed to do batchUpdate: {}", e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public Optional<BytesValue> get(@Nonnull BytesValue key) {
+    assert opened;
+    Objects.requireNonNull(key);
+
+    try (AutoCloseableLock l = crudLock.lock()) {
+      return Optional.ofNullable(db.get(family(key), readOptions, storageKey(key)))
+          .map(BytesValue::wrap);
+    } catch (RocksDBException e) {
+      logger.error("Failed to get({}): {}", key, e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public boolean containsKey(@Nonnull BytesValue key) {
+    assert opened;
+    Objects.requireNonNull(key);
+
+    try (AutoCloseableLock l = crudLock.lock()) {
+      return db.get(family(key), readOptions, storageKey(key), NO_VALUE) != RocksDB.NOT_FOUND;
+    } catch (RocksDBException e) {
+      logger.error("Failed to containsKey({}): {}", key, e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public Optional<Integer> getSize(@Nonnull BytesValue key) {
+    assert opened;
+    Objects.requireNonNull(key);
+
+    try (AutoCloseableLock l = crudLock.lock()) {
+      int size = db.get(family(key), readOptions, storageKey(key), NO_VALUE);
+      return size == RocksDB.NOT_FOUND ? Optional.empty() : Optional.of(size);
+    } catch (RocksDBException e) {
+      logger.error("Failed to getSize({}): {}", key, e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public void put(@Nonnull BytesValue key, @Nonnull BytesValue value) {
+    assert opened;
+    Objects.requireNonNull(key);
+    Objects.requireNonNull(value);
+
+    try (AutoCloseableLock l = crudLock.lock()) {
+      db.put(family(key), storageKey(key), value.getArrayUnsafe());
+    } catch (RocksDBException e) {
+      logger.error("Failed to put({}, {}): {}", key, value, e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public void remove(@Nonnull BytesValue key) {
+    assert opened;
+    Objects.requireNonNull(key);
+
+    try (AutoCloseableLock l = crudLock.lock()) {
+      db.delete(family(key), storageKey(key));
+    } catch (RocksDBException e) {
+      logger.error("Failed to remove({}): {}", key, e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public DataSourceIterator<BytesValue, BytesValue> iterate(
+      @Nonnull KeyRange<BytesValue> range, boolean reverse) {
+    assert opened;
+    BytesValue from =
+        range
+            .getFrom()
+            .filter(key -> key.size() >= FAMILY_ID_SIZE)
+            .orElseThrow(
+                () -> new IllegalArgumentException("Range is missing column family: " + range));
+    BytesValue prefix = from.slice(0, FAMILY_ID_SIZE);
+    // upper bound outside of the family means that the rest of the family is iterated over
+    BytesValue to =
+        range
+            .getTo()
+            .filter(key -> key.size() >= FAMILY_ID_SIZE)
+            .filter(key -> key.slice(0, FAMILY_ID_SIZE).equals(prefix))
+            .map(key -> key.slice(FAMILY_ID_SIZE))
+            .orElse(null);
+
+    try (AutoCloseableLock l = crudLock.lock()) {
+      return new RocksDbIterator(
+          db.newIterator(family(from)),
+          from.slice(FAMILY_ID_SIZE),
+          to,
+          reverse,
+          key -> BytesValue.wrap(prefix, key));
+    }
+  }
+
+  @Override
+  public void flush() {
+    // flushes are managed by RocksDB
+  }
+
+  @Override
+  public void sync() {
+    assert opened;
+    // write-ahead log is shared by column families
+    try (AutoCloseableLock l = crudLock.lock()) {
+      db.flushWal(true);
+    } catch (RocksDBException e) {
+      logger.error("Failed to sync: {}", e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+
+  private ColumnFamilyHandle family(BytesValue key) {
+    int id = ((key.get(0) & 0xFF) << 8) | (key.get(1) & 0xFF);
+    return handles.get(id);
+  }
+
+  private static byte[] storageKey(BytesValue key) {
+    return key.slice(FAMILY_ID_SIZE).getArrayUnsafe();
+  }
+}
@@ -0,0 +1,94 @@
+package org.ethereum.beacon.db.rocksdb;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import org.ethereum.beacon.db.source.DataSourceIterator;
+import org.rocksdb.RocksIterator;
+import tech.pegasys.artemis.util.bytes.BytesValue;
+
+/**
+ * Iterates over a range of RocksDB keys in either direction.
+ *
+ * <p><strong>Note:</strong> iterator must be closed before the database is closed.
+ */
+class RocksDbIterator implements DataSourceIterator<BytesValue, BytesValue> {
+
+  private final RocksIterator iterator;
+  private final BytesValue lower;
+  private final BytesValue upper;
+  private final boolean reverse;
+  private final Function<BytesValue, BytesValue> keyMapper;
+
+  /**
+   * @param iterator RocksDB iterator.
+   * @param lower lower bound, inclusive, or {@code null}.
+   * @param upper upper bound, exclusive, or {@code null}.
+   * @param reverse whether iteration is done in descending order.
+   * @param keyMapper maps engine keys to keys returned by iterator.
+   */
+  RocksDbIterator(
+      RocksIterator iterator,
+      BytesValue lower,
+      BytesValue upper,
+      boolean reverse,
+      Function<BytesValue, BytesValue> keyMapper) {
+    this.iterator = iterator;
+    this.lower = lower;
+    this.upper = upper;
+    this.reverse = reverse;
+    this.keyMapper = keyMapper;
+
+    if (reverse) {
+      if (upper != null) {
+        iterator.seekForPrev(upper.getArrayUnsafe());
+        if (iterator.isValid() && BytesValue.wrap(iterator.key()).equals(upper)) {
+          iterator.prev();
+        }
+      } else {
+        iterator.seekToLast();
+      }
+    } else {
+      if (lower != null) {
+        iterator.seek(lower.getArrayUnsafe());
+      } else {
+        iterator.seekToFirst();
+      }
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (!iterator.isValid()) {
+      return false;
+    }
+    BytesValue key = BytesValue.wrap(iterator.key());
+    if (reverse) {
+      return lower == null || key.compareTo(lower) >= 0;
+    } else {
+      return upper == null || key.compareTo(upper) < 0;
+    }
+  }
+
+  @Override
+  public Map.Entry<BytesValue, BytesValue> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    Map.Entry<BytesValue, BytesValue> entry =
+        new SimpleImmutableEntry<>(
+            keyMapper.apply(BytesValue.wrap(iterator.key())), BytesValue.wrap(iterator.value()));
+    if (reverse) {
+      iterator.prev();
+    } else {
+      iterator.next();
+    }
+    return entry;
+  }
+
+  @Override
+  public void close() {
+    iterator.close();
+  }
+}
@@ -9,6 +9,9 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 import javax.annotation.Nonnull;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.ethereum.beacon.db.source.DataSourceIterator;
+import org.ethereum.beacon.db.source.KeyRange;
+import org.ethereum.beacon.db.source.OrderedDataSource;
 import org.ethereum.beacon.db.source.StorageEngineSource;
 import org.ethereum.beacon.db.util.AutoCloseableLock;
 import org.rocksdb.BlockBasedTableConfig;
@@ -24,11 +27,18 @@ import tech.pegasys.artemis.util.bytes.BytesValue;
 
 /**
  * Data source supplied by <a href="https://github.com/facebook/rocksdb">RocksDB</a> storage engine.
+ *
+ * <p>Keys are ordered bytewise, iterators returned by {@link #iterate(KeyRange, boolean)} must be
+ * closed before the source is closed.
  */
-public class RocksDbSource implements StorageEngineSource<BytesValue> {
+public class RocksDbSource
+    implements StorageEngineSource<BytesValue>, OrderedDataSource<BytesValue, BytesValue> {
 
   private static final Logger logger = LogManager.getLogger(RocksDbSource.class);
 
+  /** RocksDB copies nothing into a zero length buffer and returns a size of the value. */
+  private static final byte[] NO_VALUE = new byte[0];
+
   private ReadOptions readOptions;
   private final Path dbPath;
 
@@ -120,6 +130,33 @@ public class RocksDbSource implements StorageEngineSource<BytesValue> {
     }
   }
 
+  @Override
+  public boolean containsKey(@Nonnull BytesValue key) {
+    assert opened;
+    Objects.requireNonNull(key);
+
+    try (AutoCloseableLock l = crudLock.lock()) {
+      return db.get(readOptions, key.getArrayUnsafe(), NO_VALUE) != RocksDB.NOT_FOUND;
+    } catch (RocksDBException e) {
+      logger.error("Failed to containsKey({}): {}", key, e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public Optional<Integer> getSize(@Nonnull BytesValue key) {
+    assert opened;
+    Objects.requireNonNull(key);
+
+    try (AutoCloseableLock l = crudLock.lock()) {
+      int size = db.get(readOptions, key.getArrayUnsafe(), NO_VALUE);
+      return size == RocksDB.NOT_FOUND ? Optional.empty() : Optional.of(size);
+    } catch (RocksDBException e) {
+      logger.error("Failed to getSize({}): {}", key, e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+
   @Override
   public void put(@Nonnull BytesValue key, @Nonnull BytesValue value) {
     assert opened;
@@ -147,8 +184,36 @@ public class RocksDbSource implements StorageEngineSource<BytesValue> {
     }
   }
 
+  @Override
+  public DataSourceIterator<BytesValue, BytesValue> iterate(
+      @Nonnull KeyRange<BytesValue> range, boolean reverse) {
+    assert opened;
+    Objects.requireNonNull(range);
+
+    try (AutoCloseableLock l = crudLock.lock()) {
+      return new RocksDbIterator(
+          db.newIterator(),
+          range.getFrom().orElse(null),
+          range.getTo().orElse(null),
+          reverse,
+          key -> key);
+    }
+  }
+
   @Override
   public void flush() {
     // flushes are managed by RocksDB
   }
+
+  @Override
+  public void sync() {
+    assert opened;
+    // batches are written to write-ahead log without sync, one sync makes all of them durable
+    try (AutoCloseableLock l = crudLock.lock()) {
+      db.flushWal(true);
+    } catch (RocksDBException e) {
+      logger.error("Failed to sync: {}", e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
 }
@@ -0,0 +1,291 @@
+package org.ethereum.beacon.db.source;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import tech.pegasys.artemis.util.bytes.BytesValue;
+
+/**
+ * Writes batches of updates to upstream source in a background thread.
+ *
+ * <p>A batch passed to {@link #batchUpdate(Map)} is queued and becomes immediately visible to
+ * readers of this source. Batches are written to upstream one by one in order of their arrival and
+ * are dropped from memory once written. If a key is present in several queued batches then the
+ * latest value is returned.
+ *
+ * <p>A number of batches in flight is limited, when the limit is reached {@link
+ * #batchUpdate(Map)} blocks until the oldest batch is written. {@link #flush()} blocks until all
+ * queued batches are written.
+ *
+ * <p>If upstream fails to write a batch then the rest of the batches are not written and the
+ * error is rethrown by subsequent calls to {@link #batchUpdate(Map)} and {@link #flush()}.
+ *
+ * @param <K> a key type.
+ * @param <V> a value type.
+ */
+public class BackgroundWriteSource<K, V> extends AbstractLinkedDataSource<K, V, K, V>
+    implements BatchUpdateDataSource<K, V> {
+
+  private static final Logger logger = LogManager.getLogger(BackgroundWriteSource.class);
+
+  /** Queued batches, the oldest goes first. Guarded by {@code this}. */
+  private final Deque<Map<K, V>> inFlight = new ArrayDeque<>();
+  private final int maxBatchesInFlight;
+  private final ExecutorService writer;
+
+  private volatile Throwable writeError;
+
+  private final AtomicLong stalls = new AtomicLong();
+  private final AtomicLong stallTime = new AtomicLong();
+
+  /**
+   * @param upstreamSource upstream source.
+   * @param maxBatchesInFlight a number of batches that may be queued without blocking a writer.
+   * @param upstreamFlush whether upstream source should be flushed during {@link #flush()}.
+   */
+  public BackgroundWriteSource(
+      @Nonnull final DataSource<K, V> upstreamSource,
+      final int maxBatchesInFlight,
+      final boolean upstreamFlush) {
+    super(upstreamSource, upstreamFlush);
+    if (maxBatchesInFlight < 1) {
+      throw new IllegalArgumentException(
+          "Number of batches in flight must be positive: " + maxBatchesInFlight);
+    }
+    this.maxBatchesInFlight = maxBatchesInFlight;
+    this.writer =
+        Executors.newSingleThreadExecutor(
+            r -> {
+              Thread t = new Thread(r, "db-background-write");
+              t.setDaemon(true);
+              return t;
+            });
+  }
+
+  /**
+   * Queues a batch of updates.
+   *
+   * <p><strong>Note:</strong> the batch is kept by reference till it's written, hence, it must not
+   * be modified by a caller.
+   *
+   * @param updates a batch of updates.
+   */
+  @Override
+  public void batchUpdate(Map<K, V> updates) {
+    Objects.requireNonNull(updates);
+    if (updates.isEmpty()) {
+      return;
+    }
+
+    synchronized (this) {
+      checkWriteError();
+      if (inFlight.size() >= maxBatchesInFlight) {
+        long start = System.nanoTime();
+        while (inFlight.size() >= maxBatchesInFlight) {
+          waitForWriter();
+          checkWriteError();
+        }
+        long stalled = System.nanoTime() - start;
+        stalls.incrementAndGet();
+        stallTime.addAndGet(stalled);
+        logger.debug("Writes stalled for {} ms by background flush", stalled / 1_000_000);
+      }
+      inFlight.addLast(updates);
+      // submitted while holding the lock to keep order of batches
+      writer.execute(() -> write(updates));
+    }
+  }
+
+  @Override
+  public Optional<V> get(@Nonnull K key) {
+    Objects.requireNonNull(key);
+
+    synchronized (this) {
+      Iterator<Map<K, V>> newestFirst = inFlight.descendingIterator();
+      while (newestFirst.hasNext()) {
+        Map<K, V> batch = newestFirst.next();
+        if (batch.containsKey(key)) {
+          return Optional.ofNullable(batch.get(key));
+        }
+      }
+    }
+    // a batch is dequeued only after it's been written, thus, upstream is up to date here
+    return getUpstream().get(key);
+  }
+
+  @Override
+  public boolean containsKey(@Nonnull K key) {
+    Objects.requireNonNull(key);
+
+    synchronized (this) {
+      Iterator<Map<K, V>> newestFirst = inFlight.descendingIterator();
+      while (newestFirst.hasNext()) {
+        Map<K, V> batch = newestFirst.next();
+        if (batch.containsKey(key)) {
+          return batch.get(key) != null;
+        }
+      }
+    }
+    return getUpstream().containsKey(key);
+  }
+
+  @Override
+  public Optional<Integer> getSize(@Nonnull K key) {
+    Objects.requireNonNull(key);
+
+    synchronized (this) {
+      Iterator<Map<K, V>> newestFirst = inFlight.descendingIterator();
+      while (newestFirst.hasNext()) {
+        Map<K, V> batch = newestFirst.next();
+        if (batch.containsKey(key)) {
+          return Optional.ofNullable(batch.get(key))
+              .filter(BytesValue.class::isInstance)
+              .map(v -> ((BytesValue) v).size());
+        }
+      }
+    }
+    return getUpstream().getSize(key);
+  }
+
+  @Override
+  public void put(@Nonnull K key, @Nonnull V value) {
+    Objects.requireNonNull(key);
+    Objects.requireNonNull(value);
+    batchUpdate(Collections.singletonMap(key, value));
+  }
+
+  @Override
+  public void remove(@Nonnull K key) {
+    Objects.requireNonNull(key);
+    batchUpdate(Collections.singletonMap(key, null));
+  }
+
+  /** Ordered if upstream source is ordered, queued batches are merged with upstream entries. */
+  @Override
+  public Optional<OrderedDataSource<K, V>> ordered() {
+    return getUpstream()
+        .ordered()
+        .map(
+            upstream ->
+                OrderedDataSource.view(this, (range, reverse) -> iterate(upstream, range, reverse)));
+  }
+
+  private DataSourceIterator<K, V> iterate(
+      OrderedDataSource<K, V> upstreamSource, KeyRange<K> range, boolean reverse) {
+    Objects.requireNonNull(range);
+
+    Comparator<? super K> comparator = range.getComparator();
+    if (reverse) {
+      comparator = Collections.reverseOrder(comparator);
+    }
+    TreeMap<K, Optional<V>> queued = new TreeMap<>(comparator);
+    DataSourceIterator<K, V> upstream;
+    synchronized (this) {
+      // the newest batches override the oldest ones
+      for (Map<K, V> batch : inFlight) {
+        batch.forEach(
+            (key, value) -> {
+              if (range.contains(key)) {
+                queued.put(key, Optional.ofNullable(value));
+              }
+            });
+      }
+      upstream = upstreamSource.iterate(range, reverse);
+    }
+
+    return new MergingIterator<>(queued.entrySet().iterator(), upstream, comparator);
+  }
+
+  /** Blocks until all queued batches are written. */
+  @Override
+  protected void doFlush() {
+    synchronized (this) {
+      while (!inFlight.isEmpty()) {
+        checkWriteError();
+        waitForWriter();
+      }
+      checkWriteError();
+    }
+  }
+
+  /** Writes queued batches and stops background thread. */
+  public void close() {
+    try {
+      flush();
+    } finally {
+      writer.shutdown();
+    }
+  }
+
+  /** @return a number of batches that are not yet written. */
+  public synchronized int getBatchesInFlight() {
+    return inFlight.size();
+  }
+
+  /** @return a number of times writers were blocked due to batches in flight limit. */
+  public long getStalls() {
+    return stalls.get();
+  }
+
+  /** @return total time in nanoseconds writers were blocked due to batches in flight limit. */
+  public long getStallTime() {
+    return stallTime.get();
+  }
+
+  private void write(Map<K, V> batch) {
+    if (writeError == null) {
+      try {
+        if (getUpstream() instanceof BatchUpdateDataSource) {
+          ((BatchUpdateDataSource<K, V>) getUpstream()).batchUpdate(batch);
+        } else {
+          batch.forEach(
+              (key, value) -> {
+                if (value == null) {
+                  getUpstream().remove(key);
+                } else {
+                  getUpstream().put(key, value);
+                }
+              });
+        }
+      } catch (Throwable t) {
+        logger.error("Failed to write a batch of {} updates", batch.size(), t);
+        writeError = t;
+      }
+    }
+
+    synchronized (this) {
+      // failed batch is kept to serve reads
+      if (writeError == null) {
+        inFlight.removeFirst();
+      }
+      notifyAll();
+    }
+  }
+
+  private void waitForWriter() {
+    try {
+      wait();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for background write", e);
+    }
+  }
+
+  private void checkWriteError() {
+    if (writeError != null) {
+      throw new IllegalStateException("Background write failed", writeError);
+    }
+  }
+}
@@ -49,6 +49,22 @@ public class CodecSource<KeyType, ValueType, UpKeyType, UpValueType> extends
     return getUpstream().get(keyCoder.apply(key)).map(valueDecoder);
   }
 
+  /**
+   * Checks upstream for the key without decoding a value
+   */
+  @Override
+  public boolean containsKey(@Nonnull final KeyType key) {
+    return getUpstream().containsKey(keyCoder.apply(key));
+  }
+
+  /**
+   * Returns a size of encoded value kept by upstream
+   */
+  @Override
+  public Optional<Integer> getSize(@Nonnull final KeyType key) {
+    return getUpstream().getSize(keyCoder.apply(key));
+  }
+
   @Override
   public void put(@Nonnull final KeyType key, @Nonnull final ValueType value) {
     getUpstream().put(keyCoder.apply(key), valueCoder.apply(value));
@@ -44,4 +44,17 @@ public interface DataSource<KeyType, ValueType> extends ReadonlyDataSource<KeyTy
    * storage this method should do nothing.
    */
   void flush();
+
+  /**
+   * Returns this source as {@link OrderedDataSource} if its entries can be iterated over in order
+   * of their keys.
+   *
+   * <p>A source linked to an upstream is usually ordered only if its upstream is ordered, hence,
+   * this capability is checked at runtime rather than by a type of the source.
+   *
+   * @return ordered view of this source, or nothing if this source is not ordered.
+   */
+  default Optional<OrderedDataSource<KeyType, ValueType>> ordered() {
+    return Optional.empty();
+  }
 }
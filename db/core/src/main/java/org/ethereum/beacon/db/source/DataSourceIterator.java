@@ -0,0 +1,40 @@
+package org.ethereum.beacon.db.source;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * An iterator over data source entries. Iterator may hold underlying resources, hence, it MUST be
+ * closed after use.
+ *
+ * @param <K> a key type.
+ * @param <V> a value type.
+ */
+public interface DataSourceIterator<K, V> extends Iterator<Map.Entry<K, V>>, AutoCloseable {
+
+  @Override
+  void close();
+
+  /**
+   * Wraps an iterator which holds no resources.
+   *
+   * @param iterator an iterator.
+   * @return data source iterator.
+   */
+  static <K, V> DataSourceIterator<K, V> wrap(Iterator<Map.Entry<K, V>> iterator) {
+    return new DataSourceIterator<K, V>() {
+      @Override
+      public void close() {}
+
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public Map.Entry<K, V> next() {
+        return iterator.next();
+      }
+    };
+  }
+}
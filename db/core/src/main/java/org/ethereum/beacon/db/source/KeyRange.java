@@ -0,0 +1,90 @@
+package org.ethereum.beacon.db.source;
+
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import tech.pegasys.artemis.util.bytes.BytesValue;
+import tech.pegasys.artemis.util.bytes.MutableBytesValue;
+
+/**
+ * A range of keys, lower bound is inclusive, upper bound is exclusive. Missing bound means that
+ * the range is unbounded from that side.
+ *
+ * <p>{@link BytesValue} keys are compared in lexicographic order of unsigned bytes, which is the
+ * order of keys in storage engines like RocksDB.
+ *
+ * @param <K> a key type.
+ */
+public final class KeyRange<K> {
+
+  private final K from;
+  private final K to;
+  private final Comparator<? super K> comparator;
+
+  private KeyRange(@Nullable K from, @Nullable K to, @Nonnull Comparator<? super K> comparator) {
+    this.from = from;
+    this.to = to;
+    this.comparator = Objects.requireNonNull(comparator);
+  }
+
+  public static <K> KeyRange<K> of(
+      @Nullable K from, @Nullable K to, @Nonnull Comparator<? super K> comparator) {
+    return new KeyRange<>(from, to, comparator);
+  }
+
+  /** A range covering all keys. */
+  public static KeyRange<BytesValue> all() {
+    return new KeyRange<>(null, null, Comparator.naturalOrder());
+  }
+
+  /** Keys from {@code from} inclusively till {@code to} exclusively. */
+  public static KeyRange<BytesValue> between(@Nullable BytesValue from, @Nullable BytesValue to) {
+    return new KeyRange<>(from, to, Comparator.naturalOrder());
+  }
+
+  /** All keys starting with given prefix. */
+  public static KeyRange<BytesValue> prefix(@Nonnull BytesValue prefix) {
+    return new KeyRange<>(prefix, nextPrefix(prefix).orElse(null), Comparator.naturalOrder());
+  }
+
+  /**
+   * Calculates the smallest value which is greater than any value starting with given prefix.
+   *
+   * @param prefix a prefix.
+   * @return next prefix, or nothing if the prefix consists of {@code 0xFF} bytes only.
+   */
+  public static Optional<BytesValue> nextPrefix(@Nonnull BytesValue prefix) {
+    for (int i = prefix.size() - 1; i >= 0; i--) {
+      if ((prefix.get(i) & 0xFF) != 0xFF) {
+        MutableBytesValue next = prefix.slice(0, i + 1).mutableCopy();
+        next.set(i, (byte) (next.get(i) + 1));
+        return Optional.of(next);
+      }
+    }
+    return Optional.empty();
+  }
+
+  public Optional<K> getFrom() {
+    return Optional.ofNullable(from);
+  }
+
+  public Optional<K> getTo() {
+    return Optional.ofNullable(to);
+  }
+
+  public Comparator<? super K> getComparator() {
+    return comparator;
+  }
+
+  public boolean contains(@Nonnull K key) {
+    return (from == null || comparator.compare(key, from) >= 0)
+        && (to == null || comparator.compare(key, to) < 0);
+  }
+
+  @Override
+  public String toString() {
+    return "[" + (from == null ? "" : from) + ", " + (to == null ? "" : to) + ")";
+  }
+}
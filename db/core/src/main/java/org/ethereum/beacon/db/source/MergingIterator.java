@@ -0,0 +1,87 @@
+package org.ethereum.beacon.db.source;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * Merges in-memory changes with upstream entries, both are sorted in the same order. Changes take
+ * precedence over upstream entries, removals are denoted by empty values and are skipped.
+ *
+ * @param <K> a key type.
+ * @param <V> a value type.
+ */
+final class MergingIterator<K, V> implements DataSourceIterator<K, V> {
+  private final Iterator<Map.Entry<K, Optional<V>>> changes;
+  private final DataSourceIterator<K, V> upstream;
+  private final Comparator<? super K> comparator;
+
+  private Map.Entry<K, Optional<V>> nextChange;
+  private Map.Entry<K, V> nextUpstream;
+  private Map.Entry<K, V> next;
+
+  MergingIterator(
+      Iterator<Map.Entry<K, Optional<V>>> changes,
+      DataSourceIterator<K, V> upstream,
+      Comparator<? super K> comparator) {
+    this.changes = changes;
+    this.upstream = upstream;
+    this.comparator = comparator;
+    this.nextChange = changes.hasNext() ? changes.next() : null;
+    this.nextUpstream = upstream.hasNext() ? upstream.next() : null;
+    this.next = advance();
+  }
+
+  private Map.Entry<K, V> advance() {
+    while (nextChange != null || nextUpstream != null) {
+      int cmp;
+      if (nextChange == null) {
+        cmp = 1;
+      } else if (nextUpstream == null) {
+        cmp = -1;
+      } else {
+        cmp = comparator.compare(nextChange.getKey(), nextUpstream.getKey());
+      }
+
+      if (cmp > 0) {
+        Map.Entry<K, V> ret = nextUpstream;
+        nextUpstream = upstream.hasNext() ? upstream.next() : null;
+        return ret;
+      }
+
+      Map.Entry<K, Optional<V>> change = nextChange;
+      nextChange = changes.hasNext() ? changes.next() : null;
+      if (cmp == 0) {
+        // change overrides upstream entry
+        nextUpstream = upstream.hasNext() ? upstream.next() : null;
+      }
+      if (change.getValue().isPresent()) {
+        return new SimpleImmutableEntry<>(change.getKey(), change.getValue().get());
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return next != null;
+  }
+
+  @Override
+  public Map.Entry<K, V> next() {
+    if (next == null) {
+      throw new NoSuchElementException();
+    }
+    Map.Entry<K, V> ret = next;
+    next = advance();
+    return ret;
+  }
+
+  @Override
+  public void close() {
+    upstream.close();
+  }
+}
@@ -0,0 +1,98 @@
+package org.ethereum.beacon.db.source;
+
+import java.util.Optional;
+import java.util.function.BiFunction;
+import javax.annotation.Nonnull;
+
+/**
+ * A {@link DataSource} which keys are ordered and can be iterated over.
+ *
+ * @param <KeyType> a key type.
+ * @param <ValueType> a value type.
+ */
+public interface OrderedDataSource<KeyType, ValueType> extends DataSource<KeyType, ValueType> {
+
+  /**
+   * Iterates over entries which keys fall into given range.
+   *
+   * <p><strong>Note:</strong> returned iterator MUST be closed after use.
+   *
+   * @param range a range of keys.
+   * @param reverse if {@code true} entries are iterated in descending order of keys, otherwise,
+   *     in ascending order.
+   * @return an iterator.
+   */
+  DataSourceIterator<KeyType, ValueType> iterate(
+      @Nonnull KeyRange<KeyType> range, boolean reverse);
+
+  /**
+   * Iterates over entries which keys fall into given range in ascending order.
+   *
+   * @param range a range of keys.
+   * @return an iterator.
+   * @see #iterate(KeyRange, boolean)
+   */
+  default DataSourceIterator<KeyType, ValueType> iterate(@Nonnull KeyRange<KeyType> range) {
+    return iterate(range, false);
+  }
+
+  @Override
+  default Optional<OrderedDataSource<KeyType, ValueType>> ordered() {
+    return Optional.of(this);
+  }
+
+  /**
+   * Creates an ordered view of a source which reads and writes go to the source itself.
+   *
+   * @param source a source.
+   * @param iteration iterates over entries of the source, accepts a range and a reverse flag.
+   * @param <K> a key type.
+   * @param <V> a value type.
+   * @return ordered view.
+   */
+  static <K, V> OrderedDataSource<K, V> view(
+      @Nonnull DataSource<K, V> source,
+      @Nonnull BiFunction<KeyRange<K>, Boolean, DataSourceIterator<K, V>> iteration) {
+    return new OrderedDataSource<K, V>() {
+      @Override
+      public DataSourceIterator<K, V> iterate(@Nonnull KeyRange<K> range, boolean reverse) {
+        return iteration.apply(range, reverse);
+      }
+
+      @Override
+      public Optional<V> get(@Nonnull K key) {
+        return source.get(key);
+      }
+
+      @Override
+      public boolean containsKey(@Nonnull K key) {
+        return source.containsKey(key);
+      }
+
+      @Override
+      public Optional<Integer> getSize(@Nonnull K key) {
+        return source.getSize(key);
+      }
+
+      @Override
+      public void put(@Nonnull K key, @Nonnull V value) {
+        source.put(key, value);
+      }
+
+      @Override
+      public void remove(@Nonnull K key) {
+        source.remove(key);
+      }
+
+      @Override
+      public void flush() {
+        source.flush();
+      }
+
+      @Override
+      public String toString() {
+        return "Ordered(" + source + ")";
+      }
+    };
+  }
+}
@@ -0,0 +1,250 @@
+package org.ethereum.beacon.db.source;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import tech.pegasys.artemis.util.bytes.BytesValue;
+
+/**
+ * A read-through cache of upstream entries. Writes are passed to the upstream immediately and
+ * written values are cached as well.
+ *
+ * <p>Uses segmented LRU eviction policy: an entry read from upstream lands in a probationary
+ * segment and is promoted to a protected segment on a subsequent hit. The protected segment is
+ * limited by {@link #PROTECTED_SEGMENT_RATIO} of total cache size, when it's exceeded its least
+ * recently used entries are moved back to the probationary segment. When total size is exceeded
+ * least recently used entries of the probationary segment are evicted first. Hence, a single scan
+ * over many entries can't wash out frequently used entries.
+ *
+ * <p>Size of the cache is evaluated by {@link CacheSizeEvaluator}, thus, it can sit either on top
+ * of raw byte storage or on top of {@link CodecSource} caching decoded objects.
+ *
+ * <p>Missing entries are not cached.
+ *
+ * <p>As writes are passed through, this source is {@link #ordered()} if upstream source is, in
+ * that case iteration is delegated to the upstream.
+ *
+ * @param <K> a key type.
+ * @param <V> a value type.
+ */
+public class ReadCache<K, V> extends AbstractLinkedDataSource<K, V, K, V>
+    implements CacheDataSource<K, V> {
+
+  /** A share of cache size that is given to protected segment. */
+  public static final double PROTECTED_SEGMENT_RATIO = 0.8;
+
+  private final LinkedHashMap<K, V> probation = new LinkedHashMap<>(16, .75F, true);
+  private final LinkedHashMap<K, V> protectedSegment = new LinkedHashMap<>(16, .75F, true);
+
+  private final CacheSizeEvaluator<K, V> probationSize;
+  private final CacheSizeEvaluator<K, V> protectedSize;
+  private final long sizeLimit;
+  private final long protectedSizeLimit;
+
+  /** Incremented on every update, used to detect upstream reads racing with updates. */
+  private long updateCounter = 0;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * @param upstreamSource upstream source.
+   * @param keyEvaluator evaluates a size of a key.
+   * @param valueEvaluator evaluates a size of a value.
+   * @param sizeLimit cache size limit in units of evaluators.
+   * @param upstreamFlush whether upstream source should be flushed during {@link #flush()}.
+   */
+  public ReadCache(
+      @Nonnull final DataSource<K, V> upstreamSource,
+      @Nonnull final Function<K, Long> keyEvaluator,
+      @Nonnull final Function<V, Long> valueEvaluator,
+      final long sizeLimit,
+      final boolean upstreamFlush) {
+    super(upstreamSource, upstreamFlush);
+    Objects.requireNonNull(keyEvaluator);
+    Objects.requireNonNull(valueEvaluator);
+
+    this.probationSize = CacheSizeEvaluator.getInstance(keyEvaluator, valueEvaluator);
+    this.protectedSize = CacheSizeEvaluator.getInstance(keyEvaluator, valueEvaluator);
+    this.sizeLimit = sizeLimit;
+    this.protectedSizeLimit = (long) (sizeLimit * PROTECTED_SEGMENT_RATIO);
+  }
+
+  @Override
+  public Optional<V> get(@Nonnull final K key) {
+    Objects.requireNonNull(key);
+
+    long counter;
+    synchronized (this) {
+      V value = probation.remove(key);
+      if (value != null) {
+        probationSize.removed(key, value);
+        promote(key, value);
+      } else {
+        value = protectedSegment.get(key);
+      }
+      if (value != null) {
+        hits.incrementAndGet();
+        return Optional.of(value);
+      }
+      counter = updateCounter;
+    }
+
+    misses.incrementAndGet();
+    Optional<V> value = getUpstream().get(key);
+
+    synchronized (this) {
+      // an update could happen while reading from upstream, value is not cached in that case
+      if (value.isPresent() && counter == updateCounter) {
+        probation.put(key, value.get());
+        probationSize.added(key, value.get());
+        evict();
+      }
+    }
+
+    return value;
+  }
+
+  /** Checks cached entries first, a value read from upstream is not cached by this method. */
+  @Override
+  public boolean containsKey(@Nonnull final K key) {
+    Objects.requireNonNull(key);
+
+    synchronized (this) {
+      if (probation.containsKey(key) || protectedSegment.containsKey(key)) {
+        hits.incrementAndGet();
+        return true;
+      }
+    }
+    return getUpstream().containsKey(key);
+  }
+
+  /** Takes a size of cached value if it's known, otherwise, asks upstream. */
+  @Override
+  public Optional<Integer> getSize(@Nonnull final K key) {
+    Objects.requireNonNull(key);
+
+    synchronized (this) {
+      V cached = probation.containsKey(key) ? probation.get(key) : protectedSegment.get(key);
+      if (cached instanceof BytesValue) {
+        return Optional.of(((BytesValue) cached).size());
+      }
+    }
+    return getUpstream().getSize(key);
+  }
+
+  @Override
+  public void put(@Nonnull final K key, @Nonnull final V value) {
+    Objects.requireNonNull(key);
+    Objects.requireNonNull(value);
+
+    getUpstream().put(key, value);
+    synchronized (this) {
+      updateCounter += 1;
+      removeCached(key);
+      probation.put(key, value);
+      probationSize.added(key, value);
+      evict();
+    }
+  }
+
+  @Override
+  public void remove(@Nonnull final K key) {
+    Objects.requireNonNull(key);
+
+    getUpstream().remove(key);
+    synchronized (this) {
+      updateCounter += 1;
+      removeCached(key);
+    }
+  }
+
+  @Override
+  public Optional<OrderedDataSource<K, V>> ordered() {
+    return getUpstream()
+        .ordered()
+        .map(upstream -> OrderedDataSource.view(this, upstream::iterate));
+  }
+
+  @Override
+  public synchronized Optional<Optional<V>> getCacheEntry(@Nonnull final K key) {
+    Objects.requireNonNull(key);
+
+    V value = probation.get(key);
+    if (value == null) {
+      value = protectedSegment.get(key);
+    }
+    return value == null ? Optional.empty() : Optional.of(Optional.of(value));
+  }
+
+  @Override
+  public synchronized long evaluateSize() {
+    return probationSize.getEvaluatedSize() + protectedSize.getEvaluatedSize();
+  }
+
+  /** Drops all cached entries. */
+  public synchronized void reset() {
+    probation.clear();
+    protectedSegment.clear();
+    probationSize.reset();
+    protectedSize.reset();
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public double getHitRatio() {
+    long queries = hits.get() + misses.get();
+    return queries == 0 ? 0 : hits.doubleValue() / queries;
+  }
+
+  private void removeCached(K key) {
+    V value = probation.remove(key);
+    if (value != null) {
+      probationSize.removed(key, value);
+    }
+    value = protectedSegment.remove(key);
+    if (value != null) {
+      protectedSize.removed(key, value);
+    }
+  }
+
+  private void promote(K key, V value) {
+    protectedSegment.put(key, value);
+    protectedSize.added(key, value);
+
+    Iterator<Map.Entry<K, V>> eldest = protectedSegment.entrySet().iterator();
+    while (protectedSize.getEvaluatedSize() > protectedSizeLimit && eldest.hasNext()) {
+      Map.Entry<K, V> entry = eldest.next();
+      eldest.remove();
+      protectedSize.removed(entry.getKey(), entry.getValue());
+      probation.put(entry.getKey(), entry.getValue());
+      probationSize.added(entry.getKey(), entry.getValue());
+    }
+    evict();
+  }
+
+  private void evict() {
+    evict(probation, probationSize);
+    evict(protectedSegment, protectedSize);
+  }
+
+  private void evict(LinkedHashMap<K, V> segment, CacheSizeEvaluator<K, V> segmentSize) {
+    Iterator<Map.Entry<K, V>> eldest = segment.entrySet().iterator();
+    while (evaluateSize() > sizeLimit && eldest.hasNext()) {
+      Map.Entry<K, V> entry = eldest.next();
+      eldest.remove();
+      segmentSize.removed(entry.getKey(), entry.getValue());
+    }
+  }
+}
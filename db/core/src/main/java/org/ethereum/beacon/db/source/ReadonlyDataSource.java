@@ -2,6 +2,7 @@ package org.ethereum.beacon.db.source;
 
 import javax.annotation.Nonnull;
 import java.util.Optional;
+import tech.pegasys.artemis.util.bytes.BytesValue;
 
 /**
  * Represents read-only {@link DataSource}
@@ -14,4 +15,31 @@ public interface ReadonlyDataSource<KeyType, ValueType> {
    * @return <code>Optional.empty()</code> if no entry exists
    */
   Optional<ValueType> get(@Nonnull KeyType key);
+
+  /**
+   * Checks whether an entry with given key exists.
+   *
+   * <p>By default the value is read and thrown away, implementations may override this method to
+   * avoid reading and decoding of the value.
+   *
+   * @param key Key in key-value Source
+   * @return <code>true</code> if entry exists, <code>false</code> otherwise
+   */
+  default boolean containsKey(@Nonnull KeyType key) {
+    return get(key).isPresent();
+  }
+
+  /**
+   * Returns a size of the value stored with given key, in bytes.
+   *
+   * <p>By default the value is read and its size is taken if it's a {@link BytesValue},
+   * implementations backed by a storage engine may override this method to avoid reading the value.
+   *
+   * @param key Key in key-value Source
+   * @return value size or <code>Optional.empty()</code> if either no entry exists or the size is
+   *     unknown for values of this source
+   */
+  default Optional<Integer> getSize(@Nonnull KeyType key) {
+    return get(key).filter(BytesValue.class::isInstance).map(v -> ((BytesValue) v).size());
+  }
 }
@@ -1,5 +1,7 @@
 package org.ethereum.beacon.db.source;
 
+import org.ethereum.beacon.crypto.Hashes;
+import org.ethereum.beacon.db.source.impl.XorDataSource;
 import tech.pegasys.artemis.util.bytes.BytesValue;
 
 /**
@@ -22,4 +24,30 @@ public interface StorageEngineSource<ValueType>
 
   /** Closes key-value storage. */
   void close();
+
+  /**
+   * Makes all written batches durable, e.g. by syncing a write-ahead log to the disk.
+   *
+   * <p>A batch written by {@link #batchUpdate(java.util.Map)} MUST be atomic, but MAY not be
+   * durable till this method is called. Thus, a single sync covers all batches written before it.
+   * Default implementation does nothing.
+   */
+  default void sync() {}
+
+  /**
+   * Creates a named storage on top of a source that eventually writes to this engine, e.g. a write
+   * buffer.
+   *
+   * <p>By default, all named storages share one key space, their keys are distinguished by XOR-ing
+   * them with a hash of storage name. An engine MAY override this method to give each storage its
+   * own key space.
+   *
+   * @param name storage name.
+   * @param upstream a source this engine is driven by.
+   * @return named storage.
+   */
+  default DataSource<BytesValue, ValueType> createStorage(
+      String name, DataSource<BytesValue, ValueType> upstream) {
+    return new XorDataSource<>(upstream, Hashes.sha256(BytesValue.wrap(name.getBytes())));
+  }
 }
@@ -2,19 +2,26 @@ package org.ethereum.beacon.db.source;
 
 import com.googlecode.concurentlocks.ReadWriteUpdateLock;
 import com.googlecode.concurentlocks.ReentrantReadWriteUpdateLock;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.ethereum.beacon.db.util.AutoCloseableLock;
+import tech.pegasys.artemis.util.bytes.BytesValue;
 
 /**
  * Accumulates changes made to underlying data source and flushes them upon a {@link #flush()} call.
  *
  * <p>This implementation is thread-safe and featured with cache size evaluator.
  *
+ * <p>If upstream source is ordered then buffer is {@link #ordered()} as well, in that case buffered
+ * changes are merged with upstream entries during iteration.
+ *
  * <p>Created by Anton Nashatyrev on 12.11.2018.
  */
 public class WriteBuffer<K, V> extends AbstractLinkedDataSource<K, V, K, V>
@@ -63,6 +70,36 @@ public class WriteBuffer<K, V> extends AbstractLinkedDataSource<K, V, K, V>
     }
   }
 
+  @Override
+  public boolean containsKey(@Nonnull final K key) {
+    Objects.requireNonNull(key);
+    try (AutoCloseableLock l = readLock.lock()) {
+      CacheEntry<V> entry = buffer.get(key);
+      if (entry == null) {
+        return getUpstream().containsKey(key);
+      } else {
+        return entry != CacheEntry.REMOVED;
+      }
+    }
+  }
+
+  @Override
+  public Optional<Integer> getSize(@Nonnull final K key) {
+    Objects.requireNonNull(key);
+    try (AutoCloseableLock l = readLock.lock()) {
+      CacheEntry<V> entry = buffer.get(key);
+      if (entry == null) {
+        return getUpstream().getSize(key);
+      } else if (entry == CacheEntry.REMOVED) {
+        return Optional.empty();
+      } else {
+        return entry.getValue()
+            .filter(BytesValue.class::isInstance)
+            .map(v -> ((BytesValue) v).size());
+      }
+    }
+  }
+
   @Override
   public void put(@Nonnull final K key, @Nonnull final V value) {
     Objects.requireNonNull(key);
@@ -85,6 +122,38 @@ public class WriteBuffer<K, V> extends AbstractLinkedDataSource<K, V, K, V>
     }
   }
 
+  @Override
+  public Optional<OrderedDataSource<K, V>> ordered() {
+    return getUpstream()
+        .ordered()
+        .map(
+            upstream ->
+                OrderedDataSource.view(this, (range, reverse) -> iterate(upstream, range, reverse)));
+  }
+
+  private DataSourceIterator<K, V> iterate(
+      OrderedDataSource<K, V> upstreamSource, KeyRange<K> range, boolean reverse) {
+    Objects.requireNonNull(range);
+
+    Comparator<? super K> comparator = range.getComparator();
+    if (reverse) {
+      comparator = Collections.reverseOrder(comparator);
+    }
+    TreeMap<K, Optional<V>> buffered = new TreeMap<>(comparator);
+    DataSourceIterator<K, V> upstream;
+    try (AutoCloseableLock l = readLock.lock()) {
+      buffer.forEach(
+          (key, entry) -> {
+            if (range.contains(key)) {
+              buffered.put(key, entry.getValue());
+            }
+          });
+      upstream = upstreamSource.iterate(range, reverse);
+    }
+
+    return new MergingIterator<>(buffered.entrySet().iterator(), upstream, comparator);
+  }
+
   @Override
   public void doFlush() {
     try (AutoCloseableLock rl = updateLock.lock()) {
@@ -93,7 +162,14 @@ public class WriteBuffer<K, V> extends AbstractLinkedDataSource<K, V, K, V>
         buffer.forEach((key, value) -> updates.put(key, value.value));
         ((BatchUpdateDataSource<K, V>) getUpstream()).batchUpdate(updates);
       } else {
-        buffer.forEach((key, value) -> getUpstream().put(key, value.value));
+        buffer.forEach(
+            (key, value) -> {
+              if (value.value == null) {
+                getUpstream().remove(key);
+              } else {
+                getUpstream().put(key, value.value);
+              }
+            });
       }
 
       reset();
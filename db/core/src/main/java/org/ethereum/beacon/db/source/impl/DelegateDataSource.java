@@ -17,6 +17,16 @@ public class DelegateDataSource<KeyType, ValueType> implements DataSource<KeyTyp
     return delegate.get(key);
   }
 
+  @Override
+  public boolean containsKey(@Nonnull KeyType key) {
+    return delegate.containsKey(key);
+  }
+
+  @Override
+  public Optional<Integer> getSize(@Nonnull KeyType key) {
+    return delegate.getSize(key);
+  }
+
   @Override
   public void put(@Nonnull KeyType key, @Nonnull ValueType value) {
     delegate.put(key, value);
@@ -1,16 +1,25 @@
 package org.ethereum.beacon.db.source.impl;
 
-import org.ethereum.beacon.db.source.DataSource;
+import org.ethereum.beacon.db.source.DataSourceIterator;
+import org.ethereum.beacon.db.source.KeyRange;
+import org.ethereum.beacon.db.source.OrderedDataSource;
 
 import javax.annotation.Nonnull;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * Created by Anton Nashatyrev on 19.11.2018.
+ *
+ * <p>Iteration is done over a sorted snapshot of entries that fall into requested range, it's
+ * fine for testing and small data sets.
  */
-public class HashMapDataSource<K, V> implements DataSource<K, V> {
+public class HashMapDataSource<K, V> implements OrderedDataSource<K, V> {
 
   Map<K, V> store = new ConcurrentHashMap<>();
 
@@ -34,6 +43,18 @@ public class HashMapDataSource<K, V> implements DataSource<K, V> {
     // nothing to do
   }
 
+  @Override
+  public DataSourceIterator<K, V> iterate(@Nonnull KeyRange<K> range, boolean reverse) {
+    Comparator<Map.Entry<K, V>> order = Map.Entry.comparingByKey(range.getComparator());
+    List<Map.Entry<K, V>> entries =
+        store.entrySet().stream()
+            .filter(e -> range.contains(e.getKey()))
+            .map(e -> (Map.Entry<K, V>) new SimpleImmutableEntry<>(e.getKey(), e.getValue()))
+            .sorted(reverse ? order.reversed() : order)
+            .collect(Collectors.toList());
+    return DataSourceIterator.wrap(entries.iterator());
+  }
+
   public Map<K, V> getStore() {
     return store;
   }
@@ -0,0 +1,68 @@
+package org.ethereum.beacon.db.source.impl;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import org.ethereum.beacon.db.source.CodecSource;
+import org.ethereum.beacon.db.source.DataSource;
+import org.ethereum.beacon.db.source.DataSourceIterator;
+import org.ethereum.beacon.db.source.KeyRange;
+import org.ethereum.beacon.db.source.OrderedDataSource;
+import tech.pegasys.artemis.util.bytes.BytesValue;
+
+/**
+ * Prepends each key with a prefix. Unlike {@link XorDataSource} it keeps the order of keys, thus,
+ * it's {@link #ordered()} if upstream source is ordered.
+ *
+ * @param <V> a value type.
+ */
+public class PrefixDataSource<V> extends CodecSource.KeyOnly<BytesValue, V, BytesValue> {
+
+  private final BytesValue prefix;
+
+  public PrefixDataSource(@Nonnull DataSource<BytesValue, V> upstreamSource, BytesValue prefix) {
+    super(upstreamSource, key -> BytesValue.wrap(prefix, key));
+    this.prefix = prefix;
+  }
+
+  @Override
+  public Optional<OrderedDataSource<BytesValue, V>> ordered() {
+    return getUpstream()
+        .ordered()
+        .map(
+            upstream ->
+                OrderedDataSource.view(this, (range, reverse) -> iterate(upstream, range, reverse)));
+  }
+
+  private DataSourceIterator<BytesValue, V> iterate(
+      OrderedDataSource<BytesValue, V> upstreamSource,
+      KeyRange<BytesValue> range,
+      boolean reverse) {
+    BytesValue from = BytesValue.wrap(prefix, range.getFrom().orElse(BytesValue.EMPTY));
+    Optional<BytesValue> to =
+        range.getTo().isPresent()
+            ? Optional.of(BytesValue.wrap(prefix, range.getTo().get()))
+            : KeyRange.nextPrefix(prefix);
+    DataSourceIterator<BytesValue, V> upstream =
+        upstreamSource.iterate(KeyRange.between(from, to.orElse(null)), reverse);
+
+    return new DataSourceIterator<BytesValue, V>() {
+      @Override
+      public void close() {
+        upstream.close();
+      }
+
+      @Override
+      public boolean hasNext() {
+        return upstream.hasNext();
+      }
+
+      @Override
+      public Map.Entry<BytesValue, V> next() {
+        Map.Entry<BytesValue, V> entry = upstream.next();
+        return new SimpleImmutableEntry<>(entry.getKey().slice(prefix.size()), entry.getValue());
+      }
+    };
+  }
+}
@@ -162,6 +162,31 @@ public class EngineDrivenDatabaseTest {
         db.getWriteBuffer().evaluateSize());
   }
 
+  @Test
+  public void syncFlushesBufferAndEngine() {
+    TestStorageSource engineSource = new TestStorageSource();
+    EngineDrivenDatabase db = EngineDrivenDatabase.create(engineSource, 1 << 20);
+
+    DataSource<BytesValue, BytesValue> storage = db.createStorage("test");
+    storage.put(wrap("ONE"), wrap("FIRST"));
+    db.commit();
+    storage.put(wrap("TWO"), wrap("SECOND"));
+    db.commit();
+
+    // commits are kept in the buffer
+    assertTrue(engineSource.source.isEmpty());
+    assertEquals(0, engineSource.syncs);
+
+    storage.put(wrap("THREE"), wrap("THIRD"));
+    db.sync();
+
+    // uncommitted changes are committed and all commits are synced at once
+    assertEquals(3, engineSource.source.size());
+    assertEquals(1, engineSource.syncs);
+    assertEquals(0L, db.getWriteBuffer().evaluateSize());
+    assertEquals(wrap("THIRD"), storage.get(wrap("THREE")).get());
+  }
+
   @Test
   @Ignore
   public void checkWithConcurrentAccessTake1() throws InterruptedException {
@@ -347,6 +372,7 @@ public class EngineDrivenDatabaseTest {
   private static class TestStorageSource implements StorageEngineSource<BytesValue> {
 
     private final HashMap<BytesValue, BytesValue> source = new HashMap<>();
+    private int syncs = 0;
 
     @Override
     public void open() {}
@@ -376,5 +402,10 @@ public class EngineDrivenDatabaseTest {
 
     @Override
     public void flush() {}
+
+    @Override
+    public void sync() {
+      syncs += 1;
+    }
   }
 }
@@ -0,0 +1,107 @@
+package org.ethereum.beacon.db.archive;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Paths;
+import java.util.List;
+import org.ethereum.beacon.db.util.FileUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import tech.pegasys.artemis.util.bytes.BytesValue;
+
+public class SegmentArchiveTest {
+
+  private static final String ARCHIVE_DIR = "test-archive";
+
+  @After
+  @Before
+  public void cleanUp() throws IOException {
+    FileUtil.removeRecursively(ARCHIVE_DIR);
+  }
+
+  @Test
+  public void appendAndReopen() {
+    // each segment fits two entries
+    SegmentArchive archive = new SegmentArchive(Paths.get(ARCHIVE_DIR), 2 * (20 + 3 + 6));
+    for (int slot = 0; slot < 5; slot++) {
+      archive.append(slot, key(slot), value(slot));
+    }
+    archive.flush();
+
+    assertEquals(value(3), archive.get(key(3)).get());
+    assertTrue(archive.containsKey(key(4)));
+    assertFalse(archive.get(key(5)).isPresent());
+    assertEquals(3, Paths.get(ARCHIVE_DIR).toFile().list().length);
+    archive.close();
+
+    SegmentArchive reopened = new SegmentArchive(Paths.get(ARCHIVE_DIR), 2 * (20 + 3 + 6));
+    assertEquals(4L, (long) reopened.getLastSlot().get());
+    for (int slot = 0; slot < 5; slot++) {
+      assertEquals(value(slot), reopened.get(key(slot)).get());
+    }
+
+    reopened.append(7, key(7), value(7));
+    List<SegmentArchive.Entry> range = reopened.getRange(3, 8);
+    assertEquals(3, range.size());
+    assertEquals(3, range.get(0).getSlot());
+    assertEquals(key(4), range.get(1).getKey());
+    assertEquals(value(7), BytesValue.wrapBuffer(range.get(2).getValue()));
+    reopened.close();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void appendInSlotOrder() {
+    SegmentArchive archive = new SegmentArchive(Paths.get(ARCHIVE_DIR), 1 << 10);
+    archive.append(2, key(2), value(2));
+    archive.append(1, key(1), value(1));
+  }
+
+  @Test
+  public void brokenTailIsDropped() throws IOException {
+    SegmentArchive archive = new SegmentArchive(Paths.get(ARCHIVE_DIR), 1 << 10);
+    archive.append(0, key(0), value(0));
+    archive.append(1, key(1), value(1));
+    archive.close();
+
+    // spoil the last byte of the second value as if its page didn't reach the disk
+    try (RandomAccessFile file =
+        new RandomAccessFile(Paths.get(ARCHIVE_DIR, "00000000.seg").toFile(), "rw")) {
+      file.seek(2 * (20 + 3 + 6) - 1);
+      file.write(0);
+    }
+
+    SegmentArchive reopened = new SegmentArchive(Paths.get(ARCHIVE_DIR), 1 << 10);
+    assertEquals(0L, (long) reopened.getLastSlot().get());
+    assertEquals(value(0), reopened.get(key(0)).get());
+    assertFalse(reopened.containsKey(key(1)));
+
+    // the broken entry is overwritten by the next one
+    reopened.append(2, key(2), value(2));
+    reopened.close();
+    SegmentArchive again = new SegmentArchive(Paths.get(ARCHIVE_DIR), 1 << 10);
+    assertEquals(2L, (long) again.getLastSlot().get());
+    assertEquals(value(2), again.get(key(2)).get());
+    again.close();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void closedArchiveIsNotAccessible() {
+    SegmentArchive archive = new SegmentArchive(Paths.get(ARCHIVE_DIR), 1 << 10);
+    archive.append(0, key(0), value(0));
+    archive.close();
+    archive.get(key(0));
+  }
+
+  private BytesValue key(int i) {
+    return BytesValue.wrap(String.format("k%02d", i).getBytes());
+  }
+
+  private BytesValue value(int i) {
+    return BytesValue.wrap(String.format("value%d", i).getBytes());
+  }
+}
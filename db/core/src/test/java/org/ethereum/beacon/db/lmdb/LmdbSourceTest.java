@@ -0,0 +1,133 @@
+package org.ethereum.beacon.db.lmdb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.ethereum.beacon.db.Database;
+import org.ethereum.beacon.db.source.DataSource;
+import org.ethereum.beacon.db.source.DataSourceIterator;
+import org.ethereum.beacon.db.source.KeyRange;
+import org.ethereum.beacon.db.util.FileUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import tech.pegasys.artemis.util.bytes.BytesValue;
+
+public class LmdbSourceTest {
+
+  private static final long MAP_SIZE = 1L << 26;
+
+  @After
+  @Before
+  public void cleanUp() throws IOException {
+    FileUtil.removeRecursively("test-db");
+  }
+
+  @Test
+  public void basicOperations() {
+    LmdbSource lmdb = new LmdbSource(Paths.get("test-db"), MAP_SIZE);
+
+    lmdb.open();
+    lmdb.put(wrap("ONE"), wrap("FIRST"));
+
+    assertFalse(lmdb.get(wrap("TWO")).isPresent());
+    assertEquals(wrap("FIRST"), lmdb.get(wrap("ONE")).get());
+
+    Map<BytesValue, BytesValue> batch = new HashMap<>();
+    batch.put(wrap("ONE"), null);
+    batch.put(wrap("TWO"), wrap("SECOND"));
+    batch.put(wrap("THREE"), wrap("THIRD"));
+    batch.put(wrap("FOUR"), wrap("FOURTH"));
+
+    lmdb.batchUpdate(batch);
+
+    assertFalse(lmdb.get(wrap("ONE")).isPresent());
+    assertEquals(wrap("SECOND"), lmdb.get(wrap("TWO")).get());
+    assertEquals(wrap("THIRD"), lmdb.get(wrap("THREE")).get());
+    assertEquals(wrap("FOURTH"), lmdb.get(wrap("FOUR")).get());
+    assertTrue(lmdb.containsKey(wrap("FOUR")));
+
+    lmdb.remove(wrap("THREE"));
+    assertFalse(lmdb.get(wrap("THREE")).isPresent());
+    assertFalse(lmdb.containsKey(wrap("THREE")));
+
+    lmdb.close();
+    lmdb.open();
+
+    assertFalse(lmdb.get(wrap("ONE")).isPresent());
+    assertEquals(wrap("SECOND"), lmdb.get(wrap("TWO")).get());
+    assertFalse(lmdb.get(wrap("THREE")).isPresent());
+    assertEquals(wrap("FOURTH"), lmdb.get(wrap("FOUR")).get());
+    assertFalse(lmdb.get(wrap("FIVE")).isPresent());
+
+    lmdb.close();
+  }
+
+  @Test
+  public void iterateRange() {
+    LmdbSource lmdb = new LmdbSource(Paths.get("test-db"), MAP_SIZE);
+    lmdb.open();
+
+    Map<BytesValue, BytesValue> batch = new HashMap<>();
+    batch.put(BytesValue.of(0x01), wrap("1"));
+    batch.put(BytesValue.of(0x02), wrap("2"));
+    batch.put(BytesValue.of(0x80), wrap("3"));
+    batch.put(BytesValue.of(0xFF), wrap("4"));
+    lmdb.batchUpdate(batch);
+
+    assertEquals(
+        Arrays.asList(BytesValue.of(0x01), BytesValue.of(0x02), BytesValue.of(0x80)),
+        keys(lmdb, KeyRange.between(null, BytesValue.of(0xFF)), false));
+    assertEquals(
+        Arrays.asList(BytesValue.of(0x80), BytesValue.of(0x02)),
+        keys(lmdb, KeyRange.between(BytesValue.of(0x02), BytesValue.of(0xFF)), true));
+    assertEquals(
+        Arrays.asList(BytesValue.of(0xFF), BytesValue.of(0x80)),
+        keys(lmdb, KeyRange.between(BytesValue.of(0x03), null), true));
+    assertTrue(
+        keys(lmdb, KeyRange.between(BytesValue.of(0x81), BytesValue.of(0xFF)), false).isEmpty());
+
+    try (DataSourceIterator<BytesValue, BytesValue> it = lmdb.iterate(KeyRange.all(), false)) {
+      assertEquals(wrap("1"), it.next().getValue());
+    }
+
+    lmdb.close();
+  }
+
+  @Test
+  public void databaseStorages() {
+    Database db = Database.lmdb("test-db", -1);
+    DataSource<BytesValue, BytesValue> first = db.createStorage("first");
+    DataSource<BytesValue, BytesValue> second = db.createStorage("second");
+
+    first.put(wrap("ONE"), wrap("FIRST"));
+    second.put(wrap("ONE"), wrap("SECOND"));
+    db.commit();
+    db.close();
+
+    db = Database.lmdb("test-db", -1);
+    assertEquals(wrap("FIRST"), db.createStorage("first").get(wrap("ONE")).get());
+    assertEquals(wrap("SECOND"), db.createStorage("second").get(wrap("ONE")).get());
+    db.close();
+  }
+
+  private List<BytesValue> keys(LmdbSource source, KeyRange<BytesValue> range, boolean reverse) {
+    List<BytesValue> keys = new ArrayList<>();
+    try (DataSourceIterator<BytesValue, BytesValue> it = source.iterate(range, reverse)) {
+      it.forEachRemaining(entry -> keys.add(entry.getKey()));
+    }
+    return keys;
+  }
+
+  private BytesValue wrap(String value) {
+    return BytesValue.wrap(value.getBytes());
+  }
+}
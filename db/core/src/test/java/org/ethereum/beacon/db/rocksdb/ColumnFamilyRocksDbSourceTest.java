@@ -0,0 +1,118 @@
+package org.ethereum.beacon.db.rocksdb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.ethereum.beacon.db.Database;
+import org.ethereum.beacon.db.source.DataSource;
+import org.ethereum.beacon.db.source.DataSourceIterator;
+import org.ethereum.beacon.db.source.KeyRange;
+import org.ethereum.beacon.db.source.OrderedDataSource;
+import org.ethereum.beacon.db.util.FileUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import tech.pegasys.artemis.util.bytes.BytesValue;
+
+public class ColumnFamilyRocksDbSourceTest {
+
+  @After
+  @Before
+  public void cleanUp() throws IOException {
+    FileUtil.removeRecursively("test-db");
+  }
+
+  @Test
+  public void storagesAreSeparated() {
+    Database db = Database.rocksDBColumnFamilies("test-db", -1);
+
+    DataSource<BytesValue, BytesValue> blocks = db.createStorage("beacon-block");
+    DataSource<BytesValue, BytesValue> states = db.createStorage("beacon-state");
+
+    blocks.put(wrap("ONE"), wrap("BLOCK_ONE"));
+    states.put(wrap("ONE"), wrap("STATE_ONE"));
+    blocks.put(wrap("TWO"), wrap("BLOCK_TWO"));
+    db.commit();
+
+    assertEquals(wrap("BLOCK_ONE"), blocks.get(wrap("ONE")).get());
+    assertEquals(wrap("STATE_ONE"), states.get(wrap("ONE")).get());
+    assertFalse(states.get(wrap("TWO")).isPresent());
+
+    states.remove(wrap("ONE"));
+    db.commit();
+    assertFalse(states.get(wrap("ONE")).isPresent());
+    assertEquals(wrap("BLOCK_ONE"), blocks.get(wrap("ONE")).get());
+
+    db.close();
+  }
+
+  @Test
+  public void reopen() {
+    Database db = Database.rocksDBColumnFamilies("test-db", -1);
+    db.createStorage("uno").put(wrap("ONE"), wrap("UNO_FIRST"));
+    db.createStorage("dos").put(wrap("ONE"), wrap("DOS_FIRST"));
+    db.commit();
+    db.close();
+
+    // families are opened in a different order
+    db = Database.rocksDBColumnFamilies("test-db", -1);
+    DataSource<BytesValue, BytesValue> dos = db.createStorage("dos");
+    DataSource<BytesValue, BytesValue> tres = db.createStorage("tres");
+    DataSource<BytesValue, BytesValue> uno = db.createStorage("uno");
+
+    assertEquals(wrap("UNO_FIRST"), uno.get(wrap("ONE")).get());
+    assertEquals(wrap("DOS_FIRST"), dos.get(wrap("ONE")).get());
+    assertFalse(tres.get(wrap("ONE")).isPresent());
+
+    db.close();
+  }
+
+  @Test
+  public void iterateOverStorage() {
+    Database db = Database.rocksDBColumnFamilies("test-db", -1);
+    OrderedDataSource<BytesValue, BytesValue> blocks =
+        db.createStorage("beacon-block").ordered().get();
+    DataSource<BytesValue, BytesValue> states = db.createStorage("beacon-state");
+
+    blocks.put(wrap("A"), wrap("BLOCK_A"));
+    blocks.put(wrap("C"), wrap("BLOCK_C"));
+    states.put(wrap("B"), wrap("STATE_B"));
+    db.commit();
+    // buffered changes are visible as well
+    blocks.put(wrap("B"), wrap("BLOCK_B"));
+    blocks.remove(wrap("C"));
+    blocks.put(wrap("D"), wrap("BLOCK_D"));
+
+    assertEquals(
+        Arrays.asList(wrap("A"), wrap("B"), wrap("D")), keys(blocks, KeyRange.all(), false));
+    assertEquals(
+        Arrays.asList(wrap("D"), wrap("B")),
+        keys(blocks, KeyRange.between(wrap("B"), null), true));
+
+    db.commit();
+    assertEquals(
+        Arrays.asList(wrap("B"), wrap("A")),
+        keys(blocks, KeyRange.between(null, wrap("D")), true));
+
+    db.close();
+  }
+
+  private List<BytesValue> keys(
+      OrderedDataSource<BytesValue, BytesValue> source,
+      KeyRange<BytesValue> range,
+      boolean reverse) {
+    List<BytesValue> keys = new ArrayList<>();
+    try (DataSourceIterator<BytesValue, BytesValue> iterator = source.iterate(range, reverse)) {
+      iterator.forEachRemaining(entry -> keys.add(entry.getKey()));
+    }
+    return keys;
+  }
+
+  private BytesValue wrap(String value) {
+    return BytesValue.wrap(value.getBytes());
+  }
+}
@@ -2,11 +2,16 @@ package org.ethereum.beacon.db.rocksdb;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import org.ethereum.beacon.db.Database;
+import org.ethereum.beacon.db.source.CodecSource;
+import org.ethereum.beacon.db.source.DataSource;
 import org.ethereum.beacon.db.util.FileUtil;
 import org.junit.After;
 import org.junit.Before;
@@ -59,6 +64,65 @@ public class RocksDbSourceTest {
     rocksDb.close();
   }
 
+  @Test
+  public void containsKeyDoesNotDecodeValue() {
+    Database db = Database.rocksDB("test-db", -1);
+    DataSource<BytesValue, String> storage =
+        new CodecSource.ValueOnly<>(
+            db.createStorage("test"),
+            value -> BytesValue.wrap(value.getBytes()),
+            bytes -> {
+              throw new AssertionError("Value must not be decoded");
+            });
+
+    storage.put(wrap("ONE"), "FIRST");
+    storage.put(wrap("TWO"), "SECOND");
+    db.commit();
+    storage.remove(wrap("TWO"));
+    storage.put(wrap("THREE"), "THIRD");
+
+    assertTrue(storage.containsKey(wrap("ONE")));
+    assertFalse(storage.containsKey(wrap("TWO")));
+    assertTrue(storage.containsKey(wrap("THREE")));
+    assertFalse(storage.containsKey(wrap("FOUR")));
+
+    db.commit();
+    assertFalse(storage.containsKey(wrap("TWO")));
+    assertTrue(storage.containsKey(wrap("THREE")));
+
+    db.close();
+  }
+
+  @Test
+  public void sizeIsTakenWithoutDecoding() {
+    Database db = Database.rocksDB("test-db", -1);
+    DataSource<BytesValue, String> storage =
+        new CodecSource.ValueOnly<>(
+            db.createStorage("test"),
+            value -> BytesValue.wrap(value.getBytes()),
+            bytes -> {
+              throw new AssertionError("Value must not be decoded");
+            });
+
+    storage.put(wrap("ONE"), "FIRST");
+    storage.put(wrap("TWO"), "SECOND");
+    db.commit();
+    storage.remove(wrap("TWO"));
+    storage.put(wrap("THREE"), "THIRD-1");
+
+    // buffered and stored entries
+    assertEquals(Optional.of(5), storage.getSize(wrap("ONE")));
+    assertFalse(storage.getSize(wrap("TWO")).isPresent());
+    assertEquals(Optional.of(7), storage.getSize(wrap("THREE")));
+    assertFalse(storage.getSize(wrap("FOUR")).isPresent());
+
+    db.commit();
+    assertFalse(storage.getSize(wrap("TWO")).isPresent());
+    assertEquals(Optional.of(7), storage.getSize(wrap("THREE")));
+
+    db.close();
+  }
+
   private BytesValue wrap(String value) {
     return BytesValue.wrap(value.getBytes());
   }
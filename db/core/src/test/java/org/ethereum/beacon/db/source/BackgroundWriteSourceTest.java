@@ -0,0 +1,85 @@
+package org.ethereum.beacon.db.source;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import org.ethereum.beacon.db.source.impl.HashMapDataSource;
+import org.junit.Test;
+
+public class BackgroundWriteSourceTest {
+
+  private final CountDownLatch writeAllowed = new CountDownLatch(1);
+  private final HashMapDataSource<String, String> upstream =
+      new HashMapDataSource<String, String>() {
+        @Override
+        public void put(@Nonnull String key, @Nonnull String value) {
+          try {
+            writeAllowed.await();
+          } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+          }
+          super.put(key, value);
+        }
+      };
+  private final BackgroundWriteSource<String, String> source =
+      new BackgroundWriteSource<>(upstream, 2, false);
+
+  @Test
+  public void queuedBatchesAreVisible() {
+    upstream.getStore().put("one", "0");
+    upstream.getStore().put("three", "3");
+
+    source.batchUpdate(batch("one", "1", "two", "2"));
+    source.batchUpdate(batch("two", "22", "three", null));
+
+    assertEquals(2, source.getBatchesInFlight());
+    assertEquals("1", source.get("one").get());
+    assertEquals("22", source.get("two").get());
+    assertFalse(source.get("three").isPresent());
+    assertEquals("0", upstream.get("one").get());
+
+    writeAllowed.countDown();
+    source.flush();
+
+    assertEquals(0, source.getBatchesInFlight());
+    assertEquals("1", upstream.get("one").get());
+    assertEquals("22", upstream.get("two").get());
+    assertFalse(upstream.get("three").isPresent());
+    source.close();
+  }
+
+  @Test
+  public void writesAreBlockedWhenTooManyBatchesInFlight() throws Exception {
+    source.batchUpdate(batch("one", "1"));
+    source.batchUpdate(batch("two", "2"));
+
+    CompletableFuture<Void> third =
+        CompletableFuture.runAsync(() -> source.batchUpdate(batch("three", "3")));
+    Thread.sleep(100);
+    assertFalse(third.isDone());
+
+    writeAllowed.countDown();
+    third.get(1, TimeUnit.SECONDS);
+    source.flush();
+
+    assertEquals("3", upstream.get("three").get());
+    assertEquals(1, source.getStalls());
+    assertTrue(source.getStallTime() > 0);
+    source.close();
+  }
+
+  private static Map<String, String> batch(String... keyValues) {
+    Map<String, String> batch = new HashMap<>();
+    for (int i = 0; i < keyValues.length; i += 2) {
+      batch.put(keyValues[i], keyValues[i + 1]);
+    }
+    return batch;
+  }
+}
@@ -0,0 +1,154 @@
+package org.ethereum.beacon.db.source;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.ethereum.beacon.db.Database;
+import org.ethereum.beacon.db.source.impl.HashMapDataSource;
+import org.ethereum.beacon.db.source.impl.MemSizeEvaluators;
+import org.ethereum.beacon.db.source.impl.PrefixDataSource;
+import org.ethereum.beacon.db.source.impl.XorDataSource;
+import org.junit.Test;
+import tech.pegasys.artemis.util.bytes.BytesValue;
+
+public class OrderedDataSourceTest {
+
+  private final HashMapDataSource<BytesValue, BytesValue> upstream = new HashMapDataSource<>();
+  private final WriteBuffer<BytesValue, BytesValue> buffer =
+      new WriteBuffer<>(
+          upstream, CacheSizeEvaluator.getInstance(MemSizeEvaluators.BytesValueEvaluator), false);
+
+  @Test
+  public void rangeBounds() {
+    upstream.put(bytes(0x01), bytes(1));
+    upstream.put(bytes(0x02), bytes(2));
+    upstream.put(bytes(0x80), bytes(3));
+    upstream.put(bytes(0xFF), bytes(4));
+
+    assertEquals(
+        Arrays.asList(bytes(0x01), bytes(0x02), bytes(0x80), bytes(0xFF)),
+        keys(upstream, KeyRange.all(), false));
+    assertEquals(
+        Arrays.asList(bytes(0x02), bytes(0x80)),
+        keys(upstream, KeyRange.between(bytes(0x02), bytes(0xFF)), false));
+    assertEquals(
+        Arrays.asList(bytes(0xFF), bytes(0x80)),
+        keys(upstream, KeyRange.between(bytes(0x80), null), true));
+  }
+
+  @Test
+  public void bufferIsMergedWithUpstream() {
+    upstream.put(bytes(0x01), bytes(1));
+    upstream.put(bytes(0x02), bytes(2));
+    upstream.put(bytes(0x03), bytes(3));
+
+    buffer.put(bytes(0x02), bytes(20));
+    buffer.put(bytes(0x04), bytes(4));
+    buffer.remove(bytes(0x03));
+    buffer.put(bytes(0x00), bytes(0));
+
+    OrderedDataSource<BytesValue, BytesValue> ordered = buffer.ordered().get();
+    List<Map.Entry<BytesValue, BytesValue>> entries = entries(ordered, KeyRange.all(), false);
+    assertEquals(
+        Arrays.asList(bytes(0x00), bytes(0x01), bytes(0x02), bytes(0x04)), keysOf(entries));
+    assertEquals(bytes(20), entries.get(2).getValue());
+
+    assertEquals(
+        Arrays.asList(bytes(0x04), bytes(0x02), bytes(0x01), bytes(0x00)),
+        keys(ordered, KeyRange.all(), true));
+    assertEquals(
+        Arrays.asList(bytes(0x01), bytes(0x02)),
+        keys(ordered, KeyRange.between(bytes(0x01), bytes(0x04)), false));
+
+    buffer.flush();
+    assertEquals(
+        Arrays.asList(bytes(0x00), bytes(0x01), bytes(0x02), bytes(0x04)),
+        keys(upstream, KeyRange.all(), false));
+  }
+
+  @Test
+  public void prefixedStoragesAreIsolated() {
+    PrefixDataSource<BytesValue> first = new PrefixDataSource<>(buffer, bytes(0x00, 0x01));
+    PrefixDataSource<BytesValue> second = new PrefixDataSource<>(buffer, bytes(0x00, 0x02));
+
+    first.put(bytes(0x02), bytes(1));
+    first.put(bytes(0xFF, 0xFF), bytes(2));
+    second.put(bytes(0x01), bytes(3));
+    buffer.flush();
+    first.put(bytes(0x01), bytes(4));
+
+    assertEquals(
+        Arrays.asList(bytes(0x01), bytes(0x02), bytes(0xFF, 0xFF)),
+        keys(first.ordered().get(), KeyRange.all(), false));
+    assertEquals(Arrays.asList(bytes(0x01)), keys(second.ordered().get(), KeyRange.all(), true));
+    assertEquals(
+        Arrays.asList(bytes(0xFF, 0xFF)),
+        keys(first.ordered().get(), KeyRange.prefix(bytes(0xFF)), false));
+  }
+
+  @Test
+  public void orderingIsInheritedFromUpstream() {
+    ReadCache<BytesValue, BytesValue> cache =
+        new ReadCache<>(buffer, key -> 1L, value -> 1L, 16, false);
+    assertTrue(cache.ordered().isPresent());
+
+    cache.put(bytes(0x02), bytes(2));
+    cache.put(bytes(0x01), bytes(1));
+    assertEquals(
+        Arrays.asList(bytes(0x01), bytes(0x02)),
+        keys(cache.ordered().get(), KeyRange.all(), false));
+
+    XorDataSource<BytesValue> xored = new XorDataSource<>(upstream, bytes(0x01));
+    assertFalse(xored.ordered().isPresent());
+    assertFalse(
+        new ReadCache<>(xored, key -> 1L, value -> 1L, 16, false).ordered().isPresent());
+    assertFalse(new WriteBuffer<>(xored, false).ordered().isPresent());
+    assertFalse(new PrefixDataSource<>(xored, bytes(0x01)).ordered().isPresent());
+    assertFalse(
+        Database.inMemoryDB().createStorage("storage", 1 << 10).ordered().isPresent());
+  }
+
+  @Test
+  public void nextPrefix() {
+    assertEquals(bytes(0x01, 0x03), KeyRange.nextPrefix(bytes(0x01, 0x02)).get());
+    assertEquals(bytes(0x02), KeyRange.nextPrefix(bytes(0x01, 0xFF)).get());
+    assertEquals(false, KeyRange.nextPrefix(bytes(0xFF, 0xFF)).isPresent());
+  }
+
+  private static List<Map.Entry<BytesValue, BytesValue>> entries(
+      OrderedDataSource<BytesValue, BytesValue> source,
+      KeyRange<BytesValue> range,
+      boolean reverse) {
+    List<Map.Entry<BytesValue, BytesValue>> entries = new ArrayList<>();
+    try (DataSourceIterator<BytesValue, BytesValue> iterator = source.iterate(range, reverse)) {
+      iterator.forEachRemaining(entries::add);
+    }
+    return entries;
+  }
+
+  private static List<BytesValue> keys(
+      OrderedDataSource<BytesValue, BytesValue> source,
+      KeyRange<BytesValue> range,
+      boolean reverse) {
+    return keysOf(entries(source, range, reverse));
+  }
+
+  private static List<BytesValue> keysOf(List<Map.Entry<BytesValue, BytesValue>> entries) {
+    List<BytesValue> keys = new ArrayList<>();
+    entries.forEach(e -> keys.add(e.getKey()));
+    return keys;
+  }
+
+  private static BytesValue bytes(int... bytes) {
+    byte[] array = new byte[bytes.length];
+    for (int i = 0; i < bytes.length; i++) {
+      array[i] = (byte) bytes[i];
+    }
+    return BytesValue.wrap(array);
+  }
+}
@@ -0,0 +1,68 @@
+package org.ethereum.beacon.db.source;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.ethereum.beacon.db.source.impl.HashMapDataSource;
+import org.junit.Test;
+
+public class ReadCacheTest {
+
+  private final HashMapDataSource<String, String> upstream = new HashMapDataSource<>();
+  private final ReadCache<String, String> cache =
+      new ReadCache<>(upstream, key -> 0L, value -> 1L, 10, false);
+
+  @Test
+  public void readThrough() {
+    upstream.put("one", "1");
+
+    assertFalse(cache.getCacheEntry("one").isPresent());
+    assertEquals("1", cache.get("one").get());
+    assertEquals("1", cache.getCacheEntry("one").get().get());
+    assertEquals("1", cache.get("one").get());
+    assertFalse(cache.get("two").isPresent());
+    assertFalse(cache.getCacheEntry("two").isPresent());
+
+    assertEquals(1, cache.getHits());
+    assertEquals(2, cache.getMisses());
+    assertEquals(1, cache.evaluateSize());
+  }
+
+  @Test
+  public void writeThrough() {
+    cache.put("one", "1");
+    assertEquals("1", upstream.get("one").get());
+    assertEquals("1", cache.getCacheEntry("one").get().get());
+
+    cache.put("one", "2");
+    assertEquals("2", upstream.get("one").get());
+    assertEquals("2", cache.get("one").get());
+    assertEquals(1, cache.evaluateSize());
+
+    cache.remove("one");
+    assertFalse(upstream.get("one").isPresent());
+    assertFalse(cache.getCacheEntry("one").isPresent());
+    assertFalse(cache.get("one").isPresent());
+    assertEquals(0, cache.evaluateSize());
+  }
+
+  @Test
+  public void scanDoesNotEvictFrequentEntries() {
+    for (int i = 0; i < 5; i++) {
+      cache.put("hot" + i, "h");
+      cache.get("hot" + i);
+    }
+    for (int i = 0; i < 100; i++) {
+      upstream.put("cold" + i, "c");
+      cache.get("cold" + i);
+    }
+
+    assertEquals(10, cache.evaluateSize());
+    for (int i = 0; i < 5; i++) {
+      assertTrue(cache.getCacheEntry("hot" + i).isPresent());
+    }
+    assertTrue(cache.getCacheEntry("cold99").isPresent());
+    assertFalse(cache.getCacheEntry("cold0").isPresent());
+  }
+}
@@ -19,13 +19,13 @@ public class ObservableListImpl<IndexType extends Number, ValueType>
     implements WriteList<IndexType, ValueType>, ObservableComposite {
 
   private final WriteList<IndexType, ValueType> delegate;
-  private final ObservableCompositeHelper observableHelper;
+  protected final ObservableCompositeHelper observableHelper;
 
   public ObservableListImpl(WriteList<IndexType, ValueType> delegate) {
     this(delegate, new ObservableCompositeHelper());
   }
 
-  private ObservableListImpl(
+  protected ObservableListImpl(
       WriteList<IndexType, ValueType> delegate, ObservableCompositeHelper observableHelper) {
     this.delegate = delegate;
     this.observableHelper = observableHelper;
@@ -47,6 +47,19 @@ public class ObservableListImpl<IndexType extends Number, ValueType>
     return new ObservableListImpl<>(WriteList.create(indexConverter, vector));
   }
 
+  public static <IndexType1 extends Number, ValueType1>
+      WriteList<IndexType1, ValueType1> createPersistent(
+          Function<Integer, IndexType1> indexConverter, long maxSize) {
+    return new ObservableListImpl<>(WriteList.createPersistent(indexConverter, false, maxSize));
+  }
+
+  public static <IndexType1 extends Number, ValueType1>
+      WriteList<IndexType1, ValueType1> createPersistent(
+          Function<Integer, IndexType1> indexConverter, boolean vector) {
+    return new ObservableListImpl<>(
+        WriteList.createPersistent(indexConverter, vector, VARIABLE_SIZE));
+  }
+
   @Override
   public WriteList<IndexType, ValueType> createMutableCopy() {
     return new ObservableListImpl<>(delegate.createMutableCopy(), observableHelper.fork());
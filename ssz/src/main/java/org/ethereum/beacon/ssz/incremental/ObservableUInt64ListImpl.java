@@ -0,0 +1,75 @@
+package org.ethereum.beacon.ssz.incremental;
+
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import tech.pegasys.artemis.util.collections.ReadList;
+import tech.pegasys.artemis.util.collections.WriteUInt64List;
+import tech.pegasys.artemis.util.uint.UInt64;
+
+/** {@link WriteUInt64List} wrapper supporting {@link ObservableComposite} functionality */
+public class ObservableUInt64ListImpl<IndexType extends Number, ValueType extends UInt64>
+    extends ObservableListImpl<IndexType, ValueType>
+    implements WriteUInt64List<IndexType, ValueType> {
+
+  private final WriteUInt64List<IndexType, ValueType> delegate;
+
+  public ObservableUInt64ListImpl(WriteUInt64List<IndexType, ValueType> delegate) {
+    this(delegate, new ObservableCompositeHelper());
+  }
+
+  private ObservableUInt64ListImpl(
+      WriteUInt64List<IndexType, ValueType> delegate, ObservableCompositeHelper observableHelper) {
+    super(delegate, observableHelper);
+    this.delegate = delegate;
+  }
+
+  public static <IndexType1 extends Number, ValueType1 extends UInt64>
+      WriteUInt64List<IndexType1, ValueType1> create(
+          Function<Integer, IndexType1> indexConverter,
+          LongFunction<ValueType1> valueConverter,
+          long maxSize) {
+    return new ObservableUInt64ListImpl<>(
+        WriteUInt64List.create(indexConverter, valueConverter, maxSize));
+  }
+
+  public static <IndexType1 extends Number, ValueType1 extends UInt64>
+      WriteUInt64List<IndexType1, ValueType1> create(
+          Function<Integer, IndexType1> indexConverter,
+          LongFunction<ValueType1> valueConverter,
+          boolean vector) {
+    return new ObservableUInt64ListImpl<>(
+        WriteUInt64List.create(indexConverter, valueConverter, vector));
+  }
+
+  @Override
+  public WriteUInt64List<IndexType, ValueType> createMutableCopy() {
+    return new ObservableUInt64ListImpl<>(delegate.createMutableCopy(), observableHelper.fork());
+  }
+
+  @Override
+  public WriteUInt64List<IndexType, ValueType> cappedCopy(long maxSize) {
+    // TODO dirty hack with cast
+    return new ObservableUInt64ListImpl<>(
+        (WriteUInt64List<IndexType, ValueType>) delegate.cappedCopy(maxSize),
+        observableHelper.fork());
+  }
+
+  @Override
+  public ReadList<IndexType, ValueType> createImmutableCopy() {
+    // TODO dirty hack with cast
+    return new ObservableUInt64ListImpl<>(
+        (WriteUInt64List<IndexType, ValueType>) delegate.createImmutableCopy(),
+        observableHelper.fork());
+  }
+
+  @Override
+  public long getLong(IndexType index) {
+    return delegate.getLong(index);
+  }
+
+  @Override
+  public void setLong(IndexType index, long value) {
+    delegate.setLong(index, value);
+    observableHelper.childUpdated(index.intValue());
+  }
+}
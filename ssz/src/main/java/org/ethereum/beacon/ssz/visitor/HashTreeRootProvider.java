@@ -0,0 +1,24 @@
+package org.ethereum.beacon.ssz.visitor;
+
+import java.util.function.Function;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+import tech.pegasys.artemis.util.bytes.BytesValue;
+
+/**
+ * A value which evaluates its own hash tree root instead of being visited field by field by a
+ * hasher. Lets a collection that doesn't keep its elements as objects, like a columnar one, hash
+ * elements straight from its storage.
+ *
+ * <p>Hashers ask for the root only if a value is a child of a composite and chunks are 32 bytes
+ * long, the root must be the same as the one of the value visited as a container.
+ */
+public interface HashTreeRootProvider {
+
+  /**
+   * Evaluates hash tree root of this value.
+   *
+   * @param hashFunction hash function used by the hasher.
+   * @return hash tree root.
+   */
+  Hash32 getHashTreeRoot(Function<BytesValue, Hash32> hashFunction);
+}
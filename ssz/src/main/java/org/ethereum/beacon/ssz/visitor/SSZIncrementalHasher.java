@@ -44,11 +44,10 @@ public class SSZIncrementalHasher extends SSZSimpleHasher {
       elementsUpdated.add(childIndex);
     }
 
+    /** Forks share the merkle trie, a cached trie is never modified as updates build a new one. */
     @Override
     public UpdateListener fork() {
-      return new SSZIncrementalTracker(
-          (TreeSet<Integer>) elementsUpdated.clone(),
-          merkleTree == null ? null : merkleTree.copy());
+      return new SSZIncrementalTracker((TreeSet<Integer>) elementsUpdated.clone(), merkleTree);
     }
   }
 
@@ -95,7 +94,7 @@ public class SSZIncrementalHasher extends SSZSimpleHasher {
     return updateTrie(
         type,
         value,
-        idx -> childVisitor.apply(idx, type.getChild(value, idx)).getFinalRoot(),
+        idx -> getChildRoot(type, value, idx, childVisitor),
         type.getChildrenCount(value),
         merkleTree,
         elementsUpdated);
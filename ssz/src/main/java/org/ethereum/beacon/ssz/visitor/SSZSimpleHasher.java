@@ -21,6 +21,7 @@ import tech.pegasys.artemis.util.collections.Bitlist;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 
 import static java.util.Collections.emptyList;
@@ -89,7 +90,7 @@ public class SSZSimpleHasher implements SSZVisitor<MerkleTrie, Object> {
       chunks = pack(serialization);
     } else {
       for (int i = 0; i < type.getChildrenCount(rawValue); i++) {
-        chunks.add(childVisitor.apply(i, type.getChild(rawValue, i)).getFinalRoot());
+        chunks.add(getChildRoot(type, rawValue, i, childVisitor));
       }
     }
     Long padFor = null;
@@ -113,6 +114,22 @@ public class SSZSimpleHasher implements SSZVisitor<MerkleTrie, Object> {
     return merkle;
   }
 
+  /**
+   * Evaluates hash tree root of a child, a child which is a {@link HashTreeRootProvider} evaluates
+   * it by itself.
+   */
+  BytesValue getChildRoot(
+      SSZCompositeType type,
+      Object value,
+      int idx,
+      BiFunction<Integer, Object, MerkleTrie> childVisitor) {
+    Object child = type.getChild(value, idx);
+    if (child instanceof HashTreeRootProvider && bytesPerChunk == Bytes32.SIZE) {
+      return ((HashTreeRootProvider) child).getHashTreeRoot(hashFunction);
+    }
+    return childVisitor.apply(idx, child).getFinalRoot();
+  }
+
   private BytesValue removeBitListSize(Object value, BytesValue bitlist) {
     MutableBytesValue encoded = bitlist.mutableCopy();
     Bitlist obj = (Bitlist) value;
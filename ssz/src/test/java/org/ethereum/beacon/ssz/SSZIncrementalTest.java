@@ -13,6 +13,7 @@ import org.ethereum.beacon.ssz.incremental.ObservableComposite;
 import org.ethereum.beacon.ssz.incremental.ObservableCompositeHelper;
 import org.ethereum.beacon.ssz.incremental.ObservableCompositeHelper.ObsValue;
 import org.ethereum.beacon.ssz.incremental.ObservableListImpl;
+import org.ethereum.beacon.ssz.incremental.ObservableUInt64ListImpl;
 import org.ethereum.beacon.ssz.incremental.UpdateListener;
 import org.ethereum.beacon.ssz.type.list.SSZListType;
 import org.ethereum.beacon.ssz.type.SSZType;
@@ -28,6 +29,7 @@ import tech.pegasys.artemis.ethereum.core.Hash32;
 import tech.pegasys.artemis.util.bytes.BytesValue;
 import tech.pegasys.artemis.util.collections.ReadList;
 import tech.pegasys.artemis.util.collections.WriteList;
+import tech.pegasys.artemis.util.collections.WriteUInt64List;
 import tech.pegasys.artemis.util.uint.UInt64;
 
 public class SSZIncrementalTest {
@@ -391,6 +393,20 @@ public class SSZIncrementalTest {
         });
   }
 
+  @Test
+  public void testPersistentListRandom() {
+    listRandomTest(
+        new ObservableListImpl<>(
+            WriteList.createPersistent(Integer::valueOf, false, ReadList.VARIABLE_SIZE)),
+        new Supplier<A1>() {
+          int i = 0x0F000000;
+          @Override
+          public A1 get() {
+            return new A1(i++);
+          }
+        });
+  }
+
   @Test
   public void testPackedListRandom() {
     listRandomTest(
@@ -404,6 +420,17 @@ public class SSZIncrementalTest {
           }
         });
 
+    listRandomTest(
+        new ObservableUInt64ListImpl<>(WriteUInt64List.create(Integer::valueOf, UInt64::valueOf)),
+        new Supplier<UInt64>() {
+          UInt64 val = UInt64.valueOf(0xF00000000L);
+          @Override
+          public UInt64 get() {
+            val = val.increment();
+            return val;
+          }
+        });
+
     listRandomTest(
         new ObservableListImpl<>(WriteList.create(Integer::valueOf)),
         new Supplier<Integer>() {
@@ -63,6 +63,41 @@ public class Benchmaker implements Runnable {
       description = "Turns off incremental hashing.")
   private Boolean noIncrement = false;
 
+  @CommandLine.Option(
+      names = {"--single-pass-epoch"},
+      description =
+          "Turns on single pass epoch processing."
+              + " Use with --registry-size 100000 or greater to compare epoch transition time.")
+  private Boolean singlePassEpoch = false;
+
+  @CommandLine.Option(
+      names = {"--columnar-registry"},
+      description =
+          "Keeps validator registry in columns of primitive values."
+              + " Use with --registry-size 100000 or greater to compare epoch transition time.")
+  private Boolean columnarRegistry = false;
+
+  @CommandLine.Option(
+      names = {"--state-storage"},
+      description =
+          "Replays imported states into full copy and epoch snapshot storage layouts"
+              + " and reports bytes written per block and read latency.")
+  private Boolean stateStorage = false;
+
+  @CommandLine.Option(
+      names = {"--storage-reads"},
+      description =
+          "Writes imported blocks and states to a temporary RocksDB database"
+              + " and compares latency of reading a value with latency of a key existence check.")
+  private Boolean storageReads = false;
+
+  @CommandLine.Option(
+      names = {"--storage-engines"},
+      description =
+          "Writes imported blocks and states to a temporary database of each storage engine"
+              + " and compares import throughput and read latency.")
+  private Boolean storageEngines = false;
+
   public static void main(String[] args) {
     try {
       CommandLine commandLine = new CommandLine(new Benchmaker());
@@ -97,9 +132,19 @@ public class Benchmaker implements Runnable {
             .withHasher(SSZObjectHasher.create(constants, Hashes::sha256, !noIncrement))
             .withBlsVerify(!noBls)
             .withCache(!noCache)
+            .withSinglePassEpochProcessing(singlePassEpoch)
+            .withColumnarRegistry(columnarRegistry)
             .withBlsVerifyProofOfPossession(false);
 
-    new BenchmarkRunner(epochs, registrySize, specBuilder, warmUpEpochs).run();
+    new BenchmarkRunner(
+            epochs,
+            registrySize,
+            specBuilder,
+            warmUpEpochs,
+            stateStorage,
+            storageReads,
+            storageEngines)
+        .run();
   }
 
   static class VersionProvider implements IVersionProvider {
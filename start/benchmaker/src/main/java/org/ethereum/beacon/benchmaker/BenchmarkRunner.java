@@ -47,14 +47,57 @@ public class BenchmarkRunner implements Runnable {
   private final int warmUpEpochs;
   private final BeaconChainSpec spec;
   private final BeaconChainSpec.Builder specBuilder;
+  private final StateStorageBenchmark stateStorageBenchmark;
+  private final StorageReadBenchmark storageReadBenchmark;
+  private final StorageEngineBenchmark storageEngineBenchmark;
 
   public BenchmarkRunner(
       int epochCount, int validatorCount, BeaconChainSpec.Builder specBuilder, int warmUpEpochs) {
+    this(epochCount, validatorCount, specBuilder, warmUpEpochs, false);
+  }
+
+  public BenchmarkRunner(
+      int epochCount,
+      int validatorCount,
+      BeaconChainSpec.Builder specBuilder,
+      int warmUpEpochs,
+      boolean benchStateStorage) {
+    this(epochCount, validatorCount, specBuilder, warmUpEpochs, benchStateStorage, false);
+  }
+
+  public BenchmarkRunner(
+      int epochCount,
+      int validatorCount,
+      BeaconChainSpec.Builder specBuilder,
+      int warmUpEpochs,
+      boolean benchStateStorage,
+      boolean benchStorageReads) {
+    this(
+        epochCount,
+        validatorCount,
+        specBuilder,
+        warmUpEpochs,
+        benchStateStorage,
+        benchStorageReads,
+        false);
+  }
+
+  public BenchmarkRunner(
+      int epochCount,
+      int validatorCount,
+      BeaconChainSpec.Builder specBuilder,
+      int warmUpEpochs,
+      boolean benchStateStorage,
+      boolean benchStorageReads,
+      boolean benchStorageEngines) {
     this.epochCount = epochCount;
     this.validatorCount = validatorCount;
     this.specBuilder = specBuilder;
     this.spec = specBuilder.build();
     this.warmUpEpochs = warmUpEpochs;
+    this.stateStorageBenchmark = benchStateStorage ? new StateStorageBenchmark(spec) : null;
+    this.storageReadBenchmark = benchStorageReads ? new StorageReadBenchmark(spec) : null;
+    this.storageEngineBenchmark = benchStorageEngines ? new StorageEngineBenchmark(spec) : null;
   }
 
   private Pair<List<Deposit>, List<KeyPair>> getValidatorDeposits(BeaconChainSpec spec, int count) {
@@ -140,6 +183,18 @@ public class BenchmarkRunner implements Runnable {
         .subscribe(attestations::add);
     Flux.from(instance.getBeaconChain().getBlockStatesStream())
         .subscribe(blockState -> blocks.add(blockState.getBlock()));
+    if (stateStorageBenchmark != null) {
+      Flux.from(instance.getBeaconChain().getBlockStatesStream())
+          .subscribe(stateStorageBenchmark::onBlockImported);
+    }
+    if (storageReadBenchmark != null) {
+      Flux.from(instance.getBeaconChain().getBlockStatesStream())
+          .subscribe(storageReadBenchmark::onBlockImported);
+    }
+    if (storageEngineBenchmark != null) {
+      Flux.from(instance.getBeaconChain().getBlockStatesStream())
+          .subscribe(storageEngineBenchmark::onBlockImported);
+    }
 
     // show benchmark report if process exit requested by user
     Runtime.getRuntime()
@@ -182,6 +237,21 @@ public class BenchmarkRunner implements Runnable {
 
     System.out.println();
     System.out.println(controller.createReport().print());
+
+    if (stateStorageBenchmark != null) {
+      System.out.println();
+      System.out.println(stateStorageBenchmark.run());
+    }
+
+    if (storageReadBenchmark != null) {
+      System.out.println();
+      System.out.println(storageReadBenchmark.run());
+    }
+
+    if (storageEngineBenchmark != null) {
+      System.out.println();
+      System.out.println(storageEngineBenchmark.run());
+    }
   }
 
   private String printOverview(Launcher instance) {
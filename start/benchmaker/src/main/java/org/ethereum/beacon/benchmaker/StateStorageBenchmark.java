@@ -0,0 +1,122 @@
+package org.ethereum.beacon.benchmaker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import org.ethereum.beacon.bench.BenchmarkReport;
+import org.ethereum.beacon.bench.BenchmarkUtils;
+import org.ethereum.beacon.chain.BeaconTuple;
+import org.ethereum.beacon.chain.storage.BeaconStateStorage;
+import org.ethereum.beacon.chain.storage.impl.BeaconStateStorageImpl;
+import org.ethereum.beacon.chain.storage.impl.DeltaBeaconStateStorageImpl;
+import org.ethereum.beacon.chain.storage.impl.SerializerFactory;
+import org.ethereum.beacon.consensus.BeaconChainSpec;
+import org.ethereum.beacon.db.InMemoryDatabase;
+import org.ethereum.beacon.db.source.DataSource;
+import org.ethereum.beacon.db.source.impl.DelegateDataSource;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+import tech.pegasys.artemis.util.bytes.BytesValue;
+
+/**
+ * Replays post-block states collected during benchmark session into different state storage
+ * layouts and compares a number of bytes written per block and a state read latency.
+ */
+class StateStorageBenchmark {
+
+  private final BeaconChainSpec spec;
+  private final List<BeaconTuple> tuples = new ArrayList<>();
+
+  StateStorageBenchmark(BeaconChainSpec spec) {
+    this.spec = spec;
+  }
+
+  void onBlockImported(BeaconTuple tuple) {
+    tuples.add(tuple);
+  }
+
+  String run() {
+    SerializerFactory serializerFactory =
+        SerializerFactory.createSSZ(spec.getConstants(), spec.isColumnarRegistry());
+
+    CountingDatabase fullCopyDb = new CountingDatabase();
+    BeaconStateStorage fullCopy =
+        BeaconStateStorageImpl.create(fullCopyDb, spec.getObjectHasher(), serializerFactory);
+
+    CountingDatabase snapshotDb = new CountingDatabase();
+    BeaconStateStorage snapshots =
+        DeltaBeaconStateStorageImpl.create(
+            snapshotDb,
+            spec.getObjectHasher(),
+            serializerFactory,
+            spec.getConstants().getSlotsPerEpoch().getValue());
+
+    return Result.format("STATE STORAGE", "bytes/block", "read avg, ms", "read 95%, ms") + '\n'
+        + measure(fullCopy, fullCopyDb).print("full copy", "  ") + '\n'
+        + measure(snapshots, snapshotDb).print("epoch snapshots + deltas", "  ") + '\n';
+  }
+
+  private Result measure(BeaconStateStorage storage, CountingDatabase db) {
+    Result result = new Result();
+    if (tuples.isEmpty()) {
+      return result;
+    }
+
+    for (BeaconTuple tuple : tuples) {
+      storage.put(tuple.getBlock().getStateRoot(), tuple.getState());
+    }
+    result.bytesPerBlock = db.getBytesWritten() / tuples.size();
+
+    List<Long> readTimes = new ArrayList<>();
+    for (BeaconTuple tuple : tuples) {
+      Hash32 root = tuple.getBlock().getStateRoot();
+      long s = System.nanoTime();
+      storage.get(root).orElseThrow(() -> new IllegalStateException("State not found: " + root));
+      readTimes.add(System.nanoTime() - s);
+    }
+    List<Long> sorted = readTimes.stream().sorted().collect(Collectors.toList());
+    result.avgReadTime = sorted.stream().mapToLong(Long::longValue).average().orElse(0);
+    result.readPercentile = BenchmarkUtils.percentile(BenchmarkReport.PERCENTILE_RATIO, sorted);
+
+    return result;
+  }
+
+  private static class Result {
+    private long bytesPerBlock = 0;
+    private double avgReadTime = 0;
+    private long readPercentile = 0;
+
+    String print(String title, String leftPadding) {
+      return format(
+          leftPadding + title,
+          String.valueOf(bytesPerBlock),
+          String.format("%.3f", avgReadTime / 1_000_000d),
+          String.format("%.3f", readPercentile / 1_000_000d));
+    }
+
+    static String format(String title, String bytes, String avgTime, String percentile) {
+      return String.format("%-45s%15s%15s%15s", title, bytes, avgTime, percentile);
+    }
+  }
+
+  /** In-memory database that counts bytes passed to {@code put} of any of its storages. */
+  private static class CountingDatabase extends InMemoryDatabase {
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    @Override
+    public DataSource<BytesValue, BytesValue> createStorage(String name) {
+      return new DelegateDataSource<BytesValue, BytesValue>(super.createStorage(name)) {
+        @Override
+        public void put(@Nonnull BytesValue key, @Nonnull BytesValue value) {
+          bytesWritten.addAndGet(key.size() + value.size());
+          super.put(key, value);
+        }
+      };
+    }
+
+    long getBytesWritten() {
+      return bytesWritten.get();
+    }
+  }
+}
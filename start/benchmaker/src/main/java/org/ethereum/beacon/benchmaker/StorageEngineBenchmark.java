@@ -0,0 +1,174 @@
+package org.ethereum.beacon.benchmaker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.ethereum.beacon.bench.BenchmarkReport;
+import org.ethereum.beacon.bench.BenchmarkUtils;
+import org.ethereum.beacon.chain.BeaconTuple;
+import org.ethereum.beacon.chain.storage.impl.SerializerFactory;
+import org.ethereum.beacon.consensus.BeaconChainSpec;
+import org.ethereum.beacon.core.BeaconBlock;
+import org.ethereum.beacon.core.BeaconState;
+import org.ethereum.beacon.db.Database;
+import org.ethereum.beacon.db.DatabaseEngine;
+import org.ethereum.beacon.db.source.DataSource;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+import tech.pegasys.artemis.util.bytes.BytesValue;
+
+/**
+ * Replays blocks and post-block states collected during benchmark session into a temporary
+ * database of each {@link DatabaseEngine} and compares import throughput and read latency.
+ *
+ * <p>Import writes a block and its state and commits the database after each block, like block
+ * import does, a write buffer is flushed to the engine synchronously, hence, engine stalls show up
+ * in upper percentiles of commit time. Reads are done in random order after the database is
+ * reopened.
+ */
+class StorageEngineBenchmark {
+
+  /** Write buffer limit, the same as the one used by storage tools. */
+  private static final long BUFFER_LIMIT = 1L << 20;
+
+  private final BeaconChainSpec spec;
+  private final List<BeaconTuple> tuples = new ArrayList<>();
+
+  StorageEngineBenchmark(BeaconChainSpec spec) {
+    this.spec = spec;
+  }
+
+  void onBlockImported(BeaconTuple tuple) {
+    tuples.add(tuple);
+  }
+
+  String run() {
+    SerializerFactory serializerFactory =
+        SerializerFactory.createSSZ(spec.getConstants(), spec.isColumnarRegistry());
+    Function<BeaconBlock, BytesValue> blockSerializer =
+        serializerFactory.getSerializer(BeaconBlock.class);
+    Function<BeaconState, BytesValue> stateSerializer =
+        serializerFactory.getSerializer(BeaconState.class);
+
+    List<Hash32> blockRoots = new ArrayList<>();
+    List<BytesValue> blocks = new ArrayList<>();
+    List<Hash32> stateRoots = new ArrayList<>();
+    List<BytesValue> states = new ArrayList<>();
+    for (BeaconTuple tuple : tuples) {
+      blockRoots.add(spec.signing_root(tuple.getBlock()));
+      blocks.add(blockSerializer.apply(tuple.getBlock()));
+      stateRoots.add(tuple.getBlock().getStateRoot());
+      states.add(stateSerializer.apply(tuple.getState()));
+    }
+
+    StringBuilder importReport =
+        new StringBuilder(
+            Result.format("STORAGE ENGINE IMPORT", "blocks/s", "avg, ms", "95%, ms") + '\n');
+    StringBuilder readReport =
+        new StringBuilder(
+            Result.format("STORAGE ENGINE READS", "reads/s", "avg, ms", "95%, ms") + '\n');
+
+    for (DatabaseEngine engine : DatabaseEngine.values()) {
+      Path dbPath;
+      try {
+        dbPath = Files.createTempDirectory("storage-engine-benchmark");
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to create temporary database directory", e);
+      }
+
+      String name = engine.name().toLowerCase();
+      try {
+        Database db = engine.create(dbPath.toString(), BUFFER_LIMIT, 0);
+        DataSource<BytesValue, BytesValue> blockStorage = db.createStorage("beacon-block");
+        DataSource<BytesValue, BytesValue> stateStorage = db.createStorage("beacon-state");
+        List<Long> commitTimes = new ArrayList<>();
+        for (int i = 0; i < blocks.size(); i++) {
+          long s = System.nanoTime();
+          blockStorage.put(blockRoots.get(i), blocks.get(i));
+          stateStorage.put(stateRoots.get(i), states.get(i));
+          db.commit();
+          commitTimes.add(System.nanoTime() - s);
+        }
+        db.close();
+        importReport.append(Result.of(commitTimes).print(name + ": put + commit", "  "));
+        importReport.append('\n');
+
+        db = engine.create(dbPath.toString(), -1, 0);
+        blockStorage = db.createStorage("beacon-block");
+        stateStorage = db.createStorage("beacon-state");
+        readReport.append(measure(blockRoots, blockStorage).print(name + ": block get", "  "));
+        readReport.append('\n');
+        readReport.append(measure(stateRoots, stateStorage).print(name + ": state get", "  "));
+        readReport.append('\n');
+        db.close();
+      } finally {
+        removeRecursively(dbPath);
+      }
+    }
+
+    return importReport.toString() + '\n' + readReport.toString();
+  }
+
+  private Result measure(List<Hash32> roots, DataSource<BytesValue, BytesValue> storage) {
+    List<Hash32> shuffled = new ArrayList<>(roots);
+    Collections.shuffle(shuffled, new Random(1));
+
+    List<Long> times = new ArrayList<>();
+    for (Hash32 root : shuffled) {
+      long s = System.nanoTime();
+      if (!storage.get(root).isPresent()) {
+        throw new IllegalStateException("Entry not found: " + root);
+      }
+      times.add(System.nanoTime() - s);
+    }
+    return Result.of(times);
+  }
+
+  private static void removeRecursively(Path path) {
+    try (Stream<Path> files = Files.walk(path)) {
+      files.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+    } catch (IOException e) {
+      // a temporary directory, not a big deal
+    }
+  }
+
+  private static class Result {
+    private long totalTime = 0;
+    private int count = 0;
+    private double avgTime = 0;
+    private long percentile = 0;
+
+    static Result of(List<Long> times) {
+      Result result = new Result();
+      if (times.isEmpty()) {
+        return result;
+      }
+      List<Long> sorted = times.stream().sorted().collect(Collectors.toList());
+      result.count = sorted.size();
+      result.totalTime = sorted.stream().mapToLong(Long::longValue).sum();
+      result.avgTime = (double) result.totalTime / result.count;
+      result.percentile = BenchmarkUtils.percentile(BenchmarkReport.PERCENTILE_RATIO, sorted);
+      return result;
+    }
+
+    String print(String title, String leftPadding) {
+      double rate = totalTime > 0 ? count * 1_000_000_000d / totalTime : 0;
+      return format(
+          leftPadding + title,
+          String.format("%.1f", rate),
+          String.format("%.3f", avgTime / 1_000_000d),
+          String.format("%.3f", percentile / 1_000_000d));
+    }
+
+    static String format(String title, String rate, String avgTime, String percentile) {
+      return String.format("%-45s%15s%15s%15s", title, rate, avgTime, percentile);
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package org.ethereum.beacon.benchmaker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.ethereum.beacon.bench.BenchmarkReport;
+import org.ethereum.beacon.bench.BenchmarkUtils;
+import org.ethereum.beacon.chain.BeaconTuple;
+import org.ethereum.beacon.chain.storage.impl.SerializerFactory;
+import org.ethereum.beacon.consensus.BeaconChainSpec;
+import org.ethereum.beacon.core.BeaconBlock;
+import org.ethereum.beacon.core.BeaconState;
+import org.ethereum.beacon.core.state.BeaconStateImpl;
+import org.ethereum.beacon.db.Database;
+import org.ethereum.beacon.db.source.CodecSource;
+import org.ethereum.beacon.db.source.DataSource;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+import tech.pegasys.artemis.util.bytes.BytesValue;
+
+/**
+ * Writes blocks and post-block states collected during benchmark session to a temporary RocksDB
+ * database and compares a latency of an existence check done by reading and decoding a value with
+ * a latency of {@link DataSource#containsKey(Object)} which reads nothing but value size.
+ */
+class StorageReadBenchmark {
+
+  private final BeaconChainSpec spec;
+  private final List<BeaconTuple> tuples = new ArrayList<>();
+
+  StorageReadBenchmark(BeaconChainSpec spec) {
+    this.spec = spec;
+  }
+
+  void onBlockImported(BeaconTuple tuple) {
+    tuples.add(tuple);
+  }
+
+  String run() {
+    Path dbPath;
+    try {
+      dbPath = Files.createTempDirectory("storage-read-benchmark");
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to create temporary database directory", e);
+    }
+
+    SerializerFactory serializerFactory =
+        SerializerFactory.createSSZ(spec.getConstants(), spec.isColumnarRegistry());
+    Database db = Database.rocksDB(dbPath.toString(), -1);
+    try {
+      DataSource<Hash32, BeaconBlock> blocks =
+          new CodecSource<>(
+              db.createStorage("beacon-block"),
+              key -> key,
+              serializerFactory.getSerializer(BeaconBlock.class),
+              serializerFactory.getDeserializer(BeaconBlock.class));
+      DataSource<Hash32, BeaconState> states =
+          new CodecSource<>(
+              db.createStorage("beacon-state"),
+              key -> key,
+              serializerFactory.getSerializer(BeaconState.class),
+              bytes -> serializerFactory.getDeserializer(BeaconStateImpl.class).apply(bytes));
+
+      List<Hash32> blockRoots = new ArrayList<>();
+      List<Hash32> stateRoots = new ArrayList<>();
+      for (BeaconTuple tuple : tuples) {
+        Hash32 blockRoot = spec.signing_root(tuple.getBlock());
+        blocks.put(blockRoot, tuple.getBlock());
+        states.put(tuple.getBlock().getStateRoot(), tuple.getState());
+        blockRoots.add(blockRoot);
+        stateRoots.add(tuple.getBlock().getStateRoot());
+      }
+      db.commit();
+
+      return Result.format("STORAGE EXISTENCE CHECK", "avg, ms", "95%, ms") + '\n'
+          + measure(blockRoots, root -> blocks.get(root).isPresent())
+              .print("block: get + decode", "  ") + '\n'
+          + measure(blockRoots, blocks::containsKey).print("block: containsKey", "  ") + '\n'
+          + measure(stateRoots, root -> states.get(root).isPresent())
+              .print("state: get + decode", "  ") + '\n'
+          + measure(stateRoots, states::containsKey).print("state: containsKey", "  ") + '\n';
+    } finally {
+      db.close();
+      removeRecursively(dbPath);
+    }
+  }
+
+  private Result measure(List<Hash32> roots, Predicate<Hash32> check) {
+    Result result = new Result();
+    if (roots.isEmpty()) {
+      return result;
+    }
+
+    List<Long> times = new ArrayList<>();
+    for (Hash32 root : roots) {
+      long s = System.nanoTime();
+      if (!check.test(root)) {
+        throw new IllegalStateException("Entry not found: " + root);
+      }
+      times.add(System.nanoTime() - s);
+    }
+    List<Long> sorted = times.stream().sorted().collect(Collectors.toList());
+    result.avgTime = sorted.stream().mapToLong(Long::longValue).average().orElse(0);
+    result.percentile = BenchmarkUtils.percentile(BenchmarkReport.PERCENTILE_RATIO, sorted);
+
+    return result;
+  }
+
+  private static void removeRecursively(Path path) {
+    try (Stream<Path> files = Files.walk(path)) {
+      files.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+    } catch (IOException e) {
+      // a temporary directory, not a big deal
+    }
+  }
+
+  private static class Result {
+    private double avgTime = 0;
+    private long percentile = 0;
+
+    String print(String title, String leftPadding) {
+      return format(
+          leftPadding + title,
+          String.format("%.3f", avgTime / 1_000_000d),
+          String.format("%.3f", percentile / 1_000_000d));
+    }
+
+    static String format(String title, String avgTime, String percentile) {
+      return String.format("%-45s%15s%15s", title, avgTime, percentile);
+    }
+  }
+}
@@ -348,6 +348,7 @@ public class BenchmarkReport {
     TOP_METHOD_LIST.put(
         BenchmarkRoutine.EPOCH,
         new String[] {
+          "get_validator_statuses",
           "process_justification_and_finalization",
           "process_rewards_and_penalties",
           "process_registry_updates",
@@ -9,6 +9,8 @@ import java.util.function.Function;
 import java.util.function.Supplier;
 import org.ethereum.beacon.consensus.BeaconChainSpec;
 import org.ethereum.beacon.consensus.hasher.ObjectHasher;
+import org.ethereum.beacon.consensus.spec.BLSFunctions;
+import org.ethereum.beacon.consensus.spec.ValidatorStatuses;
 import org.ethereum.beacon.consensus.util.CachingBeaconChainSpec;
 import org.ethereum.beacon.core.BeaconBlock;
 import org.ethereum.beacon.core.BeaconBlockBody;
@@ -48,6 +50,8 @@ public class BenchmarkingBeaconChainSpec extends CachingBeaconChainSpec {
         spec.isBlsVerifyProofOfPossession(),
         spec.isVerifyDepositProof(),
         spec.isComputableGenesisTime(),
+        spec.isSinglePassEpochProcessing(),
+        spec.isColumnarRegistry(),
         spec instanceof CachingBeaconChainSpec && ((CachingBeaconChainSpec) spec).isCacheEnabled());
 
     // share caches between all instances to avoid cache duplication
@@ -66,15 +70,20 @@ public class BenchmarkingBeaconChainSpec extends CachingBeaconChainSpec {
       boolean blsVerifyProofOfPossession,
       boolean verifyDepositProof,
       boolean computableGenesisTime,
+      boolean singlePassEpochProcessing,
+      boolean columnarRegistry,
       boolean cacheEnabled) {
     super(
         constants,
         hashFunction,
         objectHasher,
+        BLSFunctions.getDefaultBLSFunctions(blsVerify),
         blsVerify,
         blsVerifyProofOfPossession,
         verifyDepositProof,
         computableGenesisTime,
+        singlePassEpochProcessing,
+        columnarRegistry,
         cacheEnabled);
   }
 
@@ -219,11 +228,32 @@ public class BenchmarkingBeaconChainSpec extends CachingBeaconChainSpec {
         () -> super.process_justification_and_finalization(state));
   }
 
+  @Override
+  public void process_justification_and_finalization(
+      MutableBeaconState state, ValidatorStatuses statuses) {
+    callAndTrack(
+        "process_justification_and_finalization",
+        () -> super.process_justification_and_finalization(state, statuses));
+  }
+
+  @Override
+  public ValidatorStatuses get_validator_statuses(BeaconState state) {
+    return callAndTrack("get_validator_statuses", () -> super.get_validator_statuses(state));
+  }
+
   @Override
   public void process_rewards_and_penalties(MutableBeaconState state) {
     callAndTrack("process_rewards_and_penalties", () -> super.process_rewards_and_penalties(state));
   }
 
+  @Override
+  public void process_rewards_and_penalties(
+      MutableBeaconState state, ValidatorStatuses statuses) {
+    callAndTrack(
+        "process_rewards_and_penalties",
+        () -> super.process_rewards_and_penalties(state, statuses));
+  }
+
   @Override
   public List<ValidatorIndex> process_registry_updates(MutableBeaconState state) {
     return callAndTrack("process_registry_updates", () -> super.process_registry_updates(state));
@@ -234,6 +264,11 @@ public class BenchmarkingBeaconChainSpec extends CachingBeaconChainSpec {
     callAndTrack("process_slashings", () -> super.process_slashings(state));
   }
 
+  @Override
+  public void process_slashings(MutableBeaconState state, ValidatorStatuses statuses) {
+    callAndTrack("process_slashings", () -> super.process_slashings(state, statuses));
+  }
+
   @Override
   public void process_final_updates(MutableBeaconState state) {
     callAndTrack("process_final_updates", () -> super.process_final_updates(state));
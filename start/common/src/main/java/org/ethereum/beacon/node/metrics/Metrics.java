@@ -3,6 +3,7 @@ package org.ethereum.beacon.node.metrics;
 import io.prometheus.client.Counter;
 import io.prometheus.client.Gauge;
 import io.prometheus.client.exporter.HTTPServer;
+import org.ethereum.beacon.chain.observer.AttestationIngestion;
 import org.ethereum.beacon.chain.observer.ObservableBeaconState;
 import org.ethereum.beacon.consensus.BeaconChainSpec;
 import org.ethereum.beacon.consensus.BeaconStateEx;
@@ -129,6 +130,27 @@ public class Metrics {
           .name("beacon_propagated_attestations")
           .help("Number of distinct attestations to a slot received from the wire")
           .register();
+  // extra metrics, not required by spec
+  static Gauge QUEUED_ATTESTATIONS =
+      Gauge.build()
+          .name("beacon_queued_attestations")
+          .help("Number of attestations waiting for verification")
+          .register();
+  static Gauge DROPPED_ATTESTATIONS =
+      Gauge.build()
+          .name("beacon_dropped_attestations")
+          .help("Number of attestations dropped due to full verification queue")
+          .register();
+  static Gauge DUPLICATE_ATTESTATIONS =
+      Gauge.build()
+          .name("beacon_duplicate_attestations")
+          .help("Number of attestations received more than once")
+          .register();
+  static Gauge INVALID_ATTESTATIONS =
+      Gauge.build()
+          .name("beacon_invalid_attestations")
+          .help("Number of attestations failed the verification")
+          .register();
   private static HTTPServer metricsServer;
 
   private static final Object attestation_lock = new Object();
@@ -219,6 +241,13 @@ public class Metrics {
         state.getEth1Data().getDepositCount().minus(state.getEth1DepositIndex()).doubleValue());
   }
 
+  public static void onAttestationIngestion(AttestationIngestion ingestion) {
+    QUEUED_ATTESTATIONS.set(ingestion.getQueued());
+    DROPPED_ATTESTATIONS.set(ingestion.getDropped());
+    DUPLICATE_ATTESTATIONS.set(ingestion.getDuplicates());
+    INVALID_ATTESTATIONS.set(ingestion.getInvalid());
+  }
+
   public static void onHeadChanged(BeaconChainSpec spec, BeaconBlock head) {
     HEAD_SLOT.set(head.getSlot().doubleValue());
     setRoot(HEAD_ROOT, spec.signing_root(head));
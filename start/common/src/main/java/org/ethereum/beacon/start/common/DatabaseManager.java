@@ -6,6 +6,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import org.ethereum.beacon.core.types.Time;
 import org.ethereum.beacon.db.Database;
+import org.ethereum.beacon.db.DatabaseEngine;
 import org.ethereum.beacon.db.InMemoryDatabase;
 import tech.pegasys.artemis.ethereum.core.Hash32;
 
@@ -34,11 +35,40 @@ public interface DatabaseManager {
   }
 
   static DatabaseManager createRocksDBFactory(String dbPrefix, long bufferSize) {
+    return createRocksDBFactory(dbPrefix, bufferSize, 0);
+  }
+
+  /**
+   * Creates a factory of RocksDB databases.
+   *
+   * @param dbPrefix database path prefix.
+   * @param bufferSize write buffer size in bytes.
+   * @param flushesInFlight a number of buffers flushed in background before commits are blocked,
+   *     buffers are flushed synchronously if this value is not greater than zero.
+   * @return a factory.
+   */
+  static DatabaseManager createRocksDBFactory(
+      String dbPrefix, long bufferSize, int flushesInFlight) {
+    return createFactory(DatabaseEngine.ROCKSDB, dbPrefix, bufferSize, flushesInFlight);
+  }
+
+  /**
+   * Creates a factory of databases driven by given storage engine.
+   *
+   * @param engine storage engine.
+   * @param dbPrefix database path prefix.
+   * @param bufferSize write buffer size in bytes.
+   * @param flushesInFlight a number of buffers flushed in background before commits are blocked,
+   *     buffers are flushed synchronously if this value is not greater than zero.
+   * @return a factory.
+   */
+  static DatabaseManager createFactory(
+      DatabaseEngine engine, String dbPrefix, long bufferSize, int flushesInFlight) {
     return new DatabaseManager() {
       @Override
       public Database getOrCreateDatabase(Time genesisTime, Hash32 depositRoot) {
-        return Database.rocksDB(
-            Paths.get(computeDbName(dbPrefix, genesisTime, depositRoot)).toString(), bufferSize);
+        String dbPath = Paths.get(computeDbName(dbPrefix, genesisTime, depositRoot)).toString();
+        return engine.create(dbPath, bufferSize, flushesInFlight);
       }
 
       @Override
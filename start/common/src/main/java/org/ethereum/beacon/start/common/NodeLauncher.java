@@ -7,6 +7,7 @@ import org.ethereum.beacon.chain.MutableBeaconChain;
 import org.ethereum.beacon.chain.ProposedBlockProcessor;
 import org.ethereum.beacon.chain.ProposedBlockProcessorImpl;
 import org.ethereum.beacon.chain.SlotTicker;
+import org.ethereum.beacon.chain.observer.AttestationIngestion;
 import org.ethereum.beacon.chain.observer.ObservableStateProcessor;
 import org.ethereum.beacon.chain.observer.ObservableStateProcessorImpl;
 import org.ethereum.beacon.chain.storage.BeaconChainStorage;
@@ -155,7 +156,7 @@ public class NodeLauncher {
     DirectProcessor<Attestation> allAttestations = DirectProcessor.create();
 
 
-    observableStateProcessor = new ObservableStateProcessorImpl(
+    ObservableStateProcessorImpl observableStateProcessorImpl = new ObservableStateProcessorImpl(
         beaconChainStorage,
         slotTicker.getTickerStream(),
         allAttestations,
@@ -164,11 +165,15 @@ public class NodeLauncher {
         emptySlotTransition,
         schedulers,
         validatorCred != null ? Integer.MAX_VALUE : DEFAULT_EMPTY_SLOT_TRANSITIONS_LIMIT);
+    observableStateProcessor = observableStateProcessorImpl;
 
     Flux.from(observableStateProcessor.getObservableStateStream())
         .subscribe(obs -> Metrics.onNewState(spec, obs));
     Flux.from(observableStateProcessor.getObservableStateStream())
         .subscribe(obs -> Metrics.onHeadChanged(spec, obs.getHead()));
+    AttestationIngestion attestationIngestion = observableStateProcessorImpl.getAttestationIngestion();
+    Flux.from(observableStateProcessor.getObservableStateStream())
+        .subscribe(obs -> Metrics.onAttestationIngestion(attestationIngestion));
     observableStateProcessor.start();
 
     SSZSerializer ssz = new SSZBuilder()
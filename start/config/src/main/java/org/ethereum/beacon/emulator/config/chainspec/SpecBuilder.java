@@ -41,6 +41,8 @@ public class SpecBuilder {
         .withCache(specHelpersOptions.isEnableCache())
         .withVerifyDepositProof(specHelpersOptions.isVerifyDepositProof())
         .withComputableGenesisTime(specHelpersOptions.isComputableGenesisTime())
+        .withSinglePassEpochProcessing(specHelpersOptions.isSinglePassEpochProcessing())
+        .withColumnarRegistry(specHelpersOptions.isColumnarRegistry())
         .build();
   }
 
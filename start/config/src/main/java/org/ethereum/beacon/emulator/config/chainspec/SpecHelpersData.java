@@ -15,6 +15,10 @@ public class SpecHelpersData {
 
   private boolean enableCache = true;
 
+  private boolean singlePassEpochProcessing = false;
+
+  private boolean columnarRegistry = false;
+
   public boolean isBlsVerify() {
     return blsVerify;
   }
@@ -62,4 +66,20 @@ public class SpecHelpersData {
   public void setComputableGenesisTime(boolean computableGenesisTime) {
     this.computableGenesisTime = computableGenesisTime;
   }
+
+  public boolean isSinglePassEpochProcessing() {
+    return singlePassEpochProcessing;
+  }
+
+  public void setSinglePassEpochProcessing(boolean singlePassEpochProcessing) {
+    this.singlePassEpochProcessing = singlePassEpochProcessing;
+  }
+
+  public boolean isColumnarRegistry() {
+    return columnarRegistry;
+  }
+
+  public void setColumnarRegistry(boolean columnarRegistry) {
+    this.columnarRegistry = columnarRegistry;
+  }
 }
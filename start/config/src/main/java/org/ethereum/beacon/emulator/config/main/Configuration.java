@@ -8,6 +8,8 @@ import org.ethereum.beacon.emulator.config.main.network.Network;
 public class Configuration {
   private String name;
   private String db;
+  private String dbEngine;
+  private int dbFlushesInFlight;
   private List<Network> networks = new ArrayList<>();
   private Validator validator;
   private String metricsEndpoint;
@@ -29,6 +31,27 @@ public class Configuration {
     this.db = db;
   }
 
+  /** @return storage engine name, {@code rocksdb}, {@code rocksdb_cf} or {@code lmdb}. */
+  public String getDbEngine() {
+    return dbEngine;
+  }
+
+  public void setDbEngine(String dbEngine) {
+    this.dbEngine = dbEngine;
+  }
+
+  /**
+   * @return number of database buffers flushed in background before block imports are blocked,
+   *     {@code 0} flushes buffers synchronously.
+   */
+  public int getDbFlushesInFlight() {
+    return dbFlushesInFlight;
+  }
+
+  public void setDbFlushesInFlight(int dbFlushesInFlight) {
+    this.dbFlushesInFlight = dbFlushesInFlight;
+  }
+
   public List<Network> getNetworks() {
     return networks;
   }
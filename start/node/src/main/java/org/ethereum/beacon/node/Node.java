@@ -2,6 +2,7 @@ package org.ethereum.beacon.node;
 
 import java.io.File;
 import java.util.List;
+import org.ethereum.beacon.db.DatabaseEngine;
 import org.ethereum.beacon.node.Node.VersionProvider;
 import org.ethereum.beacon.node.command.LogLevel;
 import org.ethereum.beacon.start.common.ClientInfo;
@@ -176,6 +177,26 @@ public class Node implements Runnable {
   )
   private String dbPrefix;
 
+  @CommandLine.Option(
+      names = "--db-engine",
+      paramLabel = "db-engine",
+      description = {
+          "Storage engine of the database: rocksdb, rocksdb_cf, lmdb.",
+          "rocksdb is used by default."
+      }
+  )
+  private DatabaseEngine dbEngine;
+
+  @CommandLine.Option(
+      names = "--db-flushes-in-flight",
+      paramLabel = "number",
+      description = {
+          "Number of database buffers flushed in background before block imports are blocked.",
+          "Buffers are flushed synchronously by default."
+      }
+  )
+  private Integer dbFlushesInFlight;
+
   @CommandLine.Option(
       names = {"--initial-deposit-count", "--validator-count"},
       paramLabel = "initial-deposit-count",
@@ -246,6 +267,14 @@ public class Node implements Runnable {
     return dbPrefix;
   }
 
+  public DatabaseEngine getDbEngine() {
+    return dbEngine;
+  }
+
+  public Integer getDbFlushesInFlight() {
+    return dbFlushesInFlight;
+  }
+
   public Integer getInitialDepositCount() {
     return initialDepositCount;
   }
@@ -23,6 +23,7 @@ import org.ethereum.beacon.core.state.Eth1Data;
 import org.ethereum.beacon.core.types.Time;
 import org.ethereum.beacon.crypto.BLS381.KeyPair;
 import org.ethereum.beacon.db.Database;
+import org.ethereum.beacon.db.DatabaseEngine;
 import org.ethereum.beacon.emulator.config.ConfigBuilder;
 import org.ethereum.beacon.emulator.config.ConfigException;
 import org.ethereum.beacon.emulator.config.chainspec.SpecBuilder;
@@ -157,7 +158,8 @@ public class NodeCommandLauncher implements Runnable {
     String initialStateFile = cliOptions.getInitialStateFile();
     ChainStart chainStart;
     BeaconStateEx initialState;
-    SerializerFactory serializerFactory = SerializerFactory.createSSZ(specConstants);
+    SerializerFactory serializerFactory =
+        SerializerFactory.createSSZ(specConstants, spec.isColumnarRegistry());
     if (initialStateFile == null) {
       chainStart =
           ConfigUtils.createChainStart(
@@ -285,7 +287,10 @@ public class NodeCommandLauncher implements Runnable {
     if (dbPrefix == null) {
       dbFactory = DatabaseManager.createInMemoryDBFactory();
     } else {
-      dbFactory = DatabaseManager.createRocksDBFactory(dbPrefix, DB_BUFFER_SIZE);
+      DatabaseEngine dbEngine = DatabaseEngine.fromName(config.getConfig().getDbEngine());
+      dbFactory =
+          DatabaseManager.createFactory(
+              dbEngine, dbPrefix, DB_BUFFER_SIZE, config.getConfig().getDbFlushesInFlight());
     }
 
     Time genesisTime = initialState.getGenesisTime();
@@ -320,6 +325,7 @@ public class NodeCommandLauncher implements Runnable {
     }
 
     if (doInitialize && !emptyStorage && forceDBClean) {
+      beaconChainStorage.close();
       db.close();
       try {
         dbFactory.removeDatabase(genesisTime, depositRoot);
@@ -612,6 +618,14 @@ public class NodeCommandLauncher implements Runnable {
         config.getConfig().setDb(cliOptions.getDbPrefix());
       }
 
+      if (cliOptions.getDbEngine() != null) {
+        config.getConfig().setDbEngine(cliOptions.getDbEngine().name().toLowerCase());
+      }
+
+      if (cliOptions.getDbFlushesInFlight() != null) {
+        config.getConfig().setDbFlushesInFlight(cliOptions.getDbFlushesInFlight());
+      }
+
       return new NodeCommandLauncher(config, specBuilder, cliOptions, logLevel);
     }
 
@@ -0,0 +1,315 @@
+package org.ethereum.beacon.tools.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import org.ethereum.beacon.chain.MutableBeaconChain;
+import org.ethereum.beacon.chain.MutableBeaconChain.ImportResult;
+import org.ethereum.beacon.chain.storage.BeaconBlockStorage;
+import org.ethereum.beacon.chain.storage.BeaconChainStorage;
+import org.ethereum.beacon.chain.storage.BeaconStateStorage;
+import org.ethereum.beacon.chain.storage.BeaconTupleStorage;
+import org.ethereum.beacon.consensus.BeaconChainSpec;
+import org.ethereum.beacon.core.BeaconBlock;
+import org.ethereum.beacon.core.BeaconBlockHeader;
+import org.ethereum.beacon.core.state.Checkpoint;
+import org.ethereum.beacon.core.types.EpochNumber;
+import org.ethereum.beacon.core.types.Time;
+import org.ethereum.beacon.db.source.DataSource;
+import org.ethereum.beacon.db.source.SingleValueSource;
+import org.ethereum.beacon.start.common.util.MDCControlledSchedulers;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+import tech.pegasys.artemis.util.bytes.BytesValue;
+
+/**
+ * Imports a long sequence of serialized blocks using a pipeline of three stages.
+ *
+ * <ul>
+ *   <li>Block files are memory-mapped and decoded by a worker pool, a window of blocks ahead of
+ *       the one being imported is decoded in parallel.
+ *   <li>Blocks are inserted into a chain one by one by the calling thread. The chain spec must
+ *       be built with {@link DeferredBLSFunctions}, hence, a transition doesn't verify signatures
+ *       but records them.
+ *   <li>Signatures recorded for a block are verified by the worker pool while next blocks are
+ *       being inserted.
+ * </ul>
+ *
+ * <p>A chain must be created with a storage returned by {@link #deferCommits(BeaconChainStorage)},
+ * changes are committed once per epoch after all signatures of the epoch are verified. If a
+ * signature turns out to be invalid, import fails and changes made since the last commit are not
+ * committed.
+ */
+class BulkBlockImporter {
+
+  /** Number of blocks decoded ahead per worker. */
+  private static final int DECODE_WINDOW_PER_WORKER = 4;
+
+  private final BeaconChainSpec spec;
+  private final MutableBeaconChain chain;
+  private final DeferredCommitStorage chainStorage;
+  private final DeferredBLSFunctions blsFunctions;
+  private final MDCControlledSchedulers schedulers;
+  private final Function<BytesValue, BeaconBlock> blockDeserializer;
+  private final int workers;
+
+  private final AtomicLong decodeTime = new AtomicLong();
+  private final AtomicLong verifyTime = new AtomicLong();
+  private long decodeWaitTime = 0;
+  private long insertTime = 0;
+  private long verifyWaitTime = 0;
+  private long commitTime = 0;
+  private long signatures = 0;
+  private int imported = 0;
+  private int rejected = 0;
+
+  BulkBlockImporter(
+      BeaconChainSpec spec,
+      MutableBeaconChain chain,
+      BeaconChainStorage chainStorage,
+      DeferredBLSFunctions blsFunctions,
+      MDCControlledSchedulers schedulers,
+      Function<BytesValue, BeaconBlock> blockDeserializer,
+      int workers) {
+    if (!(chainStorage instanceof DeferredCommitStorage)) {
+      throw new IllegalArgumentException("Chain storage must defer commits");
+    }
+    this.spec = spec;
+    this.chain = chain;
+    this.chainStorage = (DeferredCommitStorage) chainStorage;
+    this.blsFunctions = blsFunctions;
+    this.schedulers = schedulers;
+    this.blockDeserializer = blockDeserializer;
+    this.workers = workers;
+  }
+
+  /**
+   * Wraps a storage to be passed to a chain, wrapper ignores commits issued by the chain.
+   *
+   * @param chainStorage a storage.
+   * @return a wrapper.
+   */
+  static BeaconChainStorage deferCommits(BeaconChainStorage chainStorage) {
+    return new DeferredCommitStorage(chainStorage);
+  }
+
+  /**
+   * Imports blocks and prints throughput report.
+   *
+   * @param files block files sorted by slot.
+   */
+  void importBlocks(List<File> files) {
+    AtomicInteger threadCounter = new AtomicInteger();
+    ExecutorService pool =
+        Executors.newFixedThreadPool(
+            workers,
+            r -> {
+              Thread thread = new Thread(r, "bulk-import-" + threadCounter.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+
+    long start = System.nanoTime();
+    try {
+      Deque<Future<BeaconBlock>> decoded = new ArrayDeque<>();
+      int next = 0;
+      for (; next < Math.min(files.size(), workers * DECODE_WINDOW_PER_WORKER); next++) {
+        decoded.add(submitDecode(pool, files.get(next)));
+      }
+
+      EpochNumber epoch = null;
+      List<Future<Boolean>> epochChecks = new ArrayList<>();
+      List<BeaconBlock> epochBlocks = new ArrayList<>();
+      for (File file : files) {
+        long s = System.nanoTime();
+        BeaconBlock block = get(decoded.poll(), file);
+        decodeWaitTime += System.nanoTime() - s;
+        if (next < files.size()) {
+          decoded.add(submitDecode(pool, files.get(next++)));
+        }
+
+        EpochNumber blockEpoch = spec.compute_epoch_at_slot(block.getSlot());
+        if (epoch != null && !epoch.equals(blockEpoch)) {
+          commitEpoch(epoch, epochBlocks, epochChecks);
+        }
+        epoch = blockEpoch;
+
+        s = System.nanoTime();
+        Time t = spec.get_slot_start_time(chain.getRecentlyProcessed().getState(), block.getSlot());
+        schedulers.setCurrentTime(t.getValue() * 1000 + 1);
+        ImportResult result = chain.insert(block);
+        insertTime += System.nanoTime() - s;
+
+        List<BooleanSupplier> checks = blsFunctions.drain();
+        if (result != ImportResult.OK) {
+          System.out.println("block " + file + " is not imported: " + result);
+          rejected++;
+          continue;
+        }
+        signatures += checks.size();
+        epochBlocks.add(block);
+        epochChecks.add(submitVerify(pool, checks));
+        imported++;
+      }
+      if (epoch != null) {
+        commitEpoch(epoch, epochBlocks, epochChecks);
+      }
+
+      s = System.nanoTime();
+      chainStorage.delegate.sync();
+      commitTime += System.nanoTime() - s;
+    } finally {
+      pool.shutdownNow();
+    }
+
+    printReport(System.nanoTime() - start);
+  }
+
+  private void commitEpoch(
+      EpochNumber epoch, List<BeaconBlock> blocks, List<Future<Boolean>> checks) {
+    long s = System.nanoTime();
+    for (int i = 0; i < checks.size(); i++) {
+      if (!get(checks.get(i), blocks.get(i))) {
+        throw new IllegalStateException(
+            String.format(
+                "Invalid signature in block %s at slot %s, epoch %s is not committed",
+                spec.signing_root(blocks.get(i)), blocks.get(i).getSlot(), epoch));
+      }
+    }
+    verifyWaitTime += System.nanoTime() - s;
+
+    s = System.nanoTime();
+    chainStorage.delegate.commit();
+    commitTime += System.nanoTime() - s;
+
+    System.out.println(
+        String.format(
+            "epoch %s committed, %d blocks, %d imported", epoch, blocks.size(), imported));
+    blocks.clear();
+    checks.clear();
+  }
+
+  private Future<BeaconBlock> submitDecode(ExecutorService pool, File file) {
+    return pool.submit(
+        () -> {
+          long s = System.nanoTime();
+          try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return blockDeserializer.apply(BytesValue.wrapBuffer(buffer));
+          } catch (IOException e) {
+            throw new RuntimeException("Cannot load block " + file, e);
+          } finally {
+            decodeTime.addAndGet(System.nanoTime() - s);
+          }
+        });
+  }
+
+  private Future<Boolean> submitVerify(ExecutorService pool, List<BooleanSupplier> checks) {
+    return pool.submit(
+        () -> {
+          long s = System.nanoTime();
+          try {
+            return checks.stream().allMatch(BooleanSupplier::getAsBoolean);
+          } finally {
+            verifyTime.addAndGet(System.nanoTime() - s);
+          }
+        });
+  }
+
+  private static <T> T get(Future<T> future, Object subject) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while processing " + subject, e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Failed to process " + subject, e.getCause());
+    }
+  }
+
+  private void printReport(long totalTime) {
+    double seconds = totalTime / 1_000_000_000d;
+    System.out.println(
+        String.format(
+            "imported %d blocks, rejected %d, workers: %d, %.3f s, %.1f blocks/s",
+            imported, rejected, workers, seconds, seconds > 0 ? imported / seconds : 0));
+    System.out.println(
+        String.format(
+            "  decode: %.3f s in workers, %.3f s waited",
+            decodeTime.get() / 1_000_000_000d, decodeWaitTime / 1_000_000_000d));
+    System.out.println(String.format("  transition: %.3f s", insertTime / 1_000_000_000d));
+    System.out.println(
+        String.format(
+            "  signatures: %d verified, %.3f s in workers, %.3f s waited",
+            signatures, verifyTime.get() / 1_000_000_000d, verifyWaitTime / 1_000_000_000d));
+    System.out.println(String.format("  commit: %.3f s", commitTime / 1_000_000_000d));
+  }
+
+  /** A storage ignoring commits, changes are committed by importer through the delegate. */
+  private static class DeferredCommitStorage implements BeaconChainStorage {
+    private final BeaconChainStorage delegate;
+
+    DeferredCommitStorage(BeaconChainStorage delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public BeaconBlockStorage getBlockStorage() {
+      return delegate.getBlockStorage();
+    }
+
+    @Override
+    public DataSource<Hash32, BeaconBlockHeader> getBlockHeaderStorage() {
+      return delegate.getBlockHeaderStorage();
+    }
+
+    @Override
+    public BeaconStateStorage getStateStorage() {
+      return delegate.getStateStorage();
+    }
+
+    @Override
+    public BeaconTupleStorage getTupleStorage() {
+      return delegate.getTupleStorage();
+    }
+
+    @Override
+    public SingleValueSource<Checkpoint> getJustifiedStorage() {
+      return delegate.getJustifiedStorage();
+    }
+
+    @Override
+    public SingleValueSource<Checkpoint> getBestJustifiedStorage() {
+      return delegate.getBestJustifiedStorage();
+    }
+
+    @Override
+    public SingleValueSource<Checkpoint> getFinalizedStorage() {
+      return delegate.getFinalizedStorage();
+    }
+
+    @Override
+    public void commit() {}
+
+    @Override
+    public void sync() {}
+
+    @Override
+    public void close() {
+      delegate.close();
+    }
+  }
+}
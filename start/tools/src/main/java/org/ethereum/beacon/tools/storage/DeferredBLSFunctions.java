@@ -0,0 +1,85 @@
+package org.ethereum.beacon.tools.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import org.ethereum.beacon.consensus.spec.BLSFunctions;
+import org.ethereum.beacon.core.types.BLSPubkey;
+import org.ethereum.beacon.core.types.BLSSignature;
+import org.ethereum.beacon.crypto.BLS381.PublicKey;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+import tech.pegasys.artemis.util.uint.UInt64;
+
+/**
+ * BLS functions that postpone signature verification.
+ *
+ * <p>Each verification call succeeds immediately and is recorded as a pending check, pending
+ * checks are taken with {@link #drain()} and may be verified later on any thread. Calls with
+ * {@code eagerDomain} are verified in place, a result of deposit signature check affects a state
+ * rather than validity of a block.
+ *
+ * <p>Identical calls are recorded once, a block verifier and a block transition check the same
+ * proposer, randao and attestation signatures.
+ */
+class DeferredBLSFunctions implements BLSFunctions {
+
+  private final BLSFunctions delegate;
+  private final UInt64 eagerDomain;
+  private final Map<List<Object>, BooleanSupplier> pending = new LinkedHashMap<>();
+
+  /**
+   * @param delegate functions doing actual verification.
+   * @param eagerDomain signatures of this domain are verified immediately.
+   */
+  DeferredBLSFunctions(BLSFunctions delegate, UInt64 eagerDomain) {
+    this.delegate = delegate;
+    this.eagerDomain = eagerDomain;
+  }
+
+  @Override
+  public boolean bls_verify(
+      BLSPubkey publicKey, Hash32 message, BLSSignature signature, UInt64 domain) {
+    if (eagerDomain.equals(domain)) {
+      return delegate.bls_verify(publicKey, message, signature, domain);
+    }
+    record(
+        Arrays.asList(publicKey, message, signature, domain),
+        () -> delegate.bls_verify(publicKey, message, signature, domain));
+    return true;
+  }
+
+  @Override
+  public boolean bls_verify_multiple(
+      List<PublicKey> publicKeys, List<Hash32> messages, BLSSignature signature, UInt64 domain) {
+    if (eagerDomain.equals(domain)) {
+      return delegate.bls_verify_multiple(publicKeys, messages, signature, domain);
+    }
+    record(
+        Arrays.asList(publicKeys, messages, signature, domain),
+        () -> delegate.bls_verify_multiple(publicKeys, messages, signature, domain));
+    return true;
+  }
+
+  @Override
+  public PublicKey bls_aggregate_pubkeys(List<BLSPubkey> publicKeysBytes) {
+    return delegate.bls_aggregate_pubkeys(publicKeysBytes);
+  }
+
+  /**
+   * Takes checks recorded since previous call.
+   *
+   * @return pending checks, each of them returns {@code true} if signature is valid.
+   */
+  synchronized List<BooleanSupplier> drain() {
+    List<BooleanSupplier> checks = new ArrayList<>(pending.values());
+    pending.clear();
+    return checks;
+  }
+
+  private synchronized void record(List<Object> key, BooleanSupplier check) {
+    pending.putIfAbsent(key, check);
+  }
+}
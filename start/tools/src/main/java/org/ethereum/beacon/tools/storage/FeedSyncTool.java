@@ -8,20 +8,24 @@ import org.ethereum.beacon.chain.MutableBeaconChain;
 import org.ethereum.beacon.chain.storage.BeaconChainStorage;
 import org.ethereum.beacon.chain.storage.impl.SSZBeaconChainStorageFactory;
 import org.ethereum.beacon.chain.storage.impl.SerializerFactory;
+import org.ethereum.beacon.chain.storage.util.StoragePruner;
 import org.ethereum.beacon.chain.storage.util.StorageUtils;
 import org.ethereum.beacon.consensus.BeaconChainSpec;
 import org.ethereum.beacon.consensus.StateTransitions;
 import org.ethereum.beacon.consensus.TransitionType;
+import org.ethereum.beacon.consensus.spec.BLSFunctions;
 import org.ethereum.beacon.consensus.transition.BeaconStateExImpl;
 import org.ethereum.beacon.consensus.transition.EmptySlotTransition;
 import org.ethereum.beacon.consensus.transition.PerBlockTransition;
 import org.ethereum.beacon.consensus.verifier.BeaconBlockVerifier;
 import org.ethereum.beacon.consensus.verifier.BeaconStateVerifier;
 import org.ethereum.beacon.core.BeaconBlock;
+import org.ethereum.beacon.core.spec.SignatureDomains;
 import org.ethereum.beacon.core.state.BeaconStateImpl;
 import org.ethereum.beacon.core.types.SlotNumber;
 import org.ethereum.beacon.core.types.Time;
 import org.ethereum.beacon.db.Database;
+import org.ethereum.beacon.db.DatabaseEngine;
 import org.ethereum.beacon.emulator.config.ConfigBuilder;
 import org.ethereum.beacon.emulator.config.chainspec.SpecBuilder;
 import org.ethereum.beacon.emulator.config.chainspec.SpecConstantsData;
@@ -39,6 +43,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -57,6 +62,7 @@ import java.util.stream.Stream;
 public class FeedSyncTool implements Runnable {
   private static final int SUCCESS_EXIT_CODE = 0;
   private static final int ERROR_EXIT_CODE = 1;
+  private static final int PRUNING_BATCH_SIZE = 256;
 
   @CommandLine.Option(
       names = {"--loglevel"},
@@ -72,6 +78,13 @@ public class FeedSyncTool implements Runnable {
       description = "")
   private String dbPrefix;
 
+  @CommandLine.Option(
+      names = "--db-engine",
+      paramLabel = "engine",
+      defaultValue = "rocksdb",
+      description = {"Storage engine: rocksdb, rocksdb_cf, lmdb.", "rocksdb is used by default."})
+  private DatabaseEngine dbEngine;
+
   @CommandLine.Option(
       names = "--spec-constants",
       paramLabel = "spec-constants",
@@ -85,6 +98,49 @@ public class FeedSyncTool implements Runnable {
       description = {"Path to an initial state file (SSZ format)"})
   private File initialStateFile;
 
+  @CommandLine.Option(
+      names = "--flushes-in-flight",
+      paramLabel = "number",
+      defaultValue = "0",
+      description = {
+        "Number of database buffers flushed in background before imports are blocked.",
+        "Buffers are flushed synchronously by default."
+      })
+  private int flushesInFlight;
+
+  @CommandLine.Option(
+      names = "--archive-interval",
+      paramLabel = "slots",
+      defaultValue = "0",
+      description = {
+        "Prunes non-canonical blocks and keeps one finalized state per given number of slots.",
+        "Storage is not pruned by default."
+      })
+  private long archiveInterval;
+
+  @CommandLine.Option(
+      names = "--block-archive",
+      paramLabel = "dir",
+      description = "Moves finalized blocks to memory-mapped archive in a given directory")
+  private String blockArchive;
+
+  @CommandLine.Option(
+      names = "--bulk",
+      description = {
+        "Imports blocks with a parallel pipeline: decodes blocks and verifies signatures by",
+        "worker threads, commits storage once per epoch."
+      })
+  private boolean bulk;
+
+  @CommandLine.Option(
+      names = "--workers",
+      paramLabel = "number",
+      description = {
+        "Number of worker threads used by bulk import.",
+        "A number of available processors is used by default."
+      })
+  private int workers = Runtime.getRuntime().availableProcessors();
+
   @CommandLine.Parameters(arity = "1..*", paramLabel = "file-or-dir")
   private File[] inputFiles;
 
@@ -111,6 +167,10 @@ public class FeedSyncTool implements Runnable {
     return dbPrefix;
   }
 
+  public DatabaseEngine getDbEngine() {
+    return dbEngine;
+  }
+
   public String getSpecConstantsFile() {
     return specConstantsFile;
   }
@@ -123,17 +183,41 @@ public class FeedSyncTool implements Runnable {
     return inputFiles;
   }
 
+  public int getFlushesInFlight() {
+    return flushesInFlight;
+  }
+
+  public long getArchiveInterval() {
+    return archiveInterval;
+  }
+
+  public String getBlockArchive() {
+    return blockArchive;
+  }
+
+  public boolean isBulk() {
+    return bulk;
+  }
+
+  public int getWorkers() {
+    return workers;
+  }
+
   @Override
   public void run() {
     initLogging();
 
     BeaconChainSpec spec = createBeaconChainSpec(getSpecConstantsFile());
 
-    Database db = Database.rocksDB(getDbPrefix(), 1L << 20);
+    Database db = getDbEngine().create(getDbPrefix(), 1L << 20, getFlushesInFlight());
 
-    SerializerFactory ssz = SerializerFactory.createSSZ(spec.getConstants());
+    SerializerFactory ssz =
+        SerializerFactory.createSSZ(spec.getConstants(), spec.isColumnarRegistry());
     SSZBeaconChainStorageFactory storageFactory =
         new SSZBeaconChainStorageFactory(spec.getObjectHasher(), ssz);
+    if (getBlockArchive() != null) {
+      storageFactory.setBlockArchiveDirectory(Paths.get(getBlockArchive()));
+    }
 
     BeaconChainStorage chainStorage = storageFactory.create(db);
 
@@ -154,7 +238,24 @@ public class FeedSyncTool implements Runnable {
     MDCControlledSchedulers controlledSchedulers = new MDCControlledSchedulers();
     ControlledSchedulers schedulers = controlledSchedulers.createNew("v1");
 
-    DefaultBeaconChain beaconChain = createBeaconChain(spec, chainStorage, schedulers);
+    DeferredBLSFunctions deferredBLS = null;
+    BeaconChainSpec chainSpec = spec;
+    BeaconChainStorage importStorage = chainStorage;
+    if (isBulk()) {
+      deferredBLS =
+          new DeferredBLSFunctions(
+              BLSFunctions.getDefaultBLSFunctions(spec.isBlsVerify()),
+              spec.compute_domain(SignatureDomains.DEPOSIT));
+      chainSpec = createBulkImportSpec(spec, deferredBLS);
+      importStorage = BulkBlockImporter.deferCommits(chainStorage);
+    }
+
+    StoragePruner pruner =
+        getArchiveInterval() > 0
+            ? new StoragePruner(importStorage, getArchiveInterval(), PRUNING_BATCH_SIZE)
+            : null;
+    DefaultBeaconChain beaconChain =
+        createBeaconChain(chainSpec, importStorage, schedulers, pruner);
 
     List<File> files =
         Arrays.asList(getInputFiles()).stream()
@@ -166,6 +267,22 @@ public class FeedSyncTool implements Runnable {
             .filter(file -> file.getName().startsWith("block_") && file.getName().endsWith(".ssz"))
             .collect(Collectors.toList());
 
+    if (isBulk()) {
+      new BulkBlockImporter(
+              chainSpec,
+              beaconChain,
+              importStorage,
+              deferredBLS,
+              controlledSchedulers,
+              ssz.getDeserializer(BeaconBlock.class),
+              getWorkers())
+          .importBlocks(files);
+      chainStorage.close();
+      db.close();
+      return;
+    }
+
+    List<Long> importTimes = new ArrayList<>();
     for (File f : files) {
       System.out.print("importing " + f);
       try {
@@ -174,7 +291,9 @@ public class FeedSyncTool implements Runnable {
 
         Time t = spec.get_slot_start_time(beaconChain.getRecentlyProcessed().getState(), slot);
         controlledSchedulers.setCurrentTime(t.getValue() * 1000 + 1);
+        long start = System.nanoTime();
         MutableBeaconChain.ImportResult result = beaconChain.insert(block);
+        importTimes.add(System.nanoTime() - start);
         System.out.println(" " + result);
       } catch (RuntimeException e) {
         System.out.println(" failed " + e.getMessage());
@@ -183,9 +302,29 @@ public class FeedSyncTool implements Runnable {
       }
     }
 
+    printImportTimes(importTimes);
+    chainStorage.close();
     db.close();
   }
 
+  private void printImportTimes(List<Long> importTimes) {
+    if (importTimes.isEmpty()) {
+      return;
+    }
+    List<Long> sorted = importTimes.stream().sorted().collect(Collectors.toList());
+    double avg = sorted.stream().mapToLong(Long::longValue).average().orElse(0);
+    long p99 = sorted.get(Math.min(sorted.size() - 1, (int) (sorted.size() * 0.99)));
+    System.out.println(
+        String.format(
+            "imported %d blocks, flushes in flight: %d, "
+                + "import avg: %.3f ms, p99: %.3f ms, max: %.3f ms",
+            sorted.size(),
+            getFlushesInFlight(),
+            avg / 1_000_000d,
+            p99 / 1_000_000d,
+            sorted.get(sorted.size() - 1) / 1_000_000d));
+  }
+
   private static boolean isGenesisFile(File dir, String name) {
     return name.startsWith("genesis") && name.endsWith(".ssz");
   }
@@ -202,9 +341,29 @@ public class FeedSyncTool implements Runnable {
     return new SpecBuilder().withSpec(specData).buildSpec();
   }
 
+  /** Creates a copy of the spec that verifies signatures with given functions. */
+  private BeaconChainSpec createBulkImportSpec(BeaconChainSpec spec, BLSFunctions blsFunctions) {
+    return new BeaconChainSpec.Builder()
+        .withConstants(spec.getConstants())
+        .withHashFunction(spec.getHashFunction())
+        .withHasher(spec.getObjectHasher())
+        .withBlsFunctions(blsFunctions)
+        .withBlsVerify(spec.isBlsVerify())
+        .withBlsVerifyProofOfPossession(spec.isBlsVerifyProofOfPossession())
+        .withVerifyDepositProof(spec.isVerifyDepositProof())
+        .withComputableGenesisTime(spec.isComputableGenesisTime())
+        .withSinglePassEpochProcessing(spec.isSinglePassEpochProcessing())
+        .withColumnarRegistry(spec.isColumnarRegistry())
+        .enableCache()
+        .build();
+  }
+
   @NotNull
   private DefaultBeaconChain createBeaconChain(
-      BeaconChainSpec spec, BeaconChainStorage chainStorage, ControlledSchedulers schedulers) {
+      BeaconChainSpec spec,
+      BeaconChainStorage chainStorage,
+      ControlledSchedulers schedulers,
+      StoragePruner pruner) {
     PerBlockTransition perBlockTransition = StateTransitions.blockTransition(spec);
     EmptySlotTransition emptySlotTransition = StateTransitions.preBlockTransition(spec);
     BeaconBlockVerifier blockVerifier = BeaconBlockVerifier.createDefault(spec);
@@ -218,7 +377,8 @@ public class FeedSyncTool implements Runnable {
             blockVerifier,
             stateVerifier,
             chainStorage,
-            schedulers);
+            schedulers,
+            pruner);
     beaconChain.init();
     return beaconChain;
   }
@@ -0,0 +1,121 @@
+package org.ethereum.beacon.tools.storage;
+
+import java.nio.file.Paths;
+import org.ethereum.beacon.chain.storage.BeaconChainStorage;
+import org.ethereum.beacon.chain.storage.BeaconChainStorageFactory;
+import org.ethereum.beacon.chain.storage.impl.SSZBeaconChainStorageFactory;
+import org.ethereum.beacon.chain.storage.impl.SerializerFactory;
+import org.ethereum.beacon.chain.storage.util.StorageUtils;
+import org.ethereum.beacon.consensus.BeaconChainSpec;
+import org.ethereum.beacon.db.Database;
+import org.ethereum.beacon.db.DatabaseEngine;
+import org.ethereum.beacon.emulator.config.ConfigBuilder;
+import org.ethereum.beacon.emulator.config.chainspec.SpecBuilder;
+import org.ethereum.beacon.emulator.config.chainspec.SpecConstantsData;
+import org.ethereum.beacon.emulator.config.chainspec.SpecConstantsDataMerged;
+import org.ethereum.beacon.emulator.config.chainspec.SpecData;
+import org.ethereum.beacon.emulator.config.chainspec.SpecHelpersData;
+import picocli.CommandLine;
+
+/**
+ * An utility to migrate a RocksDB database where storages share one key space (XOR-keyed) to a
+ * database where each storage is kept in its own column family. A node opens migrated database
+ * with {@code rocksdb_cf} storage engine, see {@link DatabaseEngine#ROCKSDB_CF}.
+ *
+ * <p>A source database may have a slot index of previous layout, it's converted when the source is
+ * opened, see {@link org.ethereum.beacon.chain.storage.impl.LegacySlotBlockIndex}.
+ */
+@CommandLine.Command(
+    description = "Storage migration tool",
+    name = "storage-migration",
+    version = "storage-migration 0.1",
+    mixinStandardHelpOptions = true)
+public class StorageMigrationTool implements Runnable {
+  private static final int SUCCESS_EXIT_CODE = 0;
+  private static final int ERROR_EXIT_CODE = 1;
+
+  @CommandLine.Option(
+      names = "--from",
+      paramLabel = "db-path",
+      required = true,
+      description = "Path to XOR-keyed database")
+  private String fromPath;
+
+  @CommandLine.Option(
+      names = "--to",
+      paramLabel = "db-path",
+      required = true,
+      description = "Path to a new column family database")
+  private String toPath;
+
+  @CommandLine.Option(
+      names = "--spec-constants",
+      paramLabel = "spec-constants",
+      required = true,
+      description = "Path to a spec constants file in yaml format (flat format)")
+  private String specConstantsFile;
+
+  public static void main(String[] args) {
+    try {
+      CommandLine commandLine = new CommandLine(new StorageMigrationTool());
+      commandLine.parseWithHandlers(
+          new CommandLine.RunLast().andExit(SUCCESS_EXIT_CODE),
+          CommandLine.defaultExceptionHandler().andExit(ERROR_EXIT_CODE),
+          args);
+    } catch (Exception e) {
+      e.printStackTrace();
+      System.out.println(String.format((char) 27 + "[31m" + "FATAL ERROR: %s", e.getMessage()));
+    }
+  }
+
+  @Override
+  public void run() {
+    if (Paths.get(toPath).toFile().exists()) {
+      throw new IllegalArgumentException("Destination database already exists: " + toPath);
+    }
+
+    BeaconChainSpec spec = createBeaconChainSpec(specConstantsFile);
+    SSZBeaconChainStorageFactory storageFactory =
+        new SSZBeaconChainStorageFactory(
+            spec.getObjectHasher(), SerializerFactory.createSSZ(spec.getConstants()));
+
+    long copied = migrate(fromPath, toPath, storageFactory);
+    System.out.println("Migrated " + copied + " blocks from " + fromPath + " to " + toPath);
+  }
+
+  /**
+   * Copies chain data from XOR-keyed database to a new column family database.
+   *
+   * @param fromPath path to XOR-keyed database.
+   * @param toPath path to a new database.
+   * @param storageFactory chain storage factory.
+   * @return a number of migrated blocks.
+   */
+  public static long migrate(
+      String fromPath, String toPath, BeaconChainStorageFactory storageFactory) {
+    Database from = DatabaseEngine.ROCKSDB.create(fromPath, 1L << 20, 0);
+    Database to = DatabaseEngine.ROCKSDB_CF.create(toPath, 64L << 20, 0);
+    BeaconChainStorage fromStorage = storageFactory.create(from);
+    BeaconChainStorage toStorage = storageFactory.create(to);
+
+    long copied = StorageUtils.copyStorage(fromStorage, toStorage);
+
+    fromStorage.close();
+    toStorage.close();
+    from.close();
+    to.close();
+    return copied;
+  }
+
+  private BeaconChainSpec createBeaconChainSpec(String specConstants) {
+    ConfigBuilder<SpecConstantsDataMerged> specConstsBuilder =
+        new ConfigBuilder<>(SpecConstantsDataMerged.class);
+    specConstsBuilder.addYamlConfig(Paths.get(specConstants).toFile());
+    SpecConstantsData constantsData = specConstsBuilder.build();
+    SpecHelpersData specHelpersData = new SpecHelpersData();
+    SpecData specData = new SpecData();
+    specData.setSpecConstants(constantsData);
+    specData.setSpecHelpersOptions(specHelpersData);
+    return new SpecBuilder().withSpec(specData).buildSpec();
+  }
+}
@@ -0,0 +1,94 @@
+package org.ethereum.beacon.tools.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.ethereum.beacon.chain.storage.BeaconChainStorage;
+import org.ethereum.beacon.chain.storage.impl.SSZBeaconChainStorageFactory;
+import org.ethereum.beacon.chain.storage.impl.SerializerFactory;
+import org.ethereum.beacon.consensus.BeaconChainSpec;
+import org.ethereum.beacon.consensus.hasher.ObjectHasher;
+import org.ethereum.beacon.core.BeaconBlock;
+import org.ethereum.beacon.core.BeaconBlockBody;
+import org.ethereum.beacon.core.BeaconState;
+import org.ethereum.beacon.core.spec.SpecConstants;
+import org.ethereum.beacon.core.state.Checkpoint;
+import org.ethereum.beacon.core.types.BLSSignature;
+import org.ethereum.beacon.core.types.EpochNumber;
+import org.ethereum.beacon.core.types.SlotNumber;
+import org.ethereum.beacon.core.types.Time;
+import org.ethereum.beacon.db.Database;
+import org.ethereum.beacon.db.DatabaseEngine;
+import org.ethereum.beacon.start.common.DatabaseManager;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tech.pegasys.artemis.ethereum.core.Hash32;
+import tech.pegasys.artemis.util.bytes.Bytes32;
+import tech.pegasys.artemis.util.bytes.BytesValues;
+
+public class StorageMigrationToolTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private final SpecConstants constants = BeaconChainSpec.DEFAULT_CONSTANTS;
+  private final ObjectHasher<Hash32> hasher = ObjectHasher.createSSZOverSHA256(constants);
+  private final SSZBeaconChainStorageFactory storageFactory =
+      new SSZBeaconChainStorageFactory(hasher, SerializerFactory.createSSZ(constants));
+  private long counter = 0;
+
+  @Test
+  public void migratedDatabaseIsOpenedByNode() throws IOException {
+    String fromPath = folder.newFolder("xor-keyed").toString();
+    Database from = DatabaseEngine.ROCKSDB.create(fromPath, 1L << 20, 0);
+    BeaconChainStorage fromStorage = storageFactory.create(from);
+    List<BeaconBlock> blocks = new ArrayList<>();
+    List<Hash32> roots = new ArrayList<>();
+    for (long slot = 0; slot < 5; slot++) {
+      Hash32 parentRoot = slot == 0 ? Hash32.ZERO : roots.get(roots.size() - 1);
+      BeaconBlock block = addBlock(fromStorage, slot, parentRoot);
+      blocks.add(block);
+      roots.add(hasher.getHashTruncateLast(block));
+    }
+    Checkpoint checkpoint = new Checkpoint(EpochNumber.ZERO, roots.get(0));
+    fromStorage.getJustifiedStorage().set(checkpoint);
+    fromStorage.getBestJustifiedStorage().set(checkpoint);
+    fromStorage.getFinalizedStorage().set(checkpoint);
+    fromStorage.commit();
+    from.close();
+
+    // destination is where the node looks for a database of the chain
+    String dbPrefix = folder.getRoot().toPath().resolve("node-db").toString();
+    String toPath = DatabaseManager.computeDbName(dbPrefix, Time.of(0), Hash32.ZERO);
+    assertEquals(5, StorageMigrationTool.migrate(fromPath, toPath, storageFactory));
+
+    Database opened =
+        DatabaseManager.createFactory(DatabaseEngine.ROCKSDB_CF, dbPrefix, 1L << 20, 0)
+            .getOrCreateDatabase(Time.of(0), Hash32.ZERO);
+    BeaconChainStorage storage = storageFactory.create(opened);
+    assertEquals(SlotNumber.of(4), storage.getBlockStorage().getMaxSlot());
+    for (int i = 0; i < blocks.size(); i++) {
+      assertEquals(blocks.get(i), storage.getBlockStorage().get(roots.get(i)).get());
+      assertTrue(storage.getStateStorage().containsKey(blocks.get(i).getStateRoot()));
+    }
+    assertEquals(checkpoint, storage.getFinalizedStorage().get().get());
+    opened.close();
+  }
+
+  private BeaconBlock addBlock(BeaconChainStorage storage, long slot, Hash32 parentRoot) {
+    Hash32 stateRoot = Hash32.wrap(Bytes32.leftPad(BytesValues.toMinimalBytes(counter++)));
+    BeaconBlock block =
+        new BeaconBlock(
+            SlotNumber.of(slot),
+            parentRoot,
+            stateRoot,
+            BeaconBlockBody.getEmpty(constants),
+            BLSSignature.ZERO);
+    storage.getBlockStorage().put(hasher.getHashTruncateLast(block), block);
+    storage.getStateStorage().put(stateRoot, BeaconState.getEmpty(constants));
+    return block;
+  }
+}
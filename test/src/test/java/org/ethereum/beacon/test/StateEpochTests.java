@@ -1,10 +1,13 @@
 package org.ethereum.beacon.test;
 
+import java.util.Optional;
+import org.ethereum.beacon.consensus.BeaconChainSpec;
 import org.ethereum.beacon.test.runner.state.StateRunner;
 import org.ethereum.beacon.test.type.state.FinalUpdatesProcessingCase;
 import org.ethereum.beacon.test.type.state.FinalizationProcessingCase;
 import org.ethereum.beacon.test.type.state.RegistryUpdatesProcessingCase;
 import org.ethereum.beacon.test.type.state.RewardsAndPenaltiesCase;
+import org.ethereum.beacon.test.type.TestCase;
 import org.ethereum.beacon.test.type.state.SlashingsProcessingCase;
 import org.junit.Test;
 
@@ -23,8 +26,7 @@ public class StateEpochTests extends TestUtils {
         subDir,
         RegistryUpdatesProcessingCase.class,
         input -> {
-          StateRunner testRunner = new StateRunner(input.getValue0(), input.getValue1());
-          return testRunner.run();
+          return runWithBothRegistries(input.getValue0(), input.getValue1());
         });
   }
 
@@ -37,8 +39,7 @@ public class StateEpochTests extends TestUtils {
         subDir,
         FinalUpdatesProcessingCase.class,
         input -> {
-          StateRunner testRunner = new StateRunner(input.getValue0(), input.getValue1());
-          return testRunner.run();
+          return runWithBothRegistries(input.getValue0(), input.getValue1());
         });
   }
 
@@ -51,8 +52,7 @@ public class StateEpochTests extends TestUtils {
         subDir,
         FinalizationProcessingCase.class,
         input -> {
-          StateRunner testRunner = new StateRunner(input.getValue0(), input.getValue1());
-          return testRunner.run();
+          return runWithBothEngines(input.getValue0(), input.getValue1());
         });
   }
 
@@ -65,8 +65,7 @@ public class StateEpochTests extends TestUtils {
         subDir,
         SlashingsProcessingCase.class,
         input -> {
-          StateRunner testRunner = new StateRunner(input.getValue0(), input.getValue1());
-          return testRunner.run();
+          return runWithBothEngines(input.getValue0(), input.getValue1());
         });
   }
 
@@ -78,8 +77,27 @@ public class StateEpochTests extends TestUtils {
         subDir,
         RewardsAndPenaltiesCase.class,
         input -> {
-          StateRunner testRunner = new StateRunner(input.getValue0(), input.getValue1());
-          return testRunner.run();
+          return runWithBothEngines(input.getValue0(), input.getValue1());
         });
   }
+
+  /**
+   * Runs a case with regular epoch processing, then with single pass one, then with validator
+   * registry kept in columns.
+   */
+  private Optional<String> runWithBothEngines(TestCase testCase, BeaconChainSpec spec) {
+    Optional<String> result = new StateRunner(testCase, spec).run();
+    if (result.isPresent()) {
+      return result;
+    }
+    BeaconChainSpec singlePassSpec = copySpec(spec).withSinglePassEpochProcessing(true).build();
+    result =
+        new StateRunner(testCase, singlePassSpec)
+            .run()
+            .map(error -> "Single pass epoch processing: " + error);
+    if (result.isPresent()) {
+      return result;
+    }
+    return runWithColumnarRegistry(testCase, spec);
+  }
 }
@@ -1,6 +1,5 @@
 package org.ethereum.beacon.test;
 
-import org.ethereum.beacon.test.runner.state.StateRunner;
 import org.ethereum.beacon.test.type.state.OperationAttestationCase;
 import org.ethereum.beacon.test.type.state.OperationAttesterSlashingCase;
 import org.ethereum.beacon.test.type.state.OperationBlockHeaderCase;
@@ -24,8 +23,7 @@ public class StateOperationsTests extends TestUtils {
         subDir,
         OperationAttestationCase.class,
         input -> {
-          StateRunner testRunner = new StateRunner(input.getValue0(), input.getValue1());
-          return testRunner.run();
+          return runWithBothRegistries(input.getValue0(), input.getValue1());
         });
   }
 
@@ -38,8 +36,7 @@ public class StateOperationsTests extends TestUtils {
         subDir,
         OperationDepositCase.class,
         input -> {
-          StateRunner testRunner = new StateRunner(input.getValue0(), input.getValue1());
-          return testRunner.run();
+          return runWithBothRegistries(input.getValue0(), input.getValue1());
         });
   }
 
@@ -52,8 +49,7 @@ public class StateOperationsTests extends TestUtils {
         subDir,
         OperationAttesterSlashingCase.class,
         input -> {
-          StateRunner testRunner = new StateRunner(input.getValue0(), input.getValue1());
-          return testRunner.run();
+          return runWithBothRegistries(input.getValue0(), input.getValue1());
         });
   }
 
@@ -66,8 +62,7 @@ public class StateOperationsTests extends TestUtils {
         subDir,
         OperationProposerSlashingCase.class,
         input -> {
-          StateRunner testRunner = new StateRunner(input.getValue0(), input.getValue1());
-          return testRunner.run();
+          return runWithBothRegistries(input.getValue0(), input.getValue1());
         });
   }
 
@@ -80,8 +75,7 @@ public class StateOperationsTests extends TestUtils {
         subDir,
         OperationVoluntaryExitCase.class,
         input -> {
-          StateRunner testRunner = new StateRunner(input.getValue0(), input.getValue1());
-          return testRunner.run();
+          return runWithBothRegistries(input.getValue0(), input.getValue1());
         });
   }
 
@@ -94,8 +88,7 @@ public class StateOperationsTests extends TestUtils {
         subDir,
         OperationBlockHeaderCase.class,
         input -> {
-          StateRunner testRunner = new StateRunner(input.getValue0(), input.getValue1());
-          return testRunner.run();
+          return runWithBothRegistries(input.getValue0(), input.getValue1());
         });
   }
 }
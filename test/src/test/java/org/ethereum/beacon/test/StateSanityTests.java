@@ -1,6 +1,5 @@
 package org.ethereum.beacon.test;
 
-import org.ethereum.beacon.test.runner.state.StateRunner;
 import org.ethereum.beacon.test.type.state.SanityBlocksCase;
 import org.ethereum.beacon.test.type.state.SanitySlotsCase;
 import org.junit.Test;
@@ -20,8 +19,7 @@ public class StateSanityTests extends TestUtils {
         subDir,
         SanitySlotsCase.class,
         input -> {
-          StateRunner testRunner = new StateRunner(input.getValue0(), input.getValue1());
-          return testRunner.run();
+          return runWithBothRegistries(input.getValue0(), input.getValue1());
         });
   }
 
@@ -34,8 +32,7 @@ public class StateSanityTests extends TestUtils {
         subDir,
         SanityBlocksCase.class,
         input -> {
-          StateRunner testRunner = new StateRunner(input.getValue0(), input.getValue1());
-          return testRunner.run();
+          return runWithBothRegistries(input.getValue0(), input.getValue1());
         });
   }
 }
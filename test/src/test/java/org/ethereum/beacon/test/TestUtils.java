@@ -17,6 +17,7 @@ import org.ethereum.beacon.schedulers.Scheduler;
 import org.ethereum.beacon.schedulers.Schedulers;
 import org.ethereum.beacon.ssz.SSZBuilder;
 import org.ethereum.beacon.ssz.SSZSerializer;
+import org.ethereum.beacon.test.runner.state.StateRunner;
 import org.ethereum.beacon.test.type.DataMapperTestCase;
 import org.ethereum.beacon.test.type.TestCase;
 import org.ethereum.beacon.test.type.ssz.SszGenericCase;
@@ -609,6 +610,40 @@ public class TestUtils {
     assertFalse(failed.get());
   }
 
+  /**
+   * Runs a state case with given spec and then once more keeping validator registry in columns,
+   * see {@link BeaconChainSpec.Builder#withColumnarRegistry(boolean)}.
+   */
+  static Optional<String> runWithBothRegistries(TestCase testCase, BeaconChainSpec spec) {
+    Optional<String> result = new StateRunner(testCase, spec).run();
+    if (result.isPresent()) {
+      return result;
+    }
+    return runWithColumnarRegistry(testCase, spec);
+  }
+
+  /** Runs a state case with a copy of given spec that keeps validator registry in columns. */
+  static Optional<String> runWithColumnarRegistry(TestCase testCase, BeaconChainSpec spec) {
+    BeaconChainSpec columnarSpec = copySpec(spec).withColumnarRegistry(true).build();
+    return new StateRunner(testCase, columnarSpec)
+        .run()
+        .map(error -> "Columnar registry: " + error);
+  }
+
+  /** Creates a spec builder with constants and options of given spec. */
+  static BeaconChainSpec.Builder copySpec(BeaconChainSpec spec) {
+    return new BeaconChainSpec.Builder()
+        .withConstants(spec.getConstants())
+        .withHashFunction(spec.getHashFunction())
+        .withHasher(spec.getObjectHasher())
+        .withBlsVerify(spec.isBlsVerify())
+        .withBlsVerifyProofOfPossession(spec.isBlsVerifyProofOfPossession())
+        .withVerifyDepositProof(spec.isVerifyDepositProof())
+        .withComputableGenesisTime(spec.isComputableGenesisTime())
+        .withSinglePassEpochProcessing(spec.isSinglePassEpochProcessing())
+        .withColumnarRegistry(spec.isColumnarRegistry());
+  }
+
   public static class Ignored {
     public static Ignored EMPTY =
         new Ignored(Collections.emptySet(), Collections.emptySet(), false);
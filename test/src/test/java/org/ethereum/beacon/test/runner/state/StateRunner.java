@@ -28,6 +28,7 @@ import org.ethereum.beacon.core.operations.Deposit;
 import org.ethereum.beacon.core.operations.ProposerSlashing;
 import org.ethereum.beacon.core.operations.VoluntaryExit;
 import org.ethereum.beacon.core.operations.slashing.AttesterSlashing;
+import org.ethereum.beacon.core.state.BeaconStateImpl;
 import org.ethereum.beacon.test.runner.Runner;
 import org.ethereum.beacon.test.type.TestCase;
 import org.ethereum.beacon.test.type.state.FinalUpdatesProcessingCase;
@@ -71,6 +72,9 @@ public class StateRunner implements Runner {
       throw new RuntimeException("TestCase runner accepts only test cases with Pre field");
     }
     BeaconState latestState = ((PreField) testCase).getPre(spec.getConstants());
+    if (spec.isColumnarRegistry()) {
+      latestState = BeaconStateImpl.copyWithColumnarRegistry(latestState, spec.getConstants());
+    }
     Optional<String> processingError;
 
     BeaconState stateBackup = latestState.createMutableCopy();
@@ -135,9 +139,14 @@ public class StateRunner implements Runner {
     if (((PostField) testCase).getPost(spec.getConstants()) == null) { // XXX: Not changed
       return StateComparator.compare(((PreField) testCase).getPre(spec.getConstants()), latestState, spec);
     } else {
-      Optional compareResult =
-          StateComparator.compare(((PostField) testCase).getPost(spec.getConstants()), latestState, spec);
+      BeaconState post = ((PostField) testCase).getPost(spec.getConstants());
+      Optional compareResult = StateComparator.compare(post, latestState, spec);
       if (!compareResult.isPresent()) {
+        // columnar registry is hashed from columns, a root must be the same anyway
+        if (spec.isColumnarRegistry()
+            && !spec.hash_tree_root(post).equals(spec.hash_tree_root(latestState))) {
+          return Optional.of("State root does not match");
+        }
         return Optional.empty();
       }
 
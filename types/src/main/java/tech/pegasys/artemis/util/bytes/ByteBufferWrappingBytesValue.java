@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.artemis.util.bytes;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A read-only value wrapping bytes between position and limit of a {@link ByteBuffer}, like a
+ * slice of a memory-mapped file.
+ */
+class ByteBufferWrappingBytesValue extends AbstractBytesValue {
+
+  private final ByteBuffer buffer;
+  private final int offset;
+  private final int size;
+
+  ByteBufferWrappingBytesValue(ByteBuffer buffer) {
+    this(buffer, buffer.position(), buffer.remaining());
+  }
+
+  private ByteBufferWrappingBytesValue(ByteBuffer buffer, int offset, int size) {
+    this.buffer = buffer;
+    this.offset = offset;
+    this.size = size;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public byte get(int i) {
+    checkElementIndex(i, size);
+    return buffer.get(offset + i);
+  }
+
+  @Override
+  public BytesValue slice(int index, int length) {
+    if (index == 0 && length == size) {
+      return this;
+    }
+    if (length == 0) {
+      return BytesValue.EMPTY;
+    }
+
+    checkElementIndex(index, size);
+    checkArgument(index + length <= size,
+        "Provided length %s is too big: the value has size %s and has only %s bytes from %s",
+        length, size(), size - index, index);
+
+    return new ByteBufferWrappingBytesValue(buffer, offset + index, length);
+  }
+
+  @Override
+  public byte[] extractArray() {
+    byte[] array = new byte[size];
+    ByteBuffer view = buffer.duplicate();
+    view.position(offset);
+    view.get(array);
+    return array;
+  }
+}
@@ -16,6 +16,7 @@ package tech.pegasys.artemis.util.bytes;
 import com.google.common.annotations.VisibleForTesting;
 import io.netty.buffer.ByteBuf;
 import io.vertx.core.buffer.Buffer;
+import java.nio.ByteBuffer;
 
 import java.security.MessageDigest;
 import java.util.List;
@@ -176,6 +177,21 @@ public interface BytesValue extends Comparable<BytesValue> {
     return MutableBytesValue.wrapBuffer(buffer, offset, size);
   }
 
+  /**
+   * Wraps bytes between position and limit of a {@link ByteBuffer} as a read-only {@link
+   * BytesValue}.
+   *
+   * <p>
+   * The buffer is not copied, hence, it can be used to expose a slice of a memory-mapped file.
+   * Position and limit of the buffer are captured at the time of the call.
+   *
+   * @param buffer The buffer to wrap.
+   * @return A {@link BytesValue} that exposes the remaining bytes of {@code buffer}.
+   */
+  static BytesValue wrapBuffer(ByteBuffer buffer) {
+    return new ByteBufferWrappingBytesValue(buffer);
+  }
+
   /**
    * Creates a newly allocated value that contains the provided bytes in their provided order.
    *
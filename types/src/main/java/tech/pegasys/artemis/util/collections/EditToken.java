@@ -0,0 +1,21 @@
+package tech.pegasys.artemis.util.collections;
+
+/**
+ * Marks data which a list is allowed to modify in place.
+ *
+ * <p>A list freezes its token once the data is shared with a copy, then the list switches to a new
+ * token and copies marked data on write. Freezing is an idempotent write of a volatile flag, it's
+ * safe when the same list is copied by several threads at once.
+ */
+final class EditToken {
+
+  private volatile boolean frozen = false;
+
+  void freeze() {
+    frozen = true;
+  }
+
+  boolean isFrozen() {
+    return frozen;
+  }
+}
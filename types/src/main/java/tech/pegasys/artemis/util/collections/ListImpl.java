@@ -220,6 +220,13 @@ class ListImpl<IndexType extends Number, ValueType> implements WriteList<IndexTy
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
+    if (o instanceof ReadList && !(o instanceof ListImpl)) {
+      // other implementations are compared by elements
+      ReadList<?, ?> list = (ReadList<?, ?>) o;
+      return vector == list.isVector()
+          && maxSize == list.maxSize()
+          && backedList.equals(list.listCopy());
+    }
     if (o == null || getClass() != o.getClass()) return false;
     ListImpl<?, ?> list = (ListImpl<?, ?>) o;
     return vector == list.vector
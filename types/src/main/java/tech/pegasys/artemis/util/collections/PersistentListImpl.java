@@ -0,0 +1,368 @@
+package tech.pegasys.artemis.util.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.jetbrains.annotations.NotNull;
+import tech.pegasys.artemis.util.collections.ListImpl.MaxSizeOverflowException;
+
+/**
+ * Persistent {@link WriteList} implementation, a two level tree of fixed size chunks.
+ *
+ * <p>A copy shares the tree with its source and takes O(1). Every list holds an {@link EditToken},
+ * chunks created by the list are marked with its token and are modified in place. A write to a
+ * chunk marked with other token copies the path to it, which is the root array and the chunk. A
+ * copy starts with a new token and freezes the token of its source, hence, neither of them
+ * modifies shared chunks.
+ *
+ * <p>Thread safety: copying doesn't modify fields of the source besides freezing its token, thus,
+ * a list could be read and copied by several threads at once. A write requires that no other
+ * thread reads or copies the list at the same time.
+ */
+class PersistentListImpl<IndexType extends Number, ValueType>
+    implements WriteList<IndexType, ValueType> {
+
+  private static final int CHUNK_BITS = 10;
+  private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+  private static final Chunk[] NO_CHUNKS = new Chunk[0];
+
+  private static final class Chunk {
+    private final EditToken owner;
+    private final Object[] values;
+
+    private Chunk(EditToken owner, Object[] values) {
+      this.owner = owner;
+      this.values = values;
+    }
+  }
+
+  private final Function<Integer, IndexType> indexConverter;
+  private final boolean vector;
+  private final long maxSize;
+
+  private EditToken token = new EditToken();
+  private Chunk[] root;
+  /** Token of the list which may modify root array in place, {@code null} if it's shared. */
+  private EditToken rootOwner;
+  private int size;
+
+  PersistentListImpl(Function<Integer, IndexType> indexConverter, boolean vector, long maxSize) {
+    this.indexConverter = indexConverter;
+    this.vector = vector;
+    this.maxSize = maxSize;
+    this.root = NO_CHUNKS;
+    this.rootOwner = null;
+    this.size = 0;
+  }
+
+  private PersistentListImpl(PersistentListImpl<IndexType, ValueType> source, long maxSize) {
+    checkCapacity(source.size, maxSize);
+    this.indexConverter = source.indexConverter;
+    this.vector = source.vector;
+    this.maxSize = maxSize;
+    this.root = source.root;
+    this.rootOwner = null;
+    this.size = source.size;
+    // the source keeps its tree but has to copy shared chunks on write
+    source.token.freeze();
+  }
+
+  @SuppressWarnings("unchecked")
+  private ValueType getValue(int index) {
+    return (ValueType) root[index >>> CHUNK_BITS].values[index & CHUNK_MASK];
+  }
+
+  private void setValue(int index, ValueType value) {
+    writableChunk(index >>> CHUNK_BITS)[index & CHUNK_MASK] = value;
+  }
+
+  private Object[] writableChunk(int chunkIndex) {
+    EditToken token = writableToken();
+    Chunk chunk = root[chunkIndex];
+    if (chunk.owner != token) {
+      chunk = new Chunk(token, chunk.values.clone());
+      writableRoot(token)[chunkIndex] = chunk;
+    }
+    return chunk.values;
+  }
+
+  private Chunk[] writableRoot(EditToken token) {
+    if (rootOwner != token) {
+      root = root.clone();
+      rootOwner = token;
+    }
+    return root;
+  }
+
+  /** Returns a token of this list, replaces the token if it's been frozen by a copy. */
+  private EditToken writableToken() {
+    if (token.isFrozen()) {
+      token = new EditToken();
+    }
+    return token;
+  }
+
+  private int checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return index;
+  }
+
+  private void checkCapacity(long newCapacity) {
+    checkCapacity(newCapacity, maxSize);
+  }
+
+  private void checkCapacity(long newCapacity, long maxSize) {
+    if (maxSize != VARIABLE_SIZE && newCapacity > maxSize) {
+      throw new MaxSizeOverflowException(
+          String.format(
+              "Cannot create collection, capacity %s is greater than maxSize of %s ",
+              newCapacity, maxSize));
+    }
+  }
+
+  private void append(ValueType value) {
+    checkCapacity(size + 1L);
+    int chunkIndex = size >>> CHUNK_BITS;
+    if (chunkIndex == root.length) {
+      EditToken token = writableToken();
+      root = Arrays.copyOf(root, chunkIndex + 1);
+      rootOwner = token;
+      root[chunkIndex] = new Chunk(token, new Object[CHUNK_SIZE]);
+    }
+    size++;
+    setValue(size - 1, value);
+  }
+
+  private void insert(int index, ValueType value) {
+    if (index < 0 || index > size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    append(value);
+    for (int i = size - 1; i > index; i--) {
+      setValue(i, getValue(i - 1));
+    }
+    setValue(index, value);
+  }
+
+  private ValueType removeAt(int index) {
+    ValueType ret = getValue(checkIndex(index));
+    for (int i = index; i < size - 1; i++) {
+      setValue(i, getValue(i + 1));
+    }
+    // releases reference to the removed tail value
+    setValue(size - 1, null);
+    size--;
+    return ret;
+  }
+
+  @Override
+  public IndexType size() {
+    return indexConverter.apply(size);
+  }
+
+  @Override
+  public ValueType get(IndexType index) {
+    return getValue(checkIndex(index.intValue()));
+  }
+
+  @Override
+  public ReadList<IndexType, ValueType> subList(IndexType fromIndex, IndexType toIndex) {
+    PersistentListImpl<IndexType, ValueType> ret =
+        new PersistentListImpl<>(indexConverter, vector, maxSize);
+    for (int i = fromIndex.intValue(); i < toIndex.intValue(); i++) {
+      ret.append(getValue(checkIndex(i)));
+    }
+    return ret;
+  }
+
+  @Override
+  public WriteList<IndexType, ValueType> createMutableCopy() {
+    return new PersistentListImpl<>(this, maxSize);
+  }
+
+  @Override
+  public ReadList<IndexType, ValueType> cappedCopy(long maxSize) {
+    assert !isVector();
+    return new PersistentListImpl<>(this, maxSize);
+  }
+
+  @Override
+  public ReadList<IndexType, ValueType> createImmutableCopy() {
+    return new PersistentListImpl<>(this, maxSize);
+  }
+
+  @NotNull
+  @Override
+  public Iterator<ValueType> iterator() {
+    return new Iterator<ValueType>() {
+      int idx = 0;
+
+      @Override
+      public boolean hasNext() {
+        return idx < size;
+      }
+
+      @Override
+      public ValueType next() {
+        if (idx >= size) {
+          throw new NoSuchElementException();
+        }
+        return getValue(idx++);
+      }
+    };
+  }
+
+  @Override
+  public Stream<ValueType> stream() {
+    return IntStream.range(0, size).mapToObj(this::getValue);
+  }
+
+  @Override
+  public List<ValueType> listCopy() {
+    List<ValueType> ret = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      ret.add(getValue(i));
+    }
+    return ret;
+  }
+
+  @Override
+  public boolean add(ValueType value) {
+    append(value);
+    return true;
+  }
+
+  @Override
+  public void add(IndexType index, ValueType element) {
+    insert(index.intValue(), element);
+  }
+
+  @Override
+  public boolean addAll(@NotNull Iterable<? extends ValueType> c) {
+    checkCapacity((long) size + ReadList.sizeOf(c));
+    boolean hasAny = false;
+    for (ValueType value : c) {
+      append(value);
+      hasAny = true;
+    }
+    return hasAny;
+  }
+
+  @Override
+  public boolean addAll(IndexType index, @NotNull Iterable<? extends ValueType> c) {
+    checkCapacity((long) size + ReadList.sizeOf(c));
+    int idx = index.intValue();
+    for (ValueType value : c) {
+      insert(idx++, value);
+    }
+    return idx > index.intValue();
+  }
+
+  @Override
+  public boolean remove(ValueType o) {
+    for (int i = 0; i < size; i++) {
+      if (Objects.equals(o, getValue(i))) {
+        removeAt(i);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public ValueType remove(IndexType index) {
+    return removeAt(index.intValue());
+  }
+
+  @Override
+  public void sort(Comparator<? super ValueType> c) {
+    List<ValueType> values = listCopy();
+    values.sort(c);
+    clear();
+    addAll(values);
+  }
+
+  @Override
+  public void clear() {
+    root = NO_CHUNKS;
+    rootOwner = null;
+    size = 0;
+  }
+
+  @Override
+  public ValueType set(IndexType index, ValueType element) {
+    int idx = checkIndex(index.intValue());
+    ValueType ret = getValue(idx);
+    setValue(idx, element);
+    return ret;
+  }
+
+  @Override
+  public void setAll(ValueType singleValue) {
+    for (int i = 0; i < size; i++) {
+      setValue(i, singleValue);
+    }
+  }
+
+  @Override
+  public void setAll(Iterable<ValueType> singleValue) {
+    Iterator<ValueType> it = singleValue.iterator();
+    int idx = 0;
+    while (it.hasNext() && idx < size) {
+      setValue(idx, it.next());
+      idx++;
+    }
+    if (it.hasNext() || idx < size) {
+      throw new IllegalArgumentException("The sizes of this vector and supplied collection differ");
+    }
+  }
+
+  @Override
+  public void retainAll(ReadList<IndexType, ValueType> other) {
+    List<ValueType> values = listCopy();
+    values.retainAll(other.listCopy());
+    clear();
+    addAll(values);
+  }
+
+  @Override
+  public boolean isVector() {
+    return vector;
+  }
+
+  @Override
+  public long maxSize() {
+    return maxSize;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof ReadList)) return false;
+    ReadList<?, ?> list = (ReadList<?, ?>) o;
+    if (vector != list.isVector()
+        || maxSize != list.maxSize()
+        || size != list.size().intValue()) {
+      return false;
+    }
+    if (o instanceof PersistentListImpl && ((PersistentListImpl<?, ?>) o).root == root) {
+      return true;
+    }
+    return listCopy().equals(list.listCopy());
+  }
+
+  @Override
+  public int hashCode() {
+    return listCopy().hashCode();
+  }
+}
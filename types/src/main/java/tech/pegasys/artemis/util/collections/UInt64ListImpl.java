@@ -0,0 +1,390 @@
+package tech.pegasys.artemis.util.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.jetbrains.annotations.NotNull;
+import tech.pegasys.artemis.util.collections.ListImpl.MaxSizeOverflowException;
+import tech.pegasys.artemis.util.uint.UInt64;
+
+/**
+ * {@link WriteUInt64List} implementation backed by chunks of primitive longs.
+ *
+ * <p>Chunks are shared between copies and are copied on first write, hence, a copy of a list
+ * costs a number of chunks rather than a number of values, and a copy which is modified in a
+ * few places holds only chunks that were modified. Chunks which a list may modify in place are
+ * marked with its {@link EditToken}, a copy freezes the token of its source.
+ *
+ * <p>Thread safety: copying doesn't modify fields of the source besides freezing its token, thus,
+ * a list could be read and copied by several threads at once. A write requires that no other
+ * thread reads or copies the list at the same time.
+ */
+class UInt64ListImpl<IndexType extends Number, ValueType extends UInt64>
+    implements WriteUInt64List<IndexType, ValueType> {
+
+  private static final int CHUNK_BITS = 10;
+  private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+  private static final long[][] NO_CHUNKS = new long[0][];
+
+  private final Function<Integer, IndexType> indexConverter;
+  private final LongFunction<ValueType> valueConverter;
+  private final boolean vector;
+  private final long maxSize;
+
+  private EditToken token = new EditToken();
+  private long[][] chunks;
+  /** Tokens of lists which may modify chunks in place. */
+  private EditToken[] owners;
+  private int size;
+
+  UInt64ListImpl(
+      Function<Integer, IndexType> indexConverter,
+      LongFunction<ValueType> valueConverter,
+      boolean vector,
+      long maxSize) {
+    this.indexConverter = indexConverter;
+    this.valueConverter = valueConverter;
+    this.vector = vector;
+    this.maxSize = maxSize;
+    this.chunks = NO_CHUNKS;
+    this.owners = new EditToken[0];
+    this.size = 0;
+  }
+
+  private UInt64ListImpl(UInt64ListImpl<IndexType, ValueType> source, long maxSize) {
+    checkCapacity(source.size, maxSize);
+    this.indexConverter = source.indexConverter;
+    this.valueConverter = source.valueConverter;
+    this.vector = source.vector;
+    this.maxSize = maxSize;
+    this.chunks = source.chunks.clone();
+    this.owners = new EditToken[chunks.length];
+    this.size = source.size;
+    // chunks become shared, the source has to copy them on write as well
+    source.token.freeze();
+  }
+
+  @Override
+  public IndexType size() {
+    return indexConverter.apply(size);
+  }
+
+  @Override
+  public long getLong(IndexType index) {
+    return getLong(checkIndex(index.intValue()));
+  }
+
+  private long getLong(int index) {
+    return chunks[index >>> CHUNK_BITS][index & CHUNK_MASK];
+  }
+
+  @Override
+  public void setLong(IndexType index, long value) {
+    setLong(checkIndex(index.intValue()), value);
+  }
+
+  private void setLong(int index, long value) {
+    writableChunk(index >>> CHUNK_BITS)[index & CHUNK_MASK] = value;
+  }
+
+  private long[] writableChunk(int chunkIndex) {
+    EditToken token = writableToken();
+    if (owners[chunkIndex] != token) {
+      chunks[chunkIndex] = chunks[chunkIndex].clone();
+      owners[chunkIndex] = token;
+    }
+    return chunks[chunkIndex];
+  }
+
+  /** Returns a token of this list, replaces the token if it's been frozen by a copy. */
+  private EditToken writableToken() {
+    if (token.isFrozen()) {
+      token = new EditToken();
+    }
+    return token;
+  }
+
+  private int checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return index;
+  }
+
+  private void checkCapacity(long newCapacity) {
+    checkCapacity(newCapacity, maxSize);
+  }
+
+  private void checkCapacity(long newCapacity, long maxSize) {
+    if (maxSize != VARIABLE_SIZE && newCapacity > maxSize) {
+      throw new MaxSizeOverflowException(
+          String.format(
+              "Cannot create collection, capacity %s is greater than maxSize of %s ",
+              newCapacity, maxSize));
+    }
+  }
+
+  private void appendLong(long value) {
+    checkCapacity(size + 1L);
+    int chunkIndex = size >>> CHUNK_BITS;
+    if (chunkIndex == chunks.length) {
+      chunks = Arrays.copyOf(chunks, chunkIndex + 1);
+      owners = Arrays.copyOf(owners, chunkIndex + 1);
+      chunks[chunkIndex] = new long[CHUNK_SIZE];
+      owners[chunkIndex] = writableToken();
+    }
+    size++;
+    setLong(size - 1, value);
+  }
+
+  private void insertLong(int index, long value) {
+    if (index < 0 || index > size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    appendLong(value);
+    for (int i = size - 1; i > index; i--) {
+      setLong(i, getLong(i - 1));
+    }
+    setLong(index, value);
+  }
+
+  private long removeLong(int index) {
+    long ret = getLong(checkIndex(index));
+    for (int i = index; i < size - 1; i++) {
+      setLong(i, getLong(i + 1));
+    }
+    size--;
+    return ret;
+  }
+
+  private void replaceAllLongs(long[] values) {
+    clear();
+    for (long value : values) {
+      appendLong(value);
+    }
+  }
+
+  private long[] toLongArray() {
+    long[] ret = new long[size];
+    for (int i = 0; i < size; i++) {
+      ret[i] = getLong(i);
+    }
+    return ret;
+  }
+
+  @Override
+  public ValueType get(IndexType index) {
+    return valueConverter.apply(getLong(index));
+  }
+
+  @Override
+  public ReadList<IndexType, ValueType> subList(IndexType fromIndex, IndexType toIndex) {
+    UInt64ListImpl<IndexType, ValueType> ret =
+        new UInt64ListImpl<>(indexConverter, valueConverter, vector, maxSize);
+    for (int i = fromIndex.intValue(); i < toIndex.intValue(); i++) {
+      ret.appendLong(getLong(checkIndex(i)));
+    }
+    return ret;
+  }
+
+  @Override
+  public WriteUInt64List<IndexType, ValueType> createMutableCopy() {
+    return new UInt64ListImpl<>(this, maxSize);
+  }
+
+  @Override
+  public ReadList<IndexType, ValueType> cappedCopy(long maxSize) {
+    assert !isVector();
+    return new UInt64ListImpl<>(this, maxSize);
+  }
+
+  @Override
+  public ReadList<IndexType, ValueType> createImmutableCopy() {
+    return new UInt64ListImpl<>(this, maxSize);
+  }
+
+  @NotNull
+  @Override
+  public Iterator<ValueType> iterator() {
+    return new Iterator<ValueType>() {
+      int idx = 0;
+
+      @Override
+      public boolean hasNext() {
+        return idx < size;
+      }
+
+      @Override
+      public ValueType next() {
+        if (idx >= size) {
+          throw new NoSuchElementException();
+        }
+        return valueConverter.apply(getLong(idx++));
+      }
+    };
+  }
+
+  @Override
+  public Stream<ValueType> stream() {
+    return IntStream.range(0, size).mapToObj(i -> valueConverter.apply(getLong(i)));
+  }
+
+  @Override
+  public List<ValueType> listCopy() {
+    List<ValueType> ret = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      ret.add(valueConverter.apply(getLong(i)));
+    }
+    return ret;
+  }
+
+  @Override
+  public boolean add(ValueType value) {
+    appendLong(value.getValue());
+    return true;
+  }
+
+  @Override
+  public void add(IndexType index, ValueType element) {
+    insertLong(index.intValue(), element.getValue());
+  }
+
+  @Override
+  public boolean addAll(@NotNull Iterable<? extends ValueType> c) {
+    checkCapacity((long) size + ReadList.sizeOf(c));
+    boolean hasAny = false;
+    for (ValueType value : c) {
+      appendLong(value.getValue());
+      hasAny = true;
+    }
+    return hasAny;
+  }
+
+  @Override
+  public boolean addAll(IndexType index, @NotNull Iterable<? extends ValueType> c) {
+    checkCapacity((long) size + ReadList.sizeOf(c));
+    int idx = index.intValue();
+    for (ValueType value : c) {
+      insertLong(idx++, value.getValue());
+    }
+    return idx > index.intValue();
+  }
+
+  @Override
+  public boolean remove(ValueType o) {
+    if (o == null) {
+      return false;
+    }
+    for (int i = 0; i < size; i++) {
+      if (getLong(i) == o.getValue()) {
+        removeLong(i);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public ValueType remove(IndexType index) {
+    return valueConverter.apply(removeLong(index.intValue()));
+  }
+
+  @Override
+  public void sort(Comparator<? super ValueType> c) {
+    List<ValueType> values = listCopy();
+    values.sort(c);
+    clear();
+    addAll(values);
+  }
+
+  @Override
+  public void clear() {
+    chunks = NO_CHUNKS;
+    owners = new EditToken[0];
+    size = 0;
+  }
+
+  @Override
+  public ValueType set(IndexType index, ValueType element) {
+    int idx = checkIndex(index.intValue());
+    long ret = getLong(idx);
+    setLong(idx, element.getValue());
+    return valueConverter.apply(ret);
+  }
+
+  @Override
+  public void setAll(ValueType singleValue) {
+    for (int i = 0; i < size; i++) {
+      setLong(i, singleValue.getValue());
+    }
+  }
+
+  @Override
+  public void setAll(Iterable<ValueType> singleValue) {
+    Iterator<ValueType> it = singleValue.iterator();
+    int idx = 0;
+    while (it.hasNext() && idx < size) {
+      setLong(idx, it.next().getValue());
+      idx++;
+    }
+    if (it.hasNext() || idx < size) {
+      throw new IllegalArgumentException("The sizes of this vector and supplied collection differ");
+    }
+  }
+
+  @Override
+  public void retainAll(ReadList<IndexType, ValueType> other) {
+    Set<Long> retained = new HashSet<>();
+    for (ValueType value : other) {
+      retained.add(value.getValue());
+    }
+    replaceAllLongs(Arrays.stream(toLongArray()).filter(retained::contains).toArray());
+  }
+
+  @Override
+  public boolean isVector() {
+    return vector;
+  }
+
+  @Override
+  public long maxSize() {
+    return maxSize;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof ReadList)) return false;
+    ReadList<?, ?> list = (ReadList<?, ?>) o;
+    if (vector != list.isVector()
+        || maxSize != list.maxSize()
+        || size != list.size().intValue()) {
+      return false;
+    }
+    if (o instanceof UInt64ListImpl) {
+      UInt64ListImpl<?, ?> other = (UInt64ListImpl<?, ?>) o;
+      for (int i = 0; i < size; i++) {
+        if (getLong(i) != other.getLong(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return listCopy().equals(list.listCopy());
+  }
+
+  @Override
+  public int hashCode() {
+    return listCopy().hashCode();
+  }
+}
@@ -39,6 +39,15 @@ public interface WriteList<IndexType extends Number, ValueType>
     return new ListImpl<>(indexConverter, vector, maxSize);
   }
 
+  /**
+   * Creates a persistent list, its copies take constant time and share unmodified elements, see
+   * {@link PersistentListImpl}.
+   */
+  static <IndexType extends Number, ValueType> WriteList<IndexType, ValueType>
+  createPersistent(Function<Integer, IndexType> indexConverter, boolean vector, long maxSize) {
+    return new PersistentListImpl<>(indexConverter, vector, maxSize);
+  }
+
   boolean add(ValueType valueType);
 
   boolean remove(ValueType o);
@@ -0,0 +1,55 @@
+package tech.pegasys.artemis.util.collections;
+
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import tech.pegasys.artemis.util.uint.UInt64;
+
+/**
+ * {@link WriteList} of uint64 values which are stored as primitive longs.
+ *
+ * <p>{@link #getLong(Number)} and {@link #setLong(Number, long)} access values without boxing,
+ * regular accessors convert values with a supplied value converter.
+ */
+public interface WriteUInt64List<IndexType extends Number, ValueType extends UInt64>
+    extends WriteList<IndexType, ValueType> {
+
+  static <IndexType extends Number, ValueType extends UInt64>
+      WriteUInt64List<IndexType, ValueType> create(
+          Function<Integer, IndexType> indexConverter, LongFunction<ValueType> valueConverter) {
+    return WriteUInt64List.create(indexConverter, valueConverter, false, VARIABLE_SIZE);
+  }
+
+  static <IndexType extends Number, ValueType extends UInt64>
+      WriteUInt64List<IndexType, ValueType> create(
+          Function<Integer, IndexType> indexConverter,
+          LongFunction<ValueType> valueConverter,
+          long maxSize) {
+    return WriteUInt64List.create(indexConverter, valueConverter, false, maxSize);
+  }
+
+  static <IndexType extends Number, ValueType extends UInt64>
+      WriteUInt64List<IndexType, ValueType> create(
+          Function<Integer, IndexType> indexConverter,
+          LongFunction<ValueType> valueConverter,
+          boolean vector) {
+    return WriteUInt64List.create(indexConverter, valueConverter, vector, VARIABLE_SIZE);
+  }
+
+  static <IndexType extends Number, ValueType extends UInt64>
+      WriteUInt64List<IndexType, ValueType> create(
+          Function<Integer, IndexType> indexConverter,
+          LongFunction<ValueType> valueConverter,
+          boolean vector,
+          long maxSize) {
+    return new UInt64ListImpl<>(indexConverter, valueConverter, vector, maxSize);
+  }
+
+  /** @return unsigned value at the given index. */
+  long getLong(IndexType index);
+
+  /** Sets unsigned value at the given index. */
+  void setLong(IndexType index, long value);
+
+  @Override
+  WriteUInt64List<IndexType, ValueType> createMutableCopy();
+}
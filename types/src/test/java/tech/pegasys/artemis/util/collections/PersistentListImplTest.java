@@ -0,0 +1,124 @@
+package tech.pegasys.artemis.util.collections;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PersistentListImplTest {
+
+  @Test
+  public void copiesAreIndependent() {
+    WriteList<Integer, String> list =
+        WriteList.createPersistent(Integer::valueOf, false, ReadList.VARIABLE_SIZE);
+    for (int i = 0; i < 3000; i++) {
+      list.add("v" + i);
+    }
+    WriteList<Integer, String> copy1 = list.createMutableCopy();
+    WriteList<Integer, String> copy2 = copy1.createMutableCopy();
+    Assert.assertEquals(list, copy1);
+
+    list.set(1, "list");
+    copy1.set(1, "copy1");
+    copy2.add("tail");
+    copy1.set(2999, "copy1");
+
+    Assert.assertEquals("list", list.get(1));
+    Assert.assertEquals("copy1", copy1.get(1));
+    Assert.assertEquals("v1", copy2.get(1));
+    Assert.assertEquals("v2999", list.get(2999));
+    Assert.assertEquals("v2999", copy2.get(2999));
+    Assert.assertEquals(3000, list.size().intValue());
+    Assert.assertEquals(3001, copy2.size().intValue());
+    Assert.assertEquals("v2000", copy1.get(2000));
+  }
+
+  @Test
+  public void behavesAsList() {
+    WriteList<Integer, Long> list =
+        WriteList.createPersistent(Integer::valueOf, false, ReadList.VARIABLE_SIZE);
+    List<Long> expected = new ArrayList<>();
+    List<WriteList<Integer, Long>> snapshots = new ArrayList<>();
+    List<List<Long>> expectedSnapshots = new ArrayList<>();
+    Random rnd = new Random(1);
+
+    for (int i = 0; i < 3000; i++) {
+      Long value = rnd.nextLong();
+      switch (rnd.nextInt(4)) {
+        case 0:
+          int insertAt = rnd.nextInt(expected.size() + 1);
+          list.add(insertAt, value);
+          expected.add(insertAt, value);
+          break;
+        case 1:
+          if (!expected.isEmpty()) {
+            int removeAt = rnd.nextInt(expected.size());
+            Assert.assertEquals(expected.remove(removeAt), list.remove(removeAt));
+          }
+          break;
+        case 2:
+          if (!expected.isEmpty()) {
+            int setAt = rnd.nextInt(expected.size());
+            Assert.assertEquals(expected.set(setAt, value), list.set(setAt, value));
+          }
+          break;
+        default:
+          list.add(value);
+          expected.add(value);
+      }
+      if (i % 100 == 0) {
+        snapshots.add(list.createMutableCopy());
+        expectedSnapshots.add(new ArrayList<>(expected));
+      }
+    }
+
+    Assert.assertEquals(expected, list.listCopy());
+    Assert.assertEquals(list, ReadList.wrap(expected, Integer::valueOf));
+    Assert.assertEquals(ReadList.wrap(expected, Integer::valueOf), list);
+    for (int i = 0; i < snapshots.size(); i++) {
+      Assert.assertEquals(expectedSnapshots.get(i), snapshots.get(i).listCopy());
+    }
+  }
+
+  @Test
+  public void sourceIsCopiedConcurrently() throws Exception {
+    WriteList<Integer, String> list =
+        WriteList.createPersistent(Integer::valueOf, false, ReadList.VARIABLE_SIZE);
+    for (int i = 0; i < 3000; i++) {
+      list.add("v" + i);
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<WriteList<Integer, String>>> copies = new ArrayList<>();
+      for (int t = 0; t < 16; t++) {
+        String value = "copy" + t;
+        copies.add(
+            executor.submit(
+                () -> {
+                  WriteList<Integer, String> copy = list.createMutableCopy();
+                  for (int i = 0; i < copy.size(); i++) {
+                    copy.set(i, value);
+                  }
+                  return copy;
+                }));
+      }
+
+      for (int t = 0; t < copies.size(); t++) {
+        WriteList<Integer, String> copy = copies.get(t).get();
+        for (int i = 0; i < copy.size(); i++) {
+          Assert.assertEquals("copy" + t, copy.get(i));
+        }
+      }
+      for (int i = 0; i < list.size(); i++) {
+        Assert.assertEquals("v" + i, list.get(i));
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
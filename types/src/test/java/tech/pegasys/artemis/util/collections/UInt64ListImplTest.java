@@ -0,0 +1,123 @@
+package tech.pegasys.artemis.util.collections;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import tech.pegasys.artemis.util.uint.UInt64;
+
+public class UInt64ListImplTest {
+
+  @Test
+  public void copiesAreIndependent() {
+    WriteUInt64List<Integer, UInt64> list =
+        WriteUInt64List.create(Integer::valueOf, UInt64::valueOf);
+    for (int i = 0; i < 3000; i++) {
+      list.add(UInt64.valueOf(i));
+    }
+    WriteUInt64List<Integer, UInt64> copy = list.createMutableCopy();
+    Assert.assertEquals(list, copy);
+
+    copy.setLong(5, -1);
+    list.setLong(2500, 7);
+    copy.add(UInt64.valueOf(42));
+
+    Assert.assertEquals(5, list.getLong(5));
+    Assert.assertEquals(UInt64.MAX_VALUE, copy.get(5));
+    Assert.assertEquals(7, list.getLong(2500));
+    Assert.assertEquals(2500, copy.getLong(2500));
+    Assert.assertEquals(3000, list.size().intValue());
+    Assert.assertEquals(3001, copy.size().intValue());
+  }
+
+  @Test
+  public void behavesAsList() {
+    WriteUInt64List<Integer, UInt64> list =
+        WriteUInt64List.create(Integer::valueOf, UInt64::valueOf);
+    List<UInt64> expected = new ArrayList<>();
+    Random rnd = new Random(1);
+
+    for (int i = 0; i < 2000; i++) {
+      UInt64 value = UInt64.valueOf(rnd.nextLong());
+      switch (rnd.nextInt(4)) {
+        case 0:
+          int insertAt = rnd.nextInt(expected.size() + 1);
+          list.add(insertAt, value);
+          expected.add(insertAt, value);
+          break;
+        case 1:
+          if (!expected.isEmpty()) {
+            int removeAt = rnd.nextInt(expected.size());
+            Assert.assertEquals(expected.remove(removeAt), list.remove(removeAt));
+          }
+          break;
+        case 2:
+          if (!expected.isEmpty()) {
+            int setAt = rnd.nextInt(expected.size());
+            Assert.assertEquals(expected.set(setAt, value), list.set(setAt, value));
+          }
+          break;
+        default:
+          list.add(value);
+          expected.add(value);
+      }
+      if (i % 100 == 0) {
+        list = list.createMutableCopy();
+      }
+    }
+
+    Assert.assertEquals(expected, list.listCopy());
+    Assert.assertEquals(list, ReadList.wrap(expected, Integer::valueOf));
+  }
+
+  @Test(expected = ListImpl.MaxSizeOverflowException.class)
+  public void maxSizeIsChecked() {
+    WriteUInt64List<Integer, UInt64> list =
+        WriteUInt64List.create(Integer::valueOf, UInt64::valueOf, 2);
+    list.add(UInt64.ZERO);
+    list.add(UInt64.ZERO);
+    list.add(UInt64.ZERO);
+  }
+
+  @Test
+  public void sourceIsCopiedConcurrently() throws Exception {
+    WriteUInt64List<Integer, UInt64> list =
+        WriteUInt64List.create(Integer::valueOf, UInt64::valueOf);
+    for (int i = 0; i < 3000; i++) {
+      list.add(UInt64.valueOf(i));
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<WriteUInt64List<Integer, UInt64>>> copies = new ArrayList<>();
+      for (int t = 0; t < 16; t++) {
+        long value = -t - 1;
+        copies.add(
+            executor.submit(
+                () -> {
+                  WriteUInt64List<Integer, UInt64> copy = list.createMutableCopy();
+                  for (int i = 0; i < copy.size(); i++) {
+                    copy.setLong(i, value);
+                  }
+                  return copy;
+                }));
+      }
+
+      for (int t = 0; t < copies.size(); t++) {
+        WriteUInt64List<Integer, UInt64> copy = copies.get(t).get();
+        for (int i = 0; i < copy.size(); i++) {
+          Assert.assertEquals(-t - 1, copy.getLong(i));
+        }
+      }
+      for (int i = 0; i < list.size(); i++) {
+        Assert.assertEquals(i, list.getLong(i));
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
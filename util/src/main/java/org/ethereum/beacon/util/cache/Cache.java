@@ -18,4 +18,11 @@ public interface Cache<K, V> {
    * @return expected value result for provided key
    */
   V get(K key, Function<K, V> fallback);
+
+  /**
+   * Removes an entry from the cache, does nothing if there is no entry for the key.
+   *
+   * @param key Key to remove
+   */
+  default void remove(K key) {}
 }
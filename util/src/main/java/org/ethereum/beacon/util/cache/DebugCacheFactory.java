@@ -27,6 +27,11 @@ public class DebugCacheFactory implements CacheFactory {
           return cache.get(key, fallback);
         }
       }
+
+      @Override
+      public void remove(K key) {
+        cache.remove(key);
+      }
     };
   }
 }
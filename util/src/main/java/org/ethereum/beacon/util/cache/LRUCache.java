@@ -61,6 +61,11 @@ public class LRUCache<K, V> implements Cache<K, V> {
     return result;
   }
 
+  @Override
+  public void remove(K key) {
+    cacheData.remove(key);
+  }
+
   public Optional<V> getExisting(K key) {
     return Optional.ofNullable(cacheData.get(key));
   }
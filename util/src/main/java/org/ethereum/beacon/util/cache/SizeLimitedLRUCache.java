@@ -0,0 +1,120 @@
+package org.ethereum.beacon.util.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache made around LRU-map which is limited by a total size of its values rather than by a number
+ * of entries. Size of each value is given by a size evaluator, least recently used entries are
+ * evicted when the limit is exceeded.
+ *
+ * <p>A value which size exceeds the limit is not cached at all.
+ *
+ * @param <K> Keys type
+ * @param <V> Values type
+ */
+public class SizeLimitedLRUCache<K, V> implements Cache<K, V> {
+
+  private final LinkedHashMap<K, Entry<V>> cacheData = new LinkedHashMap<>(16, .75F, true);
+  private final Function<V, Long> sizeEvaluator;
+  private final long sizeLimit;
+  private long size = 0;
+
+  private final AtomicLong hits = new AtomicLong(0);
+  private final AtomicLong queries = new AtomicLong(0);
+
+  /**
+   * Creates cache
+   *
+   * @param sizeLimit Max total size of cached values
+   * @param sizeEvaluator Evaluates size of a value, in the same units as the limit
+   */
+  public SizeLimitedLRUCache(long sizeLimit, Function<V, Long> sizeEvaluator) {
+    this.sizeLimit = sizeLimit;
+    this.sizeEvaluator = sizeEvaluator;
+  }
+
+  /**
+   * Queries value from the cache. If it's not found there, fallback function is used to calculate
+   * value. After calculation result is put in cache and returned.
+   *
+   * @param key Key to query
+   * @param fallback Fallback function for calculation of the result in case of missed cache entry
+   * @return expected value result for provided key
+   */
+  @Override
+  public V get(K key, Function<K, V> fallback) {
+    Optional<V> cached = getExisting(key);
+    queries.incrementAndGet();
+
+    if (cached.isPresent()) {
+      hits.incrementAndGet();
+      return cached.get();
+    } else {
+      V result = fallback.apply(key);
+      put(key, result);
+      return result;
+    }
+  }
+
+  public synchronized Optional<V> getExisting(K key) {
+    Entry<V> entry = cacheData.get(key);
+    return entry == null ? Optional.empty() : Optional.of(entry.value);
+  }
+
+  public synchronized void put(K key, V value) {
+    long valueSize = sizeEvaluator.apply(value);
+    remove(key);
+    if (valueSize > sizeLimit) {
+      return;
+    }
+
+    cacheData.put(key, new Entry<>(value, valueSize));
+    size += valueSize;
+
+    Iterator<Entry<V>> eldest = cacheData.values().iterator();
+    while (size > sizeLimit && eldest.hasNext()) {
+      size -= eldest.next().size;
+      eldest.remove();
+    }
+  }
+
+  @Override
+  public synchronized void remove(K key) {
+    Entry<V> removed = cacheData.remove(key);
+    if (removed != null) {
+      size -= removed.size;
+    }
+  }
+
+  public synchronized long getSize() {
+    return size;
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getQueries() {
+    return queries.get();
+  }
+
+  /** @return ratio of hits to queries, {@code 0} if there were no queries yet. */
+  public double getHitRatio() {
+    long queries = this.queries.get();
+    return queries == 0 ? 0 : hits.doubleValue() / queries;
+  }
+
+  private static final class Entry<V> {
+    private final V value;
+    private final long size;
+
+    private Entry(V value, long size) {
+      this.value = value;
+      this.size = size;
+    }
+  }
+}
@@ -44,13 +44,17 @@ public class WireApiSyncServer implements WireApiSync {
               "Too many block roots requested: " + requestMessage.getCount()));
     } else {
       List<BlockRootSlot> roots = new ArrayList<>();
-      for (SlotNumber slot : requestMessage.getStartSlot().iterateTo(
-          requestMessage.getStartSlot().plus(requestMessage.getCount()))) {
-        List<Hash32> slotRoots = storage.getBlockStorage().getSlotBlocks(slot);
-        for (Hash32 slotRoot : slotRoots) {
-          roots.add(new BlockRootSlot(slotRoot, slot));
-        }
-      }
+      storage
+          .getBlockStorage()
+          .getSlotBlocks(
+              requestMessage.getStartSlot(),
+              requestMessage.getStartSlot().plus(requestMessage.getCount()))
+          .forEach(
+              (slot, slotRoots) -> {
+                for (Hash32 slotRoot : slotRoots) {
+                  roots.add(new BlockRootSlot(slotRoot, slot));
+                }
+              });
       ret.complete(new BlockRootsResponseMessage(roots));
     }
     return ret;
@@ -78,18 +82,18 @@ public class WireApiSyncServer implements WireApiSync {
         if (slot.greater(maxSlot)) {
           break;
         }
-        List<Hash32> slotBlocks = Collections.emptyList();
+        Optional<Hash32> slotBlock = Optional.empty();
         SlotNumber nonEmptySlot = slot;
         while (nonEmptySlot.greater(prevSlot)) {
-          slotBlocks = storage.getBlockStorage().getSlotBlocks(nonEmptySlot);
-          if (!slotBlocks.isEmpty()) {
+          slotBlock = storage.getBlockStorage().getFirstSlotBlock(nonEmptySlot);
+          if (slotBlock.isPresent()) {
             break;
           }
           nonEmptySlot = nonEmptySlot.decrement();
         }
 
         if (nonEmptySlot.greater(prevSlot)) {
-          headers.add(storage.getBlockHeaderStorage().get(slotBlocks.get(0)).get());
+          headers.add(storage.getBlockHeaderStorage().get(slotBlock.get()).get());
         }
         slot = slot.plus(increment);
         prevSlot = nonEmptySlot;
@@ -14,6 +14,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.stream.Collectors;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -47,6 +48,7 @@ public class SyncManagerImpl implements SyncManager {
 
   private static final Logger logger = LogManager.getLogger(SyncManagerImpl.class);
 
+  private final MutableBeaconChain chain;
   private final Publisher<BeaconTupleDetails> blockStatesStream;
   private final BeaconChainSpec spec;
   private final WireApiSync syncApi;
@@ -78,6 +80,7 @@ public class SyncManagerImpl implements SyncManager {
       int maxConcurrentBlockRequests,
       Schedulers schedulers) {
 
+    this.chain = chain;
     this.blockStatesStream = chain.getBlockStatesStream();
     this.newBlocks = newBlocks;
     this.spec = spec;
@@ -128,25 +131,7 @@ public class SyncManagerImpl implements SyncManager {
                 storage.getBlockStorage().get(root).orElseThrow(() -> new IllegalStateException()));
 
     readyBlocksStreamSub =
-        Flux.from(syncQueue.getBlocksStream())
-            .subscribe(
-                block -> {
-                  ImportResult result = chain.insert(block.get());
-                  if (result == InvalidBlock || result == StateMismatch || result == ExpiredBlock) {
-                    block.feedbackError(
-                        new WireInvalidConsensusDataException(
-                            "Couldn't insert block: " + block.get()));
-                  } else {
-                    block.feedbackSuccess();
-                    if (result == NoParent) {
-                      logger.warn("No parent for block: " + block.get());
-                    } else if (result == ExistingBlock) {
-                      logger.info("Trying to import existing block: " + block.get());
-                    } else if (result != OK) {
-                      logger.info("Other error importing block: " + block.get());
-                    }
-                  }
-                });
+        Flux.from(syncQueue.getBlockSegmentsStream()).subscribe(this::importBlocks);
 
     isSyncingProcessor = new SimpleProcessor<>(delayScheduler, "SyncManager.isSyncing", false);
     startSlotProcessor =
@@ -162,6 +147,53 @@ public class SyncManagerImpl implements SyncManager {
             .distinctUntilChanged();
   }
 
+  /**
+   * Imports a portion of ready blocks. In long sync mode a portion is a response to a block
+   * request, each chain of consecutive blocks of a portion is inserted as a segment with a single
+   * parent state lookup and a single storage commit.
+   */
+  private void importBlocks(List<Feedback<BeaconBlock>> blocks) {
+    int start = 0;
+    for (int i = 1; i <= blocks.size(); i++) {
+      if (i == blocks.size() || !isChild(blocks.get(i).get(), blocks.get(i - 1).get())) {
+        importSegment(blocks.subList(start, i));
+        start = i;
+      }
+    }
+  }
+
+  private boolean isChild(BeaconBlock block, BeaconBlock parent) {
+    return block.getParentRoot().equals(spec.signing_root(parent));
+  }
+
+  private void importSegment(List<Feedback<BeaconBlock>> segment) {
+    if (segment.size() == 1) {
+      onImported(segment.get(0), chain.insert(segment.get(0).get()));
+      return;
+    }
+    List<ImportResult> results =
+        chain.insertSegment(segment.stream().map(Feedback::get).collect(Collectors.toList()));
+    for (int i = 0; i < segment.size(); i++) {
+      onImported(segment.get(i), results.get(i));
+    }
+  }
+
+  private void onImported(Feedback<BeaconBlock> block, ImportResult result) {
+    if (result == InvalidBlock || result == StateMismatch || result == ExpiredBlock) {
+      block.feedbackError(
+          new WireInvalidConsensusDataException("Couldn't insert block: " + block.get()));
+    } else {
+      block.feedbackSuccess();
+      if (result == NoParent) {
+        logger.warn("No parent for block: " + block.get());
+      } else if (result == ExistingBlock) {
+        logger.info("Trying to import existing block: " + block.get());
+      } else if (result != OK) {
+        logger.info("Other error importing block: " + block.get());
+      }
+    }
+  }
+
   @Override
   public Publisher<Feedback<BeaconBlock>> getBlocksReadyToImport() {
     return syncQueue.getBlocksStream();
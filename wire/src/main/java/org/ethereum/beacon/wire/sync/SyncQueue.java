@@ -1,5 +1,6 @@
 package org.ethereum.beacon.wire.sync;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import org.ethereum.beacon.core.BeaconBlock;
@@ -35,6 +36,14 @@ public interface SyncQueue {
    */
   Publisher<Feedback<BeaconBlock>> getBlocksStream();
 
+  /**
+   * The same blocks as issued by {@link #getBlocksStream()} grouped by portions they became ready
+   * in, e.g. by a response to a block request. Blocks of a group are issued in the same order.
+   */
+  default Publisher<List<Feedback<BeaconBlock>>> getBlockSegmentsStream() {
+    return Flux.from(getBlocksStream()).map(Collections::singletonList);
+  }
+
   /**
    *  finalBlockRootStream notifies the {@link SyncQueue} on finalized blocks
    *  so the queue may stick to those blocks and perform necessary cleanup
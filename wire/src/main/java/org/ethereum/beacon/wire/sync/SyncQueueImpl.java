@@ -1,5 +1,6 @@
 package org.ethereum.beacon.wire.sync;
 
+import java.util.ArrayList;
 import java.util.List;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -19,6 +20,8 @@ public class SyncQueueImpl implements SyncQueue {
   private final int maxHeightFromFinal;
 
   private final ReplayProcessor<Feedback<BeaconBlock>> readyBlocks = ReplayProcessor.cacheLast();
+  private final ReplayProcessor<List<Feedback<BeaconBlock>>> readySegments =
+      ReplayProcessor.cacheLast();
   private final ReplayProcessor<Flux<BlockRequest>> blockRequests = ReplayProcessor.cacheLast();
   private BeaconBlock finalBlock;
 
@@ -42,6 +45,11 @@ public class SyncQueueImpl implements SyncQueue {
     return readyBlocks;
   }
 
+  @Override
+  public Publisher<List<Feedback<BeaconBlock>>> getBlockSegmentsStream() {
+    return readySegments;
+  }
+
   protected Flux<BlockRequest> createBlockRequests() {
     return Flux.generate(
         () -> finalBlock.getSlot(),
@@ -65,7 +73,17 @@ public class SyncQueueImpl implements SyncQueue {
     logger.warn("Invalid block received: " + block);
   }
 
-  protected void onNewBlock(Feedback<BeaconBlock> block) {
+  protected void onNewBlocks(Feedback<List<BeaconBlock>> blocks) {
+    List<Feedback<BeaconBlock>> ready = new ArrayList<>();
+    for (BeaconBlock block : blocks.get()) {
+      ready.addAll(onNewBlock(blocks.delegate(block)));
+    }
+    if (!ready.isEmpty()) {
+      readySegments.onNext(ready);
+    }
+  }
+
+  protected List<Feedback<BeaconBlock>> onNewBlock(Feedback<BeaconBlock> block) {
     block.getFeedback().whenComplete((v,t) -> {
       if (t != null) {
         onInvalidBlock(block.get());
@@ -73,7 +91,9 @@ public class SyncQueueImpl implements SyncQueue {
     });
 
     logger.trace(() -> String.format("Adding block %s to the tree", block.get()));
-    blockTree.addBlock(block).forEach(readyBlocks::onNext);
+    List<Feedback<BeaconBlock>> ready = blockTree.addBlock(block);
+    ready.forEach(readyBlocks::onNext);
+    return ready;
   }
 
   @Override
@@ -83,8 +103,6 @@ public class SyncQueueImpl implements SyncQueue {
 
   @Override
   public Disposable subscribeToNewBlocks(Publisher<Feedback<List<BeaconBlock>>> blocksStream) {
-    return Flux.from(blocksStream)
-        .flatMap(resp -> Flux.fromStream(resp.get().stream().map(resp::delegate)))
-        .subscribe(this::onNewBlock);
+    return Flux.from(blocksStream).subscribe(this::onNewBlocks);
   }
 }